@@ -0,0 +1,109 @@
+package com.mycompany.myapp.cache;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.Objects;
+
+/**
+ * The eviction of a cache entry, or of all the entries of a cache, to be applied by the other instances.
+ * <p>
+ * Only keys which are strings or numbers are sent as they are: an eviction with any other key clears the cache on the
+ * other instances.
+ */
+public final class CacheInvalidation {
+
+    public enum Type {
+        /**
+         * A Spring cache, keyed as the application keys it.
+         */
+        SPRING,
+        /**
+         * A second-level cache region of an entity, keyed by identifier.
+         */
+        ENTITY,
+        /**
+         * A second-level cache region of a collection, keyed by the identifier of its owner.
+         */
+        COLLECTION,
+        /**
+         * The version of a table, in {@link TableVersions}, not keyed.
+         */
+        TABLE,
+    }
+
+    private final Type type;
+
+    private final String region;
+
+    private final Object key;
+
+    private final String tenant;
+
+    @JsonCreator
+    public CacheInvalidation(
+        @JsonProperty("type") Type type,
+        @JsonProperty("region") String region,
+        @JsonProperty("key") Object key,
+        @JsonProperty("tenant") String tenant
+    ) {
+        this.type = Objects.requireNonNull(type);
+        this.region = Objects.requireNonNull(region);
+        this.key = key instanceof String || key instanceof Number ? key : null;
+        this.tenant = tenant;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getRegion() {
+        return region;
+    }
+
+    /**
+     * Get the key of the evicted entry.
+     *
+     * @return the key, or {@code null} if the whole cache is cleared.
+     */
+    public Object getKey() {
+        return key;
+    }
+
+    public String getTenant() {
+        return tenant;
+    }
+
+    /**
+     * Check if this invalidation also evicts the entry of another one.
+     *
+     * @param other the other invalidation.
+     * @return true if this invalidation clears the cache of the other one, for the same tenant.
+     */
+    boolean covers(CacheInvalidation other) {
+        return key == null && type == other.type && region.equals(other.region) && Objects.equals(tenant, other.tenant);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CacheInvalidation)) {
+            return false;
+        }
+        CacheInvalidation that = (CacheInvalidation) o;
+        return (
+            type == that.type && region.equals(that.region) && Objects.equals(key, that.key) && Objects.equals(tenant, that.tenant)
+        );
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(type, region, key, tenant);
+    }
+
+    @Override
+    public String toString() {
+        return "CacheInvalidation{type=" + type + ", region='" + region + "', key=" + key + ", tenant='" + tenant + "'}";
+    }
+}
@@ -0,0 +1,223 @@
+package com.mycompany.myapp.cache;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.myapp.config.ApplicationProperties;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Broadcasts the evictions of the caches of this instance to the other instances, and applies theirs.
+ * <p>
+ * Evictions are collected for {@code application.cache.invalidation.batch-interval-millis}, or until
+ * {@code max-batch-size} are pending, and sent together in a single message: repeated evictions of the same entry are
+ * sent once, and the evictions of the entries of a cleared cache are dropped. Each instance ignores the messages it sent
+ * itself, its own caches being already evicted.
+ * <p>
+ * Delivery is best effort: an eviction lost in transit leaves the entry on the other instances until it expires.
+ */
+public class CacheInvalidationBus implements SmartLifecycle {
+
+    private final Logger log = LoggerFactory.getLogger(CacheInvalidationBus.class);
+
+    private final String origin = UUID.randomUUID().toString();
+
+    private final CacheInvalidationTransport transport;
+
+    private final ObjectMapper objectMapper;
+
+    private final long batchIntervalMillis;
+
+    private final int maxBatchSize;
+
+    private final Map<CacheInvalidation.Type, List<Consumer<CacheInvalidation>>> handlers = new EnumMap<>(CacheInvalidation.Type.class);
+
+    private Set<CacheInvalidation> pending = new LinkedHashSet<>();
+
+    private ScheduledExecutorService scheduler;
+
+    private volatile boolean running;
+
+    public CacheInvalidationBus(
+        CacheInvalidationTransport transport,
+        ObjectMapper objectMapper,
+        ApplicationProperties.Invalidation properties
+    ) {
+        this.transport = transport;
+        this.objectMapper = objectMapper;
+        this.batchIntervalMillis = properties.getBatchIntervalMillis();
+        this.maxBatchSize = properties.getMaxBatchSize();
+        for (CacheInvalidation.Type type : CacheInvalidation.Type.values()) {
+            handlers.put(type, new CopyOnWriteArrayList<>());
+        }
+    }
+
+    /**
+     * Register the handler applying the invalidations of a type received from the other instances.
+     *
+     * @param type the type of the invalidations.
+     * @param handler the handler.
+     */
+    public void subscribe(CacheInvalidation.Type type, Consumer<CacheInvalidation> handler) {
+        handlers.get(type).add(handler);
+    }
+
+    /**
+     * Broadcast an invalidation with the next batch.
+     *
+     * @param invalidation the invalidation.
+     */
+    public void publish(CacheInvalidation invalidation) {
+        boolean full;
+        synchronized (this) {
+            pending.add(invalidation);
+            full = pending.size() >= maxBatchSize;
+        }
+        if (full && running) {
+            scheduler.execute(this::flush);
+        }
+    }
+
+    /**
+     * Broadcast an invalidation once the current transaction is committed, so that the other instances cannot cache
+     * the previous state again before the change is visible to them. It is dropped if the transaction is rolled back.
+     *
+     * @param invalidation the invalidation.
+     */
+    public void publishAfterCommit(CacheInvalidation invalidation) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        publish(invalidation);
+                    }
+                }
+            );
+        } else {
+            publish(invalidation);
+        }
+    }
+
+    /**
+     * Send the pending invalidations.
+     */
+    public void flush() {
+        Set<CacheInvalidation> batch;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = pending;
+            pending = new LinkedHashSet<>();
+        }
+        List<CacheInvalidation> clears = batch.stream().filter(invalidation -> invalidation.getKey() == null).collect(Collectors.toList());
+        List<CacheInvalidation> invalidations = batch
+            .stream()
+            .filter(invalidation -> invalidation.getKey() == null || clears.stream().noneMatch(clear -> clear.covers(invalidation)))
+            .collect(Collectors.toList());
+        for (int from = 0; from < invalidations.size(); from += maxBatchSize) {
+            List<CacheInvalidation> chunk = invalidations.subList(from, Math.min(from + maxBatchSize, invalidations.size()));
+            try {
+                transport.send(objectMapper.writeValueAsString(new Message(origin, new ArrayList<>(chunk))));
+            } catch (JsonProcessingException | RuntimeException e) {
+                log.warn("Could not broadcast {} cache invalidations: {}", chunk.size(), e.toString());
+            }
+        }
+    }
+
+    private void receive(String payload) {
+        Message message;
+        try {
+            message = objectMapper.readValue(payload, Message.class);
+        } catch (JsonProcessingException e) {
+            log.warn("Ignoring an invalid cache invalidation message: {}", e.getMessage());
+            return;
+        }
+        if (origin.equals(message.getOrigin())) {
+            return;
+        }
+        for (CacheInvalidation invalidation : message.getInvalidations()) {
+            for (Consumer<CacheInvalidation> handler : handlers.get(invalidation.getType())) {
+                try {
+                    handler.accept(invalidation);
+                } catch (RuntimeException e) {
+                    log.warn("Could not apply {}: {}", invalidation, e.toString());
+                }
+            }
+        }
+    }
+
+    @Override
+    public void start() {
+        scheduler =
+            Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "multidbs-cache-invalidation");
+                thread.setDaemon(true);
+                return thread;
+            });
+        scheduler.scheduleWithFixedDelay(this::flush, batchIntervalMillis, batchIntervalMillis, TimeUnit.MILLISECONDS);
+        transport.start(this::receive);
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(batchIntervalMillis * 10, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        transport.stop();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * The invalidations sent together by an instance.
+     */
+    static class Message {
+
+        private final String origin;
+
+        private final List<CacheInvalidation> invalidations;
+
+        @JsonCreator
+        Message(@JsonProperty("origin") String origin, @JsonProperty("invalidations") List<CacheInvalidation> invalidations) {
+            this.origin = origin;
+            this.invalidations = invalidations;
+        }
+
+        public String getOrigin() {
+            return origin;
+        }
+
+        public List<CacheInvalidation> getInvalidations() {
+            return invalidations;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.mycompany.myapp.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries the messages of the {@link CacheInvalidationBus} to every instance of the application.
+ * <p>
+ * A message sent is delivered to all the started transports, possibly including the sender, at most once each.
+ */
+public interface CacheInvalidationTransport {
+    /**
+     * Start receiving messages.
+     *
+     * @param receiver called with each message received.
+     */
+    void start(Consumer<String> receiver);
+
+    /**
+     * Send a message to the other instances.
+     *
+     * @param message the message.
+     * @throws RuntimeException if the message could not be sent.
+     */
+    void send(String message);
+
+    /**
+     * Stop receiving messages.
+     */
+    void stop();
+}
@@ -0,0 +1,310 @@
+package com.mycompany.myapp.cache;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.ehcache.core.InternalCache;
+import org.ehcache.core.internal.statistics.DefaultCacheStatistics;
+import org.ehcache.core.statistics.TierStatistics;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes the statistics of each cache of the JCache cache manager, Spring caches and second-level cache regions
+ * alike: hits, misses, puts, evictions, removals and the average duration of the reads and writes, as well as the number
+ * of entries and an estimate of the memory they use.
+ * <p>
+ * The statistics are read from the JCache statistics beans. The number of entries is read from the statistics of the
+ * tiers with Ehcache, and from the estimated size of the cache with Caffeine. The memory is estimated every
+ * {@code application.cache.metrics.footprint-interval-millis}, by serializing a sample of the entries: it is the one the
+ * entries would take in the off-heap and disk tiers, which store them serialized. Ehcache counts each entry read so as
+ * a hit, which is not published. The memory actually used by the off-heap and disk tiers is read from their statistics.
+ */
+@Component
+public class CacheMetrics implements MeterBinder {
+
+    private static final String STATISTICS = "javax.cache:type=CacheStatistics,*";
+
+    private static final double MICROSECONDS_PER_SECOND = 1_000_000;
+
+    private final Logger log = LoggerFactory.getLogger(CacheMetrics.class);
+
+    private final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+
+    private final ConcurrentMap<String, Footprint> footprints = new ConcurrentHashMap<>();
+
+    private final CacheManager cacheManager;
+
+    private final int sampleSize;
+
+    private final boolean iterationCountsHits;
+
+    public CacheMetrics(CacheManager cacheManager, ApplicationProperties applicationProperties) {
+        this.cacheManager = cacheManager;
+        this.sampleSize = applicationProperties.getCache().getMetrics().getFootprintSampleSize();
+        this.iterationCountsHits = cacheManager.getCachingProvider() instanceof EhcacheCachingProvider;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (String cacheName : cacheManager.getCacheNames()) {
+            ObjectName statistics = statisticsName(cacheName);
+            if (statistics == null) {
+                log.debug("No statistics for the cache {}", cacheName);
+                continue;
+            }
+            Footprint footprint = footprints.computeIfAbsent(cacheName, Footprint::new);
+            Tags tags = Tags.of("cache", cacheName);
+            FunctionCounter
+                .builder("cache.gets", footprint, measured -> measured.hits(statistics))
+                .tags(tags)
+                .tag("result", "hit")
+                .description("Reads of the cache which found an entry")
+                .register(registry);
+            counter(
+                registry,
+                "cache.gets",
+                statistics,
+                "CacheMisses",
+                tags.and("result", "miss"),
+                "Reads of the cache which found no entry"
+            );
+            counter(registry, "cache.puts", statistics, "CachePuts", tags, "Writes to the cache");
+            counter(registry, "cache.evictions", statistics, "CacheEvictions", tags, "Entries evicted to make room for others");
+            counter(registry, "cache.removals", statistics, "CacheRemovals", tags, "Entries removed from the cache");
+            latency(registry, "cache.gets.latency", statistics, "AverageGetTime", tags, "Average duration of the reads of the cache");
+            latency(registry, "cache.puts.latency", statistics, "AveragePutTime", tags, "Average duration of the writes to the cache");
+            Gauge
+                .builder("cache.size", footprint, measured -> measured.entries)
+                .tags(tags)
+                .description("Number of entries in the cache, when last measured")
+                .register(registry);
+            Gauge
+                .builder("cache.memory.estimated", footprint, measured -> measured.bytes)
+                .tags(tags)
+                .baseUnit(BaseUnits.BYTES)
+                .description("Estimated size of the entries of the cache once serialized, when last measured")
+                .register(registry);
+            footprint.tierStatistics.forEach((tier, tierStatistics) -> {
+                // The heap tiers sized in entries do not measure their memory
+                if (tierStatistics.getOccupiedByteSize() >= 0) {
+                    Gauge
+                        .builder("cache.tier.memory", tierStatistics, TierStatistics::getOccupiedByteSize)
+                        .tags(tags)
+                        .tag("tier", tier)
+                        .baseUnit(BaseUnits.BYTES)
+                        .description("Memory used by the entries in a tier of the cache")
+                        .register(registry);
+                }
+            });
+        }
+    }
+
+    /**
+     * Measure the number of entries of each cache and the memory they use.
+     */
+    @Scheduled(fixedDelayString = "${application.cache.metrics.footprint-interval-millis:300000}")
+    public void measureFootprints() {
+        footprints.values().forEach(Footprint::measure);
+    }
+
+    private void counter(MeterRegistry registry, String name, ObjectName statistics, String attribute, Tags tags, String description) {
+        FunctionCounter
+            .builder(name, statistics, measured -> attribute(measured, attribute))
+            .tags(tags)
+            .description(description)
+            .register(registry);
+    }
+
+    private void latency(MeterRegistry registry, String name, ObjectName statistics, String attribute, Tags tags, String description) {
+        Gauge
+            .builder(name, statistics, measured -> attribute(measured, attribute) / MICROSECONDS_PER_SECOND)
+            .tags(tags)
+            .baseUnit("seconds")
+            .description(description)
+            .register(registry);
+    }
+
+    private ObjectName statisticsName(String cacheName) {
+        try {
+            Set<ObjectName> names = mBeanServer.queryNames(new ObjectName(STATISTICS), null);
+            for (ObjectName name : names) {
+                if (cacheName.equals(name.getKeyProperty("Cache"))) {
+                    return name;
+                }
+            }
+        } catch (JMException e) {
+            log.warn("Could not look up the statistics of the cache {}: {}", cacheName, e.getMessage());
+        }
+        return null;
+    }
+
+    private double attribute(ObjectName statistics, String attribute) {
+        try {
+            return ((Number) mBeanServer.getAttribute(statistics, attribute)).doubleValue();
+        } catch (JMException e) {
+            return Double.NaN;
+        }
+    }
+
+    /**
+     * The entries of a cache and the memory they use, and the hits counted while reading them.
+     */
+    private final class Footprint {
+
+        private final String cacheName;
+
+        /**
+         * Statistics of the tiers of an Ehcache cache, by tier name.
+         */
+        private final Map<String, TierStatistics> tierStatistics;
+
+        private final AtomicLong iterationHits = new AtomicLong();
+
+        private final AtomicLong reportedHits = new AtomicLong();
+
+        private volatile long entries;
+
+        private volatile long bytes;
+
+        Footprint(String cacheName) {
+            this.cacheName = cacheName;
+            this.tierStatistics = tierStatistics(cacheManager.getCache(cacheName));
+        }
+
+        /**
+         * Get the hits of the cache, without the ones counted while reading its entries. The hits are counted by the
+         * cache while the entries are read, and only deducted once they are all read: the hits published meanwhile are
+         * held, so that they never decrease.
+         */
+        double hits(ObjectName statistics) {
+            double hits = attribute(statistics, "CacheHits");
+            if (Double.isNaN(hits)) {
+                return hits;
+            }
+            return reportedHits.accumulateAndGet((long) hits - iterationHits.get(), Math::max);
+        }
+
+        /**
+         * Measure the entries of the cache, reading the sample of them only, unless the cache cannot tell how many
+         * entries it has.
+         */
+        synchronized void measure() {
+            Cache<Object, Object> cache = cacheManager.getCache(cacheName);
+            if (cache == null) {
+                return;
+            }
+            long size = size(cache);
+            long read = 0;
+            long sampled = 0;
+            long sampledBytes = 0;
+            try {
+                // Ehcache reads the next entry ahead, when asked whether there is one
+                Iterator<Cache.Entry<Object, Object>> iterator = cache.iterator();
+                while ((read < sampleSize || size < 0) && iterator.hasNext()) {
+                    Cache.Entry<Object, Object> entry = iterator.next();
+                    read++;
+                    if (read <= sampleSize) {
+                        long entryBytes = serializedSize(entry.getKey(), entry.getValue());
+                        if (entryBytes >= 0) {
+                            sampled++;
+                            sampledBytes += entryBytes;
+                        }
+                    }
+                }
+            } finally {
+                if (iterationCountsHits) {
+                    iterationHits.addAndGet(read);
+                }
+            }
+            entries = size >= 0 ? size : read;
+            bytes = sampled == 0 ? 0 : sampledBytes * entries / sampled;
+        }
+
+        /**
+         * Get the number of entries of the cache: those of its authoritative tier, which holds them all, with Ehcache.
+         *
+         * @return the number of entries, or {@code -1} if the cache cannot tell.
+         */
+        private long size(Cache<Object, Object> cache) {
+            if (!tierStatistics.isEmpty()) {
+                return tierStatistics.values().stream().mapToLong(TierStatistics::getMappings).max().getAsLong();
+            }
+            if (cache.getCacheManager().getCachingProvider() instanceof CaffeineCachingProvider) {
+                return cache.unwrap(com.github.benmanes.caffeine.cache.Cache.class).estimatedSize();
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * Get the statistics of the tiers of a cache.
+     *
+     * @return the statistics by tier name, empty if the cache is not an Ehcache cache.
+     */
+    private static Map<String, TierStatistics> tierStatistics(Cache<Object, Object> cache) {
+        if (cache == null || !(cache.getCacheManager().getCachingProvider() instanceof EhcacheCachingProvider)) {
+            return Collections.emptyMap();
+        }
+        org.ehcache.Cache<?, ?> ehcache = cache.unwrap(org.ehcache.Cache.class);
+        if (!(ehcache instanceof InternalCache)) {
+            return Collections.emptyMap();
+        }
+        return new DefaultCacheStatistics((InternalCache<?, ?>) ehcache).getTierStatistics();
+    }
+
+    /**
+     * Get the serialized size of an entry.
+     *
+     * @return the size in bytes, or {@code -1} if the entry is not serializable.
+     */
+    private static long serializedSize(Object key, Object value) {
+        CountingOutputStream counter = new CountingOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(counter)) {
+            out.writeObject(key);
+            out.writeObject(value);
+        } catch (IOException e) {
+            return -1;
+        }
+        return counter.count;
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
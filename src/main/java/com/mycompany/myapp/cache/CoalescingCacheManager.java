@@ -0,0 +1,122 @@
+package com.mycompany.myapp.cache;
+
+import java.util.Collection;
+import java.util.concurrent.Callable;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+/**
+ * Coalesces the concurrent loads of the same entry of the Spring caches through the {@link SingleFlight}, for the
+ * methods caching with {@code @Cacheable(sync = true)}.
+ * <p>
+ * The loads run in the caller's thread, without holding a lock of the underlying cache.
+ */
+public class CoalescingCacheManager implements CacheManager {
+
+    private final CacheManager delegate;
+
+    private final SingleFlight singleFlight;
+
+    public CoalescingCacheManager(CacheManager delegate, SingleFlight singleFlight) {
+        this.delegate = delegate;
+        this.singleFlight = singleFlight;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        Cache cache = delegate.getCache(name);
+        return cache != null ? new CoalescingCache(cache) : null;
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return delegate.getCacheNames();
+    }
+
+    private class CoalescingCache implements Cache {
+
+        private final Cache delegate;
+
+        CoalescingCache(Cache delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public String getName() {
+            return delegate.getName();
+        }
+
+        @Override
+        public Object getNativeCache() {
+            return delegate.getNativeCache();
+        }
+
+        @Override
+        public ValueWrapper get(Object key) {
+            return delegate.get(key);
+        }
+
+        @Override
+        public <T> T get(Object key, Class<T> type) {
+            return delegate.get(key, type);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T get(Object key, Callable<T> valueLoader) {
+            ValueWrapper cached = delegate.get(key);
+            if (cached != null) {
+                return (T) cached.get();
+            }
+            return singleFlight.load(
+                delegate.getName(),
+                key,
+                () -> {
+                    // Loaded by a caller which completed its load in between
+                    ValueWrapper loaded = delegate.get(key);
+                    if (loaded != null) {
+                        return (T) loaded.get();
+                    }
+                    T value;
+                    try {
+                        value = valueLoader.call();
+                    } catch (Exception e) {
+                        throw new ValueRetrievalException(key, valueLoader, e);
+                    }
+                    delegate.put(key, value);
+                    return value;
+                }
+            );
+        }
+
+        @Override
+        public void put(Object key, Object value) {
+            delegate.put(key, value);
+        }
+
+        @Override
+        public ValueWrapper putIfAbsent(Object key, Object value) {
+            return delegate.putIfAbsent(key, value);
+        }
+
+        @Override
+        public void evict(Object key) {
+            delegate.evict(key);
+        }
+
+        @Override
+        public boolean evictIfPresent(Object key) {
+            return delegate.evictIfPresent(key);
+        }
+
+        @Override
+        public void clear() {
+            delegate.clear();
+        }
+
+        @Override
+        public boolean invalidate() {
+            return delegate.invalidate();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.mycompany.myapp.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Approximate counts of the occurrences of keys, in a fixed amount of memory.
+ * <p>
+ * Each key increments one counter per row, picked by a different hash of the key, and its count is the smallest of its
+ * counters: counts are never underestimated, and only overestimated by the collisions with the other keys. Once ten
+ * times as many keys as counters per row were counted, all the counts are halved, so that they follow the recent
+ * occurrences.
+ */
+final class CountMinSketch {
+
+    private static final int[] SEEDS = { 0x9e3779b9, 0x85ebca6b, 0xc2b2ae35, 0x27d4eb2f, 0x165667b1, 0xd3a2646c, 0xfd7046c5, 0xb55a4f09 };
+
+    private final int depth;
+
+    private final int mask;
+
+    private final AtomicLongArray counters;
+
+    private final AtomicLong additions = new AtomicLong();
+
+    private final long sampleSize;
+
+    /**
+     * @param width the number of counters per row, rounded up to a power of two.
+     * @param depth the number of rows, at most 8.
+     */
+    CountMinSketch(int width, int depth) {
+        if (depth < 1 || depth > SEEDS.length) {
+            throw new IllegalArgumentException("The depth of a sketch must be between 1 and " + SEEDS.length);
+        }
+        int rowWidth = Integer.highestOneBit(Math.max(width - 1, 1)) << 1;
+        this.depth = depth;
+        this.mask = rowWidth - 1;
+        this.counters = new AtomicLongArray(rowWidth * depth);
+        this.sampleSize = 10L * rowWidth;
+    }
+
+    /**
+     * Count an occurrence of a key.
+     *
+     * @param key the key.
+     * @return the count of the key, this occurrence included.
+     */
+    long add(Object key) {
+        int hash = key.hashCode();
+        long count = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            count = Math.min(count, counters.incrementAndGet(index(hash, row)));
+        }
+        if (additions.incrementAndGet() % sampleSize == 0) {
+            halve();
+        }
+        return count;
+    }
+
+    /**
+     * Get the count of a key.
+     *
+     * @param key the key.
+     * @return the count of the key.
+     */
+    long estimate(Object key) {
+        int hash = key.hashCode();
+        long count = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            count = Math.min(count, counters.get(index(hash, row)));
+        }
+        return count;
+    }
+
+    /**
+     * Get the number of times the counts were halved.
+     *
+     * @return the number of halvings.
+     */
+    long halvings() {
+        return additions.get() / sampleSize;
+    }
+
+    private int index(int hash, int row) {
+        int h = (hash ^ (hash >>> 16)) * SEEDS[row];
+        return row * (mask + 1) + ((h ^ (h >>> 15)) & mask);
+    }
+
+    /**
+     * Halve the counters, an occurrence counted meanwhile being possibly halved too.
+     */
+    private void halve() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.set(i, counters.get(i) >>> 1);
+        }
+    }
+}
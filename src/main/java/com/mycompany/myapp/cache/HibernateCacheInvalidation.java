@@ -0,0 +1,214 @@
+package com.mycompany.myapp.cache;
+
+import java.io.Serializable;
+import org.hibernate.boot.Metadata;
+import org.hibernate.cache.spi.access.CollectionDataAccess;
+import org.hibernate.cache.spi.access.EntityDataAccess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.AbstractCollectionEvent;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCollectionRecreateEvent;
+import org.hibernate.event.spi.PostCollectionRecreateEventListener;
+import org.hibernate.event.spi.PostCollectionRemoveEvent;
+import org.hibernate.event.spi.PostCollectionRemoveEventListener;
+import org.hibernate.event.spi.PostCollectionUpdateEvent;
+import org.hibernate.event.spi.PostCollectionUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.persister.collection.CollectionPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.hibernate.type.Type;
+
+/**
+ * Broadcasts the evictions of the second-level cache through the {@link CacheInvalidationBus}, and applies the
+ * evictions of the other instances.
+ * <p>
+ * Each update or deletion of a cached entity, and each change of a cached collection, evicts its entry on the other
+ * instances once the transaction is committed. The bulk statements of JPQL are not broadcast: the entries they leave
+ * on the other instances expire with their time to live.
+ */
+public class HibernateCacheInvalidation
+    implements
+        Integrator,
+        PostUpdateEventListener,
+        PostDeleteEventListener,
+        PostCollectionUpdateEventListener,
+        PostCollectionRemoveEventListener,
+        PostCollectionRecreateEventListener {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient CacheInvalidationBus bus;
+
+    private transient SessionFactoryImplementor sessionFactory;
+
+    public HibernateCacheInvalidation(CacheInvalidationBus bus) {
+        this.bus = bus;
+    }
+
+    /**
+     * Broadcast the eviction of an entity updated without Hibernate, by the listener registered with the session
+     * factory, if any.
+     *
+     * @param session the session which updated the entity.
+     * @param persister the persister of the entity.
+     * @param id the identifier of the entity.
+     */
+    public static void entityUpdated(SessionImplementor session, EntityPersister persister, Serializable id) {
+        EventListenerRegistry listeners = session.getFactory().getServiceRegistry().getService(EventListenerRegistry.class);
+        listeners
+            .getEventListenerGroup(EventType.POST_UPDATE)
+            .fireEventOnEachListener(
+                persister,
+                (PostUpdateEventListener listener, EntityPersister entityPersister) -> {
+                    if (listener instanceof HibernateCacheInvalidation) {
+                        ((HibernateCacheInvalidation) listener).entityChanged(session, entityPersister, id);
+                    }
+                }
+            );
+    }
+
+    @Override
+    public void integrate(Metadata metadata, SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+        this.sessionFactory = sessionFactory;
+        EventListenerRegistry listeners = serviceRegistry.getService(EventListenerRegistry.class);
+        listeners.appendListeners(EventType.POST_UPDATE, this);
+        listeners.appendListeners(EventType.POST_DELETE, this);
+        listeners.appendListeners(EventType.POST_COLLECTION_UPDATE, this);
+        listeners.appendListeners(EventType.POST_COLLECTION_REMOVE, this);
+        listeners.appendListeners(EventType.POST_COLLECTION_RECREATE, this);
+        bus.subscribe(CacheInvalidation.Type.ENTITY, this::evictEntity);
+        bus.subscribe(CacheInvalidation.Type.COLLECTION, this::evictCollection);
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+        this.sessionFactory = null;
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        entityChanged(event.getSession(), event.getPersister(), event.getId());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        entityChanged(event.getSession(), event.getPersister(), event.getId());
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    /**
+     * @deprecated replaced by {@link #requiresPostCommitHandling(EntityPersister)}, still required by Hibernate 5.
+     */
+    @Deprecated
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return requiresPostCommitHandling(persister);
+    }
+
+    @Override
+    public void onPostUpdateCollection(PostCollectionUpdateEvent event) {
+        collectionChanged(event);
+    }
+
+    @Override
+    public void onPostRemoveCollection(PostCollectionRemoveEvent event) {
+        collectionChanged(event);
+    }
+
+    @Override
+    public void onPostRecreateCollection(PostCollectionRecreateEvent event) {
+        collectionChanged(event);
+    }
+
+    private void entityChanged(SessionImplementor session, EntityPersister persister, Serializable id) {
+        if (persister.canWriteToCache()) {
+            publishOnCommit(
+                session,
+                new CacheInvalidation(CacheInvalidation.Type.ENTITY, persister.getEntityName(), id, session.getTenantIdentifier())
+            );
+        }
+    }
+
+    private void collectionChanged(AbstractCollectionEvent event) {
+        String role = event.getCollection().getRole();
+        if (role == null || event.getAffectedOwnerIdOrNull() == null) {
+            return;
+        }
+        CollectionPersister persister = sessionFactory.getMetamodel().collectionPersister(role);
+        if (persister.hasCache()) {
+            publishOnCommit(
+                event.getSession(),
+                new CacheInvalidation(
+                    CacheInvalidation.Type.COLLECTION,
+                    role,
+                    event.getAffectedOwnerIdOrNull(),
+                    event.getSession().getTenantIdentifier()
+                )
+            );
+        }
+    }
+
+    private void publishOnCommit(SessionImplementor session, CacheInvalidation invalidation) {
+        session
+            .getActionQueue()
+            .registerProcess(
+                (success, completedSession) -> {
+                    if (success) {
+                        bus.publish(invalidation);
+                    }
+                }
+            );
+    }
+
+    private void evictEntity(CacheInvalidation invalidation) {
+        EntityPersister persister = sessionFactory.getMetamodel().entityPersister(invalidation.getRegion());
+        if (!persister.canWriteToCache()) {
+            return;
+        }
+        EntityDataAccess cacheAccess = persister.getCacheAccessStrategy();
+        if (invalidation.getKey() == null) {
+            cacheAccess.evictAll();
+        } else {
+            Serializable id = identifier(persister.getIdentifierType(), invalidation.getKey());
+            cacheAccess.evict(cacheAccess.generateCacheKey(id, persister, sessionFactory, invalidation.getTenant()));
+        }
+    }
+
+    private void evictCollection(CacheInvalidation invalidation) {
+        CollectionPersister persister = sessionFactory.getMetamodel().collectionPersister(invalidation.getRegion());
+        if (!persister.hasCache()) {
+            return;
+        }
+        CollectionDataAccess cacheAccess = persister.getCacheAccessStrategy();
+        if (invalidation.getKey() == null) {
+            cacheAccess.evictAll();
+        } else {
+            Serializable id = identifier(persister.getKeyType(), invalidation.getKey());
+            cacheAccess.evict(cacheAccess.generateCacheKey(id, persister, sessionFactory, invalidation.getTenant()));
+        }
+    }
+
+    /**
+     * Convert an identifier read from a message, where numbers have lost their type, to the type of the identifiers.
+     */
+    private static Serializable identifier(Type type, Object key) {
+        if (key instanceof Number && type.getReturnedClass() == Long.class) {
+            return ((Number) key).longValue();
+        }
+        if (key instanceof Number && type.getReturnedClass() == Integer.class) {
+            return ((Number) key).intValue();
+        }
+        return (Serializable) key;
+    }
+}
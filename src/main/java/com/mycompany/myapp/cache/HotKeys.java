@@ -0,0 +1,195 @@
+package com.mycompany.myapp.cache;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostLoadEvent;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tracks the most read keys of each cache, from the reads of the Spring caches and the loads of the cached entities.
+ * <p>
+ * The reads of each cache are counted by a {@link CountMinSketch}, of {@code application.cache.metrics.sketch-width}
+ * counters per row whatever the number of keys, and the keys with the highest counts are kept as candidates: four
+ * times as many as the {@code hot-keys} listed, so that a key climbing the ranking is not dropped before it gets there.
+ * Counts are approximate, and halved regularly so that they follow the recent reads.
+ */
+@Component
+public class HotKeys implements PostLoadEventListener, SmartInitializingSingleton {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient ConcurrentMap<String, Tracker> trackers = new ConcurrentHashMap<>();
+
+    private final transient ApplicationProperties.Metrics properties;
+
+    private final transient ObjectProvider<EntityManagerFactory> entityManagerFactory;
+
+    public HotKeys(ApplicationProperties applicationProperties, ObjectProvider<EntityManagerFactory> entityManagerFactory) {
+        this.properties = applicationProperties.getCache().getMetrics();
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    /**
+     * Listen to the loads of entities once all the beans are created: the entity manager factory depends on the Spring
+     * cache manager, which depends on this class.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        EntityManagerFactory factory = entityManagerFactory.getIfAvailable();
+        if (properties.getHotKeys() > 0 && factory != null) {
+            SessionFactoryImplementor sessionFactory = factory.unwrap(SessionFactoryImplementor.class);
+            sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class).appendListeners(EventType.POST_LOAD, this);
+        }
+    }
+
+    /**
+     * Count a read of a key.
+     *
+     * @param cacheName the name of the cache.
+     * @param key the key.
+     */
+    public void record(String cacheName, Object key) {
+        if (properties.getHotKeys() > 0 && key != null) {
+            trackers.computeIfAbsent(cacheName, name -> new Tracker()).record(key);
+        }
+    }
+
+    /**
+     * Get the most read keys of each cache.
+     *
+     * @return the most read keys and their approximate number of reads, by cache name, the most read first.
+     */
+    public Map<String, List<HotKey>> top() {
+        Map<String, List<HotKey>> top = new TreeMap<>();
+        trackers.forEach((cacheName, tracker) -> top.put(cacheName, tracker.top()));
+        return top;
+    }
+
+    /**
+     * Get the most read keys of a cache.
+     *
+     * @param cacheName the name of the cache.
+     * @return the most read keys and their approximate number of reads, the most read first.
+     */
+    public List<HotKey> top(String cacheName) {
+        Tracker tracker = trackers.get(cacheName);
+        return tracker != null ? tracker.top() : Collections.emptyList();
+    }
+
+    @Override
+    public void onPostLoad(PostLoadEvent event) {
+        if (event.getPersister().canReadFromCache()) {
+            record(event.getPersister().getEntityName(), event.getId());
+        }
+    }
+
+    private final class Tracker {
+
+        private final CountMinSketch sketch = new CountMinSketch(properties.getSketchWidth(), properties.getSketchDepth());
+
+        private final ConcurrentMap<Object, Boolean> candidates = new ConcurrentHashMap<>();
+
+        /**
+         * Count below which a key is not worth comparing to the candidates, halved along with the counts.
+         */
+        private volatile long threshold;
+
+        private volatile long thresholdHalvings;
+
+        void record(Object key) {
+            long count = sketch.add(key);
+            long halvings = Math.min(sketch.halvings() - thresholdHalvings, Long.SIZE - 1);
+            if (count <= threshold >>> halvings || candidates.containsKey(key)) {
+                return;
+            }
+            synchronized (this) {
+                candidates.put(key, Boolean.TRUE);
+                int capacity = 4 * properties.getHotKeys();
+                if (candidates.size() > capacity) {
+                    Object coldest = null;
+                    long coldestCount = Long.MAX_VALUE;
+                    for (Object candidate : candidates.keySet()) {
+                        long candidateCount = sketch.estimate(candidate);
+                        if (candidateCount < coldestCount) {
+                            coldest = candidate;
+                            coldestCount = candidateCount;
+                        }
+                    }
+                    candidates.remove(coldest);
+                    threshold = coldestCount;
+                    thresholdHalvings = sketch.halvings();
+                }
+            }
+        }
+
+        List<HotKey> top() {
+            return candidates
+                .keySet()
+                .stream()
+                .map(key -> new HotKey(key, sketch.estimate(key)))
+                .sorted(Comparator.comparingLong(HotKey::getCount).reversed())
+                .limit(properties.getHotKeys())
+                .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * A key of a cache, and its approximate number of recent reads.
+     */
+    public static final class HotKey {
+
+        private final String key;
+
+        private final long count;
+
+        HotKey(Object key, long count) {
+            this.key = String.valueOf(key);
+            this.count = count;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof HotKey)) {
+                return false;
+            }
+            HotKey other = (HotKey) o;
+            return count == other.count && key.equals(other.key);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(key, count);
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + count;
+        }
+    }
+}
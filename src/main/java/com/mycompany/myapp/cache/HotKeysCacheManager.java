@@ -0,0 +1,99 @@
+package com.mycompany.myapp.cache;
+
+import java.util.Collection;
+import java.util.concurrent.Callable;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+/**
+ * Counts the reads of the keys of the Spring caches in {@link HotKeys}.
+ */
+public class HotKeysCacheManager implements CacheManager {
+
+    private final CacheManager delegate;
+
+    private final HotKeys hotKeys;
+
+    public HotKeysCacheManager(CacheManager delegate, HotKeys hotKeys) {
+        this.delegate = delegate;
+        this.hotKeys = hotKeys;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        Cache cache = delegate.getCache(name);
+        return cache != null ? new HotKeysCache(cache) : null;
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return delegate.getCacheNames();
+    }
+
+    private class HotKeysCache implements Cache {
+
+        private final Cache delegate;
+
+        HotKeysCache(Cache delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public String getName() {
+            return delegate.getName();
+        }
+
+        @Override
+        public Object getNativeCache() {
+            return delegate.getNativeCache();
+        }
+
+        @Override
+        public ValueWrapper get(Object key) {
+            hotKeys.record(delegate.getName(), key);
+            return delegate.get(key);
+        }
+
+        @Override
+        public <T> T get(Object key, Class<T> type) {
+            hotKeys.record(delegate.getName(), key);
+            return delegate.get(key, type);
+        }
+
+        @Override
+        public <T> T get(Object key, Callable<T> valueLoader) {
+            hotKeys.record(delegate.getName(), key);
+            return delegate.get(key, valueLoader);
+        }
+
+        @Override
+        public void put(Object key, Object value) {
+            delegate.put(key, value);
+        }
+
+        @Override
+        public ValueWrapper putIfAbsent(Object key, Object value) {
+            return delegate.putIfAbsent(key, value);
+        }
+
+        @Override
+        public void evict(Object key) {
+            delegate.evict(key);
+        }
+
+        @Override
+        public boolean evictIfPresent(Object key) {
+            return delegate.evictIfPresent(key);
+        }
+
+        @Override
+        public void clear() {
+            delegate.clear();
+        }
+
+        @Override
+        public boolean invalidate() {
+            return delegate.invalidate();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.mycompany.myapp.cache;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * Management endpoint listing the most read keys of the caches, as tracked by {@link HotKeys}.
+ */
+@Component
+@Endpoint(id = "hotkeys")
+public class HotKeysEndpoint {
+
+    private final HotKeys hotKeys;
+
+    public HotKeysEndpoint(HotKeys hotKeys) {
+        this.hotKeys = hotKeys;
+    }
+
+    /**
+     * List the most read keys of each cache, or of a single cache.
+     *
+     * @param cache the name of the cache, all the caches being listed when {@code null}.
+     * @return the most read keys, by cache name.
+     */
+    @ReadOperation
+    public Map<String, List<HotKeys.HotKey>> hotKeys(@Nullable String cache) {
+        return cache == null ? hotKeys.top() : Collections.singletonMap(cache, hotKeys.top(cache));
+    }
+}
@@ -0,0 +1,134 @@
+package com.mycompany.myapp.cache;
+
+import com.mycompany.myapp.datasource.TenantContextHolder;
+import java.util.Collection;
+import java.util.concurrent.Callable;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+/**
+ * Broadcasts the evictions of the Spring caches through the {@link CacheInvalidationBus}, once the current transaction
+ * is committed, and applies the evictions of the other instances.
+ * <p>
+ * The evictions received are applied for the tenant they were made for, through the wrapped cache manager.
+ */
+public class InvalidatingCacheManager implements CacheManager {
+
+    private final CacheManager delegate;
+
+    private final CacheInvalidationBus bus;
+
+    public InvalidatingCacheManager(CacheManager delegate, CacheInvalidationBus bus) {
+        this.delegate = delegate;
+        this.bus = bus;
+        bus.subscribe(CacheInvalidation.Type.SPRING, this::invalidate);
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        Cache cache = delegate.getCache(name);
+        return cache != null ? new InvalidatingCache(cache) : null;
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return delegate.getCacheNames();
+    }
+
+    private void invalidate(CacheInvalidation invalidation) {
+        String previousTenant = TenantContextHolder.isDefaultTenant() ? null : TenantContextHolder.getTenant();
+        TenantContextHolder.setTenant(invalidation.getTenant());
+        try {
+            Cache cache = delegate.getCache(invalidation.getRegion());
+            if (cache == null) {
+                return;
+            }
+            if (invalidation.getKey() == null) {
+                cache.clear();
+            } else {
+                cache.evict(invalidation.getKey());
+            }
+        } finally {
+            TenantContextHolder.setTenant(previousTenant);
+        }
+    }
+
+    private class InvalidatingCache implements Cache {
+
+        private final Cache delegate;
+
+        InvalidatingCache(Cache delegate) {
+            this.delegate = delegate;
+        }
+
+        private void publish(Object key) {
+            bus.publishAfterCommit(
+                new CacheInvalidation(CacheInvalidation.Type.SPRING, delegate.getName(), key, TenantContextHolder.getTenant())
+            );
+        }
+
+        @Override
+        public String getName() {
+            return delegate.getName();
+        }
+
+        @Override
+        public Object getNativeCache() {
+            return delegate.getNativeCache();
+        }
+
+        @Override
+        public ValueWrapper get(Object key) {
+            return delegate.get(key);
+        }
+
+        @Override
+        public <T> T get(Object key, Class<T> type) {
+            return delegate.get(key, type);
+        }
+
+        @Override
+        public <T> T get(Object key, Callable<T> valueLoader) {
+            return delegate.get(key, valueLoader);
+        }
+
+        @Override
+        public void put(Object key, Object value) {
+            delegate.put(key, value);
+        }
+
+        @Override
+        public ValueWrapper putIfAbsent(Object key, Object value) {
+            return delegate.putIfAbsent(key, value);
+        }
+
+        @Override
+        public void evict(Object key) {
+            delegate.evict(key);
+            publish(key);
+        }
+
+        /**
+         * The entry is evicted on the other instances even if it was not cached by this one.
+         */
+        @Override
+        public boolean evictIfPresent(Object key) {
+            boolean evicted = delegate.evictIfPresent(key);
+            publish(key);
+            return evicted;
+        }
+
+        @Override
+        public void clear() {
+            delegate.clear();
+            publish(null);
+        }
+
+        @Override
+        public boolean invalidate() {
+            boolean invalidated = delegate.invalidate();
+            publish(null);
+            return invalidated;
+        }
+    }
+}
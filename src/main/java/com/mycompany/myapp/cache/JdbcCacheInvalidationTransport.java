@@ -0,0 +1,156 @@
+package com.mycompany.myapp.cache;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Carries the messages through the {@code cache_invalidation} table of the primary database, which every instance
+ * polls for the rows added since its last poll.
+ * <p>
+ * Auto-increment identifiers are allocated when rows are inserted, but become visible when their transaction commits:
+ * a row can appear after a row with a greater identifier. The identifiers skipped by a poll are polled again until they
+ * appear, or for as long as rows are kept, after which they are assumed to be rolled back inserts. Rows older than
+ * {@code application.cache.invalidation.retention-seconds} are deleted.
+ */
+public class JdbcCacheInvalidationTransport implements CacheInvalidationTransport {
+
+    /**
+     * Maximum number of skipped identifiers polled again, beyond which the oldest are given up.
+     */
+    private static final int MAX_GAPS = 1000;
+
+    private final Logger log = LoggerFactory.getLogger(JdbcCacheInvalidationTransport.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final long pollIntervalMillis;
+
+    private final long retentionSeconds;
+
+    /**
+     * Skipped identifiers, with the time until which they are polled again.
+     */
+    private final Map<Long, Instant> gaps = new HashMap<>();
+
+    private ScheduledExecutorService scheduler;
+
+    private Consumer<String> receiver;
+
+    private long lastId;
+
+    private Instant nextPurge = Instant.MIN;
+
+    public JdbcCacheInvalidationTransport(
+        JdbcTemplate jdbcTemplate,
+        PlatformTransactionManager transactionManager,
+        long pollIntervalMillis,
+        long retentionSeconds
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        // Connections do not auto-commit
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.pollIntervalMillis = pollIntervalMillis;
+        this.retentionSeconds = retentionSeconds;
+    }
+
+    @Override
+    public void start(Consumer<String> receiver) {
+        this.receiver = receiver;
+        // The caches of a starting instance are empty: only the messages sent from now on are of interest
+        Long maxId = transactionTemplate.execute(status ->
+            jdbcTemplate.queryForObject("select max(id) from cache_invalidation", Long.class)
+        );
+        lastId = maxId != null ? maxId : 0;
+        scheduler =
+            Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "multidbs-cache-invalidation-poller");
+                thread.setDaemon(true);
+                return thread;
+            });
+        scheduler.scheduleWithFixedDelay(this::pollSafely, pollIntervalMillis, pollIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void send(String message) {
+        transactionTemplate.executeWithoutResult(status ->
+            jdbcTemplate.update(
+                "insert into cache_invalidation (message, created_date) values (?, ?)",
+                message,
+                Timestamp.from(Instant.now())
+            )
+        );
+    }
+
+    @Override
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    private void pollSafely() {
+        try {
+            poll();
+        } catch (RuntimeException e) {
+            log.warn("Could not poll the cache invalidations: {}", e.toString());
+        }
+    }
+
+    /**
+     * Deliver the messages added since the last poll, and the skipped ones which appeared since.
+     */
+    void poll() {
+        transactionTemplate.executeWithoutResult(status -> deliverNewMessages(Instant.now()));
+    }
+
+    private void deliverNewMessages(Instant now) {
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+            "select id, message from cache_invalidation where id > ? order by id",
+            lastId
+        );
+        for (Map<String, Object> row : rows) {
+            long id = ((Number) row.get("id")).longValue();
+            for (long skipped = Math.max(lastId + 1, id - MAX_GAPS); skipped < id; skipped++) {
+                gaps.put(skipped, now.plusSeconds(retentionSeconds));
+            }
+            lastId = id;
+            receiver.accept((String) row.get("message"));
+        }
+
+        gaps.values().removeIf(until -> until.isBefore(now));
+        if (gaps.size() > MAX_GAPS) {
+            List<Long> oldest = gaps.keySet().stream().sorted().limit(gaps.size() - MAX_GAPS).collect(Collectors.toList());
+            oldest.forEach(gaps::remove);
+        }
+        if (!gaps.isEmpty()) {
+            Map<String, Object> parameters = new HashMap<>();
+            parameters.put("ids", gaps.keySet());
+            List<Map<String, Object>> appeared = new NamedParameterJdbcTemplate(jdbcTemplate)
+                .queryForList("select id, message from cache_invalidation where id in (:ids) order by id", parameters);
+            for (Map<String, Object> row : appeared) {
+                gaps.remove(((Number) row.get("id")).longValue());
+                receiver.accept((String) row.get("message"));
+            }
+        }
+
+        if (now.isAfter(nextPurge)) {
+            Timestamp expired = Timestamp.from(now.minusSeconds(retentionSeconds));
+            jdbcTemplate.update("delete from cache_invalidation where created_date < ?", expired);
+            nextPurge = now.plusSeconds(Math.max(1, retentionSeconds / 10));
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.mycompany.myapp.cache;
+
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.function.Consumer;
+
+/**
+ * Delivers the messages to every transport started in the same JVM, on the thread sending them, to try the
+ * invalidation of the caches without a cluster.
+ */
+public class LoopbackCacheInvalidationTransport implements CacheInvalidationTransport {
+
+    private static final Set<Consumer<String>> RECEIVERS = new CopyOnWriteArraySet<>();
+
+    private Consumer<String> receiver;
+
+    @Override
+    public void start(Consumer<String> receiver) {
+        this.receiver = receiver;
+        RECEIVERS.add(receiver);
+    }
+
+    @Override
+    public void send(String message) {
+        RECEIVERS.forEach(r -> r.accept(message));
+    }
+
+    @Override
+    public void stop() {
+        RECEIVERS.remove(receiver);
+    }
+}
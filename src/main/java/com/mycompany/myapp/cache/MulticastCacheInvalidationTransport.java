@@ -0,0 +1,86 @@
+package com.mycompany.myapp.cache;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.DatagramPacket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.MulticastSocket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Carries the messages as UDP multicast datagrams, to the instances on the same network segment, including the other
+ * instances of the same host: for development and tests, as datagrams can be lost.
+ * <p>
+ * A message must fit in a single datagram: a larger one is rejected, which a smaller
+ * {@code application.cache.invalidation.max-batch-size} avoids.
+ */
+public class MulticastCacheInvalidationTransport implements CacheInvalidationTransport {
+
+    private static final int MAX_DATAGRAM_SIZE = 65_507;
+
+    private final Logger log = LoggerFactory.getLogger(MulticastCacheInvalidationTransport.class);
+
+    private final InetAddress group;
+
+    private final int port;
+
+    private MulticastSocket socket;
+
+    public MulticastCacheInvalidationTransport(InetAddress group, int port) {
+        this.group = group;
+        this.port = port;
+    }
+
+    @Override
+    public void start(Consumer<String> receiver) {
+        try {
+            socket = new MulticastSocket(port);
+            socket.setTimeToLive(1);
+            // On the default interface
+            socket.joinGroup(new InetSocketAddress(group, port), null);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not join the multicast group " + group + ":" + port, e);
+        }
+        Thread thread = new Thread(() -> receive(receiver), "multidbs-cache-invalidation-receiver");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void receive(Consumer<String> receiver) {
+        byte[] buffer = new byte[MAX_DATAGRAM_SIZE];
+        while (!socket.isClosed()) {
+            DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+            try {
+                socket.receive(packet);
+                receiver.accept(new String(packet.getData(), packet.getOffset(), packet.getLength(), StandardCharsets.UTF_8));
+            } catch (SocketException e) {
+                // Closed by stop()
+            } catch (IOException | RuntimeException e) {
+                log.warn("Could not receive a cache invalidation message: {}", e.toString());
+            }
+        }
+    }
+
+    @Override
+    public void send(String message) {
+        byte[] data = message.getBytes(StandardCharsets.UTF_8);
+        if (data.length > MAX_DATAGRAM_SIZE) {
+            throw new IllegalArgumentException("Message of " + data.length + " bytes, larger than a datagram");
+        }
+        try {
+            socket.send(new DatagramPacket(data, data.length, group, port));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void stop() {
+        socket.close();
+    }
+}
@@ -0,0 +1,91 @@
+package com.mycompany.myapp.cache;
+
+import com.mycompany.myapp.datasource.PrimaryReadContextHolder;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.function.Supplier;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Caches the results of queries, keyed by query and parameters, for as long as the tables they are read from are not
+ * written to.
+ * <p>
+ * Each result is cached with the {@link TableVersions versions} of its tables, read before the query runs, and is only
+ * served while they are unchanged. A query runs in a read-only transaction of its own: within a transaction of the
+ * caller, whose changes or snapshot may differ from the committed state, the query runs as it is, without the cache.
+ * The query of a result to cache reads from the primary database: a replica lagging behind could return a state older
+ * than the versions it is cached with. The results are cached in the {@link #QUERY_RESULTS_CACHE} cache, kept apart by
+ * tenant.
+ * <p>
+ * Without {@code application.cache.invalidation.transport}, the versions are only bumped by the writes of this
+ * instance: with several instances, a result is served until its time to live is over after a write of another one.
+ */
+@Component
+public class QueryResultCache {
+
+    public static final String QUERY_RESULTS_CACHE = "queryResults";
+
+    private final CacheManager cacheManager;
+
+    private final TableVersions tableVersions;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public QueryResultCache(CacheManager cacheManager, TableVersions tableVersions, PlatformTransactionManager transactionManager) {
+        this.cacheManager = cacheManager;
+        this.tableVersions = tableVersions;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Get the result of a query on the tables of an entity, from the cache if none of them was written to since it was
+     * cached.
+     *
+     * @param query the name of the query.
+     * @param parameters the parameters of the query, with {@code equals} and {@code hashCode} methods.
+     * @param entityClass the class of the entity the query reads.
+     * @param loader the query.
+     * @param <T> the type of the result.
+     * @return the result.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String query, Object parameters, Class<?> entityClass, Supplier<T> loader) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return loader.get();
+        }
+        long[] versions = tableVersions.versions(tableVersions.tablesOf(entityClass));
+        if (versions == null) {
+            return transactionTemplate.execute(status -> loader.get());
+        }
+        Cache cache = cacheManager.getCache(QUERY_RESULTS_CACHE);
+        Object key = new SimpleKey(query, parameters);
+        VersionedResult cached = cache.get(key, VersionedResult.class);
+        if (cached != null && Arrays.equals(cached.versions, versions)) {
+            return (T) cached.result;
+        }
+        T result = PrimaryReadContextHolder.readFromPrimary(() -> transactionTemplate.execute(status -> loader.get()));
+        cache.put(key, new VersionedResult(versions, result));
+        return result;
+    }
+
+    private static final class VersionedResult implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final long[] versions;
+
+        private final Object result;
+
+        private VersionedResult(long[] versions, Object result) {
+            this.versions = versions;
+            this.result = result;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.mycompany.myapp.cache;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.datasource.TenantContextHolder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.stereotype.Component;
+
+/**
+ * Coalesces the concurrent loads of the same entry: the first caller to miss it loads it, and the callers missing it
+ * meanwhile wait for that load instead of running the same query, so that the expiry of a hot entry costs a single
+ * query.
+ * <p>
+ * Entries are kept apart by tenant. A caller waits at most {@code application.cache.coalescing.timeout-millis} for the
+ * load in flight, then loads the entry itself. A failed load fails the callers waiting for it too, which are counted
+ * apart from the coalesced ones. The duration of the loads is published as {@link #LOAD_METRIC}.
+ */
+@Component
+public class SingleFlight {
+
+    public static final String LOADS_METRIC = "cache.coalescing.loads";
+
+    public static final String LOAD_METRIC = "cache.loads";
+
+    private final Logger log = LoggerFactory.getLogger(SingleFlight.class);
+
+    private final ConcurrentMap<Object, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, Counter> counters = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, Timer> timers = new ConcurrentHashMap<>();
+
+    private final long timeoutMillis;
+
+    private final MeterRegistry meterRegistry;
+
+    public SingleFlight(ApplicationProperties applicationProperties, ObjectProvider<MeterRegistry> meterRegistry) {
+        this.timeoutMillis = applicationProperties.getCache().getCoalescing().getTimeoutMillis();
+        this.meterRegistry = meterRegistry.getIfAvailable();
+    }
+
+    /**
+     * Load an entry, or wait for its load in flight.
+     *
+     * @param name the name of the cache or entity the entry belongs to.
+     * @param key the key of the entry.
+     * @param loader the loader of the entry.
+     * @param <T> the type of the entry.
+     * @return the entry loaded by this caller or by the one it waited for.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T load(String name, Object key, Supplier<T> loader) {
+        Object flightKey = new SimpleKey(name, TenantContextHolder.getTenant(), key);
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> leader = inFlight.putIfAbsent(flightKey, flight);
+        if (leader == null) {
+            increment(name, "loaded");
+            long start = System.nanoTime();
+            try {
+                T value = loader.get();
+                flight.complete(value);
+                return value;
+            } catch (RuntimeException | Error e) {
+                flight.completeExceptionally(e);
+                throw e;
+            } finally {
+                inFlight.remove(flightKey, flight);
+                record(name, System.nanoTime() - start);
+            }
+        }
+
+        try {
+            T value = (T) leader.get(timeoutMillis, TimeUnit.MILLISECONDS);
+            increment(name, "coalesced");
+            return value;
+        } catch (TimeoutException e) {
+            increment(name, "timeout");
+            log.debug("Timed out waiting for the load of {} {}, loading it again", name, key);
+            return loader.get();
+        } catch (ExecutionException e) {
+            increment(name, "failed");
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw (RuntimeException) e.getCause();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the load of " + name + " " + key, e);
+        }
+    }
+
+    private void record(String name, long durationNanos) {
+        if (meterRegistry != null) {
+            timers
+                .computeIfAbsent(
+                    name,
+                    timer ->
+                        Timer
+                            .builder(LOAD_METRIC)
+                            .description("Duration of the loads of cache entries")
+                            .tag("name", name)
+                            .register(meterRegistry)
+                )
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void increment(String name, String outcome) {
+        if (meterRegistry != null) {
+            counters
+                .computeIfAbsent(
+                    name + '/' + outcome,
+                    counter ->
+                        Counter
+                            .builder(LOADS_METRIC)
+                            .description("Loads of cache entries, run by the caller or coalesced with the load of another caller")
+                            .tag("name", name)
+                            .tag("outcome", outcome)
+                            .register(meterRegistry)
+                )
+                .increment();
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.mycompany.myapp.cache;
+
+import java.io.Serializable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * Versions of the tables of the entities, bumped by every insert, update and deletion made through Hibernate, to tell
+ * whether a query result read from them is still current.
+ * <p>
+ * The version of a table is bumped when a transaction writes to it, and again once that transaction completes. While
+ * the transaction is in flight, the table has no version: results read from it may hold uncommitted changes, and are
+ * not to be cached. The versions bumped on commit are broadcast through the {@link CacheInvalidationBus}, if any, and
+ * bumped by the other instances when they receive them: without one, the versions only follow the writes of this
+ * instance.
+ * <p>
+ * Writes made without Hibernate, with JDBC or with the bulk statements of JPQL, do not bump the versions.
+ */
+@Component
+public class TableVersions implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient ConcurrentMap<String, TableVersion> versions = new ConcurrentHashMap<>();
+
+    private final transient SessionFactoryImplementor sessionFactory;
+
+    private final transient CacheInvalidationBus bus;
+
+    public TableVersions(EntityManagerFactory entityManagerFactory, ObjectProvider<CacheInvalidationBus> bus) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        this.bus = bus.getIfAvailable();
+        EventListenerRegistry listeners = sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class);
+        listeners.appendListeners(EventType.POST_INSERT, this);
+        listeners.appendListeners(EventType.POST_UPDATE, this);
+        listeners.appendListeners(EventType.POST_DELETE, this);
+        if (this.bus != null) {
+            this.bus.subscribe(CacheInvalidation.Type.TABLE, invalidation -> version(invalidation.getRegion()).version.incrementAndGet());
+        } else {
+            LoggerFactory
+                .getLogger(TableVersions.class)
+                .info("No cache invalidation transport, the versions of the tables ignore the writes of the other instances");
+        }
+    }
+
+    /**
+     * Bump the versions of the tables of an entity updated without Hibernate, by the listener registered with the
+     * session factory, if any.
+     *
+     * @param session the session which updated the entity.
+     * @param persister the persister of the entity.
+     */
+    public static void entityUpdated(SessionImplementor session, EntityPersister persister) {
+        EventListenerRegistry listeners = session.getFactory().getServiceRegistry().getService(EventListenerRegistry.class);
+        listeners
+            .getEventListenerGroup(EventType.POST_UPDATE)
+            .fireEventOnEachListener(
+                persister,
+                (PostUpdateEventListener listener, EntityPersister entityPersister) -> {
+                    if (listener instanceof TableVersions) {
+                        ((TableVersions) listener).written(session, entityPersister);
+                    }
+                }
+            );
+    }
+
+    /**
+     * Get the tables an entity is read from.
+     *
+     * @param entityClass the class of the entity.
+     * @return the tables.
+     */
+    public String[] tablesOf(Class<?> entityClass) {
+        return (String[]) sessionFactory.getMetamodel().entityPersister(entityClass).getQuerySpaces();
+    }
+
+    /**
+     * Get the current versions of tables.
+     *
+     * @param tables the tables.
+     * @return the versions, in the order of the tables, or {@code null} if a transaction of this instance is writing to
+     * one of them.
+     */
+    public long[] versions(String... tables) {
+        long[] current = new long[tables.length];
+        for (int i = 0; i < tables.length; i++) {
+            TableVersion version = version(tables[i]);
+            if (version.writers.get() > 0) {
+                return null;
+            }
+            current[i] = version.version.get();
+        }
+        return current;
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        written(event.getSession(), event.getPersister());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        written(event.getSession(), event.getPersister());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        written(event.getSession(), event.getPersister());
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    /**
+     * @deprecated replaced by {@link #requiresPostCommitHandling(EntityPersister)}, still required by Hibernate 5.
+     */
+    @Deprecated
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return requiresPostCommitHandling(persister);
+    }
+
+    private void written(SessionImplementor session, EntityPersister persister) {
+        for (Serializable space : persister.getQuerySpaces()) {
+            String table = (String) space;
+            TableVersion version = version(table);
+            version.writers.incrementAndGet();
+            version.version.incrementAndGet();
+            session
+                .getActionQueue()
+                .registerProcess((success, completedSession) -> {
+                    version.version.incrementAndGet();
+                    version.writers.decrementAndGet();
+                    if (success && bus != null) {
+                        bus.publish(new CacheInvalidation(CacheInvalidation.Type.TABLE, table, null, null));
+                    }
+                });
+        }
+    }
+
+    private TableVersion version(String table) {
+        return versions.computeIfAbsent(table, name -> new TableVersion());
+    }
+
+    private static final class TableVersion {
+
+        private final AtomicLong version = new AtomicLong();
+
+        /**
+         * Number of writes of the transactions in flight.
+         */
+        private final AtomicInteger writers = new AtomicInteger();
+    }
+}
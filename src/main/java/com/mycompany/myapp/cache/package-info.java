@@ -0,0 +1,5 @@
+/**
+ * Invalidation of the caches across the instances of the application, coalescing of their concurrent loads, caching of
+ * query results and metrics of the caches.
+ */
+package com.mycompany.myapp.cache;
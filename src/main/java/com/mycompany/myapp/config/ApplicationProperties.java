@@ -1,5 +1,11 @@
 package com.mycompany.myapp.config;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
@@ -9,4 +15,915 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  * See {@link tech.jhipster.config.JHipsterProperties} for a good example.
  */
 @ConfigurationProperties(prefix = "application", ignoreUnknownFields = false)
-public class ApplicationProperties {}
+public class ApplicationProperties {
+
+    private final Datasource datasource = new Datasource();
+
+    private final Bulk bulk = new Bulk();
+
+    private final Export export = new Export();
+
+    private final Cache cache = new Cache();
+
+    private final Security security = new Security();
+
+    private final Paging paging = new Paging();
+
+    public Datasource getDatasource() {
+        return datasource;
+    }
+
+    public Bulk getBulk() {
+        return bulk;
+    }
+
+    public Export getExport() {
+        return export;
+    }
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public Security getSecurity() {
+        return security;
+    }
+
+    public Paging getPaging() {
+        return paging;
+    }
+
+    /**
+     * Ehcache caches, Spring caches and Hibernate second-level cache regions alike.
+     */
+    public static class Cache {
+
+        public enum Provider {
+            EHCACHE,
+            CAFFEINE,
+        }
+
+        /**
+         * JCache provider of the caches: Ehcache, with optional off-heap and disk tiers, or Caffeine, which keeps the
+         * frequently used entries when scans go through the cache.
+         */
+        private Provider provider = Provider.EHCACHE;
+
+        /**
+         * Directory of the disk tiers, required when a cache has one.
+         */
+        private String diskPath;
+
+        public Provider getProvider() {
+            return provider;
+        }
+
+        public void setProvider(Provider provider) {
+            this.provider = provider;
+        }
+
+        /**
+         * Settings of the caches, by cache name. The caches which are not listed only have a heap tier, sized and
+         * expired as set by {@code jhipster.cache.ehcache}.
+         */
+        private final Map<String, CacheRegion> regions = new LinkedHashMap<>();
+
+        private final Invalidation invalidation = new Invalidation();
+
+        private final WarmUp warmUp = new WarmUp();
+
+        private final Coalescing coalescing = new Coalescing();
+
+        private final Metrics metrics = new Metrics();
+
+        public String getDiskPath() {
+            return diskPath;
+        }
+
+        public void setDiskPath(String diskPath) {
+            this.diskPath = diskPath;
+        }
+
+        public Map<String, CacheRegion> getRegions() {
+            return regions;
+        }
+
+        public Invalidation getInvalidation() {
+            return invalidation;
+        }
+
+        public WarmUp getWarmUp() {
+            return warmUp;
+        }
+
+        public Coalescing getCoalescing() {
+            return coalescing;
+        }
+
+        public Metrics getMetrics() {
+            return metrics;
+        }
+    }
+
+    public static class CacheRegion {
+
+        /**
+         * Maximum number of entries on heap, defaults to {@code jhipster.cache.ehcache.max-entries}.
+         */
+        private Long maxEntries;
+
+        /**
+         * How long an entry is kept after being written, defaults to {@code jhipster.cache.ehcache.time-to-live-seconds}.
+         */
+        private Long timeToLiveSeconds;
+
+        /**
+         * How long an entry is kept after being last read or written. Ehcache cannot bound both, so with Ehcache it
+         * takes precedence over the time to live when set.
+         */
+        private Long timeToIdleSeconds;
+
+        /**
+         * Whether the entries on heap are copied with Java serialization on every read and write, for values which
+         * their readers could modify. By default they are stored by reference: the second-level cache of Hibernate
+         * only stores disassembled state, which it never modifies. The lower tiers always store serialized entries.
+         */
+        private boolean storeByValue;
+
+        /**
+         * Size of the off-heap tier, outside of the garbage-collected heap. None when not set, Ehcache only.
+         */
+        private Long offHeapSizeMb;
+
+        /**
+         * Size of the disk tier, larger than the off-heap one. None when not set, Ehcache only.
+         */
+        private Long diskSizeMb;
+
+        /**
+         * Fraction of the time to live after which an entry is reloaded in the background, so that it does not expire
+         * while in use. No refresh when not set. Only for the entity caches and {@code usersByLogin}.
+         */
+        private Double refreshAheadRatio;
+
+        public Long getMaxEntries() {
+            return maxEntries;
+        }
+
+        public void setMaxEntries(Long maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+
+        public Long getTimeToLiveSeconds() {
+            return timeToLiveSeconds;
+        }
+
+        public void setTimeToLiveSeconds(Long timeToLiveSeconds) {
+            this.timeToLiveSeconds = timeToLiveSeconds;
+        }
+
+        public Long getTimeToIdleSeconds() {
+            return timeToIdleSeconds;
+        }
+
+        public void setTimeToIdleSeconds(Long timeToIdleSeconds) {
+            this.timeToIdleSeconds = timeToIdleSeconds;
+        }
+
+        public boolean isStoreByValue() {
+            return storeByValue;
+        }
+
+        public void setStoreByValue(boolean storeByValue) {
+            this.storeByValue = storeByValue;
+        }
+
+        public Long getOffHeapSizeMb() {
+            return offHeapSizeMb;
+        }
+
+        public void setOffHeapSizeMb(Long offHeapSizeMb) {
+            this.offHeapSizeMb = offHeapSizeMb;
+        }
+
+        public Long getDiskSizeMb() {
+            return diskSizeMb;
+        }
+
+        public void setDiskSizeMb(Long diskSizeMb) {
+            this.diskSizeMb = diskSizeMb;
+        }
+
+        public Double getRefreshAheadRatio() {
+            return refreshAheadRatio;
+        }
+
+        public void setRefreshAheadRatio(Double refreshAheadRatio) {
+            this.refreshAheadRatio = refreshAheadRatio;
+        }
+    }
+
+    /**
+     * Bulk create/update/delete requests.
+     */
+    public static class Bulk {
+
+        /**
+         * Number of operations applied in one transaction.
+         */
+        private int chunkSize = 500;
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+    }
+
+    /**
+     * Export requests, streamed from an asynchronous thread.
+     */
+    public static class Export {
+
+        /**
+         * Time an export may take to stream its response, instead of the timeout of the asynchronous requests (30
+         * seconds by default with Tomcat); 0 or less for none.
+         */
+        private long timeoutSeconds = 3600;
+
+        public long getTimeoutSeconds() {
+            return timeoutSeconds;
+        }
+
+        public void setTimeoutSeconds(long timeoutSeconds) {
+            this.timeoutSeconds = timeoutSeconds;
+        }
+    }
+
+    /**
+     * Authentication of the requests.
+     */
+    public static class Security {
+
+        /**
+         * Maximum number of verified JSON Web Tokens kept with their authentication, until they expire. 0 to verify
+         * every token on every request.
+         */
+        private int tokenCacheSize = 10_000;
+
+        private final PasswordHashing passwordHashing = new PasswordHashing();
+
+        public int getTokenCacheSize() {
+            return tokenCacheSize;
+        }
+
+        public void setTokenCacheSize(int tokenCacheSize) {
+            this.tokenCacheSize = tokenCacheSize;
+        }
+
+        public PasswordHashing getPasswordHashing() {
+            return passwordHashing;
+        }
+    }
+
+    /**
+     * Hashing and verification of the passwords, on a pool of their own so that a burst of logins cannot take the
+     * request threads.
+     */
+    public static class PasswordHashing {
+
+        /**
+         * Number of threads hashing passwords, half of the processors by default.
+         */
+        private int poolSize = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+        /**
+         * Number of passwords waiting for a thread, beyond which they are rejected.
+         */
+        private int queueCapacity = 50;
+
+        /**
+         * Maximum time a password waits for a thread, after which it is rejected without being hashed.
+         */
+        private long maxQueueMillis = 1000;
+
+        public int getPoolSize() {
+            return poolSize;
+        }
+
+        public void setPoolSize(int poolSize) {
+            this.poolSize = poolSize;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public long getMaxQueueMillis() {
+            return maxQueueMillis;
+        }
+
+        public void setMaxQueueMillis(long maxQueueMillis) {
+            this.maxQueueMillis = maxQueueMillis;
+        }
+    }
+
+    /**
+     * Totals of the paged listings, sent in the {@code X-Total-Count} header.
+     */
+    public static class Paging {
+
+        /**
+         * {@code GET /api/users}.
+         */
+        private final PagedListing publicUsers = new PagedListing(PagedListing.Count.CACHED);
+
+        /**
+         * {@code GET /api/admin/users}.
+         */
+        private final PagedListing users = new PagedListing(PagedListing.Count.EXACT);
+
+        public PagedListing getPublicUsers() {
+            return publicUsers;
+        }
+
+        public PagedListing getUsers() {
+            return users;
+        }
+    }
+
+    /**
+     * How the total of a paged listing is counted, when its page is not the last one.
+     */
+    public static class PagedListing {
+
+        public enum Count {
+            /**
+             * Counted on every page.
+             */
+            EXACT,
+            /**
+             * Counted once, then kept until the table is written to or the time to live is over.
+             */
+            CACHED,
+            /**
+             * Estimated from the statistics of the table, at least the rows already paged through.
+             */
+            ESTIMATED,
+            /**
+             * Not counted: no {@code X-Total-Count} header, only links to the previous and next pages.
+             */
+            NONE,
+        }
+
+        private Count count;
+
+        /**
+         * How long a cached total is kept, at most.
+         */
+        private long countTtlSeconds = 60;
+
+        public PagedListing() {
+            this(Count.EXACT);
+        }
+
+        public PagedListing(Count count) {
+            this.count = count;
+        }
+
+        public Count getCount() {
+            return count;
+        }
+
+        public void setCount(Count count) {
+            this.count = count;
+        }
+
+        public long getCountTtlSeconds() {
+            return countTtlSeconds;
+        }
+
+        public void setCountTtlSeconds(long countTtlSeconds) {
+            this.countTtlSeconds = countTtlSeconds;
+        }
+    }
+
+    public static class Datasource {
+
+        /**
+         * Read replicas of the primary database, used by read-only transactions.
+         */
+        private final List<Database> replicas = new ArrayList<>();
+
+        /**
+         * Additional shards for the sharded entities, the primary database being shard 0.
+         */
+        private final List<Database> shards = new ArrayList<>();
+
+        /**
+         * How long a replica that failed to hand out a connection is skipped before being tried again.
+         */
+        private long replicaRetryIntervalSeconds = 30;
+
+        private final ScatterGather scatterGather = new ScatterGather();
+
+        private final Tenancy tenancy = new Tenancy();
+
+        public List<Database> getReplicas() {
+            return replicas;
+        }
+
+        public List<Database> getShards() {
+            return shards;
+        }
+
+        public long getReplicaRetryIntervalSeconds() {
+            return replicaRetryIntervalSeconds;
+        }
+
+        public void setReplicaRetryIntervalSeconds(long replicaRetryIntervalSeconds) {
+            this.replicaRetryIntervalSeconds = replicaRetryIntervalSeconds;
+        }
+
+        public ScatterGather getScatterGather() {
+            return scatterGather;
+        }
+
+        public Tenancy getTenancy() {
+            return tenancy;
+        }
+    }
+
+    /**
+     * Loading of the entries which were cached at the last shutdown, before the application reports itself ready.
+     */
+    public static class WarmUp {
+
+        /**
+         * File of the keys cached at shutdown, read at startup. No warm-up when not set.
+         */
+        private String snapshotFile;
+
+        /**
+         * Maximum number of keys saved per cache.
+         */
+        private int maxKeysPerCache = 1000;
+
+        /**
+         * Number of entries loaded per query.
+         */
+        private int batchSize = 100;
+
+        /**
+         * Maximum duration of the warm-up, after which the application starts with the caches loaded so far.
+         */
+        private long timeoutSeconds = 60;
+
+        /**
+         * How often the entries due for a refresh ahead of their expiry are reloaded.
+         */
+        private long refreshIntervalMillis = 10_000;
+
+        public String getSnapshotFile() {
+            return snapshotFile;
+        }
+
+        public void setSnapshotFile(String snapshotFile) {
+            this.snapshotFile = snapshotFile;
+        }
+
+        public int getMaxKeysPerCache() {
+            return maxKeysPerCache;
+        }
+
+        public void setMaxKeysPerCache(int maxKeysPerCache) {
+            this.maxKeysPerCache = maxKeysPerCache;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public long getTimeoutSeconds() {
+            return timeoutSeconds;
+        }
+
+        public void setTimeoutSeconds(long timeoutSeconds) {
+            this.timeoutSeconds = timeoutSeconds;
+        }
+
+        public long getRefreshIntervalMillis() {
+            return refreshIntervalMillis;
+        }
+
+        public void setRefreshIntervalMillis(long refreshIntervalMillis) {
+            this.refreshIntervalMillis = refreshIntervalMillis;
+        }
+    }
+
+    /**
+     * Coalescing of the concurrent loads of the same cache entry into a single database query.
+     */
+    public static class Coalescing {
+
+        /**
+         * Maximum time a caller waits for the load of another caller, before loading the entry itself.
+         */
+        private long timeoutMillis = 5_000;
+
+        public long getTimeoutMillis() {
+            return timeoutMillis;
+        }
+
+        public void setTimeoutMillis(long timeoutMillis) {
+            this.timeoutMillis = timeoutMillis;
+        }
+    }
+
+    /**
+     * Metrics of the caches, and tracking of their most read keys.
+     */
+    public static class Metrics {
+
+        /**
+         * Number of most read keys listed per cache by the {@code hotkeys} management endpoint, none being tracked when 0.
+         */
+        private int hotKeys = 10;
+
+        /**
+         * Number of counters per row of the sketch counting the reads of the keys of each cache.
+         */
+        private int sketchWidth = 2048;
+
+        /**
+         * Number of rows of the sketch, each row adding to the accuracy of the counts.
+         */
+        private int sketchDepth = 4;
+
+        /**
+         * How often the number of entries and the memory used by each cache are measured.
+         */
+        private long footprintIntervalMillis = 300_000;
+
+        /**
+         * Number of entries read and serialized per cache to estimate the memory it uses.
+         */
+        private int footprintSampleSize = 100;
+
+        public int getHotKeys() {
+            return hotKeys;
+        }
+
+        public void setHotKeys(int hotKeys) {
+            this.hotKeys = hotKeys;
+        }
+
+        public int getSketchWidth() {
+            return sketchWidth;
+        }
+
+        public void setSketchWidth(int sketchWidth) {
+            this.sketchWidth = sketchWidth;
+        }
+
+        public int getSketchDepth() {
+            return sketchDepth;
+        }
+
+        public void setSketchDepth(int sketchDepth) {
+            this.sketchDepth = sketchDepth;
+        }
+
+        public long getFootprintIntervalMillis() {
+            return footprintIntervalMillis;
+        }
+
+        public void setFootprintIntervalMillis(long footprintIntervalMillis) {
+            this.footprintIntervalMillis = footprintIntervalMillis;
+        }
+
+        public int getFootprintSampleSize() {
+            return footprintSampleSize;
+        }
+
+        public void setFootprintSampleSize(int footprintSampleSize) {
+            this.footprintSampleSize = footprintSampleSize;
+        }
+    }
+
+    /**
+     * Invalidation of the caches of the other instances of the application, when an instance evicts an entry.
+     */
+    public static class Invalidation {
+
+        public enum Transport {
+            JDBC,
+            MULTICAST,
+            LOOPBACK,
+        }
+
+        /**
+         * How evictions are broadcast: through a table of the primary database polled by every instance, through UDP
+         * multicast on the local network, or within the JVM for tests. Disabled when not set, for a single instance only:
+         * the caches and the cached query results of an instance would otherwise ignore the writes of the others.
+         */
+        private Transport transport;
+
+        /**
+         * How long evictions are collected before being broadcast together.
+         */
+        private long batchIntervalMillis = 100;
+
+        /**
+         * Maximum number of evictions in a message, a larger burst being split.
+         */
+        private int maxBatchSize = 200;
+
+        /**
+         * How often the table of the JDBC transport is polled.
+         */
+        private long pollIntervalMillis = 1000;
+
+        /**
+         * How long the messages are kept in the table of the JDBC transport, long enough for every instance to read them.
+         */
+        private long retentionSeconds = 600;
+
+        /**
+         * Multicast group of the multicast transport.
+         */
+        private String multicastGroup = "239.255.27.1";
+
+        /**
+         * UDP port of the multicast transport.
+         */
+        private int multicastPort = 45700;
+
+        public Transport getTransport() {
+            return transport;
+        }
+
+        public void setTransport(Transport transport) {
+            this.transport = transport;
+        }
+
+        public long getBatchIntervalMillis() {
+            return batchIntervalMillis;
+        }
+
+        public void setBatchIntervalMillis(long batchIntervalMillis) {
+            this.batchIntervalMillis = batchIntervalMillis;
+        }
+
+        public int getMaxBatchSize() {
+            return maxBatchSize;
+        }
+
+        public void setMaxBatchSize(int maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+        }
+
+        public long getPollIntervalMillis() {
+            return pollIntervalMillis;
+        }
+
+        public void setPollIntervalMillis(long pollIntervalMillis) {
+            this.pollIntervalMillis = pollIntervalMillis;
+        }
+
+        public long getRetentionSeconds() {
+            return retentionSeconds;
+        }
+
+        public void setRetentionSeconds(long retentionSeconds) {
+            this.retentionSeconds = retentionSeconds;
+        }
+
+        public String getMulticastGroup() {
+            return multicastGroup;
+        }
+
+        public void setMulticastGroup(String multicastGroup) {
+            this.multicastGroup = multicastGroup;
+        }
+
+        public int getMulticastPort() {
+            return multicastPort;
+        }
+
+        public void setMulticastPort(int multicastPort) {
+            this.multicastPort = multicastPort;
+        }
+    }
+
+    /**
+     * Queries fanned out to all shards.
+     */
+    public static class ScatterGather {
+
+        /**
+         * Number of threads querying the shards, a query using two threads per shard, one for a slice. A query only
+         * starts once it has all its threads, and is rejected when it cannot get them within the timeout.
+         */
+        private int poolSize = 16;
+
+        /**
+         * Number of shard queries waiting for a thread, beyond which queries are rejected.
+         */
+        private int queueCapacity = 100;
+
+        /**
+         * Maximum time to wait for a shard to deliver its next rows.
+         */
+        private long timeoutMillis = 5000;
+
+        /**
+         * Number of rows buffered per shard while merging.
+         */
+        private int bufferSize = 256;
+
+        public int getPoolSize() {
+            return poolSize;
+        }
+
+        public void setPoolSize(int poolSize) {
+            this.poolSize = poolSize;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public long getTimeoutMillis() {
+            return timeoutMillis;
+        }
+
+        public void setTimeoutMillis(long timeoutMillis) {
+            this.timeoutMillis = timeoutMillis;
+        }
+
+        public int getBufferSize() {
+            return bufferSize;
+        }
+
+        public void setBufferSize(int bufferSize) {
+            this.bufferSize = bufferSize;
+        }
+    }
+
+    /**
+     * Tenants hosted on their own database, next to the default tenant using the primary database.
+     */
+    public static class Tenancy {
+
+        /**
+         * JDBC URL of the tenant databases, {@code {tenant}} being replaced by the tenant identifier. Tenancy is
+         * disabled when not set.
+         */
+        private String urlTemplate;
+
+        /**
+         * Identifiers of the tenants which have a database: the requests of the other tenants are rejected, without
+         * creating a pool for them.
+         */
+        private Set<String> tenants = new LinkedHashSet<>();
+
+        /**
+         * Credentials of the tenant databases, default to the primary database ones.
+         */
+        private String username;
+
+        private String password;
+
+        /**
+         * Maximum size of each tenant pool.
+         */
+        private int maximumPoolSize = 5;
+
+        /**
+         * How long an idle connection of a tenant pool is kept open.
+         */
+        private long idleTimeoutSeconds = 60;
+
+        /**
+         * Maximum number of tenant pools: beyond it, the least recently used pools without active connections are closed.
+         */
+        private int maxPools = 50;
+
+        public String getUrlTemplate() {
+            return urlTemplate;
+        }
+
+        public void setUrlTemplate(String urlTemplate) {
+            this.urlTemplate = urlTemplate;
+        }
+
+        public Set<String> getTenants() {
+            return tenants;
+        }
+
+        public void setTenants(Set<String> tenants) {
+            this.tenants = tenants;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+
+        public int getMaximumPoolSize() {
+            return maximumPoolSize;
+        }
+
+        public void setMaximumPoolSize(int maximumPoolSize) {
+            this.maximumPoolSize = maximumPoolSize;
+        }
+
+        public long getIdleTimeoutSeconds() {
+            return idleTimeoutSeconds;
+        }
+
+        public void setIdleTimeoutSeconds(long idleTimeoutSeconds) {
+            this.idleTimeoutSeconds = idleTimeoutSeconds;
+        }
+
+        public int getMaxPools() {
+            return maxPools;
+        }
+
+        public void setMaxPools(int maxPools) {
+            this.maxPools = maxPools;
+        }
+    }
+
+    public static class Database {
+
+        private String url;
+
+        private String username;
+
+        private String password;
+
+        /**
+         * Maximum size of the pool, defaults to the size of the primary pool.
+         */
+        private Integer maximumPoolSize;
+
+        public String getUrl() {
+            return url;
+        }
+
+        public void setUrl(String url) {
+            this.url = url;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+
+        public Integer getMaximumPoolSize() {
+            return maximumPoolSize;
+        }
+
+        public void setMaximumPoolSize(Integer maximumPoolSize) {
+            this.maximumPoolSize = maximumPoolSize;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.mycompany.myapp.config;
+
+import com.mycompany.myapp.web.rest.ExportRequestHandler;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Configure the asynchronous requests, giving the exports their own timeout.
+ */
+@Configuration
+public class AsyncRequestConfiguration implements WebMvcConfigurer {
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.registerCallableInterceptors(new ExportRequestHandler.TimeoutInterceptor());
+    }
+}
@@ -1,17 +1,47 @@
 package com.mycompany.myapp.config;
 
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import com.mycompany.myapp.cache.CoalescingCacheManager;
+import com.mycompany.myapp.cache.HotKeys;
+import com.mycompany.myapp.cache.HotKeysCacheManager;
+import com.mycompany.myapp.cache.SingleFlight;
+import com.mycompany.myapp.datasource.TenantContextHolder;
+import java.io.File;
+import java.io.Serializable;
 import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+import javax.cache.Caching;
 import org.ehcache.config.builders.*;
+import org.ehcache.config.units.MemoryUnit;
+import org.ehcache.core.config.DefaultConfiguration;
+import org.ehcache.expiry.ExpiryPolicy;
+import org.ehcache.impl.config.persistence.DefaultPersistenceConfiguration;
+import org.ehcache.impl.copy.IdentityCopier;
 import org.ehcache.jsr107.Eh107Configuration;
+import org.ehcache.jsr107.EhcacheCachingProvider;
 import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.boot.autoconfigure.cache.JCacheManagerCustomizer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
 import org.springframework.boot.info.BuildProperties;
 import org.springframework.boot.info.GitProperties;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.interceptor.KeyGenerator;
 import org.springframework.context.annotation.*;
+import org.springframework.core.Ordered;
 import tech.jhipster.config.JHipsterProperties;
 import tech.jhipster.config.cache.PrefixedKeyGenerator;
 
@@ -21,18 +51,41 @@ public class CacheConfiguration {
 
     private GitProperties gitProperties;
     private BuildProperties buildProperties;
-    private final javax.cache.configuration.Configuration<Object, Object> jcacheConfiguration;
+    private final JHipsterProperties.Cache.Ehcache ehcache;
+    private final ApplicationProperties.Cache cacheProperties;
 
-    public CacheConfiguration(JHipsterProperties jHipsterProperties) {
-        JHipsterProperties.Cache.Ehcache ehcache = jHipsterProperties.getCache().getEhcache();
+    public CacheConfiguration(JHipsterProperties jHipsterProperties, ApplicationProperties applicationProperties) {
+        this.ehcache = jHipsterProperties.getCache().getEhcache();
+        this.cacheProperties = applicationProperties.getCache();
+    }
 
-        jcacheConfiguration =
-            Eh107Configuration.fromEhcacheCacheConfiguration(
-                CacheConfigurationBuilder
-                    .newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(ehcache.getMaxEntries()))
-                    .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofSeconds(ehcache.getTimeToLiveSeconds())))
-                    .build()
-            );
+    /**
+     * The JCache cache manager of the configured provider, used by the second-level cache of Hibernate and by the
+     * Spring caches alike.
+     * <p>
+     * With Ehcache, the cache manager gets a directory for the disk tiers when one is set: Ehcache only creates disk
+     * tiers in a cache manager configured with a persistence directory, which its default cache manager is not.
+     */
+    @Bean
+    public javax.cache.CacheManager jCacheCacheManager(ObjectProvider<JCacheManagerCustomizer> cacheManagerCustomizers) {
+        javax.cache.CacheManager cacheManager;
+        if (cacheProperties.getProvider() == ApplicationProperties.Cache.Provider.CAFFEINE) {
+            cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName()).getCacheManager();
+        } else {
+            EhcacheCachingProvider provider = (EhcacheCachingProvider) Caching.getCachingProvider(EhcacheCachingProvider.class.getName());
+            cacheManager =
+                cacheProperties.getDiskPath() == null
+                    ? provider.getCacheManager()
+                    : provider.getCacheManager(
+                        provider.getDefaultURI(),
+                        new DefaultConfiguration(
+                            provider.getDefaultClassLoader(),
+                            new DefaultPersistenceConfiguration(new File(cacheProperties.getDiskPath()))
+                        )
+                    );
+        }
+        cacheManagerCustomizers.orderedStream().forEach(customizer -> customizer.customize(cacheManager));
+        return cacheManager;
     }
 
     @Bean
@@ -40,6 +93,37 @@ public class CacheConfiguration {
         return hibernateProperties -> hibernateProperties.put(ConfigSettings.CACHE_MANAGER, cacheManager);
     }
 
+    /**
+     * With tenancy, keep apart the Spring caches of each tenant, as Hibernate does for its second-level cache.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "application.datasource.tenancy", name = "url-template")
+    public static BeanPostProcessor tenantCacheManagerPostProcessor() {
+        return new CacheManagerPostProcessor(Ordered.HIGHEST_PRECEDENCE, TenantCacheManager::new);
+    }
+
+    /**
+     * Coalesces the concurrent loads of the synchronized caches, around the tenant caches.
+     */
+    @Bean
+    public static BeanPostProcessor coalescingCacheManagerPostProcessor(ObjectProvider<SingleFlight> singleFlight) {
+        return new CacheManagerPostProcessor(
+            Ordered.HIGHEST_PRECEDENCE + 1,
+            cacheManager -> new CoalescingCacheManager(cacheManager, singleFlight.getObject())
+        );
+    }
+
+    /**
+     * Counts the reads of the keys of the Spring caches, around the coalescing caches.
+     */
+    @Bean
+    public static BeanPostProcessor hotKeysCacheManagerPostProcessor(ObjectProvider<HotKeys> hotKeys) {
+        return new CacheManagerPostProcessor(
+            Ordered.HIGHEST_PRECEDENCE + 2,
+            cacheManager -> new HotKeysCacheManager(cacheManager, hotKeys.getObject())
+        );
+    }
+
     @Bean
     public JCacheManagerCustomizer cacheManagerCustomizer() {
         return cm -> {
@@ -50,6 +134,7 @@ public class CacheConfiguration {
             createCache(cm, com.mycompany.myapp.domain.User.class.getName() + ".authorities");
             createCache(cm, com.mycompany.myapp.domain.BankAccount.class.getName());
             createCache(cm, com.mycompany.myapp.domain.CreditCard.class.getName());
+            createCache(cm, com.mycompany.myapp.cache.QueryResultCache.QUERY_RESULTS_CACHE);
             // jhipster-needle-ehcache-add-entry
         };
     }
@@ -59,8 +144,90 @@ public class CacheConfiguration {
         if (cache != null) {
             cache.clear();
         } else {
-            cm.createCache(cacheName, jcacheConfiguration);
+            cm.createCache(cacheName, jcacheConfiguration(cacheName));
+        }
+        // Published by CacheMetrics
+        cm.enableStatistics(cacheName, true);
+    }
+
+    /**
+     * Build the configuration of a cache from its settings in {@link ApplicationProperties.Cache#getRegions()}, falling
+     * back to the {@code jhipster.cache.ehcache} ones.
+     */
+    public javax.cache.configuration.Configuration<Object, Object> jcacheConfiguration(String cacheName) {
+        ApplicationProperties.CacheRegion region = cacheProperties
+            .getRegions()
+            .getOrDefault(cacheName, new ApplicationProperties.CacheRegion());
+        return cacheProperties.getProvider() == ApplicationProperties.Cache.Provider.CAFFEINE
+            ? caffeineConfiguration(cacheName, region)
+            : ehcacheConfiguration(cacheName, region);
+    }
+
+    /**
+     * Entries overflow from the heap to the off-heap tier, then to the disk tier. Both store serialized entries, so
+     * that they can hold a much larger working set than the heap without adding to the garbage collection pauses. The
+     * disk tier is not persistent: entries left from a previous run could be stale.
+     * <p>
+     * On heap, entries are stored by reference unless the cache stores by value, so that a hit costs no copy.
+     */
+    private javax.cache.configuration.Configuration<Object, Object> ehcacheConfiguration(
+        String cacheName,
+        ApplicationProperties.CacheRegion region
+    ) {
+        ResourcePoolsBuilder resourcePools = ResourcePoolsBuilder.heap(maxEntries(region));
+        if (region.getOffHeapSizeMb() != null) {
+            resourcePools = resourcePools.offheap(region.getOffHeapSizeMb(), MemoryUnit.MB);
+        }
+        if (region.getDiskSizeMb() != null) {
+            if (cacheProperties.getDiskPath() == null) {
+                throw new IllegalStateException("The cache " + cacheName + " has a disk tier, but application.cache.disk-path is not set");
+            }
+            resourcePools = resourcePools.disk(region.getDiskSizeMb(), MemoryUnit.MB, false);
+        }
+
+        ExpiryPolicy<Object, Object> expiry = region.getTimeToIdleSeconds() != null
+            ? ExpiryPolicyBuilder.timeToIdleExpiration(Duration.ofSeconds(region.getTimeToIdleSeconds()))
+            : ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofSeconds(timeToLiveSeconds(region)));
+
+        CacheConfigurationBuilder<Object, Object> configuration = CacheConfigurationBuilder
+            .newCacheConfigurationBuilder(Object.class, Object.class, resourcePools)
+            .withExpiry(expiry);
+        // Copies use the compact serializer of the lower tiers, which writes each class descriptor once per cache
+        configuration =
+            region.isStoreByValue()
+                ? configuration.withKeySerializingCopier().withValueSerializingCopier()
+                : configuration.withKeyCopier(IdentityCopier.identityCopier()).withValueCopier(IdentityCopier.identityCopier());
+        return Eh107Configuration.fromEhcacheCacheConfiguration(configuration.build());
+    }
+
+    /**
+     * Caffeine evicts with W-TinyLFU: a new entry only replaces the victim of the main space if it was used more often
+     * recently, so that the entries read once by a scan do not flush the frequently used ones. Entries are kept by
+     * reference unless the cache stores by value, and can expire both after a write and after the last access.
+     */
+    private javax.cache.configuration.Configuration<Object, Object> caffeineConfiguration(
+        String cacheName,
+        ApplicationProperties.CacheRegion region
+    ) {
+        if (region.getOffHeapSizeMb() != null || region.getDiskSizeMb() != null) {
+            throw new IllegalStateException("The cache " + cacheName + " has off-heap or disk tiers, which Caffeine does not support");
+        }
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setStoreByValue(region.isStoreByValue());
+        configuration.setMaximumSize(OptionalLong.of(maxEntries(region)));
+        configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.SECONDS.toNanos(timeToLiveSeconds(region))));
+        if (region.getTimeToIdleSeconds() != null) {
+            configuration.setExpireAfterAccess(OptionalLong.of(TimeUnit.SECONDS.toNanos(region.getTimeToIdleSeconds())));
         }
+        return configuration;
+    }
+
+    private long maxEntries(ApplicationProperties.CacheRegion region) {
+        return region.getMaxEntries() != null ? region.getMaxEntries() : ehcache.getMaxEntries();
+    }
+
+    private long timeToLiveSeconds(ApplicationProperties.CacheRegion region) {
+        return region.getTimeToLiveSeconds() != null ? region.getTimeToLiveSeconds() : ehcache.getTimeToLiveSeconds();
     }
 
     @Autowired(required = false)
@@ -77,4 +244,183 @@ public class CacheConfiguration {
     public KeyGenerator keyGenerator() {
         return new PrefixedKeyGenerator(this.gitProperties, this.buildProperties);
     }
+
+    /**
+     * Wraps the Spring cache manager, the wrappers of lower precedence wrapping the others.
+     */
+    static class CacheManagerPostProcessor implements BeanPostProcessor, Ordered {
+
+        private final int order;
+
+        private final UnaryOperator<CacheManager> wrapper;
+
+        CacheManagerPostProcessor(int order, UnaryOperator<CacheManager> wrapper) {
+            this.order = order;
+            this.wrapper = wrapper;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            return bean instanceof CacheManager ? wrapper.apply((CacheManager) bean) : bean;
+        }
+
+        @Override
+        public int getOrder() {
+            return order;
+        }
+    }
+
+    /**
+     * Prefixes the cache keys with the current tenant, the default tenant using the keys as they are.
+     */
+    static class TenantCacheManager implements CacheManager {
+
+        private final CacheManager delegate;
+
+        TenantCacheManager(CacheManager delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Cache getCache(String name) {
+            Cache cache = delegate.getCache(name);
+            if (cache == null) {
+                return null;
+            }
+            return new TenantCache(cache, TenantContextHolder.isDefaultTenant() ? null : TenantContextHolder.getTenant());
+        }
+
+        @Override
+        public Collection<String> getCacheNames() {
+            return delegate.getCacheNames();
+        }
+    }
+
+    static class TenantCache implements Cache {
+
+        private final Cache delegate;
+
+        private final String tenant;
+
+        TenantCache(Cache delegate, String tenant) {
+            this.delegate = delegate;
+            this.tenant = tenant;
+        }
+
+        private Object tenantKey(Object key) {
+            return tenant == null ? key : new TenantKey(tenant, key);
+        }
+
+        private boolean isTenantKey(Object key) {
+            if (tenant == null) {
+                return !(key instanceof TenantKey);
+            }
+            return key instanceof TenantKey && tenant.equals(((TenantKey) key).tenant);
+        }
+
+        @Override
+        public String getName() {
+            return delegate.getName();
+        }
+
+        @Override
+        public Object getNativeCache() {
+            return delegate.getNativeCache();
+        }
+
+        @Override
+        public ValueWrapper get(Object key) {
+            return delegate.get(tenantKey(key));
+        }
+
+        @Override
+        public <T> T get(Object key, Class<T> type) {
+            return delegate.get(tenantKey(key), type);
+        }
+
+        @Override
+        public <T> T get(Object key, Callable<T> valueLoader) {
+            return delegate.get(tenantKey(key), valueLoader);
+        }
+
+        @Override
+        public void put(Object key, Object value) {
+            delegate.put(tenantKey(key), value);
+        }
+
+        @Override
+        public ValueWrapper putIfAbsent(Object key, Object value) {
+            return delegate.putIfAbsent(tenantKey(key), value);
+        }
+
+        @Override
+        public void evict(Object key) {
+            delegate.evict(tenantKey(key));
+        }
+
+        @Override
+        public boolean evictIfPresent(Object key) {
+            return delegate.evictIfPresent(tenantKey(key));
+        }
+
+        /**
+         * Clears the entries of the tenant only, going through the keys of all tenants.
+         */
+        @Override
+        @SuppressWarnings("unchecked")
+        public void clear() {
+            Object nativeCache = delegate.getNativeCache();
+            if (!(nativeCache instanceof javax.cache.Cache)) {
+                delegate.clear();
+                return;
+            }
+            javax.cache.Cache<Object, Object> cache = (javax.cache.Cache<Object, Object>) nativeCache;
+            Set<Object> keys = new HashSet<>();
+            for (javax.cache.Cache.Entry<Object, Object> entry : cache) {
+                if (isTenantKey(entry.getKey())) {
+                    keys.add(entry.getKey());
+                }
+            }
+            cache.removeAll(keys);
+        }
+    }
+
+    /**
+     * A key of a tenant other than the default tenant.
+     */
+    static final class TenantKey implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String tenant;
+
+        private final Object key;
+
+        TenantKey(String tenant, Object key) {
+            this.tenant = tenant;
+            this.key = key;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof TenantKey)) {
+                return false;
+            }
+            TenantKey that = (TenantKey) o;
+            return tenant.equals(that.tenant) && Objects.equals(key, that.key);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(tenant, key);
+        }
+
+        @Override
+        public String toString() {
+            return tenant + ":" + key;
+        }
+    }
 }
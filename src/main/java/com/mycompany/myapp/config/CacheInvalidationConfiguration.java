@@ -0,0 +1,87 @@
+package com.mycompany.myapp.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.myapp.cache.CacheInvalidationBus;
+import com.mycompany.myapp.cache.CacheInvalidationTransport;
+import com.mycompany.myapp.cache.HibernateCacheInvalidation;
+import com.mycompany.myapp.cache.InvalidatingCacheManager;
+import com.mycompany.myapp.cache.JdbcCacheInvalidationTransport;
+import com.mycompany.myapp.cache.LoopbackCacheInvalidationTransport;
+import com.mycompany.myapp.cache.MulticastCacheInvalidationTransport;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Collections;
+import org.hibernate.jpa.boot.internal.EntityManagerFactoryBuilderImpl;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+
+/**
+ * Invalidation of the Spring caches and of the second-level cache of Hibernate across the instances of the
+ * application, enabled by setting {@code application.cache.invalidation.transport}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "application.cache.invalidation", name = "transport")
+public class CacheInvalidationConfiguration {
+
+    private final ApplicationProperties.Invalidation properties;
+
+    public CacheInvalidationConfiguration(ApplicationProperties applicationProperties) {
+        this.properties = applicationProperties.getCache().getInvalidation();
+    }
+
+    /**
+     * The JDBC transport uses transactions of its own data source: the transaction manager of JPA depends on the second-level
+     * cache, which depends on the transport.
+     */
+    @Bean
+    public CacheInvalidationTransport cacheInvalidationTransport(ObjectProvider<JdbcTemplate> jdbcTemplate) throws UnknownHostException {
+        switch (properties.getTransport()) {
+            case JDBC:
+                JdbcTemplate template = jdbcTemplate.getObject();
+                return new JdbcCacheInvalidationTransport(
+                    template,
+                    new DataSourceTransactionManager(template.getDataSource()),
+                    properties.getPollIntervalMillis(),
+                    properties.getRetentionSeconds()
+                );
+            case MULTICAST:
+                return new MulticastCacheInvalidationTransport(
+                    InetAddress.getByName(properties.getMulticastGroup()),
+                    properties.getMulticastPort()
+                );
+            default:
+                return new LoopbackCacheInvalidationTransport();
+        }
+    }
+
+    @Bean
+    public CacheInvalidationBus cacheInvalidationBus(CacheInvalidationTransport transport, ObjectMapper objectMapper) {
+        return new CacheInvalidationBus(transport, objectMapper, properties);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer cacheInvalidationHibernatePropertiesCustomizer(CacheInvalidationBus bus) {
+        HibernateCacheInvalidation hibernateCacheInvalidation = new HibernateCacheInvalidation(bus);
+        IntegratorProvider integratorProvider = () -> Collections.singletonList(hibernateCacheInvalidation);
+        return hibernateProperties -> hibernateProperties.put(EntityManagerFactoryBuilderImpl.INTEGRATOR_PROVIDER, integratorProvider);
+    }
+
+    /**
+     * Wraps the Spring cache manager last, so that the evictions are applied for their tenant.
+     */
+    @Bean
+    public static BeanPostProcessor invalidatingCacheManagerPostProcessor(ObjectProvider<CacheInvalidationBus> bus) {
+        return new CacheConfiguration.CacheManagerPostProcessor(
+            Ordered.LOWEST_PRECEDENCE,
+            cacheManager -> new InvalidatingCacheManager(cacheManager, bus.getObject())
+        );
+    }
+}
@@ -1,14 +1,40 @@
 package com.mycompany.myapp.config;
 
+import com.mycompany.myapp.datasource.ReadWriteRoutingDataSource;
+import com.mycompany.myapp.datasource.ShardContextHolder;
+import com.mycompany.myapp.datasource.ShardRoutingDataSource;
+import com.mycompany.myapp.datasource.TenantConnectionProvider;
+import com.mycompany.myapp.datasource.TenantDataSources;
+import com.mycompany.myapp.datasource.TenantIdentifierResolver;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.sql.SQLException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.hibernate.MultiTenancyStrategy;
+import org.hibernate.cfg.AvailableSettings;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.AnyNestedCondition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.liquibase.LiquibaseDataSource;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Conditional;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.context.annotation.Profile;
 import org.springframework.core.env.Environment;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 import tech.jhipster.config.JHipsterConstants;
 import tech.jhipster.config.h2.H2ConfigurationHelper;
@@ -54,4 +80,161 @@ public class DatabaseConfiguration {
         }
         return String.valueOf(port);
     }
+
+    /**
+     * Read/write splitting and sharding, enabled when {@code application.datasource.replicas} or
+     * {@code application.datasource.shards} are configured.
+     * <p>
+     * The primary pool, configured as usual by {@code spring.datasource}, is shard 0: it serves the writes, while
+     * read-only transactions go to one of its replica pools. The additional shards are plain pools. All pools inherit
+     * the primary pool settings.
+     */
+    @Configuration
+    @Conditional(OnRoutingCondition.class)
+    public static class RoutingConfiguration {
+
+        private final Logger log = LoggerFactory.getLogger(RoutingConfiguration.class);
+
+        private final ApplicationProperties applicationProperties;
+
+        public RoutingConfiguration(ApplicationProperties applicationProperties) {
+            this.applicationProperties = applicationProperties;
+        }
+
+        @Bean
+        @LiquibaseDataSource
+        @ConfigurationProperties("spring.datasource.hikari")
+        public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+            return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        }
+
+        @Bean
+        public ReadWriteRoutingDataSource readWriteRoutingDataSource(
+            HikariDataSource primaryDataSource,
+            ObjectProvider<MeterRegistry> meterRegistry
+        ) {
+            ApplicationProperties.Datasource properties = applicationProperties.getDatasource();
+            List<ApplicationProperties.Database> replicas = properties.getReplicas();
+            Map<String, DataSource> replicaDataSources = new LinkedHashMap<>();
+            for (int i = 0; i < replicas.size(); i++) {
+                HikariDataSource replicaDataSource = createDataSource(primaryDataSource, replicas.get(i), "replica-" + i, meterRegistry);
+                replicaDataSource.setReadOnly(true);
+                replicaDataSources.put(replicaDataSource.getPoolName(), replicaDataSource);
+            }
+            log.debug("Routing read-only transactions to {} replica(s)", replicaDataSources.size());
+            ReadWriteRoutingDataSource routingDataSource = new ReadWriteRoutingDataSource(
+                primaryDataSource,
+                replicaDataSources,
+                Duration.ofSeconds(properties.getReplicaRetryIntervalSeconds())
+            );
+            meterRegistry.ifAvailable(routingDataSource::bindTo);
+            return routingDataSource;
+        }
+
+        @Bean
+        public ShardRoutingDataSource shardRoutingDataSource(
+            HikariDataSource primaryDataSource,
+            ReadWriteRoutingDataSource readWriteRoutingDataSource,
+            ObjectProvider<MeterRegistry> meterRegistry
+        ) {
+            List<ApplicationProperties.Database> shards = applicationProperties.getDatasource().getShards();
+            Map<Integer, DataSource> shardDataSources = new LinkedHashMap<>();
+            shardDataSources.put(ShardContextHolder.DEFAULT_SHARD, readWriteRoutingDataSource);
+            for (int i = 0; i < shards.size(); i++) {
+                shardDataSources.put(i + 1, createDataSource(primaryDataSource, shards.get(i), "shard-" + (i + 1), meterRegistry));
+            }
+            log.debug("Routing sharded entities to {} shard(s)", shardDataSources.size());
+            return new ShardRoutingDataSource(shardDataSources);
+        }
+
+        /**
+         * The data source used by JPA: the routing decision is deferred to the first statement of each transaction,
+         * once its read-only flag and its shard are known.
+         */
+        @Bean
+        @Primary
+        public DataSource dataSource(ShardRoutingDataSource shardRoutingDataSource) {
+            return new LazyConnectionDataSourceProxy(shardRoutingDataSource);
+        }
+
+        private HikariDataSource createDataSource(
+            HikariDataSource primaryDataSource,
+            ApplicationProperties.Database database,
+            String name,
+            ObjectProvider<MeterRegistry> meterRegistry
+        ) {
+            HikariDataSource dataSource = new HikariDataSource();
+            primaryDataSource.copyStateTo(dataSource);
+            String poolName = primaryDataSource.getPoolName() != null ? primaryDataSource.getPoolName() : "Hikari";
+            dataSource.setPoolName(poolName + "-" + name);
+            dataSource.setJdbcUrl(database.getUrl());
+            if (database.getUsername() != null) {
+                dataSource.setUsername(database.getUsername());
+                dataSource.setPassword(database.getPassword());
+            }
+            if (database.getMaximumPoolSize() != null) {
+                dataSource.setMaximumPoolSize(database.getMaximumPoolSize());
+            }
+            // A database being down must not prevent the application from starting
+            dataSource.setInitializationFailTimeout(-1);
+            meterRegistry.ifAvailable(registry -> dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+            return dataSource;
+        }
+    }
+
+    /**
+     * Database per tenant, enabled when {@code application.datasource.tenancy.url-template} is configured.
+     * <p>
+     * The tenant of a request comes from its JWT, or from the {@code X-Tenant-ID} header before authentication. The
+     * default tenant keeps using the primary database, with its replicas and shards, and each other tenant gets its own
+     * small pool, created on first use and closed when too many pools are open. Hibernate sessions are opened for the
+     * current tenant, which also partitions the second-level cache.
+     */
+    @Configuration
+    @ConditionalOnProperty(prefix = "application.datasource.tenancy", name = "url-template")
+    public static class TenancyConfiguration {
+
+        private final Logger log = LoggerFactory.getLogger(TenancyConfiguration.class);
+
+        @Bean
+        public TenantDataSources tenantDataSources(
+            ApplicationProperties applicationProperties,
+            HikariDataSource primaryDataSource,
+            ObjectProvider<MeterRegistry> meterRegistry
+        ) {
+            ApplicationProperties.Tenancy tenancy = applicationProperties.getDatasource().getTenancy();
+            log.debug("Routing tenants to {}, with at most {} pools", tenancy.getUrlTemplate(), tenancy.getMaxPools());
+            MeterRegistry registry = meterRegistry.getIfAvailable();
+            MicrometerMetricsTrackerFactory metricsTrackerFactory = registry != null ? new MicrometerMetricsTrackerFactory(registry) : null;
+            return new TenantDataSources(primaryDataSource, tenancy, metricsTrackerFactory);
+        }
+
+        @Bean
+        public HibernatePropertiesCustomizer tenancyHibernatePropertiesCustomizer(
+            DataSource dataSource,
+            TenantDataSources tenantDataSources
+        ) {
+            return hibernateProperties -> {
+                hibernateProperties.put(AvailableSettings.MULTI_TENANT, MultiTenancyStrategy.DATABASE);
+                hibernateProperties.put(
+                    AvailableSettings.MULTI_TENANT_CONNECTION_PROVIDER,
+                    new TenantConnectionProvider(dataSource, tenantDataSources)
+                );
+                hibernateProperties.put(AvailableSettings.MULTI_TENANT_IDENTIFIER_RESOLVER, new TenantIdentifierResolver());
+            };
+        }
+    }
+
+    static class OnRoutingCondition extends AnyNestedCondition {
+
+        OnRoutingCondition() {
+            super(ConfigurationPhase.REGISTER_BEAN);
+        }
+
+        @ConditionalOnProperty(prefix = "application.datasource", name = "replicas[0].url")
+        static class OnReplicas {}
+
+        @ConditionalOnProperty(prefix = "application.datasource", name = "shards[0].url")
+        static class OnShards {}
+    }
 }
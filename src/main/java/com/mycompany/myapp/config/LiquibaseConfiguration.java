@@ -1,12 +1,20 @@
 package com.mycompany.myapp.config;
 
+import com.mycompany.myapp.datasource.ShardContextHolder;
+import com.mycompany.myapp.datasource.ShardRoutingDataSource;
+import com.mycompany.myapp.datasource.ShardsSpringLiquibase;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
 import javax.sql.DataSource;
 import liquibase.integration.spring.SpringLiquibase;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
 import org.springframework.boot.autoconfigure.liquibase.LiquibaseDataSource;
 import org.springframework.boot.autoconfigure.liquibase.LiquibaseProperties;
@@ -46,8 +54,54 @@ public class LiquibaseConfiguration {
             dataSource.getIfUnique(),
             dataSourceProperties
         );
-        liquibase.setChangeLog("classpath:config/liquibase/master.xml");
+        configure(liquibase, liquibaseProperties);
         liquibase.setContexts(liquibaseProperties.getContexts());
+        if (env.acceptsProfiles(Profiles.of(JHipsterConstants.SPRING_PROFILE_NO_LIQUIBASE))) {
+            liquibase.setShouldRun(false);
+        } else {
+            liquibase.setShouldRun(liquibaseProperties.isEnabled());
+            log.debug("Configuring Liquibase");
+        }
+        return liquibase;
+    }
+
+    /**
+     * Apply the changelog to the additional shards, so that they share the schema of the primary database.
+     * <p>
+     * Sample data is not loaded into the additional shards, as its identifiers belong to the primary database.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "application.datasource", name = "shards[0].url")
+    public SpringLiquibase shardsLiquibase(ShardRoutingDataSource shardRoutingDataSource, LiquibaseProperties liquibaseProperties) {
+        List<DataSource> shards = shardRoutingDataSource
+            .getShards()
+            .entrySet()
+            .stream()
+            .filter(shard -> shard.getKey() != ShardContextHolder.DEFAULT_SHARD)
+            .map(Map.Entry::getValue)
+            .collect(Collectors.toList());
+        SpringLiquibase liquibase = new ShardsSpringLiquibase(shards);
+        configure(liquibase, liquibaseProperties);
+        if (liquibaseProperties.getContexts() != null) {
+            liquibase.setContexts(
+                Arrays
+                    .stream(liquibaseProperties.getContexts().split(","))
+                    .map(String::trim)
+                    .filter(context -> !"faker".equals(context))
+                    .collect(Collectors.joining(","))
+            );
+        }
+        if (env.acceptsProfiles(Profiles.of(JHipsterConstants.SPRING_PROFILE_NO_LIQUIBASE))) {
+            liquibase.setShouldRun(false);
+        } else {
+            liquibase.setShouldRun(liquibaseProperties.isEnabled());
+            log.debug("Configuring Liquibase for {} additional shard(s)", shards.size());
+        }
+        return liquibase;
+    }
+
+    private void configure(SpringLiquibase liquibase, LiquibaseProperties liquibaseProperties) {
+        liquibase.setChangeLog("classpath:config/liquibase/master.xml");
         liquibase.setDefaultSchema(liquibaseProperties.getDefaultSchema());
         liquibase.setLiquibaseSchema(liquibaseProperties.getLiquibaseSchema());
         liquibase.setLiquibaseTablespace(liquibaseProperties.getLiquibaseTablespace());
@@ -58,12 +112,5 @@ public class LiquibaseConfiguration {
         liquibase.setChangeLogParameters(liquibaseProperties.getParameters());
         liquibase.setRollbackFile(liquibaseProperties.getRollbackFile());
         liquibase.setTestRollbackOnUpdate(liquibaseProperties.isTestRollbackOnUpdate());
-        if (env.acceptsProfiles(Profiles.of(JHipsterConstants.SPRING_PROFILE_NO_LIQUIBASE))) {
-            liquibase.setShouldRun(false);
-        } else {
-            liquibase.setShouldRun(liquibaseProperties.isEnabled());
-            log.debug("Configuring Liquibase");
-        }
-        return liquibase;
     }
 }
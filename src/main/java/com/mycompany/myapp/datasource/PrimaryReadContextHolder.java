@@ -0,0 +1,60 @@
+package com.mycompany.myapp.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * Holds whether the reads of the current thread are sent to the primary database, read-only transactions included,
+ * instead of a replica which may lag behind.
+ */
+public final class PrimaryReadContextHolder {
+
+    private static final ThreadLocal<Boolean> PRIMARY_READS = new ThreadLocal<>();
+
+    private PrimaryReadContextHolder() {}
+
+    /**
+     * Tell whether the reads of the current thread are sent to the primary database.
+     *
+     * @return {@code true} within {@link #readFromPrimary(Supplier)}.
+     */
+    public static boolean isPrimaryRead() {
+        return PRIMARY_READS.get() != null;
+    }
+
+    /**
+     * Run a task whose reads must see the latest committed writes, sending them to the primary database.
+     *
+     * @param task the task.
+     * @param <T> the type of the result.
+     * @return the result of the task.
+     */
+    public static <T> T readFromPrimary(Supplier<T> task) {
+        if (isPrimaryRead()) {
+            return task.get();
+        }
+        PRIMARY_READS.set(Boolean.TRUE);
+        try {
+            return task.get();
+        } finally {
+            PRIMARY_READS.remove();
+        }
+    }
+
+    /**
+     * Make a task read from the primary database if the thread submitting it does, to be used as a
+     * {@link org.springframework.core.task.TaskDecorator}.
+     *
+     * @param task the task.
+     * @return the task reading as the current thread does.
+     */
+    public static Runnable propagate(Runnable task) {
+        if (!isPrimaryRead()) {
+            return task;
+        }
+        return () ->
+            readFromPrimary(() -> {
+                task.run();
+                return null;
+            });
+    }
+}
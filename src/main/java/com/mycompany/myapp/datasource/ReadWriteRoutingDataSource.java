@@ -0,0 +1,193 @@
+package com.mycompany.myapp.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * {@link DataSource} sending read-only transactions to read replicas, and everything else to the primary database.
+ * <p>
+ * Replicas are used in round-robin order. A replica failing to hand out a connection is skipped for the retry interval,
+ * and when no replica is available the primary database serves the read. The read-only transactions which must see the
+ * latest writes are kept on the primary database by {@link PrimaryReadContextHolder}.
+ * <p>
+ * The read-only flag of a transaction is only known once the transaction has begun, so this data source must be
+ * wrapped in a {@link LazyConnectionDataSourceProxy}: the physical connection is then fetched on the first statement.
+ */
+public class ReadWriteRoutingDataSource extends AbstractDataSource implements Closeable {
+
+    public static final String ROUTING_METRIC = "multidbs.datasource.routing";
+
+    private static final String PRIMARY = "primary";
+
+    private final Logger log = LoggerFactory.getLogger(ReadWriteRoutingDataSource.class);
+
+    private final DataSource primary;
+
+    private final List<Target> replicas;
+
+    private final long retryIntervalMillis;
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    private Counter primaryCounter;
+
+    private Counter fallbackCounter;
+
+    /**
+     * @param primary the primary database.
+     * @param replicas the read replicas, by name.
+     * @param retryInterval how long a failing replica is skipped.
+     */
+    public ReadWriteRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, Duration retryInterval) {
+        this.primary = primary;
+        List<Target> targets = new ArrayList<>();
+        replicas.forEach((name, dataSource) -> targets.add(new Target(name, dataSource)));
+        this.replicas = Collections.unmodifiableList(targets);
+        this.retryIntervalMillis = retryInterval.toMillis();
+    }
+
+    /**
+     * Publish the number of connections handed out per target, and the number of reads that fell back to the primary.
+     *
+     * @param meterRegistry the registry to publish to.
+     */
+    public void bindTo(MeterRegistry meterRegistry) {
+        primaryCounter = routingCounter(meterRegistry, PRIMARY, "routed");
+        fallbackCounter = routingCounter(meterRegistry, PRIMARY, "fallback");
+        replicas.forEach(replica -> replica.counter = routingCounter(meterRegistry, replica.name, "routed"));
+    }
+
+    private Counter routingCounter(MeterRegistry meterRegistry, String target, String outcome) {
+        return Counter
+            .builder(ROUTING_METRIC)
+            .description("Connections handed out by the read/write routing data source")
+            .tag("target", target)
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (isReadOnlyTransaction()) {
+            Connection connection = getReplicaConnection(null, null);
+            if (connection != null) {
+                return connection;
+            }
+            increment(fallbackCounter);
+        } else {
+            increment(primaryCounter);
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        if (isReadOnlyTransaction()) {
+            Connection connection = getReplicaConnection(username, password);
+            if (connection != null) {
+                return connection;
+            }
+            increment(fallbackCounter);
+        } else {
+            increment(primaryCounter);
+        }
+        return primary.getConnection(username, password);
+    }
+
+    public DataSource getPrimary() {
+        return primary;
+    }
+
+    public List<DataSource> getReplicas() {
+        List<DataSource> dataSources = new ArrayList<>();
+        replicas.forEach(replica -> dataSources.add(replica.dataSource));
+        return dataSources;
+    }
+
+    /**
+     * Close the replica pools, the primary pool being managed on its own.
+     */
+    @Override
+    public void close() {
+        for (Target replica : replicas) {
+            if (replica.dataSource instanceof Closeable) {
+                try {
+                    ((Closeable) replica.dataSource).close();
+                } catch (IOException e) {
+                    log.warn("Could not close replica {}", replica.name, e);
+                }
+            }
+        }
+    }
+
+    private boolean isReadOnlyTransaction() {
+        return (
+            !replicas.isEmpty() &&
+            TransactionSynchronizationManager.isCurrentTransactionReadOnly() &&
+            !PrimaryReadContextHolder.isPrimaryRead()
+        );
+    }
+
+    private Connection getReplicaConnection(String username, String password) {
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < size; i++) {
+            Target replica = replicas.get((start + i) % size);
+            if (replica.downUntil > now) {
+                continue;
+            }
+            try {
+                Connection connection = username == null
+                    ? replica.dataSource.getConnection()
+                    : replica.dataSource.getConnection(username, password);
+                replica.downUntil = 0;
+                increment(replica.counter);
+                return connection;
+            } catch (SQLException e) {
+                log.warn("Replica {} is unavailable, skipping it for {} ms: {}", replica.name, retryIntervalMillis, e.getMessage());
+                replica.downUntil = now + retryIntervalMillis;
+            }
+        }
+        log.debug("No replica available, reading from the primary database");
+        return null;
+    }
+
+    private static void increment(Counter counter) {
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+
+    private static final class Target {
+
+        private final String name;
+
+        private final DataSource dataSource;
+
+        private volatile long downUntil;
+
+        private Counter counter;
+
+        private Target(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+}
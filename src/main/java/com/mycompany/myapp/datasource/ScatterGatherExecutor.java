@@ -0,0 +1,460 @@
+package com.mycompany.myapp.datasource;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs paginated queries on every shard in parallel, and merges their results into a single page.
+ * <p>
+ * Each shard streams its rows, already sorted, into a small buffer, and the buffers are merged on the sort key as the
+ * rows come in: a page only costs as much as the slowest shard, and at most {@code offset + size} rows are read from
+ * each shard. Shard queries run on a bounded pool configured by {@code application.datasource.scatter-gather}, and a
+ * shard that takes longer than the timeout to deliver its next row fails the whole query with a
+ * {@link ShardTimeoutException}.
+ * <p>
+ * A shard streaming its rows keeps its thread while it waits for the merge, so a query is only started once the pool
+ * has a thread for each of its shard queries: otherwise the queries already started could hold every thread while
+ * waiting for their sibling queries, left in the queue. A query that cannot get its threads within the timeout is
+ * rejected.
+ * <p>
+ * Without sharding, the query runs as a plain page query in the current transaction.
+ */
+@Component
+public class ScatterGatherExecutor implements DisposableBean {
+
+    private static final String ID = "id";
+
+    private static final Object END = new Object();
+
+    private final ShardRouter shardRouter;
+
+    private final ThreadPoolTaskExecutor executor;
+
+    /**
+     * Threads of the pool not taken by a started query, nor promised to a query about to start.
+     */
+    private final Semaphore threads;
+
+    private final int poolSize;
+
+    private final long timeoutMillis;
+
+    private final int bufferSize;
+
+    public ScatterGatherExecutor(ShardRouter shardRouter, ApplicationProperties applicationProperties) {
+        ApplicationProperties.ScatterGather properties = applicationProperties.getDatasource().getScatterGather();
+        this.shardRouter = shardRouter;
+        this.timeoutMillis = properties.getTimeoutMillis();
+        this.bufferSize = properties.getBufferSize();
+        this.poolSize = properties.getPoolSize();
+        this.threads = new Semaphore(poolSize, true);
+        this.executor = new ThreadPoolTaskExecutor();
+        this.executor.setCorePoolSize(properties.getPoolSize());
+        this.executor.setMaxPoolSize(properties.getPoolSize());
+        this.executor.setQueueCapacity(properties.getQueueCapacity());
+        this.executor.setThreadNamePrefix("multidbs-scatter-gather-");
+        this.executor.setTaskDecorator(task -> PrimaryReadContextHolder.propagate(TenantContextHolder.propagate(task)));
+        this.executor.initialize();
+    }
+
+    /**
+     * Get a page of entities from all shards.
+     *
+     * @param pageable the pagination information, rows with the same sort key being ordered by {@code id}.
+     * @param query the query run on each shard, returning its rows in the order of the given pagination information.
+     * @param countQuery the query counting the rows of each shard.
+     * @param <T> the type of the entities.
+     * @return the page of entities.
+     * @throws ShardTimeoutException if a shard did not answer in time.
+     * @throws TaskRejectedException if too many queries are already running.
+     */
+    public <T> Page<T> findAll(Pageable pageable, Function<Pageable, Stream<T>> query, Supplier<Long> countQuery) {
+        if (!shardRouter.isSharded() || pageable.isUnpaged()) {
+            List<T> content;
+            try (Stream<T> rows = query.apply(pageable)) {
+                content = rows.collect(Collectors.toList());
+            }
+            return PageableExecutionUtils.getPage(content, pageable, countQuery::get);
+        }
+
+        // Every shard must return all the rows before the end of the page, since any of them may hold all of them
+        int shardPageSize = (int) Math.min(pageable.getOffset() + pageable.getPageSize(), Integer.MAX_VALUE);
+        List<ShardTask<Long>> counts = new ArrayList<>();
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            int countShard = shard;
+            counts.add(new ShardTask<>(() -> shardRouter.executeInNewTransaction(countShard, true, countQuery)));
+        }
+        Sort sort = sortedById(pageable.getSort());
+        SortKeys sortKeys = new SortKeys(sort);
+        List<ShardCursor<T>> cursors = cursors(PageRequest.of(0, shardPageSize, sort), query, sortKeys);
+        try {
+            start(counts, cursors);
+            List<T> content = merge(cursors, sortKeys, pageable.getOffset(), pageable.getPageSize());
+            return PageableExecutionUtils.getPage(content, pageable, () -> sum(counts));
+        } finally {
+            counts.forEach(count -> count.cancel(true));
+            cursors.forEach(ShardCursor::cancel);
+        }
+    }
+
+    /**
+     * Get a slice of entities from all shards, without counting them.
+     * <p>
+     * Meant for keyset pagination, where the query only returns the rows after the previous slice: the slice is then
+     * read from the first rows of each shard, whatever its position in the listing.
+     *
+     * @param pageable the pagination information, rows with the same sort key being ordered by {@code id}.
+     * @param query the query run on each shard, returning its rows in the order of the given pagination information.
+     * @param <T> the type of the entities.
+     * @return the slice of entities.
+     * @throws ShardTimeoutException if a shard did not answer in time.
+     * @throws TaskRejectedException if too many queries are already running.
+     */
+    public <T> Slice<T> findSlice(Pageable pageable, Function<Pageable, Stream<T>> query) {
+        // One more row tells whether there is a next slice
+        int size = pageable.getPageSize() + 1;
+        List<T> content;
+        if (!shardRouter.isSharded()) {
+            try (Stream<T> rows = query.apply(PageRequest.of(0, size, pageable.getSort()))) {
+                content = rows.collect(Collectors.toList());
+            }
+        } else {
+            Sort sort = sortedById(pageable.getSort());
+            SortKeys sortKeys = new SortKeys(sort);
+            List<ShardCursor<T>> cursors = cursors(PageRequest.of(0, size, sort), query, sortKeys);
+            try {
+                start(new ArrayList<>(), cursors);
+                content = merge(cursors, sortKeys, 0, size);
+            } finally {
+                cursors.forEach(ShardCursor::cancel);
+            }
+        }
+        boolean hasNext = content.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? content.subList(0, pageable.getPageSize()) : content, pageable, hasNext);
+    }
+
+    private static Sort sortedById(Sort sort) {
+        return sort.getOrderFor(ID) == null ? sort.and(Sort.by(ID)) : sort;
+    }
+
+    private <T> List<ShardCursor<T>> cursors(Pageable shardPageable, Function<Pageable, Stream<T>> query, SortKeys sortKeys) {
+        List<ShardCursor<T>> cursors = new ArrayList<>();
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            cursors.add(new ShardCursor<>(shard, shardPageable, query, sortKeys));
+        }
+        return cursors;
+    }
+
+    /**
+     * Start the shard queries of a query once the pool has a thread for each of them.
+     */
+    private <T> void start(List<ShardTask<Long>> counts, List<ShardCursor<T>> cursors) {
+        List<ShardTask<?>> tasks = new ArrayList<>(counts);
+        cursors.forEach(cursor -> tasks.add(cursor.task));
+        if (tasks.size() > poolSize) {
+            throw new TaskRejectedException(
+                "A query of " + tasks.size() + " shard queries cannot run on a pool of " + poolSize + " threads"
+            );
+        }
+        boolean acquired;
+        try {
+            acquired = threads.tryAcquire(tasks.size(), timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TaskRejectedException("Interrupted while waiting for threads to query the shards", e);
+        }
+        if (!acquired) {
+            throw new TaskRejectedException("Too many queries running on the shards");
+        }
+        tasks.forEach(ShardTask::holdThread);
+        for (ShardTask<?> task : tasks) {
+            executor.execute(task);
+        }
+    }
+
+    private <T> List<T> merge(List<ShardCursor<T>> cursors, SortKeys sortKeys, long offset, int size) {
+        PriorityQueue<ShardCursor<T>> heads = new PriorityQueue<>(
+            cursors.size(),
+            (left, right) -> sortKeys.compare(left.headKey, right.headKey)
+        );
+        for (ShardCursor<T> cursor : cursors) {
+            if (cursor.advance()) {
+                heads.add(cursor);
+            }
+        }
+        List<T> content = new ArrayList<>(size);
+        long skipped = 0;
+        while (content.size() < size && !heads.isEmpty()) {
+            ShardCursor<T> cursor = heads.poll();
+            if (skipped < offset) {
+                skipped++;
+            } else {
+                content.add(cursor.head);
+            }
+            if (cursor.advance()) {
+                heads.add(cursor);
+            }
+        }
+        return content;
+    }
+
+    private long sum(List<? extends Future<Long>> counts) {
+        long total = 0;
+        for (int shard = 0; shard < counts.size(); shard++) {
+            total += await(shard, counts.get(shard));
+        }
+        return total;
+    }
+
+    private long await(int shard, Future<Long> count) {
+        try {
+            return count.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new ShardTimeoutException(shard, timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new QueryTimeoutException("Interrupted while waiting for shard " + shard, e);
+        } catch (ExecutionException e) {
+            throw propagate(e.getCause());
+        }
+    }
+
+    private static RuntimeException propagate(Throwable throwable) {
+        if (throwable instanceof Error) {
+            throw (Error) throwable;
+        }
+        if (throwable instanceof RuntimeException) {
+            return (RuntimeException) throwable;
+        }
+        return new IllegalStateException(throwable);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    /**
+     * A shard query, giving its thread back to the pool once done, or when cancelled before it started.
+     */
+    private final class ShardTask<V> extends FutureTask<V> {
+
+        private final AtomicBoolean started = new AtomicBoolean();
+
+        private final AtomicBoolean holdsThread = new AtomicBoolean();
+
+        private ShardTask(Callable<V> callable) {
+            super(callable);
+        }
+
+        private void holdThread() {
+            holdsThread.set(true);
+        }
+
+        @Override
+        public void run() {
+            started.set(true);
+            try {
+                super.run();
+            } finally {
+                releaseThread();
+            }
+        }
+
+        @Override
+        protected void done() {
+            if (!started.get()) {
+                releaseThread();
+            }
+        }
+
+        private void releaseThread() {
+            if (holdsThread.compareAndSet(true, false)) {
+                threads.release();
+            }
+        }
+    }
+
+    /**
+     * The rows of one shard, streamed by a worker thread into a bounded buffer read by the merging thread.
+     */
+    private final class ShardCursor<T> implements Runnable {
+
+        private final int shard;
+
+        private final Pageable pageable;
+
+        private final Function<Pageable, Stream<T>> query;
+
+        private final SortKeys sortKeys;
+
+        private final BlockingQueue<Object> buffer = new ArrayBlockingQueue<>(bufferSize);
+
+        private volatile boolean cancelled;
+
+        private final ShardTask<Object> task = new ShardTask<>(Executors.callable(this));
+
+        private T head;
+
+        private Object[] headKey;
+
+        private ShardCursor(int shard, Pageable pageable, Function<Pageable, Stream<T>> query, SortKeys sortKeys) {
+            this.shard = shard;
+            this.pageable = pageable;
+            this.query = query;
+            this.sortKeys = sortKeys;
+        }
+
+        @Override
+        public void run() {
+            try {
+                shardRouter.executeInNewTransaction(
+                    shard,
+                    true,
+                    () -> {
+                        try (Stream<T> rows = query.apply(pageable)) {
+                            Iterator<T> iterator = rows.iterator();
+                            while (!cancelled && iterator.hasNext()) {
+                                put(iterator.next());
+                            }
+                        }
+                        return null;
+                    }
+                );
+                put(END);
+            } catch (RuntimeException | Error e) {
+                put(new Failure(e));
+            }
+        }
+
+        private void put(Object element) {
+            try {
+                while (!cancelled && !buffer.offer(element, 100, TimeUnit.MILLISECONDS)) {
+                    // The merging thread is behind, wait for it unless it gave up
+                }
+            } catch (InterruptedException e) {
+                cancelled = true;
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        /**
+         * Move to the next row of the shard.
+         *
+         * @return false if the shard has no more rows.
+         */
+        @SuppressWarnings("unchecked")
+        private boolean advance() {
+            Object element;
+            try {
+                element = buffer.poll(timeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new QueryTimeoutException("Interrupted while waiting for shard " + shard, e);
+            }
+            if (element == null) {
+                throw new ShardTimeoutException(shard, timeoutMillis);
+            }
+            if (element instanceof Failure) {
+                throw propagate(((Failure) element).cause);
+            }
+            if (element == END) {
+                head = null;
+                headKey = null;
+                return false;
+            }
+            head = (T) element;
+            headKey = sortKeys.extract(head);
+            return true;
+        }
+
+        private void cancel() {
+            cancelled = true;
+            buffer.clear();
+            task.cancel(false);
+        }
+    }
+
+    private static final class Failure {
+
+        private final Throwable cause;
+
+        private Failure(Throwable cause) {
+            this.cause = cause;
+        }
+    }
+
+    /**
+     * Compares rows the way the databases sort them: {@code null} first in ascending order, and strings ignoring case as
+     * with the default MySQL collations.
+     */
+    static final class SortKeys {
+
+        private static final Comparator<Object> VALUE_ORDER = Comparator.nullsFirst(SortKeys::compareValues);
+
+        private final List<Sort.Order> orders = new ArrayList<>();
+
+        SortKeys(Sort sort) {
+            sort.forEach(orders::add);
+        }
+
+        Object[] extract(Object row) {
+            BeanWrapperImpl wrapper = new BeanWrapperImpl(row);
+            Object[] key = new Object[orders.size()];
+            for (int i = 0; i < key.length; i++) {
+                key[i] = wrapper.getPropertyValue(orders.get(i).getProperty());
+            }
+            return key;
+        }
+
+        int compare(Object[] left, Object[] right) {
+            for (int i = 0; i < left.length; i++) {
+                int result = VALUE_ORDER.compare(left[i], right[i]);
+                if (result != 0) {
+                    return orders.get(i).isAscending() ? result : -result;
+                }
+            }
+            return 0;
+        }
+
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        private static int compareValues(Object left, Object right) {
+            if (left instanceof String && right instanceof String) {
+                return String.CASE_INSENSITIVE_ORDER.compare((String) left, (String) right);
+            }
+            return ((Comparable) left).compareTo(right);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.mycompany.myapp.datasource;
+
+/**
+ * Holds the shard the current thread is working on.
+ * <p>
+ * When no shard is bound, the primary database (shard 0) is used.
+ */
+public final class ShardContextHolder {
+
+    public static final int DEFAULT_SHARD = 0;
+
+    private static final ThreadLocal<Integer> CURRENT_SHARD = new ThreadLocal<>();
+
+    private ShardContextHolder() {}
+
+    /**
+     * Get the shard bound to the current thread.
+     *
+     * @return the bound shard, or {@link #DEFAULT_SHARD} if none is bound.
+     */
+    public static int getShard() {
+        Integer shard = CURRENT_SHARD.get();
+        return shard != null ? shard : DEFAULT_SHARD;
+    }
+
+    /**
+     * Get the shard bound to the current thread, if any.
+     *
+     * @return the bound shard, or {@code null}.
+     */
+    public static Integer getBoundShard() {
+        return CURRENT_SHARD.get();
+    }
+
+    /**
+     * Bind a shard to the current thread, {@code null} clearing the binding.
+     *
+     * @param shard the shard to bind.
+     */
+    public static void setShard(Integer shard) {
+        if (shard == null) {
+            CURRENT_SHARD.remove();
+        } else {
+            CURRENT_SHARD.set(shard);
+        }
+    }
+}
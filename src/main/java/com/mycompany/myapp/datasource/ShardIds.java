@@ -0,0 +1,46 @@
+package com.mycompany.myapp.datasource;
+
+/**
+ * Encodes the shard of a sharded entity in its identifier.
+ * <p>
+ * The shard is stored above the {@link #LOCAL_ID_BITS} low bits holding the identifier local to the shard: identifiers
+ * of shard 0 are plain local identifiers, so rows created before sharding was enabled stay on the primary database.
+ * With at most {@link #MAX_SHARDS} shards, identifiers stay below 2^53 and are exact in JavaScript.
+ */
+public final class ShardIds {
+
+    public static final int LOCAL_ID_BITS = 40;
+
+    public static final int MAX_SHARDS = 1 << 13;
+
+    private static final long LOCAL_ID_MASK = (1L << LOCAL_ID_BITS) - 1;
+
+    private ShardIds() {}
+
+    /**
+     * Build the identifier of an entity.
+     *
+     * @param shard the shard storing the entity.
+     * @param localId the identifier generated by the shard.
+     * @return the global identifier.
+     */
+    public static long encode(int shard, long localId) {
+        if (shard < 0 || shard >= MAX_SHARDS) {
+            throw new IllegalArgumentException("Invalid shard " + shard);
+        }
+        if (localId < 0 || localId > LOCAL_ID_MASK) {
+            throw new IllegalStateException("Identifier " + localId + " of shard " + shard + " is out of range");
+        }
+        return ((long) shard << LOCAL_ID_BITS) | localId;
+    }
+
+    /**
+     * Get the shard storing an entity.
+     *
+     * @param id the global identifier of the entity.
+     * @return the shard.
+     */
+    public static int shardOf(long id) {
+        return (int) (id >>> LOCAL_ID_BITS);
+    }
+}
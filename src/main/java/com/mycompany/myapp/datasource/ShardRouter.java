@@ -0,0 +1,179 @@
+package com.mycompany.myapp.datasource;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Routes the operations on sharded entities to their shard.
+ * <p>
+ * New entities are placed by hashing their shard key, and existing entities are found from the shard encoded in their
+ * identifier. A transaction is bound to the first shard it works on, and cannot span several shards.
+ */
+@Component
+public class ShardRouter {
+
+    private static final Object TRANSACTION_SHARD_KEY = ShardRouter.class.getName() + ".TRANSACTION_SHARD";
+
+    private final int shardCount;
+
+    private final TransactionTemplate newTransactionTemplate;
+
+    private final TransactionTemplate newReadOnlyTransactionTemplate;
+
+    public ShardRouter(ApplicationProperties applicationProperties, PlatformTransactionManager transactionManager) {
+        this.shardCount = applicationProperties.getDatasource().getShards().size() + 1;
+        if (shardCount > ShardIds.MAX_SHARDS) {
+            throw new IllegalStateException("At most " + ShardIds.MAX_SHARDS + " shards are supported");
+        }
+        this.newTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.newReadOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.newReadOnlyTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.newReadOnlyTransactionTemplate.setReadOnly(true);
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    /**
+     * Check whether the current tenant is sharded: the other tenants than the default one have a single database.
+     *
+     * @return true if the entities are spread over several shards.
+     */
+    public boolean isSharded() {
+        return shardCount > 1 && TenantContextHolder.isDefaultTenant();
+    }
+
+    /**
+     * Get the shard of a new entity.
+     *
+     * @param shardKey the shard key of the entity, a random shard being used when {@code null}.
+     * @return the shard.
+     */
+    public int shardFor(String shardKey) {
+        if (!isSharded()) {
+            return ShardContextHolder.DEFAULT_SHARD;
+        }
+        if (shardKey == null) {
+            return ThreadLocalRandom.current().nextInt(shardCount);
+        }
+        // Murmur3 finalizer, to spread similar keys over the shards
+        int hash = shardKey.hashCode();
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return Math.floorMod(hash, shardCount);
+    }
+
+    /**
+     * Get the shard of an existing entity.
+     * <p>
+     * Identifiers pointing to a shard that is not configured are looked up on the primary database, where they won't be
+     * found.
+     *
+     * @param id the identifier of the entity.
+     * @return the shard.
+     */
+    public int shardOf(Long id) {
+        int shard = ShardIds.shardOf(id);
+        return shard < shardCount ? shard : ShardContextHolder.DEFAULT_SHARD;
+    }
+
+    /**
+     * Execute a callback on a shard, in the current transaction if any.
+     *
+     * @param shard the shard.
+     * @param callback the callback.
+     * @param <T> the type of the result.
+     * @return the result of the callback.
+     * @throws IllegalStateException if the current transaction is already bound to another shard.
+     */
+    public <T> T execute(int shard, Supplier<T> callback) {
+        if (!isSharded()) {
+            return callback.get();
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            Integer previousShard = ShardContextHolder.getBoundShard();
+            ShardContextHolder.setShard(shard);
+            try {
+                return callback.get();
+            } finally {
+                ShardContextHolder.setShard(previousShard);
+            }
+        }
+        Integer transactionShard = (Integer) TransactionSynchronizationManager.getResource(TRANSACTION_SHARD_KEY);
+        if (transactionShard == null) {
+            bindToTransaction(shard);
+        } else if (transactionShard != shard) {
+            throw new IllegalStateException(
+                "A transaction cannot span several shards: bound to shard " + transactionShard + ", requested shard " + shard
+            );
+        }
+        return callback.get();
+    }
+
+    /**
+     * Execute a callback on a shard, in the current transaction if any.
+     *
+     * @param shard the shard.
+     * @param callback the callback.
+     * @throws IllegalStateException if the current transaction is already bound to another shard.
+     */
+    public void run(int shard, Runnable callback) {
+        execute(
+            shard,
+            () -> {
+                callback.run();
+                return null;
+            }
+        );
+    }
+
+    /**
+     * Execute a callback on a shard, in a new transaction.
+     *
+     * @param shard the shard.
+     * @param readOnly whether the transaction is read-only.
+     * @param callback the callback.
+     * @param <T> the type of the result.
+     * @return the result of the callback.
+     */
+    public <T> T executeInNewTransaction(int shard, boolean readOnly, Supplier<T> callback) {
+        TransactionTemplate transactionTemplate = readOnly ? newReadOnlyTransactionTemplate : newTransactionTemplate;
+        Object suspendedShard = TransactionSynchronizationManager.unbindResourceIfPossible(TRANSACTION_SHARD_KEY);
+        Integer previousShard = ShardContextHolder.getBoundShard();
+        try {
+            return transactionTemplate.execute(status -> execute(shard, callback));
+        } finally {
+            ShardContextHolder.setShard(previousShard);
+            if (suspendedShard != null) {
+                TransactionSynchronizationManager.bindResource(TRANSACTION_SHARD_KEY, suspendedShard);
+            }
+        }
+    }
+
+    private void bindToTransaction(int shard) {
+        Integer previousShard = ShardContextHolder.getBoundShard();
+        TransactionSynchronizationManager.bindResource(TRANSACTION_SHARD_KEY, shard);
+        ShardContextHolder.setShard(shard);
+        TransactionSynchronizationManager.registerSynchronization(
+            new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(TRANSACTION_SHARD_KEY);
+                    ShardContextHolder.setShard(previousShard);
+                }
+            }
+        );
+    }
+}
@@ -0,0 +1,60 @@
+package com.mycompany.myapp.datasource;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * {@link DataSource} routing connections to the shard bound in the {@link ShardContextHolder}.
+ * <p>
+ * As the shard is usually bound after the transaction has begun, this data source must be wrapped in a
+ * {@link LazyConnectionDataSourceProxy}.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    private final Logger log = LoggerFactory.getLogger(ShardRoutingDataSource.class);
+
+    private final Map<Integer, DataSource> shards;
+
+    /**
+     * @param shards the data source of each shard, shard 0 being the primary database.
+     */
+    public ShardRoutingDataSource(Map<Integer, DataSource> shards) {
+        this.shards = shards;
+        setTargetDataSources(new HashMap<>(shards));
+        setDefaultTargetDataSource(shards.get(ShardContextHolder.DEFAULT_SHARD));
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    public Map<Integer, DataSource> getShards() {
+        return shards;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ShardContextHolder.getShard();
+    }
+
+    /**
+     * Close the pools of the additional shards, the primary database being managed on its own.
+     */
+    @Override
+    public void close() {
+        shards.forEach((shard, dataSource) -> {
+            if (shard != ShardContextHolder.DEFAULT_SHARD && dataSource instanceof Closeable) {
+                try {
+                    ((Closeable) dataSource).close();
+                } catch (IOException e) {
+                    log.warn("Could not close shard {}", shard, e);
+                }
+            }
+        });
+    }
+}
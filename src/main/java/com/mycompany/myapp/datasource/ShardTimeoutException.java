@@ -0,0 +1,22 @@
+package com.mycompany.myapp.datasource;
+
+import org.springframework.dao.QueryTimeoutException;
+
+/**
+ * Thrown when a shard does not answer a scatter-gather query in time.
+ */
+public class ShardTimeoutException extends QueryTimeoutException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int shard;
+
+    public ShardTimeoutException(int shard, long timeoutMillis) {
+        super("Shard " + shard + " did not answer within " + timeoutMillis + " ms");
+        this.shard = shard;
+    }
+
+    public int getShard() {
+        return shard;
+    }
+}
@@ -0,0 +1,55 @@
+package com.mycompany.myapp.datasource;
+
+import java.io.Serializable;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.hibernate.MappingException;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.enhanced.Optimizer;
+import org.hibernate.id.enhanced.OptimizerFactory;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+/**
+ * Identifier generator for sharded entities.
+ * <p>
+ * The sequence is read from the shard bound in the {@link ShardContextHolder}, each shard having its own sequence, and
+ * the shard is encoded in the generated identifier with {@link ShardIds}. Each shard also has its own optimizer, so
+ * that a block of identifiers reserved on a shard is only used on that shard.
+ */
+public class ShardedSequenceGenerator extends SequenceStyleGenerator {
+
+    private final ConcurrentMap<Integer, Optimizer> shardOptimizers = new ConcurrentHashMap<>();
+
+    private String optimizationStrategy;
+
+    private Class<?> returnedClass;
+
+    private int incrementSize;
+
+    private long initialValue;
+
+    @Override
+    public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) throws MappingException {
+        super.configure(type, params, serviceRegistry);
+        this.returnedClass = type.getReturnedClass();
+        this.incrementSize = getDatabaseStructure().getIncrementSize();
+        this.initialValue = determineInitialValue(params);
+        this.optimizationStrategy = determineOptimizationStrategy(params, incrementSize);
+    }
+
+    @Override
+    public Serializable generate(SharedSessionContractImplementor session, Object object) {
+        int shard = ShardContextHolder.getShard();
+        Optimizer optimizer = shard == ShardContextHolder.DEFAULT_SHARD
+            ? getOptimizer()
+            : shardOptimizers.computeIfAbsent(
+                shard,
+                s -> OptimizerFactory.buildOptimizer(optimizationStrategy, returnedClass, incrementSize, initialValue)
+            );
+        long localId = ((Number) optimizer.generate(getDatabaseStructure().buildCallback(session))).longValue();
+        return ShardIds.encode(shard, localId);
+    }
+}
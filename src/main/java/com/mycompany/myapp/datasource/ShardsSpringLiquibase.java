@@ -0,0 +1,32 @@
+package com.mycompany.myapp.datasource;
+
+import java.util.Collection;
+import javax.sql.DataSource;
+import liquibase.exception.LiquibaseException;
+import liquibase.integration.spring.SpringLiquibase;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs the Liquibase changelog against each additional shard, so that every shard has the schema of the primary database.
+ */
+public class ShardsSpringLiquibase extends SpringLiquibase {
+
+    private final Logger log = LoggerFactory.getLogger(ShardsSpringLiquibase.class);
+
+    private final Collection<DataSource> shards;
+
+    public ShardsSpringLiquibase(Collection<DataSource> shards) {
+        this.shards = shards;
+    }
+
+    @Override
+    public void afterPropertiesSet() throws LiquibaseException {
+        int shard = 1;
+        for (DataSource dataSource : shards) {
+            log.debug("Updating the schema of shard {}", shard++);
+            setDataSource(dataSource);
+            super.afterPropertiesSet();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.mycompany.myapp.datasource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import javax.sql.DataSource;
+import org.hibernate.engine.jdbc.connections.spi.AbstractDataSourceBasedMultiTenantConnectionProviderImpl;
+
+/**
+ * Hands out to Hibernate the connections of the tenant of the session: the default tenant uses the application data
+ * source, with its replicas and shards, and the other tenants use their own pool.
+ */
+public class TenantConnectionProvider extends AbstractDataSourceBasedMultiTenantConnectionProviderImpl {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient DataSource defaultDataSource;
+
+    private final transient TenantDataSources tenantDataSources;
+
+    public TenantConnectionProvider(DataSource defaultDataSource, TenantDataSources tenantDataSources) {
+        this.defaultDataSource = defaultDataSource;
+        this.tenantDataSources = tenantDataSources;
+    }
+
+    @Override
+    protected DataSource selectAnyDataSource() {
+        return defaultDataSource;
+    }
+
+    @Override
+    protected DataSource selectDataSource(String tenantIdentifier) {
+        if (TenantContextHolder.DEFAULT_TENANT.equals(tenantIdentifier)) {
+            return defaultDataSource;
+        }
+        return tenantDataSources.getDataSource(tenantIdentifier);
+    }
+
+    @Override
+    public Connection getConnection(String tenantIdentifier) throws SQLException {
+        if (TenantContextHolder.DEFAULT_TENANT.equals(tenantIdentifier)) {
+            return defaultDataSource.getConnection();
+        }
+        // Borrowed again if the pool of the tenant is closed meanwhile
+        return tenantDataSources.getConnection(tenantIdentifier);
+    }
+}
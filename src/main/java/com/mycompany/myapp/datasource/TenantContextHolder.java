@@ -0,0 +1,90 @@
+package com.mycompany.myapp.datasource;
+
+import java.util.concurrent.Executor;
+import java.util.regex.Pattern;
+
+/**
+ * Holds the tenant the current thread is working for.
+ * <p>
+ * When no tenant is bound, the default tenant, stored in the primary database, is used.
+ */
+public final class TenantContextHolder {
+
+    public static final String DEFAULT_TENANT = "default";
+
+    private static final Pattern TENANT_PATTERN = Pattern.compile("[A-Za-z0-9_]{1,64}");
+
+    private static final ThreadLocal<String> CURRENT_TENANT = new ThreadLocal<>();
+
+    private TenantContextHolder() {}
+
+    /**
+     * Get the tenant bound to the current thread.
+     *
+     * @return the bound tenant, or {@link #DEFAULT_TENANT} if none is bound.
+     */
+    public static String getTenant() {
+        String tenant = CURRENT_TENANT.get();
+        return tenant != null ? tenant : DEFAULT_TENANT;
+    }
+
+    public static boolean isDefaultTenant() {
+        return CURRENT_TENANT.get() == null;
+    }
+
+    /**
+     * Bind a tenant to the current thread, {@code null} or the default tenant clearing the binding.
+     *
+     * @param tenant the tenant to bind.
+     * @throws IllegalArgumentException if the tenant is not a valid identifier.
+     */
+    public static void setTenant(String tenant) {
+        if (tenant == null || DEFAULT_TENANT.equals(tenant)) {
+            CURRENT_TENANT.remove();
+        } else if (isValid(tenant)) {
+            CURRENT_TENANT.set(tenant);
+        } else {
+            throw new IllegalArgumentException("Invalid tenant identifier");
+        }
+    }
+
+    /**
+     * Check a tenant identifier: it is used as a database name, so only letters, digits and underscores are allowed.
+     *
+     * @param tenant the tenant identifier.
+     * @return true if the identifier is valid.
+     */
+    public static boolean isValid(String tenant) {
+        return tenant != null && TENANT_PATTERN.matcher(tenant).matches();
+    }
+
+    /**
+     * Make a task run for the tenant of the thread submitting it, to be used as a
+     * {@link org.springframework.core.task.TaskDecorator}.
+     *
+     * @param task the task.
+     * @return the task bound to the current tenant.
+     */
+    public static Runnable propagate(Runnable task) {
+        Executor executor = capture();
+        return () -> executor.execute(task);
+    }
+
+    /**
+     * Capture the tenant of the current thread, for tasks created later on other threads.
+     *
+     * @return an executor running the given tasks in the calling thread, for the current tenant.
+     */
+    public static Executor capture() {
+        String tenant = CURRENT_TENANT.get();
+        return task -> {
+            String previousTenant = CURRENT_TENANT.get();
+            setTenant(tenant);
+            try {
+                task.run();
+            } finally {
+                setTenant(previousTenant);
+            }
+        };
+    }
+}
@@ -0,0 +1,210 @@
+package com.mycompany.myapp.datasource;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The connection pools of the tenant databases.
+ * <p>
+ * A pool is only created for the tenants of {@code application.datasource.tenancy.tenants}, on first use, from the settings of the primary pool, and keeps no idle connection for
+ * longer than the idle timeout. When there are more pools than allowed, the least recently used pools without active
+ * connections are retired, to be created again on their next use. A retired pool is closed once none of its
+ * connections is in use nor being borrowed: a connection borrowed from a pool retired meanwhile is borrowed again from
+ * the next pool of the tenant.
+ */
+public class TenantDataSources implements Closeable {
+
+    private static final String TENANT_PLACEHOLDER = "{tenant}";
+
+    private final Logger log = LoggerFactory.getLogger(TenantDataSources.class);
+
+    private final HikariConfig template;
+
+    private final ApplicationProperties.Tenancy properties;
+
+    private final MetricsTrackerFactory metricsTrackerFactory;
+
+    private final ConcurrentMap<String, TenantPool> pools = new ConcurrentHashMap<>();
+
+    /**
+     * Pools removed from {@link #pools}, waiting for their connections to be given back before being closed.
+     */
+    private final Set<TenantPool> retiredPools = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param template the settings shared by all pools.
+     * @param properties the tenancy properties.
+     * @param metricsTrackerFactory the metrics of the pools, may be {@code null}.
+     */
+    public TenantDataSources(HikariConfig template, ApplicationProperties.Tenancy properties, MetricsTrackerFactory metricsTrackerFactory) {
+        this.template = template;
+        this.properties = properties;
+        this.metricsTrackerFactory = metricsTrackerFactory;
+    }
+
+    /**
+     * Get the pool of a tenant, creating it if needed.
+     *
+     * @param tenant the tenant.
+     * @return the pool of the tenant.
+     * @throws IllegalArgumentException if the tenant is not a valid identifier, or not a configured tenant.
+     */
+    public DataSource getDataSource(String tenant) {
+        return getPool(tenant).dataSource;
+    }
+
+    /**
+     * Borrow a connection from the pool of a tenant, from its next pool if it was retired meanwhile.
+     *
+     * @param tenant the tenant.
+     * @return the connection.
+     * @throws SQLException if no connection could be borrowed.
+     * @throws IllegalArgumentException if the tenant is not a valid identifier, or not a configured tenant.
+     */
+    public Connection getConnection(String tenant) throws SQLException {
+        while (true) {
+            TenantPool pool = getPool(tenant);
+            pool.borrowing.incrementAndGet();
+            try {
+                if (!pool.retired) {
+                    return pool.dataSource.getConnection();
+                }
+            } finally {
+                pool.borrowing.decrementAndGet();
+            }
+        }
+    }
+
+    private TenantPool getPool(String tenant) {
+        if (!TenantContextHolder.isValid(tenant)) {
+            throw new IllegalArgumentException("Invalid tenant identifier");
+        }
+        if (!properties.getTenants().contains(tenant)) {
+            throw new IllegalArgumentException("Unknown tenant");
+        }
+        while (true) {
+            TenantPool pool = pools.get(tenant);
+            if (pool == null) {
+                pool = pools.computeIfAbsent(tenant, this::createPool);
+                evictIdlePools();
+            }
+            if (!pool.retired) {
+                pool.lastUsed = System.nanoTime();
+                return pool;
+            }
+            // Retired after it was read
+            pools.remove(tenant, pool);
+        }
+    }
+
+    public int size() {
+        return pools.size();
+    }
+
+    @Override
+    public void close() {
+        pools.values().forEach(pool -> pool.dataSource.close());
+        pools.clear();
+        retiredPools.forEach(pool -> pool.dataSource.close());
+        retiredPools.clear();
+    }
+
+    private TenantPool createPool(String tenant) {
+        HikariConfig config = new HikariConfig();
+        template.copyStateTo(config);
+        String poolName = template.getPoolName() != null ? template.getPoolName() : "Hikari";
+        config.setPoolName(poolName + "-tenant-" + tenant);
+        config.setJdbcUrl(properties.getUrlTemplate().replace(TENANT_PLACEHOLDER, tenant));
+        if (properties.getUsername() != null) {
+            config.setUsername(properties.getUsername());
+            config.setPassword(properties.getPassword());
+        }
+        config.setMaximumPoolSize(properties.getMaximumPoolSize());
+        config.setMinimumIdle(0);
+        config.setIdleTimeout(TimeUnit.SECONDS.toMillis(properties.getIdleTimeoutSeconds()));
+        if (metricsTrackerFactory != null) {
+            config.setMetricsTrackerFactory(metricsTrackerFactory);
+        }
+        log.debug("Creating the connection pool of tenant {}", tenant);
+        // Fails if the tenant database cannot be reached, in which case no pool is kept
+        return new TenantPool(tenant, new HikariDataSource(config));
+    }
+
+    private synchronized void evictIdlePools() {
+        retiredPools.removeIf(this::closeIfIdle);
+        int excess = pools.size() - properties.getMaxPools();
+        if (excess <= 0) {
+            return;
+        }
+        List<TenantPool> candidates = new ArrayList<>(pools.values());
+        candidates.sort(Comparator.comparingLong(pool -> pool.lastUsed));
+        for (TenantPool pool : candidates) {
+            if (excess == 0) {
+                break;
+            }
+            if (pool.isInUse()) {
+                continue;
+            }
+            if (pools.remove(pool.tenant, pool)) {
+                // Retired before checking the borrowers, which check it after showing up
+                pool.retired = true;
+                if (!closeIfIdle(pool)) {
+                    retiredPools.add(pool);
+                }
+                excess--;
+            }
+        }
+    }
+
+    private boolean closeIfIdle(TenantPool pool) {
+        if (pool.isInUse()) {
+            return false;
+        }
+        log.debug("Closing the connection pool of tenant {}", pool.tenant);
+        pool.dataSource.close();
+        return true;
+    }
+
+    private static final class TenantPool {
+
+        private final String tenant;
+
+        private final HikariDataSource dataSource;
+
+        private volatile long lastUsed = System.nanoTime();
+
+        /**
+         * Threads borrowing a connection, not yet counted as active connections.
+         */
+        private final AtomicInteger borrowing = new AtomicInteger();
+
+        private volatile boolean retired;
+
+        private TenantPool(String tenant, HikariDataSource dataSource) {
+            this.tenant = tenant;
+            this.dataSource = dataSource;
+        }
+
+        private boolean isInUse() {
+            HikariPoolMXBean poolBean = dataSource.getHikariPoolMXBean();
+            return borrowing.get() > 0 || (poolBean != null && poolBean.getActiveConnections() > 0);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.mycompany.myapp.datasource;
+
+import org.hibernate.context.spi.CurrentTenantIdentifierResolver;
+
+/**
+ * Opens the Hibernate sessions for the tenant bound to the current thread.
+ * <p>
+ * Hibernate includes the tenant in its second-level cache keys, so cached entities are never shared between tenants.
+ */
+public class TenantIdentifierResolver implements CurrentTenantIdentifierResolver {
+
+    @Override
+    public String resolveCurrentTenantIdentifier() {
+        return TenantContextHolder.getTenant();
+    }
+
+    @Override
+    public boolean validateExistingCurrentSessions() {
+        return true;
+    }
+}
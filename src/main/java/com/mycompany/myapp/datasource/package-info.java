@@ -0,0 +1,4 @@
+/**
+ * JDBC routing: read replicas, shards and tenants.
+ */
+package com.mycompany.myapp.datasource;
@@ -4,9 +4,14 @@ import java.io.Serializable;
 import javax.persistence.*;
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 /**
  * A BankAccount.
+ * <p>
+ * Sharded by {@code number}: the shard is encoded in the identifier, see {@link com.mycompany.myapp.datasource.ShardIds}.
  */
 @Entity
 @Table(name = "bank_account")
@@ -16,7 +21,17 @@ public class BankAccount implements Serializable {
     private static final long serialVersionUID = 1L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bankAccountSequenceGenerator")
+    @GenericGenerator(
+        name = "bankAccountSequenceGenerator",
+        strategy = "com.mycompany.myapp.datasource.ShardedSequenceGenerator",
+        parameters = {
+            @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "bank_account_seq"),
+            @Parameter(name = SequenceStyleGenerator.FORCE_TBL_PARAM, value = "true"),
+            @Parameter(name = SequenceStyleGenerator.INCREMENT_PARAM, value = "50"),
+            @Parameter(name = SequenceStyleGenerator.OPT_PARAM, value = "pooled-lo"),
+        }
+    )
     @Column(name = "id")
     private Long id;
 
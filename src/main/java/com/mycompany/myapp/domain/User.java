@@ -3,6 +3,9 @@ package com.mycompany.myapp.domain;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.mycompany.myapp.config.Constants;
 import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
 import java.util.HashSet;
 import java.util.Locale;
@@ -16,6 +19,9 @@ import org.apache.commons.lang3.StringUtils;
 import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 /**
  * A user.
@@ -28,7 +34,17 @@ public class User extends AbstractAuditingEntity implements Serializable {
     private static final long serialVersionUID = 1L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "userSequenceGenerator")
+    @GenericGenerator(
+        name = "userSequenceGenerator",
+        strategy = "org.hibernate.id.enhanced.SequenceStyleGenerator",
+        parameters = {
+            @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "jhi_user_seq"),
+            @Parameter(name = SequenceStyleGenerator.FORCE_TBL_PARAM, value = "true"),
+            @Parameter(name = SequenceStyleGenerator.INCREMENT_PARAM, value = "50"),
+            @Parameter(name = SequenceStyleGenerator.OPT_PARAM, value = "pooled-lo"),
+        }
+    )
     private Long id;
 
     @NotNull
@@ -68,15 +84,24 @@ public class User extends AbstractAuditingEntity implements Serializable {
     @Column(name = "image_url", length = 256)
     private String imageUrl;
 
-    @Size(max = 20)
-    @Column(name = "activation_key", length = 20)
+    @Size(max = 64)
+    @Column(name = "activation_key", length = 64)
+    @JsonIgnore
+    private String activationKeyDigest;
+
+    @Size(max = 64)
+    @Column(name = "reset_key", length = 64)
     @JsonIgnore
-    private String activationKey;
+    private String resetKeyDigest;
 
-    @Size(max = 20)
-    @Column(name = "reset_key", length = 20)
+    // The keys themselves are only known until they are mailed, the database keeps their digests
+    @Transient
     @JsonIgnore
-    private String resetKey;
+    private transient String activationKey;
+
+    @Transient
+    @JsonIgnore
+    private transient String resetKey;
 
     @Column(name = "reset_date")
     private Instant resetDate = null;
@@ -137,8 +162,9 @@ public class User extends AbstractAuditingEntity implements Serializable {
         return email;
     }
 
+    // Lowercase the email before saving it in database, so that it is looked up with its unique index
     public void setEmail(String email) {
-        this.email = email;
+        this.email = StringUtils.lowerCase(email, Locale.ENGLISH);
     }
 
     public String getImageUrl() {
@@ -163,6 +189,11 @@ public class User extends AbstractAuditingEntity implements Serializable {
 
     public void setActivationKey(String activationKey) {
         this.activationKey = activationKey;
+        this.activationKeyDigest = digestKey(activationKey);
+    }
+
+    public String getActivationKeyDigest() {
+        return activationKeyDigest;
     }
 
     public String getResetKey() {
@@ -171,6 +202,11 @@ public class User extends AbstractAuditingEntity implements Serializable {
 
     public void setResetKey(String resetKey) {
         this.resetKey = resetKey;
+        this.resetKeyDigest = digestKey(resetKey);
+    }
+
+    public String getResetKeyDigest() {
+        return resetKeyDigest;
     }
 
     public Instant getResetDate() {
@@ -197,6 +233,30 @@ public class User extends AbstractAuditingEntity implements Serializable {
         this.authorities = authorities;
     }
 
+    /**
+     * Get the digest saved for an activation or reset key, of fixed length to be indexed, and of no use to whoever reads
+     * it from the database.
+     *
+     * @param key the key.
+     * @return the hexadecimal SHA-256 digest of the key, or {@code null} if the key is {@code null}.
+     */
+    public static String digestKey(String key) {
+        if (key == null) {
+            return null;
+        }
+        byte[] digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        StringBuilder hex = new StringBuilder(digest.length * 2);
+        for (byte b : digest) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
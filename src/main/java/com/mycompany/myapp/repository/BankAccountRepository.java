@@ -1,7 +1,12 @@
 package com.mycompany.myapp.repository;
 
 import com.mycompany.myapp.domain.BankAccount;
+import com.mycompany.myapp.service.dto.BankAccountDTO;
+import java.util.stream.Stream;
+import javax.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -9,4 +14,114 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface BankAccountRepository extends JpaRepository<BankAccount, Long> {}
+public interface BankAccountRepository extends BankAccountRepositoryWithConditionalUpdate, JpaRepository<BankAccount, Long> {
+    /**
+     * Selects the listed columns of the bankAccounts straight into DTOs, which are neither managed nor cached.
+     */
+    String SELECT_DTO =
+        "select new com.mycompany.myapp.service.dto.BankAccountDTO(bankAccount.id, bankAccount.type, bankAccount.number)" +
+        " from BankAccount bankAccount";
+
+    /**
+     * Stream a page of bankAccounts, the rows being read as they are consumed.
+     *
+     * @param pageable the pagination information.
+     * @return the stream of bankAccounts, to be closed after use within the transaction.
+     */
+    @Query(SELECT_DTO)
+    Stream<BankAccountDTO> streamAllBy(Pageable pageable);
+
+    /**
+     * Stream all the bankAccounts for an export, ordered by id.
+     * <p>
+     * The rows are fetched from a server-side cursor, a batch at a time, when the {@code useCursorFetch} property of
+     * the MySQL driver is set on the pools.
+     *
+     * @return the stream of bankAccounts, to be closed after use within the transaction.
+     */
+    @Query(SELECT_DTO + " order by bankAccount.id asc")
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<BankAccountDTO> streamAllByOrderByIdAsc();
+
+    /**
+     * Stream the bankAccounts with an id greater than the one of the last row of a keyset cursor.
+     *
+     * @param id the id of the last row.
+     * @param pageable the pagination information, sorted on id.
+     * @return the stream of bankAccounts, to be closed after use within the transaction.
+     */
+    @Query(SELECT_DTO + " where bankAccount.id > :id")
+    Stream<BankAccountDTO> streamByIdGreaterThan(@Param("id") Long id, Pageable pageable);
+
+    /**
+     * Stream the bankAccounts with an id lower than the one of the last row of a keyset cursor.
+     *
+     * @param id the id of the last row.
+     * @param pageable the pagination information, sorted on id.
+     * @return the stream of bankAccounts, to be closed after use within the transaction.
+     */
+    @Query(SELECT_DTO + " where bankAccount.id < :id")
+    Stream<BankAccountDTO> streamByIdLessThan(@Param("id") Long id, Pageable pageable);
+
+    /**
+     * Stream the bankAccounts after a keyset cursor, in ascending order of type then id, {@code null} types first.
+     *
+     * @param type the type of the last row, or {@code null}.
+     * @param id the id of the last row.
+     * @param pageable the pagination information, sorted on type then id.
+     * @return the stream of bankAccounts, to be closed after use within the transaction.
+     */
+    @Query(
+        SELECT_DTO +
+        " where (bankAccount.type = :type and bankAccount.id > :id) or bankAccount.type > :type" +
+        " or (:type is null and (bankAccount.type is not null or bankAccount.id > :id))"
+    )
+    Stream<BankAccountDTO> streamByTypeAfter(@Param("type") String type, @Param("id") Long id, Pageable pageable);
+
+    /**
+     * Stream the bankAccounts after a keyset cursor, in descending order of type then id, {@code null} types last.
+     *
+     * @param type the type of the last row, or {@code null}.
+     * @param id the id of the last row.
+     * @param pageable the pagination information, sorted on type then id.
+     * @return the stream of bankAccounts, to be closed after use within the transaction.
+     */
+    @Query(
+        SELECT_DTO +
+        " where (bankAccount.type = :type and bankAccount.id < :id) or bankAccount.type < :type" +
+        " or (:type is null and bankAccount.type is null and bankAccount.id < :id)" +
+        " or (:type is not null and bankAccount.type is null)"
+    )
+    Stream<BankAccountDTO> streamByTypeBefore(@Param("type") String type, @Param("id") Long id, Pageable pageable);
+
+    /**
+     * Stream the bankAccounts after a keyset cursor, in ascending order of number then id, {@code null} numbers first.
+     *
+     * @param number the number of the last row, or {@code null}.
+     * @param id the id of the last row.
+     * @param pageable the pagination information, sorted on number then id.
+     * @return the stream of bankAccounts, to be closed after use within the transaction.
+     */
+    @Query(
+        SELECT_DTO +
+        " where (bankAccount.number = :number and bankAccount.id > :id) or bankAccount.number > :number" +
+        " or (:number is null and (bankAccount.number is not null or bankAccount.id > :id))"
+    )
+    Stream<BankAccountDTO> streamByNumberAfter(@Param("number") String number, @Param("id") Long id, Pageable pageable);
+
+    /**
+     * Stream the bankAccounts after a keyset cursor, in descending order of number then id, {@code null} numbers last.
+     *
+     * @param number the number of the last row, or {@code null}.
+     * @param id the id of the last row.
+     * @param pageable the pagination information, sorted on number then id.
+     * @return the stream of bankAccounts, to be closed after use within the transaction.
+     */
+    @Query(
+        SELECT_DTO +
+        " where (bankAccount.number = :number and bankAccount.id < :id) or bankAccount.number < :number" +
+        " or (:number is null and bankAccount.number is null and bankAccount.id < :id)" +
+        " or (:number is not null and bankAccount.number is null)"
+    )
+    Stream<BankAccountDTO> streamByNumberBefore(@Param("number") String number, @Param("id") Long id, Pageable pageable);
+}
@@ -0,0 +1,14 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.BankAccount;
+
+public interface BankAccountRepositoryWithConditionalUpdate {
+    /**
+     * Update a bankAccount with a single statement, without loading it.
+     *
+     * @param bankAccount the new values of the bankAccount, with its id.
+     * @param partial true to only update the fields which are not {@code null}, at least one of them.
+     * @return the number of updated rows, {@code 0} if the bankAccount does not exist.
+     */
+    int update(BankAccount bankAccount, boolean partial);
+}
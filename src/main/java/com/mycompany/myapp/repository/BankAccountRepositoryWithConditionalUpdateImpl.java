@@ -0,0 +1,25 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.BankAccount;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+public class BankAccountRepositoryWithConditionalUpdateImpl implements BankAccountRepositoryWithConditionalUpdate {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public int update(BankAccount bankAccount, boolean partial) {
+        Map<String, Object> properties = new LinkedHashMap<>();
+        if (!partial || bankAccount.getType() != null) {
+            properties.put("type", bankAccount.getType());
+        }
+        if (!partial || bankAccount.getNumber() != null) {
+            properties.put("number", bankAccount.getNumber());
+        }
+        return ConditionalUpdate.execute(entityManager, BankAccount.class, bankAccount.getId(), properties);
+    }
+}
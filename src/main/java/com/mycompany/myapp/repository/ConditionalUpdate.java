@@ -0,0 +1,88 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.cache.HibernateCacheInvalidation;
+import com.mycompany.myapp.cache.TableVersions;
+import java.io.Serializable;
+import java.util.Map;
+import javax.persistence.EntityManager;
+import org.hibernate.cache.spi.access.EntityDataAccess;
+import org.hibernate.engine.spi.EntityKey;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.query.NativeQuery;
+
+/**
+ * Updates some columns of an entity with a single conditional {@code UPDATE}, without loading it first.
+ * <p>
+ * The statement is a native query bound to its own query space, so that Hibernate does not evict the whole
+ * second-level cache region of the entity as it does for bulk updates: only the entry of the updated entity is evicted,
+ * once right away and again after the transaction completes, so that a concurrent read cannot cache the previous
+ * state. The eviction is broadcast to the other instances as for an update made by Hibernate, and the version of the
+ * table is bumped. An instance of the entity already in the persistence context is detached, to be read again.
+ * <p>
+ * The entity is not read back: the services load the entities to cache from the primary database, so that a replica
+ * lagging behind the update cannot cache the previous state again.
+ */
+final class ConditionalUpdate {
+
+    private static final String QUERY_SPACE = "conditional_update";
+
+    private ConditionalUpdate() {}
+
+    /**
+     * Update the columns of an entity.
+     *
+     * @param entityManager the entity manager.
+     * @param entityClass the class of the entity.
+     * @param id the identifier of the entity.
+     * @param properties the values of the updated properties, each mapped to a single column.
+     * @return the number of updated rows, {@code 0} if the entity does not exist.
+     */
+    static int execute(EntityManager entityManager, Class<?> entityClass, Serializable id, Map<String, Object> properties) {
+        if (properties.isEmpty()) {
+            throw new IllegalArgumentException("No property to update");
+        }
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        AbstractEntityPersister persister = (AbstractEntityPersister) session.getFactory().getMetamodel().entityPersister(entityClass);
+        session.flush();
+
+        StringBuilder sql = new StringBuilder("update ").append(persister.getTableName()).append(" set ");
+        properties
+            .keySet()
+            .forEach(property -> sql.append(persister.getPropertyColumnNames(property)[0]).append(" = :").append(property).append(", "));
+        sql.setLength(sql.length() - 2);
+        sql.append(" where ").append(persister.getIdentifierColumnNames()[0]).append(" = :id");
+        NativeQuery<?> query = session.createNativeQuery(sql.toString()).addSynchronizedQuerySpace(QUERY_SPACE);
+        // Typed parameters, so that null values are bound with the type of their column
+        properties.forEach((property, value) -> query.setParameter(property, value, persister.getPropertyType(property)));
+        query.setParameter("id", id, persister.getIdentifierType());
+        int updated = query.executeUpdate();
+
+        detachAndEvict(session, persister, id);
+        TableVersions.entityUpdated(session, persister);
+        return updated;
+    }
+
+    /**
+     * Detach an entity written without Hibernate from the persistence context, and evict it from the second-level cache
+     * right away and again after the transaction completes, broadcasting the eviction.
+     *
+     * @param session the session which wrote the entity.
+     * @param persister the persister of the entity.
+     * @param id the identifier of the entity.
+     */
+    static void detachAndEvict(SessionImplementor session, EntityPersister persister, Serializable id) {
+        Object managed = session.getPersistenceContext().getEntity(new EntityKey(id, persister));
+        if (managed != null) {
+            session.detach(managed);
+        }
+        if (persister.canWriteToCache()) {
+            EntityDataAccess cacheAccess = persister.getCacheAccessStrategy();
+            Object cacheKey = cacheAccess.generateCacheKey(id, persister, session.getFactory(), session.getTenantIdentifier());
+            cacheAccess.evict(cacheKey);
+            session.getActionQueue().registerProcess((success, completedSession) -> cacheAccess.evict(cacheKey));
+            HibernateCacheInvalidation.entityUpdated(session, persister, id);
+        }
+    }
+}
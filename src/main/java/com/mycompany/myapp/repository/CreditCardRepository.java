@@ -1,7 +1,12 @@
 package com.mycompany.myapp.repository;
 
 import com.mycompany.myapp.domain.CreditCard;
+import com.mycompany.myapp.service.dto.CreditCardDTO;
+import java.util.stream.Stream;
+import javax.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -9,4 +14,114 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface CreditCardRepository extends JpaRepository<CreditCard, Long> {}
+public interface CreditCardRepository extends CreditCardRepositoryWithConditionalUpdate, JpaRepository<CreditCard, Long> {
+    /**
+     * Selects the listed columns of the creditCards straight into DTOs, which are neither managed nor cached.
+     */
+    String SELECT_DTO =
+        "select new com.mycompany.myapp.service.dto.CreditCardDTO(creditCard.id, creditCard.type, creditCard.number)" +
+        " from CreditCard creditCard";
+
+    /**
+     * Stream a page of creditCards, the rows being read as they are consumed.
+     *
+     * @param pageable the pagination information.
+     * @return the stream of creditCards, to be closed after use within the transaction.
+     */
+    @Query(SELECT_DTO)
+    Stream<CreditCardDTO> streamAllBy(Pageable pageable);
+
+    /**
+     * Stream all the creditCards for an export, ordered by id.
+     * <p>
+     * The rows are fetched from a server-side cursor, a batch at a time, when the {@code useCursorFetch} property of
+     * the MySQL driver is set on the pools.
+     *
+     * @return the stream of creditCards, to be closed after use within the transaction.
+     */
+    @Query(SELECT_DTO + " order by creditCard.id asc")
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<CreditCardDTO> streamAllByOrderByIdAsc();
+
+    /**
+     * Stream the creditCards with an id greater than the one of the last row of a keyset cursor.
+     *
+     * @param id the id of the last row.
+     * @param pageable the pagination information, sorted on id.
+     * @return the stream of creditCards, to be closed after use within the transaction.
+     */
+    @Query(SELECT_DTO + " where creditCard.id > :id")
+    Stream<CreditCardDTO> streamByIdGreaterThan(@Param("id") Long id, Pageable pageable);
+
+    /**
+     * Stream the creditCards with an id lower than the one of the last row of a keyset cursor.
+     *
+     * @param id the id of the last row.
+     * @param pageable the pagination information, sorted on id.
+     * @return the stream of creditCards, to be closed after use within the transaction.
+     */
+    @Query(SELECT_DTO + " where creditCard.id < :id")
+    Stream<CreditCardDTO> streamByIdLessThan(@Param("id") Long id, Pageable pageable);
+
+    /**
+     * Stream the creditCards after a keyset cursor, in ascending order of type then id, {@code null} types first.
+     *
+     * @param type the type of the last row, or {@code null}.
+     * @param id the id of the last row.
+     * @param pageable the pagination information, sorted on type then id.
+     * @return the stream of creditCards, to be closed after use within the transaction.
+     */
+    @Query(
+        SELECT_DTO +
+        " where (creditCard.type = :type and creditCard.id > :id) or creditCard.type > :type" +
+        " or (:type is null and (creditCard.type is not null or creditCard.id > :id))"
+    )
+    Stream<CreditCardDTO> streamByTypeAfter(@Param("type") String type, @Param("id") Long id, Pageable pageable);
+
+    /**
+     * Stream the creditCards after a keyset cursor, in descending order of type then id, {@code null} types last.
+     *
+     * @param type the type of the last row, or {@code null}.
+     * @param id the id of the last row.
+     * @param pageable the pagination information, sorted on type then id.
+     * @return the stream of creditCards, to be closed after use within the transaction.
+     */
+    @Query(
+        SELECT_DTO +
+        " where (creditCard.type = :type and creditCard.id < :id) or creditCard.type < :type" +
+        " or (:type is null and creditCard.type is null and creditCard.id < :id)" +
+        " or (:type is not null and creditCard.type is null)"
+    )
+    Stream<CreditCardDTO> streamByTypeBefore(@Param("type") String type, @Param("id") Long id, Pageable pageable);
+
+    /**
+     * Stream the creditCards after a keyset cursor, in ascending order of number then id, {@code null} numbers first.
+     *
+     * @param number the number of the last row, or {@code null}.
+     * @param id the id of the last row.
+     * @param pageable the pagination information, sorted on number then id.
+     * @return the stream of creditCards, to be closed after use within the transaction.
+     */
+    @Query(
+        SELECT_DTO +
+        " where (creditCard.number = :number and creditCard.id > :id) or creditCard.number > :number" +
+        " or (:number is null and (creditCard.number is not null or creditCard.id > :id))"
+    )
+    Stream<CreditCardDTO> streamByNumberAfter(@Param("number") String number, @Param("id") Long id, Pageable pageable);
+
+    /**
+     * Stream the creditCards after a keyset cursor, in descending order of number then id, {@code null} numbers last.
+     *
+     * @param number the number of the last row, or {@code null}.
+     * @param id the id of the last row.
+     * @param pageable the pagination information, sorted on number then id.
+     * @return the stream of creditCards, to be closed after use within the transaction.
+     */
+    @Query(
+        SELECT_DTO +
+        " where (creditCard.number = :number and creditCard.id < :id) or creditCard.number < :number" +
+        " or (:number is null and creditCard.number is null and creditCard.id < :id)" +
+        " or (:number is not null and creditCard.number is null)"
+    )
+    Stream<CreditCardDTO> streamByNumberBefore(@Param("number") String number, @Param("id") Long id, Pageable pageable);
+}
@@ -0,0 +1,14 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.CreditCard;
+
+public interface CreditCardRepositoryWithConditionalUpdate {
+    /**
+     * Update a creditCard with a single statement, without loading it.
+     *
+     * @param creditCard the new values of the creditCard, with its id.
+     * @param partial true to only update the fields which are not {@code null}, at least one of them.
+     * @return the number of updated rows, {@code 0} if the creditCard does not exist.
+     */
+    int update(CreditCard creditCard, boolean partial);
+}
@@ -0,0 +1,25 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.CreditCard;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+public class CreditCardRepositoryWithConditionalUpdateImpl implements CreditCardRepositoryWithConditionalUpdate {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public int update(CreditCard creditCard, boolean partial) {
+        Map<String, Object> properties = new LinkedHashMap<>();
+        if (!partial || creditCard.getType() != null) {
+            properties.put("type", creditCard.getType());
+        }
+        if (!partial || creditCard.getNumber() != null) {
+            properties.put("number", creditCard.getNumber());
+        }
+        return ConditionalUpdate.execute(entityManager, CreditCard.class, creditCard.getId(), properties);
+    }
+}
@@ -1,42 +1,133 @@
 package com.mycompany.myapp.repository;
 
 import com.mycompany.myapp.domain.User;
+import com.mycompany.myapp.service.dto.UserDTO;
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import javax.persistence.QueryHint;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
  * Spring Data JPA repository for the {@link User} entity.
  */
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryWithBulkDelete {
     String USERS_BY_LOGIN_CACHE = "usersByLogin";
 
     String USERS_BY_EMAIL_CACHE = "usersByEmail";
 
-    Optional<User> findOneByActivationKey(String activationKey);
+    /**
+     * Find a user by activation key, looked up by its digest on its index.
+     *
+     * @param activationKey the activation key.
+     * @return the user, if any.
+     */
+    default Optional<User> findOneByActivationKey(String activationKey) {
+        return activationKey == null ? Optional.empty() : findOneByActivationKeyDigest(User.digestKey(activationKey));
+    }
 
-    List<User> findAllByActivatedIsFalseAndActivationKeyIsNotNullAndCreatedDateBefore(Instant dateTime);
+    Optional<User> findOneByActivationKeyDigest(String activationKeyDigest);
 
-    Optional<User> findOneByResetKey(String resetKey);
+    @Query(
+        "select user from User user" +
+        " where user.activated = false and user.activationKeyDigest is not null and user.createdDate < :dateTime"
+    )
+    List<User> findAllByActivatedIsFalseAndActivationKeyIsNotNullAndCreatedDateBefore(@Param("dateTime") Instant dateTime);
 
-    Optional<User> findOneByEmailIgnoreCase(String email);
+    /**
+     * Find the first not activated users created before a date, on the index of the not activated users by creation
+     * date.
+     *
+     * @param dateTime the date.
+     * @param pageable the number of users.
+     * @return the users, oldest first.
+     */
+    @Query(
+        "select user from User user" +
+        " where user.activated = false and user.activationKeyDigest is not null and user.createdDate < :dateTime" +
+        " order by user.createdDate"
+    )
+    List<User> findAllByActivatedIsFalseAndActivationKeyIsNotNullAndCreatedDateBefore(
+        @Param("dateTime") Instant dateTime,
+        Pageable pageable
+    );
+
+    /**
+     * Find a user by reset key, looked up by its digest on its index.
+     *
+     * @param resetKey the reset key.
+     * @return the user, if any.
+     */
+    default Optional<User> findOneByResetKey(String resetKey) {
+        return resetKey == null ? Optional.empty() : findOneByResetKeyDigest(User.digestKey(resetKey));
+    }
+
+    Optional<User> findOneByResetKeyDigest(String resetKeyDigest);
+
+    /**
+     * The emails being saved lowercased, the lookup lowercases the given email only, so that it seeks the unique index
+     * of the emails instead of scanning the users to lowercase each of their emails.
+     */
+    @Query("select user from User user where user.email = lower(:email)")
+    Optional<User> findOneByEmailIgnoreCase(@Param("email") String email);
 
     Optional<User> findOneByLogin(String login);
 
     @EntityGraph(attributePaths = "authorities")
-    @Cacheable(cacheNames = USERS_BY_LOGIN_CACHE)
+    @Cacheable(cacheNames = USERS_BY_LOGIN_CACHE, sync = true)
     Optional<User> findOneWithAuthoritiesByLogin(String login);
 
+    /**
+     * Same lookup as {@link #findOneByEmailIgnoreCase(String)}, cached by the given email: give it lowercased for the
+     * cached user to be evicted when it changes.
+     */
     @EntityGraph(attributePaths = "authorities")
-    @Cacheable(cacheNames = USERS_BY_EMAIL_CACHE)
-    Optional<User> findOneWithAuthoritiesByEmailIgnoreCase(String email);
+    @Cacheable(cacheNames = USERS_BY_EMAIL_CACHE, sync = true)
+    @Query("select user from User user where user.email = lower(:email)")
+    Optional<User> findOneWithAuthoritiesByEmailIgnoreCase(@Param("email") String email);
+
+    /**
+     * Find a slice of the activated users, without counting them.
+     *
+     * @param pageable the slice.
+     * @return the users of the slice.
+     */
+    @Query(
+        "select new com.mycompany.myapp.service.dto.UserDTO(user.id, user.login) from User user" +
+        " where user.id is not null and user.activated = true"
+    )
+    Slice<UserDTO> findAllByIdNotNullAndActivatedIsTrue(Pageable pageable);
 
-    Page<User> findAllByIdNotNullAndActivatedIsTrue(Pageable pageable);
+    long countByIdNotNullAndActivatedIsTrue();
+
+    /**
+     * Page the ids of the users, first half of a page of users with their authorities: paging a fetch of the
+     * authorities would fetch all the users to page them in memory.
+     *
+     * @param pageable the page, sorted by properties of the users.
+     * @return the ids of the users of the page, without their count.
+     */
+    @Query("select user.id from User user")
+    Slice<Long> findAllIds(Pageable pageable);
+
+    /**
+     * Find users with their authorities in a single query, second half of a page of users with their authorities.
+     *
+     * @param ids the ids of the users.
+     * @return the users, in no particular order.
+     */
+    @EntityGraph(attributePaths = "authorities")
+    @QueryHints(@QueryHint(name = "hibernate.query.passDistinctThrough", value = "false"))
+    @Query("select distinct user from User user where user.id in :ids")
+    List<User> findAllWithAuthoritiesByIdIn(@Param("ids") Collection<Long> ids);
 }
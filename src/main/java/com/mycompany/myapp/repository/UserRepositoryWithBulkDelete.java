@@ -0,0 +1,14 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.User;
+import java.util.Collection;
+
+public interface UserRepositoryWithBulkDelete {
+    /**
+     * Delete users and their authorities with a statement per table, without deleting them one at a time.
+     *
+     * @param users the users, with their ids.
+     * @return the number of deleted users.
+     */
+    int deleteInBulk(Collection<User> users);
+}
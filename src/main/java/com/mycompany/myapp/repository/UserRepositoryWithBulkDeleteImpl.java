@@ -0,0 +1,60 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.cache.TableVersions;
+import com.mycompany.myapp.domain.User;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.metamodel.spi.MetamodelImplementor;
+import org.hibernate.persister.collection.AbstractCollectionPersister;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+
+/**
+ * The statements are native queries bound to their own query space, as for {@link ConditionalUpdate}: only the entries
+ * of the deleted users are evicted from the second-level cache, and the deletions are broadcast as for deletions made by
+ * Hibernate.
+ */
+public class UserRepositoryWithBulkDeleteImpl implements UserRepositoryWithBulkDelete {
+
+    private static final String QUERY_SPACE = "bulk_delete";
+
+    private static final String AUTHORITIES_ROLE = User.class.getName() + ".authorities";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public int deleteInBulk(Collection<User> users) {
+        if (users.isEmpty()) {
+            return 0;
+        }
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        MetamodelImplementor metamodel = session.getFactory().getMetamodel();
+        AbstractEntityPersister persister = (AbstractEntityPersister) metamodel.entityPersister(User.class);
+        AbstractCollectionPersister authorities = (AbstractCollectionPersister) metamodel.collectionPersister(AUTHORITIES_ROLE);
+        session.flush();
+
+        List<Long> ids = users.stream().map(User::getId).collect(Collectors.toList());
+        session
+            .createNativeQuery("delete from " + authorities.getTableName() + " where " + authorities.getKeyColumnNames()[0] + " in (:ids)")
+            .addSynchronizedQuerySpace(QUERY_SPACE)
+            .setParameterList("ids", ids)
+            .executeUpdate();
+        String idColumn = persister.getIdentifierColumnNames()[0];
+        int deleted = session
+            .createNativeQuery("delete from " + persister.getTableName() + " where " + idColumn + " in (:ids)")
+            .addSynchronizedQuerySpace(QUERY_SPACE)
+            .setParameterList("ids", ids)
+            .executeUpdate();
+
+        for (Long id : ids) {
+            ConditionalUpdate.detachAndEvict(session, persister, id);
+            session.getFactory().getCache().evictCollectionData(AUTHORITIES_ROLE, id);
+        }
+        TableVersions.entityUpdated(session, persister);
+        return deleted;
+    }
+}
@@ -0,0 +1,168 @@
+package com.mycompany.myapp.security;
+
+import com.mycompany.myapp.cache.TableVersions;
+import com.mycompany.myapp.datasource.TenantContextHolder;
+import com.mycompany.myapp.domain.Authority;
+import com.mycompany.myapp.repository.AuthorityRepository;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+/**
+ * The authorities of each tenant, read once instead of on every user write and every login.
+ * <p>
+ * The authorities are loaded when the application is ready, and loaded again when the version of their table changes,
+ * that is when they are written to through Hibernate by this instance or by another one. Each authority comes with a
+ * {@link GrantedAuthority} shared by all the users granted it.
+ * <p>
+ * The {@link Authority} instances are detached: they can be associated with users, but not changed.
+ */
+@Component
+public class AuthorityRegistry {
+
+    private final Logger log = LoggerFactory.getLogger(AuthorityRegistry.class);
+
+    private final AuthorityRepository authorityRepository;
+
+    private final TableVersions tableVersions;
+
+    private final String[] tables;
+
+    private final ConcurrentMap<String, Authorities> authoritiesByTenant = new ConcurrentHashMap<>();
+
+    public AuthorityRegistry(AuthorityRepository authorityRepository, TableVersions tableVersions) {
+        this.authorityRepository = authorityRepository;
+        this.tableVersions = tableVersions;
+        this.tables = tableVersions.tablesOf(Authority.class);
+    }
+
+    /**
+     * Load the authorities of the default tenant, the other tenants being loaded on their first use.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        try {
+            authorities();
+        } catch (DataAccessException e) {
+            log.warn("Could not load the authorities, they will be loaded on their first use: {}", e.toString());
+        }
+    }
+
+    /**
+     * Get an authority.
+     *
+     * @param name the name of the authority.
+     * @return the authority, if it exists.
+     */
+    public Optional<Authority> find(String name) {
+        return Optional.ofNullable(authorities().byName.get(name));
+    }
+
+    /**
+     * Get the authorities which exist among some names.
+     *
+     * @param names the names of the authorities.
+     * @return the authorities, without the names of no authority.
+     */
+    public Set<Authority> findAll(Collection<String> names) {
+        Map<String, Authority> byName = authorities().byName;
+        Set<Authority> found = new HashSet<>();
+        for (String name : names) {
+            Authority authority = byName.get(name);
+            if (authority != null) {
+                found.add(authority);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Get the names of all the authorities.
+     *
+     * @return the names, sorted.
+     */
+    public List<String> getNames() {
+        return authorities().names;
+    }
+
+    /**
+     * Get the granted authorities of some authorities.
+     *
+     * @param authorities the authorities.
+     * @return the granted authorities, the same instances for all the users.
+     */
+    public List<GrantedAuthority> grantedAuthorities(Collection<Authority> authorities) {
+        Map<String, GrantedAuthority> grantedByName = authorities().grantedByName;
+        List<GrantedAuthority> granted = new ArrayList<>(authorities.size());
+        for (Authority authority : authorities) {
+            GrantedAuthority grantedAuthority = grantedByName.get(authority.getName());
+            // Not loaded yet if added since
+            granted.add(grantedAuthority != null ? grantedAuthority : new SimpleGrantedAuthority(authority.getName()));
+        }
+        return granted;
+    }
+
+    /**
+     * Load the authorities again, for changes made without Hibernate.
+     */
+    public void refresh() {
+        authoritiesByTenant.clear();
+    }
+
+    private Authorities authorities() {
+        long[] versions = tableVersions.versions(tables);
+        String tenant = TenantContextHolder.getTenant();
+        Authorities authorities = authoritiesByTenant.get(tenant);
+        if (authorities == null || versions == null || !Arrays.equals(authorities.versions, versions)) {
+            authorities = new Authorities(versions, authorityRepository.findAll());
+            if (versions != null) {
+                // Otherwise written to by a transaction of this instance
+                authoritiesByTenant.put(tenant, authorities);
+            }
+        }
+        return authorities;
+    }
+
+    private static final class Authorities {
+
+        private final long[] versions;
+
+        private final Map<String, Authority> byName;
+
+        private final Map<String, GrantedAuthority> grantedByName;
+
+        private final List<String> names;
+
+        private Authorities(long[] versions, List<Authority> authorities) {
+            this.versions = versions;
+            Map<String, Authority> byName = new TreeMap<>();
+            Map<String, GrantedAuthority> grantedByName = new TreeMap<>();
+            for (Authority authority : authorities) {
+                Authority detached = new Authority();
+                detached.setName(authority.getName());
+                byName.put(detached.getName(), detached);
+                grantedByName.put(detached.getName(), new SimpleGrantedAuthority(detached.getName()));
+            }
+            this.byName = Collections.unmodifiableMap(byName);
+            this.grantedByName = Collections.unmodifiableMap(grantedByName);
+            this.names = Collections.unmodifiableList(new ArrayList<>(byName.keySet()));
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.mycompany.myapp.security;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Hashes and verifies passwords on a bounded pool of its own, configured by
+ * {@code application.security.password-hashing}.
+ * <p>
+ * The request threads wait for the pool without using the processors, so that a burst of logins takes at most the
+ * threads of the pool from the rest of the API. A password is rejected with a {@link TaskRejectedException}, answered
+ * with a 503, when the queue of the pool is full, or when it waited longer than {@code max-queue-millis} for a thread:
+ * its caller is then likely to have given up already.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder, DisposableBean {
+
+    public static final String HASHING_METRIC = "password.hashing";
+
+    public static final String QUEUE_METRIC = "password.hashing.queue";
+
+    public static final String REJECTED_METRIC = "password.hashing.rejected";
+
+    private final PasswordEncoder delegate;
+
+    private final ThreadPoolTaskExecutor executor;
+
+    private final long maxQueueNanos;
+
+    private final Timer encodeTimer;
+
+    private final Timer matchesTimer;
+
+    private final Timer queueTimer;
+
+    private final Counter queueFullCounter;
+
+    private final Counter queueTimeoutCounter;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, ApplicationProperties.PasswordHashing properties, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.maxQueueNanos = TimeUnit.MILLISECONDS.toNanos(properties.getMaxQueueMillis());
+        this.executor = new ThreadPoolTaskExecutor();
+        this.executor.setCorePoolSize(properties.getPoolSize());
+        this.executor.setMaxPoolSize(properties.getPoolSize());
+        this.executor.setQueueCapacity(properties.getQueueCapacity());
+        this.executor.setThreadNamePrefix("multidbs-password-hashing-");
+        this.executor.initialize();
+
+        MeterRegistry registry = meterRegistry != null ? meterRegistry : new CompositeMeterRegistry();
+        this.encodeTimer = hashingTimer(registry, "encode");
+        this.matchesTimer = hashingTimer(registry, "matches");
+        this.queueTimer = Timer
+            .builder(QUEUE_METRIC)
+            .description("Time the passwords waited for a hashing thread")
+            .publishPercentileHistogram()
+            .register(registry);
+        this.queueFullCounter = rejectedCounter(registry, "queue-full");
+        this.queueTimeoutCounter = rejectedCounter(registry, "queue-timeout");
+        new ExecutorServiceMetrics(executor.getThreadPoolExecutor(), "passwordHashing", Tags.empty()).bindTo(registry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return hash(encodeTimer, () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return hash(matchesTimer, () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        // Only reads the cost of the hash
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T hash(Timer timer, Callable<T> hashing) {
+        long queuedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future =
+                executor.submit(() -> {
+                    long queued = System.nanoTime() - queuedAt;
+                    queueTimer.record(queued, TimeUnit.NANOSECONDS);
+                    if (queued > maxQueueNanos) {
+                        queueTimeoutCounter.increment();
+                        throw new TaskRejectedException(
+                            "Password waited " + TimeUnit.NANOSECONDS.toMillis(queued) + " ms for a hashing thread"
+                        );
+                    }
+                    return timer.recordCallable(hashing);
+                });
+        } catch (TaskRejectedException e) {
+            queueFullCounter.increment();
+            throw new TaskRejectedException("Too many passwords waiting to be hashed", e);
+        }
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a password to be hashed", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    private static Timer hashingTimer(MeterRegistry registry, String operation) {
+        return Timer
+            .builder(HASHING_METRIC)
+            .description("Duration of the password hashes and verifications")
+            .tag("operation", operation)
+            .publishPercentileHistogram()
+            .register(registry);
+    }
+
+    private static Counter rejectedCounter(MeterRegistry registry, String reason) {
+        return Counter
+            .builder(REJECTED_METRIC)
+            .description("Passwords rejected without being hashed, as the hashing pool was saturated")
+            .tag("reason", reason)
+            .register(registry);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+}
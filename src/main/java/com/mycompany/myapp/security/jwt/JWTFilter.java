@@ -1,11 +1,13 @@
 package com.mycompany.myapp.security.jwt;
 
+import com.mycompany.myapp.datasource.TenantContextHolder;
 import java.io.IOException;
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
 import javax.servlet.ServletRequest;
 import javax.servlet.ServletResponse;
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.util.StringUtils;
@@ -14,11 +16,17 @@ import org.springframework.web.filter.GenericFilterBean;
 /**
  * Filters incoming requests and installs a Spring Security principal if a header corresponding to a valid user is
  * found.
+ * <p>
+ * With tenancy, the request is bound to the tenant of the token, or, for requests without a valid token such as the
+ * authentication itself, to the tenant given by the {@code X-Tenant-ID} header. Requests for a tenant without a
+ * database are rejected.
  */
 public class JWTFilter extends GenericFilterBean {
 
     public static final String AUTHORIZATION_HEADER = "Authorization";
 
+    public static final String TENANT_HEADER = "X-Tenant-ID";
+
     private final TokenProvider tokenProvider;
 
     public JWTFilter(TokenProvider tokenProvider) {
@@ -30,11 +38,32 @@ public class JWTFilter extends GenericFilterBean {
         throws IOException, ServletException {
         HttpServletRequest httpServletRequest = (HttpServletRequest) servletRequest;
         String jwt = resolveToken(httpServletRequest);
-        if (StringUtils.hasText(jwt) && this.tokenProvider.validateToken(jwt)) {
-            Authentication authentication = this.tokenProvider.getAuthentication(jwt);
+        String tenant = null;
+        Authentication authentication = StringUtils.hasText(jwt) ? this.tokenProvider.authenticate(jwt) : null;
+        if (authentication != null) {
             SecurityContextHolder.getContext().setAuthentication(authentication);
+            tenant = (String) authentication.getDetails();
+        } else if (this.tokenProvider.isMultiTenant()) {
+            tenant = httpServletRequest.getHeader(TENANT_HEADER);
+            if (tenant != null && !TenantContextHolder.isValid(tenant)) {
+                ((HttpServletResponse) servletResponse).sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid tenant");
+                return;
+            }
+        }
+        if (tenant != null && !this.tokenProvider.isKnownTenant(tenant)) {
+            ((HttpServletResponse) servletResponse).sendError(HttpServletResponse.SC_BAD_REQUEST, "Unknown tenant");
+            return;
+        }
+        if (tenant == null) {
+            filterChain.doFilter(servletRequest, servletResponse);
+            return;
+        }
+        TenantContextHolder.setTenant(tenant);
+        try {
+            filterChain.doFilter(servletRequest, servletResponse);
+        } finally {
+            TenantContextHolder.setTenant(null);
         }
-        filterChain.doFilter(servletRequest, servletResponse);
     }
 
     private String resolveToken(HttpServletRequest request) {
@@ -1,11 +1,20 @@
 package com.mycompany.myapp.security.jwt;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.datasource.TenantContextHolder;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -16,8 +25,16 @@ import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.stereotype.Component;
 import org.springframework.util.ObjectUtils;
+import org.springframework.util.StringUtils;
 import tech.jhipster.config.JHipsterProperties;
 
+/**
+ * Creates and verifies the JSON Web Tokens.
+ * <p>
+ * A verified token is kept, by the SHA-256 digest of its text, with its principal and authorities until it expires: the
+ * following requests with the same token only hash it, instead of verifying its signature and parsing its claims again.
+ * Tokens which fail the verification are not kept. The authorities are shared by all the tokens granting them.
+ */
 @Component
 public class TokenProvider {
 
@@ -25,6 +42,8 @@ public class TokenProvider {
 
     private static final String AUTHORITIES_KEY = "auth";
 
+    private static final String TENANT_KEY = "tenant";
+
     private final Key key;
 
     private final JwtParser jwtParser;
@@ -33,7 +52,25 @@ public class TokenProvider {
 
     private final long tokenValidityInMillisecondsForRememberMe;
 
-    public TokenProvider(JHipsterProperties jHipsterProperties) {
+    private final boolean multiTenant;
+
+    private final Set<String> tenants;
+
+    private final com.github.benmanes.caffeine.cache.Cache<String, VerifiedToken> verifiedTokens;
+
+    private final ConcurrentMap<String, List<GrantedAuthority>> authoritiesByClaim = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, GrantedAuthority> authoritiesByName = new ConcurrentHashMap<>();
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    public TokenProvider(JHipsterProperties jHipsterProperties, ApplicationProperties applicationProperties) {
         byte[] keyBytes;
         String secret = jHipsterProperties.getSecurity().getAuthentication().getJwt().getBase64Secret();
         if (!ObjectUtils.isEmpty(secret)) {
@@ -52,6 +89,33 @@ public class TokenProvider {
         this.tokenValidityInMilliseconds = 1000 * jHipsterProperties.getSecurity().getAuthentication().getJwt().getTokenValidityInSeconds();
         this.tokenValidityInMillisecondsForRememberMe =
             1000 * jHipsterProperties.getSecurity().getAuthentication().getJwt().getTokenValidityInSecondsForRememberMe();
+        this.multiTenant = StringUtils.hasText(applicationProperties.getDatasource().getTenancy().getUrlTemplate());
+        this.tenants = applicationProperties.getDatasource().getTenancy().getTenants();
+        int tokenCacheSize = applicationProperties.getSecurity().getTokenCacheSize();
+        if (tokenCacheSize > 0) {
+            this.verifiedTokens = Caffeine.newBuilder().maximumSize(tokenCacheSize).expireAfter(new UntilExpiration()).build();
+        } else {
+            this.verifiedTokens = null;
+        }
+    }
+
+    /**
+     * Check whether tokens carry the tenant of the user.
+     *
+     * @return true if tenancy is enabled.
+     */
+    public boolean isMultiTenant() {
+        return multiTenant;
+    }
+
+    /**
+     * Check whether a tenant has a database: the default tenant, or one of {@code application.datasource.tenancy.tenants}.
+     *
+     * @param tenant the tenant.
+     * @return true if the tenant is known.
+     */
+    public boolean isKnownTenant(String tenant) {
+        return TenantContextHolder.DEFAULT_TENANT.equals(tenant) || tenants.contains(tenant);
     }
 
     public String createToken(Authentication authentication, boolean rememberMe) {
@@ -65,37 +129,143 @@ public class TokenProvider {
             validity = new Date(now + this.tokenValidityInMilliseconds);
         }
 
-        return Jwts
-            .builder()
-            .setSubject(authentication.getName())
-            .claim(AUTHORITIES_KEY, authorities)
-            .signWith(key, SignatureAlgorithm.HS512)
-            .setExpiration(validity)
-            .compact();
+        JwtBuilder builder = Jwts.builder().setSubject(authentication.getName()).claim(AUTHORITIES_KEY, authorities);
+        if (multiTenant && !TenantContextHolder.isDefaultTenant()) {
+            builder.claim(TENANT_KEY, TenantContextHolder.getTenant());
+        }
+        return builder.signWith(key, SignatureAlgorithm.HS512).setExpiration(validity).compact();
     }
 
-    public Authentication getAuthentication(String token) {
-        Claims claims = jwtParser.parseClaimsJws(token).getBody();
-
-        Collection<? extends GrantedAuthority> authorities = Arrays
-            .stream(claims.get(AUTHORITIES_KEY).toString().split(","))
-            .filter(auth -> !auth.trim().isEmpty())
-            .map(SimpleGrantedAuthority::new)
-            .collect(Collectors.toList());
-
-        User principal = new User(claims.getSubject(), "", authorities);
+    /**
+     * Get the authentication of a token, verifying it only if it is not a token verified before.
+     *
+     * @param token the token.
+     * @return the authentication, with the tenant of the token, if any, as details, or {@code null} if the token is
+     * invalid.
+     */
+    public Authentication authenticate(String token) {
+        VerifiedToken verifiedToken;
+        if (verifiedTokens == null) {
+            verifiedToken = verify(token);
+        } else {
+            String digest = digest(token);
+            verifiedToken = verifiedTokens.getIfPresent(digest);
+            if (verifiedToken == null) {
+                verifiedToken = verify(token);
+                if (verifiedToken != null && verifiedToken.expiration != null) {
+                    verifiedTokens.put(digest, verifiedToken);
+                }
+            } else if (verifiedToken.isExpired()) {
+                // Not yet removed by the cache
+                verifiedToken = null;
+            }
+        }
+        return verifiedToken == null ? null : verifiedToken.authentication(token);
+    }
 
-        return new UsernamePasswordAuthenticationToken(principal, token, authorities);
+    /**
+     * Get the authentication of a token, with the tenant of the token, if any, as details.
+     *
+     * @param token the token.
+     * @return the authentication.
+     */
+    public Authentication getAuthentication(String token) {
+        return toVerifiedToken(jwtParser.parseClaimsJws(token).getBody()).authentication(token);
     }
 
     public boolean validateToken(String authToken) {
+        return verify(authToken) != null;
+    }
+
+    private VerifiedToken verify(String token) {
         try {
-            jwtParser.parseClaimsJws(authToken);
-            return true;
+            return toVerifiedToken(jwtParser.parseClaimsJws(token).getBody());
         } catch (JwtException | IllegalArgumentException e) {
             log.info("Invalid JWT token.");
             log.trace("Invalid JWT token trace.", e);
         }
-        return false;
+        return null;
+    }
+
+    private VerifiedToken toVerifiedToken(Claims claims) {
+        String authoritiesClaim = claims.get(AUTHORITIES_KEY).toString();
+        List<GrantedAuthority> authorities = authoritiesByClaim.computeIfAbsent(authoritiesClaim, this::toAuthorities);
+        return new VerifiedToken(
+            new User(claims.getSubject(), "", authorities),
+            authorities,
+            multiTenant ? claims.get(TENANT_KEY, String.class) : null,
+            claims.getExpiration()
+        );
+    }
+
+    private List<GrantedAuthority> toAuthorities(String claim) {
+        return Collections.unmodifiableList(
+            Arrays
+                .stream(claim.split(","))
+                .filter(auth -> !auth.trim().isEmpty())
+                .map(auth -> authoritiesByName.computeIfAbsent(auth, SimpleGrantedAuthority::new))
+                .collect(Collectors.toList())
+        );
+    }
+
+    private static String digest(String token) {
+        return Base64.getEncoder().encodeToString(SHA_256.get().digest(token.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    /**
+     * The principal, authorities and tenant of a token, shared by the requests with this token.
+     */
+    private final class VerifiedToken {
+
+        private final User principal;
+
+        private final List<GrantedAuthority> authorities;
+
+        private final String tenant;
+
+        private final Date expiration;
+
+        private VerifiedToken(User principal, List<GrantedAuthority> authorities, String tenant, Date expiration) {
+            this.principal = principal;
+            this.authorities = authorities;
+            this.tenant = tenant;
+            this.expiration = expiration;
+        }
+
+        private boolean isExpired() {
+            return expiration.getTime() <= System.currentTimeMillis();
+        }
+
+        /**
+         * A new authentication per request, as it can be changed by the request.
+         */
+        private Authentication authentication(String token) {
+            UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(principal, token, authorities);
+            if (multiTenant) {
+                authentication.setDetails(tenant);
+            }
+            return authentication;
+        }
+    }
+
+    /**
+     * Verified tokens are removed from the cache when they expire.
+     */
+    private static class UntilExpiration implements Expiry<String, VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(String digest, VerifiedToken verifiedToken, long currentTime) {
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, verifiedToken.expiration.getTime() - System.currentTimeMillis()));
+        }
+
+        @Override
+        public long expireAfterUpdate(String digest, VerifiedToken verifiedToken, long currentTime, long currentDuration) {
+            return expireAfterCreate(digest, verifiedToken, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String digest, VerifiedToken verifiedToken, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
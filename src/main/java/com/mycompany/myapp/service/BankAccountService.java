@@ -1,16 +1,40 @@
 package com.mycompany.myapp.service;
 
+import com.mycompany.myapp.cache.QueryResultCache;
+import com.mycompany.myapp.cache.SingleFlight;
+import com.mycompany.myapp.datasource.PrimaryReadContextHolder;
+import com.mycompany.myapp.datasource.ScatterGatherExecutor;
+import com.mycompany.myapp.datasource.ShardRouter;
 import com.mycompany.myapp.domain.BankAccount;
 import com.mycompany.myapp.repository.BankAccountRepository;
+import com.mycompany.myapp.service.dto.BankAccountDTO;
+import com.mycompany.myapp.service.dto.BulkOperationDTO;
+import com.mycompany.myapp.service.dto.BulkResultDTO;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 /**
  * Service Implementation for managing {@link BankAccount}.
+ * <p>
+ * Bank accounts are sharded by number, every operation being routed to its shard by the {@link ShardRouter}.
  */
 @Service
 @Transactional
@@ -20,8 +44,26 @@ public class BankAccountService {
 
     private final BankAccountRepository bankAccountRepository;
 
-    public BankAccountService(BankAccountRepository bankAccountRepository) {
+    private final ShardRouter shardRouter;
+
+    private final ScatterGatherExecutor scatterGatherExecutor;
+
+    private final SingleFlight singleFlight;
+
+    private final QueryResultCache queryResultCache;
+
+    public BankAccountService(
+        BankAccountRepository bankAccountRepository,
+        ShardRouter shardRouter,
+        ScatterGatherExecutor scatterGatherExecutor,
+        SingleFlight singleFlight,
+        QueryResultCache queryResultCache
+    ) {
         this.bankAccountRepository = bankAccountRepository;
+        this.shardRouter = shardRouter;
+        this.scatterGatherExecutor = scatterGatherExecutor;
+        this.singleFlight = singleFlight;
+        this.queryResultCache = queryResultCache;
     }
 
     /**
@@ -32,54 +74,282 @@ public class BankAccountService {
      */
     public BankAccount save(BankAccount bankAccount) {
         log.debug("Request to save BankAccount : {}", bankAccount);
-        return bankAccountRepository.save(bankAccount);
+        int shard = bankAccount.getId() != null ? shardRouter.shardOf(bankAccount.getId()) : shardRouter.shardFor(bankAccount.getNumber());
+        return shardRouter.execute(shard, () -> bankAccountRepository.save(bankAccount));
+    }
+
+    /**
+     * Update a bankAccount.
+     * <p>
+     * The bankAccount is written with a single {@code UPDATE}, without being loaded first: its existence is told by the
+     * number of updated rows.
+     *
+     * @param bankAccount the entity to update.
+     * @return the updated entity, or empty if it does not exist.
+     */
+    public Optional<BankAccount> update(BankAccount bankAccount) {
+        log.debug("Request to update BankAccount : {}", bankAccount);
+        return shardRouter.execute(
+            shardRouter.shardOf(bankAccount.getId()),
+            () -> bankAccountRepository.update(bankAccount, false) > 0 ? Optional.of(bankAccount) : Optional.empty()
+        );
     }
 
     /**
      * Partially update a bankAccount.
+     * <p>
+     * The given fields are written with a single {@code UPDATE}, without loading the bankAccount first. The bankAccount
+     * is only read back when some of its fields were not given, to return its whole state.
      *
      * @param bankAccount the entity to update partially.
-     * @return the persisted entity.
+     * @return the persisted entity, or empty if it does not exist.
      */
     public Optional<BankAccount> partialUpdate(BankAccount bankAccount) {
         log.debug("Request to partially update BankAccount : {}", bankAccount);
 
-        return bankAccountRepository
-            .findById(bankAccount.getId())
-            .map(existingBankAccount -> {
-                if (bankAccount.getType() != null) {
-                    existingBankAccount.setType(bankAccount.getType());
+        return shardRouter.execute(
+            shardRouter.shardOf(bankAccount.getId()),
+            () -> {
+                if (bankAccount.getType() == null && bankAccount.getNumber() == null) {
+                    return bankAccountRepository.findById(bankAccount.getId());
                 }
-                if (bankAccount.getNumber() != null) {
+                if (bankAccountRepository.update(bankAccount, true) == 0) {
+                    return Optional.empty();
+                }
+                if (bankAccount.getType() != null && bankAccount.getNumber() != null) {
+                    return Optional.of(bankAccount);
+                }
+                return bankAccountRepository.findById(bankAccount.getId());
+            }
+        );
+    }
+
+    /**
+     * Apply a chunk of bulk operations.
+     * <p>
+     * The operations of each shard are applied in one transaction, where the bankAccounts to update or delete are loaded
+     * with a single query and the changes are flushed in JDBC batches. When the transaction fails, its operations are
+     * applied again one by one, to report the failing ones.
+     *
+     * @param operations the operations.
+     * @param firstIndex the index of the first operation in the bulk request.
+     * @return the result of each operation, in the same order.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<BulkResultDTO> bulk(List<BulkOperationDTO<BankAccount>> operations, long firstIndex) {
+        log.debug("Request to apply {} bulk operations to BankAccounts", operations.size());
+        BulkResultDTO[] results = new BulkResultDTO[operations.size()];
+        Map<Integer, List<Integer>> operationsByShard = new TreeMap<>();
+        for (int i = 0; i < operations.size(); i++) {
+            BulkOperationDTO<BankAccount> operation = operations.get(i);
+            String error = validate(operation);
+            if (error != null) {
+                results[i] = new BulkResultDTO(firstIndex + i, BulkResultDTO.Status.INVALID, operation.getId(), error);
+            } else {
+                int shard = operation.getAction() == BulkOperationDTO.Action.CREATE
+                    ? shardRouter.shardFor(operation.getEntity().getNumber())
+                    : shardRouter.shardOf(idOf(operation));
+                operationsByShard.computeIfAbsent(shard, s -> new ArrayList<>()).add(i);
+            }
+        }
+        operationsByShard.forEach((shard, indexes) -> {
+            try {
+                shardRouter.executeInNewTransaction(shard, false, () -> applyBulk(operations, indexes, firstIndex, results));
+            } catch (RuntimeException e) {
+                log.debug("Bulk operations failed on shard {}, applying them one by one: {}", shard, e.getMessage());
+                for (Integer index : indexes) {
+                    try {
+                        shardRouter.executeInNewTransaction(
+                            shard,
+                            false,
+                            () -> applyBulk(operations, Collections.singletonList(index), firstIndex, results)
+                        );
+                    } catch (RuntimeException ex) {
+                        Long id = idOf(operations.get(index));
+                        results[index] = new BulkResultDTO(firstIndex + index, BulkResultDTO.Status.FAILED, id, ex.getMessage());
+                    }
+                }
+            }
+        });
+        return Arrays.asList(results);
+    }
+
+    private Void applyBulk(
+        List<BulkOperationDTO<BankAccount>> operations,
+        List<Integer> indexes,
+        long firstIndex,
+        BulkResultDTO[] results
+    ) {
+        List<Long> ids = indexes
+            .stream()
+            .map(operations::get)
+            .filter(operation -> operation.getAction() != BulkOperationDTO.Action.CREATE)
+            .map(this::idOf)
+            .collect(Collectors.toList());
+        Map<Long, BankAccount> existingBankAccounts = ids.isEmpty()
+            ? Collections.emptyMap()
+            : bankAccountRepository.findAllById(ids).stream().collect(Collectors.toMap(BankAccount::getId, Function.identity()));
+        for (Integer index : indexes) {
+            BulkOperationDTO<BankAccount> operation = operations.get(index);
+            BankAccount bankAccount = operation.getEntity();
+            BulkResultDTO.Status status;
+            if (operation.getAction() == BulkOperationDTO.Action.CREATE) {
+                // Reset the identifier set by a previous attempt
+                bankAccount.setId(null);
+                bankAccountRepository.save(bankAccount);
+                status = BulkResultDTO.Status.CREATED;
+            } else {
+                BankAccount existingBankAccount = existingBankAccounts.get(idOf(operation));
+                if (existingBankAccount == null) {
+                    status = BulkResultDTO.Status.NOT_FOUND;
+                } else if (operation.getAction() == BulkOperationDTO.Action.UPDATE) {
+                    existingBankAccount.setType(bankAccount.getType());
                     existingBankAccount.setNumber(bankAccount.getNumber());
+                    status = BulkResultDTO.Status.UPDATED;
+                } else {
+                    bankAccountRepository.delete(existingBankAccount);
+                    status = BulkResultDTO.Status.DELETED;
+                }
+            }
+            results[index] = new BulkResultDTO(firstIndex + index, status, idOf(operation), null);
+        }
+        bankAccountRepository.flush();
+        return null;
+    }
+
+    private String validate(BulkOperationDTO<BankAccount> operation) {
+        if (operation.getAction() == null) {
+            return "An action is required";
+        }
+        switch (operation.getAction()) {
+            case CREATE:
+                if (operation.getEntity() == null) {
+                    return "A bankAccount is required";
                 }
+                return operation.getEntity().getId() != null ? "A new bankAccount cannot already have an ID" : null;
+            case UPDATE:
+                return operation.getEntity() == null || operation.getEntity().getId() == null ? "Invalid id" : null;
+            default:
+                return operation.getId() == null ? "Invalid id" : null;
+        }
+    }
 
-                return existingBankAccount;
-            })
-            .map(bankAccountRepository::save);
+    private Long idOf(BulkOperationDTO<BankAccount> operation) {
+        if (operation.getAction() == BulkOperationDTO.Action.DELETE || operation.getEntity() == null) {
+            return operation.getId();
+        }
+        return operation.getEntity().getId();
     }
 
     /**
      * Get all the bankAccounts.
+     * <p>
+     * The listed columns are read straight into DTOs: no entity is hydrated, kept in the persistence context or put in
+     * the second-level cache. Pages are cached until bankAccounts are written to.
      *
-     * @return the list of entities.
+     * @param pageable the pagination information.
+     * @return the list of bankAccounts.
      */
-    @Transactional(readOnly = true)
-    public List<BankAccount> findAll() {
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Page<BankAccountDTO> findAll(Pageable pageable) {
         log.debug("Request to get all BankAccounts");
-        return bankAccountRepository.findAll();
+        return queryResultCache.get(
+            "bankAccounts",
+            pageable,
+            BankAccount.class,
+            () -> scatterGatherExecutor.findAll(pageable, bankAccountRepository::streamAllBy, bankAccountRepository::count)
+        );
+    }
+
+    /**
+     * Export all the bankAccounts, one shard after the other.
+     * <p>
+     * The bankAccounts are streamed from the database as DTOs, which the persistence context does not keep, so that the
+     * export uses the same memory whatever the number of bankAccounts.
+     *
+     * @param consumer the consumer of the entities.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void exportAll(Consumer<BankAccountDTO> consumer) {
+        log.debug("Request to export all BankAccounts");
+        int shardCount = shardRouter.isSharded() ? shardRouter.getShardCount() : 1;
+        for (int shard = 0; shard < shardCount; shard++) {
+            shardRouter.executeInNewTransaction(
+                shard,
+                true,
+                () -> {
+                    try (Stream<BankAccountDTO> bankAccounts = bankAccountRepository.streamAllByOrderByIdAsc()) {
+                        bankAccounts.forEach(consumer);
+                    }
+                    return null;
+                }
+            );
+        }
+    }
+
+    /**
+     * Get a slice of bankAccounts with keyset pagination.
+     *
+     * @param cursor the position after which the slice starts.
+     * @param size the size of the slice.
+     * @return the slice of bankAccounts.
+     * @throws IllegalArgumentException if the listing cannot be sorted on the property of the cursor.
+     */
+    @Transactional(readOnly = true)
+    public Slice<BankAccountDTO> findAll(KeysetCursor cursor, int size) {
+        log.debug("Request to get a slice of BankAccounts after {}", cursor);
+        return scatterGatherExecutor.findSlice(cursor.toPageable(size), pageable -> streamAfter(cursor, pageable));
+    }
+
+    private Stream<BankAccountDTO> streamAfter(KeysetCursor cursor, Pageable pageable) {
+        if (cursor.isFirst()) {
+            return bankAccountRepository.streamAllBy(pageable);
+        }
+        boolean ascending = cursor.getDirection().isAscending();
+        switch (cursor.getProperty()) {
+            case "id":
+                return ascending
+                    ? bankAccountRepository.streamByIdGreaterThan(cursor.getId(), pageable)
+                    : bankAccountRepository.streamByIdLessThan(cursor.getId(), pageable);
+            case "type":
+                return ascending
+                    ? bankAccountRepository.streamByTypeAfter(cursor.getValue(), cursor.getId(), pageable)
+                    : bankAccountRepository.streamByTypeBefore(cursor.getValue(), cursor.getId(), pageable);
+            case "number":
+                return ascending
+                    ? bankAccountRepository.streamByNumberAfter(cursor.getValue(), cursor.getId(), pageable)
+                    : bankAccountRepository.streamByNumberBefore(cursor.getValue(), cursor.getId(), pageable);
+            default:
+                throw new IllegalArgumentException("BankAccounts cannot be sorted on " + cursor.getProperty());
+        }
     }
 
     /**
      * Get one bankAccount by id.
+     * <p>
+     * Outside of a transaction, concurrent requests for the same id share a single load, which runs in a transaction of
+     * its own: the requests waiting for it do not hold a connection. The load reads from the primary database, as the
+     * entity it caches could otherwise be read from a replica lagging behind the last update. Within a transaction,
+     * which may see its own uncommitted changes, the entity is loaded in that transaction.
      *
      * @param id the id of the entity.
      * @return the entity.
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Optional<BankAccount> findOne(Long id) {
         log.debug("Request to get BankAccount : {}", id);
-        return bankAccountRepository.findById(id);
+        int shard = shardRouter.shardOf(id);
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return shardRouter.execute(shard, () -> bankAccountRepository.findById(id));
+        }
+        return singleFlight.load(
+            BankAccount.class.getName(),
+            id,
+            () ->
+                PrimaryReadContextHolder.readFromPrimary(() ->
+                    shardRouter.executeInNewTransaction(shard, true, () -> bankAccountRepository.findById(id))
+                )
+        );
     }
 
     /**
@@ -89,6 +359,6 @@ public class BankAccountService {
      */
     public void delete(Long id) {
         log.debug("Request to delete BankAccount : {}", id);
-        bankAccountRepository.deleteById(id);
+        shardRouter.run(shardRouter.shardOf(id), () -> bankAccountRepository.deleteById(id));
     }
 }
@@ -0,0 +1,406 @@
+package com.mycompany.myapp.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.datasource.ShardContextHolder;
+import com.mycompany.myapp.datasource.ShardRouter;
+import com.mycompany.myapp.repository.UserRepository;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import javax.cache.configuration.Factory;
+import javax.cache.configuration.MutableCacheEntryListenerConfiguration;
+import javax.cache.event.CacheEntryCreatedListener;
+import javax.cache.event.CacheEntryEvent;
+import javax.cache.event.CacheEntryExpiredListener;
+import javax.cache.event.CacheEntryListener;
+import javax.cache.event.CacheEntryRemovedListener;
+import javax.cache.event.CacheEntryUpdatedListener;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.CacheMode;
+import org.hibernate.Hibernate;
+import org.hibernate.Session;
+import org.hibernate.cache.spi.access.EntityDataAccess;
+import org.hibernate.context.spi.CurrentTenantIdentifierResolver;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Service class for warming up the caches at startup and refreshing their entries ahead of their expiry.
+ * <p>
+ * At shutdown, the keys of the entries held by the entity caches and by {@code usersByLogin} are saved to
+ * {@code application.cache.warm-up.snapshot-file}: their eviction policy keeps the most used entries. At startup, these
+ * entries are loaded again before the application reports itself ready to receive traffic, which it only does once the
+ * application runners are done.
+ * <p>
+ * In the caches with a {@code refresh-ahead-ratio}, the entries which have been cached for that fraction of their time to
+ * live are reloaded in the background. They are reloaded from the primary database, a replica could lag behind.
+ * <p>
+ * Only the entries of the default tenant are saved and refreshed, the caches of the other tenants warm up on demand.
+ */
+@Service
+public class CacheWarmUpService implements ApplicationRunner {
+
+    private final Logger log = LoggerFactory.getLogger(CacheWarmUpService.class);
+
+    private final javax.cache.CacheManager jCacheManager;
+
+    private final CacheManager cacheManager;
+
+    private final SessionFactoryImplementor sessionFactory;
+
+    private final EntityManager entityManager;
+
+    private final UserRepository userRepository;
+
+    private final ShardRouter shardRouter;
+
+    private final ObjectMapper objectMapper;
+
+    private final ApplicationProperties.WarmUp properties;
+
+    /**
+     * Persisters of the cached entities, by cache name.
+     */
+    private final Map<String, EntityPersister> entityPersisters = new LinkedHashMap<>();
+
+    private final Map<String, RefreshAhead> refreshAheads = new LinkedHashMap<>();
+
+    public CacheWarmUpService(
+        javax.cache.CacheManager jCacheManager,
+        CacheManager cacheManager,
+        EntityManagerFactory entityManagerFactory,
+        EntityManager entityManager,
+        UserRepository userRepository,
+        ShardRouter shardRouter,
+        ObjectMapper objectMapper,
+        ApplicationProperties applicationProperties,
+        JHipsterProperties jHipsterProperties
+    ) {
+        this.jCacheManager = jCacheManager;
+        this.cacheManager = cacheManager;
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        this.entityManager = entityManager;
+        this.userRepository = userRepository;
+        this.shardRouter = shardRouter;
+        this.objectMapper = objectMapper;
+        this.properties = applicationProperties.getCache().getWarmUp();
+        for (EntityPersister persister : sessionFactory.getMetamodel().entityPersisters().values()) {
+            if (persister.canWriteToCache() && persister.getEntityName().equals(persister.getRootEntityName())) {
+                entityPersisters.put(persister.getCacheAccessStrategy().getRegion().getName(), persister);
+            }
+        }
+
+        applicationProperties
+            .getCache()
+            .getRegions()
+            .forEach((cacheName, region) -> {
+                javax.cache.Cache<Object, Object> cache = jCacheManager.getCache(cacheName);
+                if (region.getRefreshAheadRatio() == null || cache == null || !isWarmable(cacheName)) {
+                    return;
+                }
+                long timeToLiveSeconds = region.getTimeToLiveSeconds() != null
+                    ? region.getTimeToLiveSeconds()
+                    : jHipsterProperties.getCache().getEhcache().getTimeToLiveSeconds();
+                RefreshAhead refreshAhead = new RefreshAhead((long) (region.getRefreshAheadRatio() * timeToLiveSeconds * 1000));
+                Factory<CacheEntryListener<Object, Object>> listenerFactory = () -> refreshAhead;
+                cache.registerCacheEntryListener(new MutableCacheEntryListenerConfiguration<>(listenerFactory, null, false, false));
+                refreshAheads.put(cacheName, refreshAhead);
+            });
+    }
+
+    /**
+     * Warm up the caches from the snapshot file, if any.
+     *
+     * @param args the application arguments.
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        if (properties.getSnapshotFile() == null) {
+            return;
+        }
+        Path snapshotFile = Paths.get(properties.getSnapshotFile());
+        if (!Files.exists(snapshotFile)) {
+            log.info("No cache snapshot to warm up from at {}", snapshotFile);
+            return;
+        }
+        long start = System.currentTimeMillis();
+        try {
+            Map<String, List<Object>> snapshot = objectMapper.readValue(
+                snapshotFile.toFile(),
+                new TypeReference<LinkedHashMap<String, List<Object>>>() {}
+            );
+            int loaded = warmUp(snapshot, Instant.now().plusSeconds(properties.getTimeoutSeconds()));
+            log.info("Warmed up the caches with {} entries in {} ms", loaded, System.currentTimeMillis() - start);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not warm up the caches: {}", e.toString());
+        }
+    }
+
+    /**
+     * Save the keys of the cached entries to the snapshot file, if any, before the caches are closed.
+     */
+    @EventListener(ContextClosedEvent.class)
+    public void saveSnapshot() {
+        if (properties.getSnapshotFile() == null) {
+            return;
+        }
+        Path snapshotFile = Paths.get(properties.getSnapshotFile());
+        Path temporaryFile = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        try {
+            objectMapper.writeValue(temporaryFile.toFile(), snapshot());
+            Files.move(temporaryFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not save the cache snapshot: {}", e.toString());
+        }
+    }
+
+    /**
+     * Get the keys of the entries cached for the default tenant.
+     *
+     * @return the keys, at most {@code application.cache.warm-up.max-keys-per-cache} per cache, by cache name.
+     */
+    public Map<String, List<Object>> snapshot() {
+        Map<String, List<Object>> snapshot = new LinkedHashMap<>();
+        List<String> cacheNames = new ArrayList<>(entityPersisters.keySet());
+        cacheNames.add(UserRepository.USERS_BY_LOGIN_CACHE);
+        for (String cacheName : cacheNames) {
+            javax.cache.Cache<Object, Object> cache = jCacheManager.getCache(cacheName);
+            if (cache == null) {
+                continue;
+            }
+            List<Object> keys = new ArrayList<>();
+            for (javax.cache.Cache.Entry<Object, Object> entry : cache) {
+                if (keys.size() == properties.getMaxKeysPerCache()) {
+                    break;
+                }
+                Object key = keyOf(cacheName, entry.getKey());
+                if (key != null) {
+                    keys.add(key);
+                }
+            }
+            if (!keys.isEmpty()) {
+                snapshot.put(cacheName, keys);
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Load the entries of a snapshot into the caches.
+     *
+     * @param snapshot the keys of the entries, by cache name.
+     * @param deadline the time after which the entries left are not loaded.
+     * @return the number of keys loaded, including those of the entries which no longer exist.
+     */
+    public int warmUp(Map<String, List<Object>> snapshot, Instant deadline) {
+        int loaded = 0;
+        for (Map.Entry<String, List<Object>> cacheKeys : snapshot.entrySet()) {
+            if (!isWarmable(cacheKeys.getKey())) {
+                continue;
+            }
+            List<Object> keys = cacheKeys.getValue();
+            for (int from = 0; from < keys.size(); from += properties.getBatchSize()) {
+                if (Instant.now().isAfter(deadline)) {
+                    log.warn("Cache warm-up timed out after loading {} entries", loaded);
+                    return loaded;
+                }
+                List<Object> batch = keys.subList(from, Math.min(from + properties.getBatchSize(), keys.size()));
+                load(cacheKeys.getKey(), batch);
+                loaded += batch.size();
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Reload the entries due for a refresh.
+     */
+    @Scheduled(fixedDelayString = "${application.cache.warm-up.refresh-interval-millis:10000}")
+    public void refreshAhead() {
+        long now = System.currentTimeMillis();
+        refreshAheads.forEach((cacheName, refreshAhead) -> {
+            javax.cache.Cache<Object, Object> cache = jCacheManager.getCache(cacheName);
+            List<Object> keys = refreshAhead
+                .takeDue(now, cache::containsKey)
+                .stream()
+                .map(key -> keyOf(cacheName, key))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+            for (int from = 0; from < keys.size(); from += properties.getBatchSize()) {
+                try {
+                    load(cacheName, keys.subList(from, Math.min(from + properties.getBatchSize(), keys.size())));
+                } catch (RuntimeException e) {
+                    log.warn("Could not refresh the cache {}: {}", cacheName, e.toString());
+                }
+            }
+        });
+    }
+
+    private boolean isWarmable(String cacheName) {
+        return entityPersisters.containsKey(cacheName) || UserRepository.USERS_BY_LOGIN_CACHE.equals(cacheName);
+    }
+
+    /**
+     * Get the key to load again an entry.
+     *
+     * @return the key, or {@code null} if the entry belongs to another tenant.
+     */
+    private Object keyOf(String cacheName, Object cacheKey) {
+        EntityPersister persister = entityPersisters.get(cacheName);
+        if (persister == null) {
+            // The keys of the other tenants are prefixed with their tenant
+            return cacheKey instanceof String ? cacheKey : null;
+        }
+        EntityDataAccess cacheAccess = persister.getCacheAccessStrategy();
+        Object id = cacheAccess.getCacheKeyId(cacheKey);
+        CurrentTenantIdentifierResolver tenantResolver = sessionFactory.getCurrentTenantIdentifierResolver();
+        String tenant = tenantResolver != null ? tenantResolver.resolveCurrentTenantIdentifier() : null;
+        return cacheKey.equals(cacheAccess.generateCacheKey(id, persister, sessionFactory, tenant)) ? id : null;
+    }
+
+    /**
+     * Load entries from the database into their cache, replacing the cached ones. The cached entities are evicted right
+     * before being loaded again: a concurrent read of one of them in between loads it from the database too.
+     */
+    private void load(String cacheName, List<Object> keys) {
+        EntityPersister persister = entityPersisters.get(cacheName);
+        if (persister == null) {
+            Cache cache = cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE);
+            shardRouter.executeInNewTransaction(
+                ShardContextHolder.DEFAULT_SHARD,
+                false,
+                () -> {
+                    entityManager.unwrap(Session.class).setCacheMode(CacheMode.REFRESH);
+                    for (Object login : keys) {
+                        userRepository
+                            .findOneByLogin((String) login)
+                            .ifPresent(user -> {
+                                Hibernate.initialize(user.getAuthorities());
+                                cache.put(login, user);
+                            });
+                    }
+                    return null;
+                }
+            );
+            return;
+        }
+        Map<Integer, List<Serializable>> idsByShard = keys
+            .stream()
+            .map(key -> identifier(persister, key))
+            .collect(Collectors.groupingBy(id -> id instanceof Long ? shardRouter.shardOf((Long) id) : ShardContextHolder.DEFAULT_SHARD));
+        EntityDataAccess cacheAccess = persister.getCacheAccessStrategy();
+        idsByShard.forEach((shard, ids) ->
+            shardRouter.executeInNewTransaction(
+                shard,
+                false,
+                () -> {
+                    Session session = entityManager.unwrap(Session.class);
+                    // A read-write cache only replaces an entry with a newer version of the entity
+                    String tenant = entityManager.unwrap(SharedSessionContractImplementor.class).getTenantIdentifier();
+                    ids.forEach(id -> cacheAccess.evict(cacheAccess.generateCacheKey(id, persister, sessionFactory, tenant)));
+                    Class<?> entityClass = persister.getMappedClass();
+                    return session.byMultipleIds(entityClass).with(CacheMode.REFRESH).multiLoad(ids);
+                }
+            )
+        );
+    }
+
+    /**
+     * Convert an identifier read from the snapshot, where numbers have lost their type, to the type of the identifiers.
+     */
+    private static Serializable identifier(EntityPersister persister, Object key) {
+        Class<?> type = persister.getIdentifierType().getReturnedClass();
+        if (key instanceof Number && type == Long.class) {
+            return ((Number) key).longValue();
+        }
+        if (key instanceof Number && type == Integer.class) {
+            return ((Number) key).intValue();
+        }
+        return (Serializable) key;
+    }
+
+    /**
+     * Tracks when the entries of a cache were written, to find those due for a refresh.
+     * <p>
+     * Ehcache does not notify its JCache listeners of the evictions: the keys of the entries no longer cached are dropped
+     * on every refresh, instead of being loaded again.
+     */
+    private static class RefreshAhead
+        implements
+            CacheEntryCreatedListener<Object, Object>,
+            CacheEntryUpdatedListener<Object, Object>,
+            CacheEntryRemovedListener<Object, Object>,
+            CacheEntryExpiredListener<Object, Object> {
+
+        private final long delayMillis;
+
+        private final Map<Object, Long> writeTimes = new ConcurrentHashMap<>();
+
+        RefreshAhead(long delayMillis) {
+            this.delayMillis = delayMillis;
+        }
+
+        /**
+         * Take the keys of the entries written for longer than the refresh delay, until they are written again, and drop
+         * those of the entries no longer cached.
+         */
+        List<Object> takeDue(long now, Predicate<Object> cached) {
+            List<Object> due = new ArrayList<>();
+            writeTimes.forEach((key, writtenAt) -> {
+                if (!cached.test(key)) {
+                    writeTimes.remove(key, writtenAt);
+                } else if (now - writtenAt >= delayMillis && writeTimes.remove(key, writtenAt)) {
+                    due.add(key);
+                }
+            });
+            return due;
+        }
+
+        @Override
+        public void onCreated(Iterable<CacheEntryEvent<?, ?>> events) {
+            events.forEach(event -> writeTimes.put(event.getKey(), System.currentTimeMillis()));
+        }
+
+        @Override
+        public void onUpdated(Iterable<CacheEntryEvent<?, ?>> events) {
+            events.forEach(event -> writeTimes.put(event.getKey(), System.currentTimeMillis()));
+        }
+
+        @Override
+        public void onRemoved(Iterable<CacheEntryEvent<?, ?>> events) {
+            events.forEach(event -> writeTimes.remove(event.getKey()));
+        }
+
+        @Override
+        public void onExpired(Iterable<CacheEntryEvent<?, ?>> events) {
+            events.forEach(event -> writeTimes.remove(event.getKey()));
+        }
+    }
+}
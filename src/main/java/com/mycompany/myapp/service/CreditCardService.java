@@ -1,16 +1,40 @@
 package com.mycompany.myapp.service;
 
+import com.mycompany.myapp.cache.QueryResultCache;
+import com.mycompany.myapp.cache.SingleFlight;
+import com.mycompany.myapp.datasource.PrimaryReadContextHolder;
+import com.mycompany.myapp.datasource.ScatterGatherExecutor;
+import com.mycompany.myapp.datasource.ShardRouter;
 import com.mycompany.myapp.domain.CreditCard;
 import com.mycompany.myapp.repository.CreditCardRepository;
+import com.mycompany.myapp.service.dto.CreditCardDTO;
+import com.mycompany.myapp.service.dto.BulkOperationDTO;
+import com.mycompany.myapp.service.dto.BulkResultDTO;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 /**
  * Service Implementation for managing {@link CreditCard}.
+ * <p>
+ * Credit cards are sharded by number, every operation being routed to its shard by the {@link ShardRouter}.
  */
 @Service
 @Transactional
@@ -20,8 +44,26 @@ public class CreditCardService {
 
     private final CreditCardRepository creditCardRepository;
 
-    public CreditCardService(CreditCardRepository creditCardRepository) {
+    private final ShardRouter shardRouter;
+
+    private final ScatterGatherExecutor scatterGatherExecutor;
+
+    private final SingleFlight singleFlight;
+
+    private final QueryResultCache queryResultCache;
+
+    public CreditCardService(
+        CreditCardRepository creditCardRepository,
+        ShardRouter shardRouter,
+        ScatterGatherExecutor scatterGatherExecutor,
+        SingleFlight singleFlight,
+        QueryResultCache queryResultCache
+    ) {
         this.creditCardRepository = creditCardRepository;
+        this.shardRouter = shardRouter;
+        this.scatterGatherExecutor = scatterGatherExecutor;
+        this.singleFlight = singleFlight;
+        this.queryResultCache = queryResultCache;
     }
 
     /**
@@ -32,54 +74,282 @@ public class CreditCardService {
      */
     public CreditCard save(CreditCard creditCard) {
         log.debug("Request to save CreditCard : {}", creditCard);
-        return creditCardRepository.save(creditCard);
+        int shard = creditCard.getId() != null ? shardRouter.shardOf(creditCard.getId()) : shardRouter.shardFor(creditCard.getNumber());
+        return shardRouter.execute(shard, () -> creditCardRepository.save(creditCard));
+    }
+
+    /**
+     * Update a creditCard.
+     * <p>
+     * The creditCard is written with a single {@code UPDATE}, without being loaded first: its existence is told by the
+     * number of updated rows.
+     *
+     * @param creditCard the entity to update.
+     * @return the updated entity, or empty if it does not exist.
+     */
+    public Optional<CreditCard> update(CreditCard creditCard) {
+        log.debug("Request to update CreditCard : {}", creditCard);
+        return shardRouter.execute(
+            shardRouter.shardOf(creditCard.getId()),
+            () -> creditCardRepository.update(creditCard, false) > 0 ? Optional.of(creditCard) : Optional.empty()
+        );
     }
 
     /**
      * Partially update a creditCard.
+     * <p>
+     * The given fields are written with a single {@code UPDATE}, without loading the creditCard first. The creditCard
+     * is only read back when some of its fields were not given, to return its whole state.
      *
      * @param creditCard the entity to update partially.
-     * @return the persisted entity.
+     * @return the persisted entity, or empty if it does not exist.
      */
     public Optional<CreditCard> partialUpdate(CreditCard creditCard) {
         log.debug("Request to partially update CreditCard : {}", creditCard);
 
-        return creditCardRepository
-            .findById(creditCard.getId())
-            .map(existingCreditCard -> {
-                if (creditCard.getType() != null) {
-                    existingCreditCard.setType(creditCard.getType());
+        return shardRouter.execute(
+            shardRouter.shardOf(creditCard.getId()),
+            () -> {
+                if (creditCard.getType() == null && creditCard.getNumber() == null) {
+                    return creditCardRepository.findById(creditCard.getId());
                 }
-                if (creditCard.getNumber() != null) {
+                if (creditCardRepository.update(creditCard, true) == 0) {
+                    return Optional.empty();
+                }
+                if (creditCard.getType() != null && creditCard.getNumber() != null) {
+                    return Optional.of(creditCard);
+                }
+                return creditCardRepository.findById(creditCard.getId());
+            }
+        );
+    }
+
+    /**
+     * Apply a chunk of bulk operations.
+     * <p>
+     * The operations of each shard are applied in one transaction, where the creditCards to update or delete are loaded
+     * with a single query and the changes are flushed in JDBC batches. When the transaction fails, its operations are
+     * applied again one by one, to report the failing ones.
+     *
+     * @param operations the operations.
+     * @param firstIndex the index of the first operation in the bulk request.
+     * @return the result of each operation, in the same order.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<BulkResultDTO> bulk(List<BulkOperationDTO<CreditCard>> operations, long firstIndex) {
+        log.debug("Request to apply {} bulk operations to CreditCards", operations.size());
+        BulkResultDTO[] results = new BulkResultDTO[operations.size()];
+        Map<Integer, List<Integer>> operationsByShard = new TreeMap<>();
+        for (int i = 0; i < operations.size(); i++) {
+            BulkOperationDTO<CreditCard> operation = operations.get(i);
+            String error = validate(operation);
+            if (error != null) {
+                results[i] = new BulkResultDTO(firstIndex + i, BulkResultDTO.Status.INVALID, operation.getId(), error);
+            } else {
+                int shard = operation.getAction() == BulkOperationDTO.Action.CREATE
+                    ? shardRouter.shardFor(operation.getEntity().getNumber())
+                    : shardRouter.shardOf(idOf(operation));
+                operationsByShard.computeIfAbsent(shard, s -> new ArrayList<>()).add(i);
+            }
+        }
+        operationsByShard.forEach((shard, indexes) -> {
+            try {
+                shardRouter.executeInNewTransaction(shard, false, () -> applyBulk(operations, indexes, firstIndex, results));
+            } catch (RuntimeException e) {
+                log.debug("Bulk operations failed on shard {}, applying them one by one: {}", shard, e.getMessage());
+                for (Integer index : indexes) {
+                    try {
+                        shardRouter.executeInNewTransaction(
+                            shard,
+                            false,
+                            () -> applyBulk(operations, Collections.singletonList(index), firstIndex, results)
+                        );
+                    } catch (RuntimeException ex) {
+                        Long id = idOf(operations.get(index));
+                        results[index] = new BulkResultDTO(firstIndex + index, BulkResultDTO.Status.FAILED, id, ex.getMessage());
+                    }
+                }
+            }
+        });
+        return Arrays.asList(results);
+    }
+
+    private Void applyBulk(
+        List<BulkOperationDTO<CreditCard>> operations,
+        List<Integer> indexes,
+        long firstIndex,
+        BulkResultDTO[] results
+    ) {
+        List<Long> ids = indexes
+            .stream()
+            .map(operations::get)
+            .filter(operation -> operation.getAction() != BulkOperationDTO.Action.CREATE)
+            .map(this::idOf)
+            .collect(Collectors.toList());
+        Map<Long, CreditCard> existingCreditCards = ids.isEmpty()
+            ? Collections.emptyMap()
+            : creditCardRepository.findAllById(ids).stream().collect(Collectors.toMap(CreditCard::getId, Function.identity()));
+        for (Integer index : indexes) {
+            BulkOperationDTO<CreditCard> operation = operations.get(index);
+            CreditCard creditCard = operation.getEntity();
+            BulkResultDTO.Status status;
+            if (operation.getAction() == BulkOperationDTO.Action.CREATE) {
+                // Reset the identifier set by a previous attempt
+                creditCard.setId(null);
+                creditCardRepository.save(creditCard);
+                status = BulkResultDTO.Status.CREATED;
+            } else {
+                CreditCard existingCreditCard = existingCreditCards.get(idOf(operation));
+                if (existingCreditCard == null) {
+                    status = BulkResultDTO.Status.NOT_FOUND;
+                } else if (operation.getAction() == BulkOperationDTO.Action.UPDATE) {
+                    existingCreditCard.setType(creditCard.getType());
                     existingCreditCard.setNumber(creditCard.getNumber());
+                    status = BulkResultDTO.Status.UPDATED;
+                } else {
+                    creditCardRepository.delete(existingCreditCard);
+                    status = BulkResultDTO.Status.DELETED;
+                }
+            }
+            results[index] = new BulkResultDTO(firstIndex + index, status, idOf(operation), null);
+        }
+        creditCardRepository.flush();
+        return null;
+    }
+
+    private String validate(BulkOperationDTO<CreditCard> operation) {
+        if (operation.getAction() == null) {
+            return "An action is required";
+        }
+        switch (operation.getAction()) {
+            case CREATE:
+                if (operation.getEntity() == null) {
+                    return "A creditCard is required";
                 }
+                return operation.getEntity().getId() != null ? "A new creditCard cannot already have an ID" : null;
+            case UPDATE:
+                return operation.getEntity() == null || operation.getEntity().getId() == null ? "Invalid id" : null;
+            default:
+                return operation.getId() == null ? "Invalid id" : null;
+        }
+    }
 
-                return existingCreditCard;
-            })
-            .map(creditCardRepository::save);
+    private Long idOf(BulkOperationDTO<CreditCard> operation) {
+        if (operation.getAction() == BulkOperationDTO.Action.DELETE || operation.getEntity() == null) {
+            return operation.getId();
+        }
+        return operation.getEntity().getId();
     }
 
     /**
      * Get all the creditCards.
+     * <p>
+     * The listed columns are read straight into DTOs: no entity is hydrated, kept in the persistence context or put in
+     * the second-level cache. Pages are cached until creditCards are written to.
      *
-     * @return the list of entities.
+     * @param pageable the pagination information.
+     * @return the list of creditCards.
      */
-    @Transactional(readOnly = true)
-    public List<CreditCard> findAll() {
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Page<CreditCardDTO> findAll(Pageable pageable) {
         log.debug("Request to get all CreditCards");
-        return creditCardRepository.findAll();
+        return queryResultCache.get(
+            "creditCards",
+            pageable,
+            CreditCard.class,
+            () -> scatterGatherExecutor.findAll(pageable, creditCardRepository::streamAllBy, creditCardRepository::count)
+        );
+    }
+
+    /**
+     * Export all the creditCards, one shard after the other.
+     * <p>
+     * The creditCards are streamed from the database as DTOs, which the persistence context does not keep, so that the
+     * export uses the same memory whatever the number of creditCards.
+     *
+     * @param consumer the consumer of the entities.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void exportAll(Consumer<CreditCardDTO> consumer) {
+        log.debug("Request to export all CreditCards");
+        int shardCount = shardRouter.isSharded() ? shardRouter.getShardCount() : 1;
+        for (int shard = 0; shard < shardCount; shard++) {
+            shardRouter.executeInNewTransaction(
+                shard,
+                true,
+                () -> {
+                    try (Stream<CreditCardDTO> creditCards = creditCardRepository.streamAllByOrderByIdAsc()) {
+                        creditCards.forEach(consumer);
+                    }
+                    return null;
+                }
+            );
+        }
+    }
+
+    /**
+     * Get a slice of creditCards with keyset pagination.
+     *
+     * @param cursor the position after which the slice starts.
+     * @param size the size of the slice.
+     * @return the slice of creditCards.
+     * @throws IllegalArgumentException if the listing cannot be sorted on the property of the cursor.
+     */
+    @Transactional(readOnly = true)
+    public Slice<CreditCardDTO> findAll(KeysetCursor cursor, int size) {
+        log.debug("Request to get a slice of CreditCards after {}", cursor);
+        return scatterGatherExecutor.findSlice(cursor.toPageable(size), pageable -> streamAfter(cursor, pageable));
+    }
+
+    private Stream<CreditCardDTO> streamAfter(KeysetCursor cursor, Pageable pageable) {
+        if (cursor.isFirst()) {
+            return creditCardRepository.streamAllBy(pageable);
+        }
+        boolean ascending = cursor.getDirection().isAscending();
+        switch (cursor.getProperty()) {
+            case "id":
+                return ascending
+                    ? creditCardRepository.streamByIdGreaterThan(cursor.getId(), pageable)
+                    : creditCardRepository.streamByIdLessThan(cursor.getId(), pageable);
+            case "type":
+                return ascending
+                    ? creditCardRepository.streamByTypeAfter(cursor.getValue(), cursor.getId(), pageable)
+                    : creditCardRepository.streamByTypeBefore(cursor.getValue(), cursor.getId(), pageable);
+            case "number":
+                return ascending
+                    ? creditCardRepository.streamByNumberAfter(cursor.getValue(), cursor.getId(), pageable)
+                    : creditCardRepository.streamByNumberBefore(cursor.getValue(), cursor.getId(), pageable);
+            default:
+                throw new IllegalArgumentException("CreditCards cannot be sorted on " + cursor.getProperty());
+        }
     }
 
     /**
      * Get one creditCard by id.
+     * <p>
+     * Outside of a transaction, concurrent requests for the same id share a single load, which runs in a transaction of
+     * its own: the requests waiting for it do not hold a connection. The load reads from the primary database, as the
+     * entity it caches could otherwise be read from a replica lagging behind the last update. Within a transaction,
+     * which may see its own uncommitted changes, the entity is loaded in that transaction.
      *
      * @param id the id of the entity.
      * @return the entity.
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Optional<CreditCard> findOne(Long id) {
         log.debug("Request to get CreditCard : {}", id);
-        return creditCardRepository.findById(id);
+        int shard = shardRouter.shardOf(id);
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return shardRouter.execute(shard, () -> creditCardRepository.findById(id));
+        }
+        return singleFlight.load(
+            CreditCard.class.getName(),
+            id,
+            () ->
+                PrimaryReadContextHolder.readFromPrimary(() ->
+                    shardRouter.executeInNewTransaction(shard, true, () -> creditCardRepository.findById(id))
+                )
+        );
     }
 
     /**
@@ -89,6 +359,6 @@ public class CreditCardService {
      */
     public void delete(Long id) {
         log.debug("Request to delete CreditCard : {}", id);
-        creditCardRepository.deleteById(id);
+        shardRouter.run(shardRouter.shardOf(id), () -> creditCardRepository.deleteById(id));
     }
 }
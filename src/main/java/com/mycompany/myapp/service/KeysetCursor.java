@@ -0,0 +1,189 @@
+package com.mycompany.myapp.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Base64;
+import java.util.Iterator;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+/**
+ * A position in a listing sorted on one property and then on {@code id}, used for keyset pagination: the next slice
+ * starts after the sort key of the last row of the previous one, instead of skipping an offset, so that every slice
+ * costs the same however deep it is.
+ * <p>
+ * The cursor is handed to clients as an opaque token, which also carries the order of the listing.
+ */
+public final class KeysetCursor {
+
+    private static final String ID = "id";
+
+    private static final int VERSION = 1;
+
+    private final String property;
+
+    private final Sort.Direction direction;
+
+    private final String value;
+
+    private final Long id;
+
+    private KeysetCursor(String property, Sort.Direction direction, String value, Long id) {
+        this.property = property;
+        this.direction = direction;
+        this.value = value;
+        this.id = id;
+    }
+
+    /**
+     * Get the cursor of the first slice of a listing.
+     *
+     * @param sort the order of the listing, on at most one property besides {@code id}.
+     * @return the cursor.
+     * @throws IllegalArgumentException if the listing cannot be paginated with a keyset.
+     */
+    public static KeysetCursor first(Sort sort) {
+        Iterator<Sort.Order> orders = sort.iterator();
+        if (!orders.hasNext()) {
+            return new KeysetCursor(ID, Sort.Direction.ASC, null, null);
+        }
+        Sort.Order order = orders.next();
+        if (orders.hasNext()) {
+            Sort.Order next = orders.next();
+            if (orders.hasNext() || !ID.equals(next.getProperty()) || next.getDirection() != order.getDirection()) {
+                throw new IllegalArgumentException("Keyset pagination is only supported on one property, then on id");
+            }
+        }
+        return new KeysetCursor(order.getProperty(), order.getDirection(), null, null);
+    }
+
+    /**
+     * Decode a cursor token.
+     *
+     * @param token the token.
+     * @return the cursor.
+     * @throws IllegalArgumentException if the token is invalid.
+     */
+    public static KeysetCursor decode(String token) {
+        try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(Base64.getUrlDecoder().decode(token)))) {
+            if (input.readUnsignedByte() != VERSION) {
+                throw new IllegalArgumentException("Unsupported cursor version");
+            }
+            String property = input.readUTF();
+            Sort.Direction direction = input.readBoolean() ? Sort.Direction.ASC : Sort.Direction.DESC;
+            String value = input.readBoolean() ? input.readUTF() : null;
+            long id = input.readLong();
+            if (input.read() != -1) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new KeysetCursor(property, direction, value, id);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    /**
+     * Encode this cursor as an opaque, URL-safe token.
+     *
+     * @return the token.
+     */
+    public String encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            output.writeByte(VERSION);
+            output.writeUTF(property);
+            output.writeBoolean(direction.isAscending());
+            output.writeBoolean(value != null);
+            if (value != null) {
+                output.writeUTF(value);
+            }
+            output.writeLong(id);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+    }
+
+    /**
+     * Get the cursor positioned after a row.
+     *
+     * @param row the last row of a slice.
+     * @return the cursor of the next slice.
+     */
+    public KeysetCursor after(Object row) {
+        BeanWrapperImpl wrapper = new BeanWrapperImpl(row);
+        Object rowValue = isById() ? null : wrapper.getPropertyValue(property);
+        return new KeysetCursor(property, direction, rowValue != null ? rowValue.toString() : null, (Long) wrapper.getPropertyValue(ID));
+    }
+
+    /**
+     * Get the pagination information of the slice after this cursor, which has to be read from its first row.
+     *
+     * @param size the size of the slice.
+     * @return the pagination information.
+     */
+    public Pageable toPageable(int size) {
+        Sort sort = isById() ? Sort.by(direction, ID) : Sort.by(direction, property, ID);
+        return PageRequest.of(0, size, sort);
+    }
+
+    /**
+     * @return true if this is the cursor of the first slice.
+     */
+    public boolean isFirst() {
+        return id == null;
+    }
+
+    /**
+     * @return true if the listing is only sorted on {@code id}.
+     */
+    public boolean isById() {
+        return ID.equals(property);
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public Sort.Direction getDirection() {
+        return direction;
+    }
+
+    /**
+     * The value of the sort property in the last row, {@code null} if the listing is sorted on {@code id} or if the row
+     * has no value.
+     */
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * The identifier of the last row, {@code null} for the first slice.
+     */
+    public Long getId() {
+        return id;
+    }
+
+    @Override
+    public String toString() {
+        return (
+            "KeysetCursor{" +
+            "property='" +
+            property +
+            "'" +
+            ", direction=" +
+            direction +
+            ", value='" +
+            value +
+            "'" +
+            ", id=" +
+            id +
+            "}"
+        );
+    }
+}
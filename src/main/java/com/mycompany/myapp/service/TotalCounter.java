@@ -0,0 +1,165 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.cache.TableVersions;
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.datasource.TenantContextHolder;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import javax.persistence.EntityManager;
+import org.hibernate.Session;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Totals of the paged listings, counted as configured by {@code application.paging} for each listing.
+ * <p>
+ * A listing reads a {@link Slice}, one row more than its page to tell whether there is a next page, and gets a
+ * {@link org.springframework.data.domain.Page Page} back with its total, or the slice as it is when the listing is not
+ * counted. The total of the last page is known without counting. A cached total is kept for the tenant until the tables
+ * of the entity are written to, by this instance or by another one, or until its time to live is over. An estimated
+ * total is read from the statistics of the table, on MySQL and H2, and counted on other databases.
+ */
+@Component
+public class TotalCounter {
+
+    private final TableVersions tableVersions;
+
+    private final EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ConcurrentMap<String, CachedTotal> cachedTotals = new ConcurrentHashMap<>();
+
+    public TotalCounter(TableVersions tableVersions, EntityManager entityManager, PlatformTransactionManager transactionManager) {
+        this.tableVersions = tableVersions;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Add the total to a slice of a listing.
+     *
+     * @param listing the name of the listing.
+     * @param entityClass the class of the entity the listing reads.
+     * @param properties how the total of the listing is counted.
+     * @param slice the slice of the listing.
+     * @param count the exact count of the listing.
+     * @param <T> the type of the elements of the listing.
+     * @return the slice with its total as a page, or the slice itself when the listing is not counted.
+     */
+    public <T> Slice<T> withTotal(
+        String listing,
+        Class<?> entityClass,
+        ApplicationProperties.PagedListing properties,
+        Slice<T> slice,
+        LongSupplier count
+    ) {
+        ApplicationProperties.PagedListing.Count strategy = properties.getCount();
+        if (strategy == ApplicationProperties.PagedListing.Count.NONE) {
+            return slice;
+        }
+        Pageable pageable = slice.getPageable();
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(slice.getContent(), pageable, slice.getNumberOfElements());
+        }
+        long seen = pageable.getOffset() + slice.getNumberOfElements();
+        if (!slice.hasNext() && (slice.hasContent() || pageable.getOffset() == 0)) {
+            // The last page
+            return new PageImpl<>(slice.getContent(), pageable, seen);
+        }
+        long total;
+        switch (strategy) {
+            case CACHED:
+                total = cachedTotal(listing, entityClass, properties.getCountTtlSeconds(), count);
+                break;
+            case ESTIMATED:
+                total = estimatedTotal(entityClass, count);
+                break;
+            default:
+                total = count.getAsLong();
+        }
+        // Not fewer than the rows already read, the total being out of date or estimated
+        return new PageImpl<>(slice.getContent(), pageable, Math.max(total, slice.hasNext() ? seen + 1 : seen));
+    }
+
+    /**
+     * Forget the cached totals, for changes made without Hibernate.
+     */
+    public void refresh() {
+        cachedTotals.clear();
+    }
+
+    private long cachedTotal(String listing, Class<?> entityClass, long timeToLiveSeconds, LongSupplier count) {
+        long[] versions = tableVersions.versions(tableVersions.tablesOf(entityClass));
+        if (versions == null) {
+            // Written to by a transaction of this instance
+            return count.getAsLong();
+        }
+        String key = TenantContextHolder.getTenant() + "/" + listing;
+        long now = System.nanoTime();
+        CachedTotal cached = cachedTotals.get(key);
+        if (cached != null && Arrays.equals(cached.versions, versions) && now - cached.expiresAt < 0) {
+            return cached.total;
+        }
+        long total = count.getAsLong();
+        cachedTotals.put(key, new CachedTotal(versions, now + TimeUnit.SECONDS.toNanos(timeToLiveSeconds), total));
+        return total;
+    }
+
+    private long estimatedTotal(Class<?> entityClass, LongSupplier count) {
+        String table = tableVersions.tablesOf(entityClass)[0];
+        Long estimate = transactionTemplate.execute(status ->
+            entityManager.unwrap(Session.class).doReturningWork(connection -> estimate(connection, table))
+        );
+        return estimate != null ? estimate : count.getAsLong();
+    }
+
+    private static Long estimate(Connection connection, String table) throws SQLException {
+        String sql;
+        String product = connection.getMetaData().getDatabaseProductName();
+        if ("MySQL".equals(product) || "MariaDB".equals(product)) {
+            sql = "select table_rows from information_schema.tables where table_schema = database() and table_name = ?";
+        } else if ("H2".equals(product)) {
+            sql = "select row_count_estimate from information_schema.tables where table_schema = schema() and table_name = upper(?)";
+        } else {
+            return null;
+        }
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setString(1, table);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (!resultSet.next()) {
+                    return null;
+                }
+                long estimate = resultSet.getLong(1);
+                return resultSet.wasNull() || estimate < 0 ? null : estimate;
+            }
+        }
+    }
+
+    private static final class CachedTotal {
+
+        private final long[] versions;
+
+        private final long expiresAt;
+
+        private final long total;
+
+        private CachedTotal(long[] versions, long expiresAt, long total) {
+            this.versions = versions;
+            this.expiresAt = expiresAt;
+            this.total = total;
+        }
+    }
+}
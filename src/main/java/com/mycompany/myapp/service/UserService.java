@@ -1,27 +1,33 @@
 package com.mycompany.myapp.service;
 
+import com.mycompany.myapp.cache.QueryResultCache;
+import com.mycompany.myapp.config.ApplicationProperties;
 import com.mycompany.myapp.config.Constants;
 import com.mycompany.myapp.domain.Authority;
 import com.mycompany.myapp.domain.User;
-import com.mycompany.myapp.repository.AuthorityRepository;
 import com.mycompany.myapp.repository.UserRepository;
 import com.mycompany.myapp.security.AuthoritiesConstants;
+import com.mycompany.myapp.security.AuthorityRegistry;
 import com.mycompany.myapp.security.SecurityUtils;
 import com.mycompany.myapp.service.dto.AdminUserDTO;
 import com.mycompany.myapp.service.dto.UserDTO;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
-import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.cache.CacheManager;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import tech.jhipster.security.RandomUtil;
 
 /**
@@ -37,20 +43,36 @@ public class UserService {
 
     private final PasswordEncoder passwordEncoder;
 
-    private final AuthorityRepository authorityRepository;
+    private final AuthorityRegistry authorityRegistry;
 
     private final CacheManager cacheManager;
 
+    private final QueryResultCache queryResultCache;
+
+    private final TotalCounter totalCounter;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ApplicationProperties applicationProperties;
+
     public UserService(
         UserRepository userRepository,
         PasswordEncoder passwordEncoder,
-        AuthorityRepository authorityRepository,
-        CacheManager cacheManager
+        AuthorityRegistry authorityRegistry,
+        CacheManager cacheManager,
+        QueryResultCache queryResultCache,
+        TotalCounter totalCounter,
+        PlatformTransactionManager transactionManager,
+        ApplicationProperties applicationProperties
     ) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
-        this.authorityRepository = authorityRepository;
+        this.authorityRegistry = authorityRegistry;
         this.cacheManager = cacheManager;
+        this.queryResultCache = queryResultCache;
+        this.totalCounter = totalCounter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.applicationProperties = applicationProperties;
     }
 
     public Optional<User> activateRegistration(String key) {
@@ -127,7 +149,7 @@ public class UserService {
         // new user gets registration key
         newUser.setActivationKey(RandomUtil.generateActivationKey());
         Set<Authority> authorities = new HashSet<>();
-        authorityRepository.findById(AuthoritiesConstants.USER).ifPresent(authorities::add);
+        authorityRegistry.find(AuthoritiesConstants.USER).ifPresent(authorities::add);
         newUser.setAuthorities(authorities);
         userRepository.save(newUser);
         this.clearUserCaches(newUser);
@@ -165,14 +187,7 @@ public class UserService {
         user.setResetDate(Instant.now());
         user.setActivated(true);
         if (userDTO.getAuthorities() != null) {
-            Set<Authority> authorities = userDTO
-                .getAuthorities()
-                .stream()
-                .map(authorityRepository::findById)
-                .filter(Optional::isPresent)
-                .map(Optional::get)
-                .collect(Collectors.toSet());
-            user.setAuthorities(authorities);
+            user.setAuthorities(authorityRegistry.findAll(userDTO.getAuthorities()));
         }
         userRepository.save(user);
         this.clearUserCaches(user);
@@ -204,13 +219,7 @@ public class UserService {
                 user.setLangKey(userDTO.getLangKey());
                 Set<Authority> managedAuthorities = user.getAuthorities();
                 managedAuthorities.clear();
-                userDTO
-                    .getAuthorities()
-                    .stream()
-                    .map(authorityRepository::findById)
-                    .filter(Optional::isPresent)
-                    .map(Optional::get)
-                    .forEach(managedAuthorities::add);
+                managedAuthorities.addAll(authorityRegistry.findAll(userDTO.getAuthorities()));
                 this.clearUserCaches(user);
                 log.debug("Changed Information for User: {}", user);
                 return user;
@@ -271,14 +280,60 @@ public class UserService {
             });
     }
 
+    /**
+     * Get a page of users with their authorities in three queries at most whatever its size: the ids of the page, their
+     * total as configured by {@code application.paging.users}, and the users of these ids with their authorities.
+     *
+     * @param pageable the page.
+     * @return the users of the page, in the order of the page, with their total unless not counted.
+     */
     @Transactional(readOnly = true)
-    public Page<AdminUserDTO> getAllManagedUsers(Pageable pageable) {
-        return userRepository.findAll(pageable).map(AdminUserDTO::new);
+    public Slice<AdminUserDTO> getAllManagedUsers(Pageable pageable) {
+        Slice<Long> ids = userRepository.findAllIds(pageable);
+        List<AdminUserDTO> users = new ArrayList<>(ids.getNumberOfElements());
+        if (ids.hasContent()) {
+            Map<Long, User> usersById = new HashMap<>();
+            for (User user : userRepository.findAllWithAuthoritiesByIdIn(ids.getContent())) {
+                usersById.put(user.getId(), user);
+            }
+            for (Long id : ids) {
+                User user = usersById.get(id);
+                // Otherwise deleted between the two queries
+                if (user != null) {
+                    users.add(new AdminUserDTO(user));
+                }
+            }
+        }
+        return totalCounter.withTotal(
+            "managedUsers",
+            User.class,
+            applicationProperties.getPaging().getUsers(),
+            new SliceImpl<>(users, ids.getPageable(), ids.hasNext()),
+            userRepository::count
+        );
     }
 
-    @Transactional(readOnly = true)
-    public Page<UserDTO> getAllPublicUsers(Pageable pageable) {
-        return userRepository.findAllByIdNotNullAndActivatedIsTrue(pageable).map(UserDTO::new);
+    /**
+     * Get a page of the activated users, with their total as configured by {@code application.paging.public-users}.
+     *
+     * @param pageable the page.
+     * @return the users of the page, with their total unless not counted.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Slice<UserDTO> getAllPublicUsers(Pageable pageable) {
+        Slice<UserDTO> users = queryResultCache.get(
+            "publicUsers",
+            pageable,
+            User.class,
+            () -> userRepository.findAllByIdNotNullAndActivatedIsTrue(pageable)
+        );
+        return totalCounter.withTotal(
+            "publicUsers",
+            User.class,
+            applicationProperties.getPaging().getPublicUsers(),
+            users,
+            userRepository::countByIdNotNullAndActivatedIsTrue
+        );
     }
 
     @Transactional(readOnly = true)
@@ -294,17 +349,29 @@ public class UserService {
     /**
      * Not activated users should be automatically deleted after 3 days.
      * <p>
-     * This is scheduled to get fired everyday, at 01:00 (am).
+     * This is scheduled to get fired everyday, at 01:00 (am). The users are deleted in bulk, by chunks of
+     * {@code application.bulk.chunk-size} users each deleted in a transaction of its own, unless called within a
+     * transaction.
      */
     @Scheduled(cron = "0 0 1 * * ?")
+    @Transactional(propagation = Propagation.SUPPORTS)
     public void removeNotActivatedUsers() {
-        userRepository
-            .findAllByActivatedIsFalseAndActivationKeyIsNotNullAndCreatedDateBefore(Instant.now().minus(3, ChronoUnit.DAYS))
-            .forEach(user -> {
-                log.debug("Deleting not activated user {}", user.getLogin());
-                userRepository.delete(user);
-                this.clearUserCaches(user);
-            });
+        Instant createdBefore = Instant.now().minus(3, ChronoUnit.DAYS);
+        int chunkSize = Math.max(1, applicationProperties.getBulk().getChunkSize());
+        Integer deleted;
+        do {
+            deleted =
+                transactionTemplate.execute(status -> {
+                    List<User> users = userRepository.findAllByActivatedIsFalseAndActivationKeyIsNotNullAndCreatedDateBefore(
+                        createdBefore,
+                        PageRequest.of(0, chunkSize)
+                    );
+                    users.forEach(user -> log.debug("Deleting not activated user {}", user.getLogin()));
+                    userRepository.deleteInBulk(users);
+                    users.forEach(this::clearUserCaches);
+                    return users.size();
+                });
+        } while (deleted != null && deleted == chunkSize);
     }
 
     /**
@@ -313,7 +380,7 @@ public class UserService {
      */
     @Transactional(readOnly = true)
     public List<String> getAuthorities() {
-        return authorityRepository.findAll().stream().map(Authority::getName).collect(Collectors.toList());
+        return authorityRegistry.getNames();
     }
 
     private void clearUserCaches(User user) {
@@ -0,0 +1,67 @@
+package com.mycompany.myapp.service.dto;
+
+/**
+ * A DTO representing one operation of a bulk request: the creation or the update of an entity, or the deletion of an
+ * identifier.
+ *
+ * @param <T> the type of the entity.
+ */
+public class BulkOperationDTO<T> {
+
+    public enum Action {
+        CREATE,
+        UPDATE,
+        DELETE,
+    }
+
+    private Action action;
+
+    private Long id;
+
+    private T entity;
+
+    public BulkOperationDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public BulkOperationDTO(Action action, Long id, T entity) {
+        this.action = action;
+        this.id = id;
+        this.entity = entity;
+    }
+
+    public Action getAction() {
+        return action;
+    }
+
+    public void setAction(Action action) {
+        this.action = action;
+    }
+
+    /**
+     * The identifier of the entity to delete.
+     */
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    /**
+     * The entity to create, or to update with its identifier.
+     */
+    public T getEntity() {
+        return entity;
+    }
+
+    public void setEntity(T entity) {
+        this.entity = entity;
+    }
+
+    @Override
+    public String toString() {
+        return "BulkOperationDTO{" + "action=" + action + ", id=" + id + ", entity=" + entity + "}";
+    }
+}
@@ -0,0 +1,75 @@
+package com.mycompany.myapp.service.dto;
+
+/**
+ * A DTO representing the outcome of one operation of a bulk request.
+ */
+public class BulkResultDTO {
+
+    public enum Status {
+        CREATED,
+        UPDATED,
+        DELETED,
+        INVALID,
+        NOT_FOUND,
+        FAILED,
+    }
+
+    private long index;
+
+    private Status status;
+
+    private Long id;
+
+    private String error;
+
+    public BulkResultDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public BulkResultDTO(long index, Status status, Long id, String error) {
+        this.index = index;
+        this.status = status;
+        this.id = id;
+        this.error = error;
+    }
+
+    /**
+     * The position of the operation in the request, starting at 0.
+     */
+    public long getIndex() {
+        return index;
+    }
+
+    public void setIndex(long index) {
+        this.index = index;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    @Override
+    public String toString() {
+        return "BulkResultDTO{" + "index=" + index + ", status=" + status + ", id=" + id + ", error='" + error + "'" + "}";
+    }
+}
@@ -0,0 +1,79 @@
+package com.mycompany.myapp.service.dto;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * A DTO for the listings of the {@link com.mycompany.myapp.domain.CreditCard} entity, read straight from the database
+ * with a constructor expression.
+ */
+public class CreditCardDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Long id;
+
+    private String type;
+
+    private String number;
+
+    public CreditCardDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public CreditCardDTO(Long id, String type, String number) {
+        this.id = id;
+        this.type = type;
+        this.number = number;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getNumber() {
+        return number;
+    }
+
+    public void setNumber(String number) {
+        this.number = number;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CreditCardDTO)) {
+            return false;
+        }
+        return id != null && id.equals(((CreditCardDTO) o).id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(id);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "CreditCardDTO{" +
+            "id=" + getId() +
+            ", type='" + getType() + "'" +
+            ", number='" + getNumber() + "'" +
+            "}";
+    }
+}
@@ -15,6 +15,11 @@ public class UserDTO {
         // Empty constructor needed for Jackson.
     }
 
+    public UserDTO(Long id, String login) {
+        this.id = id;
+        this.login = login;
+    }
+
     public UserDTO(User user) {
         this.id = user.getId();
         // Customize it here if you need, or not, firstName/lastName/etc
@@ -1,20 +1,38 @@
 package com.mycompany.myapp.web.rest;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.mycompany.myapp.domain.BankAccount;
-import com.mycompany.myapp.repository.BankAccountRepository;
 import com.mycompany.myapp.service.BankAccountService;
+import com.mycompany.myapp.service.KeysetCursor;
+import com.mycompany.myapp.service.dto.BankAccountDTO;
+import com.mycompany.myapp.service.dto.BulkOperationDTO;
 import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
+import tech.jhipster.web.util.PaginationUtil;
 import tech.jhipster.web.util.ResponseUtil;
 
 /**
@@ -28,16 +46,27 @@ public class BankAccountResource {
 
     private static final String ENTITY_NAME = "bankAccount";
 
+    private static final List<String> ALLOWED_ORDERED_PROPERTIES = Collections.unmodifiableList(Arrays.asList("id", "type", "number"));
+
+    private static final List<String> EXPORTED_PROPERTIES = Collections.unmodifiableList(Arrays.asList("id", "type", "number"));
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
     private final BankAccountService bankAccountService;
 
-    private final BankAccountRepository bankAccountRepository;
+    private final BulkRequestHandler bulkRequestHandler;
+
+    private final ExportRequestHandler exportRequestHandler;
 
-    public BankAccountResource(BankAccountService bankAccountService, BankAccountRepository bankAccountRepository) {
+    public BankAccountResource(
+        BankAccountService bankAccountService,
+        BulkRequestHandler bulkRequestHandler,
+        ExportRequestHandler exportRequestHandler
+    ) {
         this.bankAccountService = bankAccountService;
-        this.bankAccountRepository = bankAccountRepository;
+        this.bulkRequestHandler = bulkRequestHandler;
+        this.exportRequestHandler = exportRequestHandler;
     }
 
     /**
@@ -67,6 +96,7 @@ public class BankAccountResource {
      * @param bankAccount the bankAccount to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated bankAccount,
      * or with status {@code 400 (Bad Request)} if the bankAccount is not valid,
+     * or with status {@code 404 (Not Found)} if the bankAccount is not found,
      * or with status {@code 500 (Internal Server Error)} if the bankAccount couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
@@ -83,15 +113,11 @@ public class BankAccountResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!bankAccountRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
-
-        BankAccount result = bankAccountService.save(bankAccount);
-        return ResponseEntity
-            .ok()
-            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, bankAccount.getId().toString()))
-            .body(result);
+        Optional<BankAccount> result = bankAccountService.update(bankAccount);
+        return ResponseUtil.wrapOrNotFound(
+            result,
+            HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, bankAccount.getId().toString())
+        );
     }
 
     /**
@@ -118,10 +144,6 @@ public class BankAccountResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!bankAccountRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
-
         Optional<BankAccount> result = bankAccountService.partialUpdate(bankAccount);
 
         return ResponseUtil.wrapOrNotFound(
@@ -130,15 +152,93 @@ public class BankAccountResource {
         );
     }
 
+    /**
+     * {@code POST  /bank-accounts/bulk} : Create, update and delete bankAccounts in bulk.
+     * <p>
+     * The operations are sent as a JSON array or as newline-delimited JSON, and their results are returned in the same
+     * format, in the order of the operations.
+     *
+     * @param request the request, with the operations in body.
+     * @param response the response, with status {@code 200 (OK)} and the result of each operation in body.
+     * @throws IOException if the request cannot be read or the response cannot be written.
+     */
+    @PostMapping(value = "/bank-accounts/bulk", consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+    public void bulkBankAccounts(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        log.debug("REST request to apply bulk operations to BankAccounts");
+        bulkRequestHandler.handle(request, response, new TypeReference<BulkOperationDTO<BankAccount>>() {}, bankAccountService::bulk);
+    }
+
     /**
      * {@code GET  /bank-accounts} : get all the bankAccounts.
+     * <p>
+     * With a {@code cursor} parameter, the bankAccounts are paginated with a keyset instead of an offset: the parameter
+     * is left empty for the first slice, and the {@code Link} header holds the URL of the next slice, if any, with an
+     * opaque cursor that keeps the order of the first request. Slices are not counted.
      *
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of bankAccounts in body.
+     * @param pageable the pagination information.
+     * @param cursor the keyset cursor, empty for the first slice.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of bankAccounts in body,
+     * or with status {@code 400 (Bad Request)} if the order or the cursor is not valid.
      */
     @GetMapping("/bank-accounts")
-    public List<BankAccount> getAllBankAccounts() {
-        log.debug("REST request to get all BankAccounts");
-        return bankAccountService.findAll();
+    public ResponseEntity<List<BankAccountDTO>> getAllBankAccounts(
+        Pageable pageable,
+        @RequestParam(value = "cursor", required = false) String cursor
+    ) {
+        log.debug("REST request to get a page of BankAccounts");
+        if (!onlyContainsAllowedProperties(pageable)) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (cursor != null) {
+            return getBankAccountsAfter(pageable, cursor);
+        }
+
+        Page<BankAccountDTO> page = bankAccountService.findAll(pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
+    }
+
+    private ResponseEntity<List<BankAccountDTO>> getBankAccountsAfter(Pageable pageable, String token) {
+        KeysetCursor cursor;
+        Slice<BankAccountDTO> slice;
+        try {
+            cursor = token.isEmpty() ? KeysetCursor.first(pageable.getSort()) : KeysetCursor.decode(token);
+            slice = bankAccountService.findAll(cursor, pageable.getPageSize());
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Invalid cursor", ENTITY_NAME, "cursorinvalid");
+        }
+        HttpHeaders headers = new HttpHeaders();
+        if (slice.hasNext()) {
+            KeysetCursor next = cursor.after(slice.getContent().get(slice.getNumberOfElements() - 1));
+            String link = ServletUriComponentsBuilder
+                .fromCurrentRequest()
+                .replaceQueryParam("page")
+                .replaceQueryParam("sort")
+                .replaceQueryParam("size", slice.getSize())
+                .replaceQueryParam("cursor", next.encode())
+                .toUriString();
+            headers.add(HttpHeaders.LINK, "<" + link + ">; rel=\"next\"");
+        }
+        return new ResponseEntity<>(slice.getContent(), headers, HttpStatus.OK);
+    }
+
+    private boolean onlyContainsAllowedProperties(Pageable pageable) {
+        return pageable.getSort().stream().map(Sort.Order::getProperty).allMatch(ALLOWED_ORDERED_PROPERTIES::contains);
+    }
+
+    /**
+     * {@code GET  /bank-accounts/export} : export all the bankAccounts.
+     *
+     * @param format the format of the export, {@code ndjson} or {@code csv}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the bankAccounts streamed in body,
+     * or with status {@code 400 (Bad Request)} if the format is not supported.
+     */
+    @GetMapping("/bank-accounts/export")
+    public ResponseEntity<StreamingResponseBody> exportBankAccounts(
+        @RequestParam(value = "format", defaultValue = ExportRequestHandler.FORMAT_NDJSON) String format
+    ) {
+        log.debug("REST request to export BankAccounts as {}", format);
+        return exportRequestHandler.handle(format, ENTITY_NAME, EXPORTED_PROPERTIES, bankAccountService::exportAll);
     }
 
     /**
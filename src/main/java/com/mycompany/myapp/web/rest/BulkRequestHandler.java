@@ -0,0 +1,122 @@
+package com.mycompany.myapp.web.rest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.service.dto.BulkOperationDTO;
+import com.mycompany.myapp.service.dto.BulkResultDTO;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiFunction;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+/**
+ * Handles the bulk requests of the REST controllers.
+ * <p>
+ * The operations are read one at a time from a JSON array or from newline-delimited JSON, and applied in chunks of
+ * {@code application.bulk.chunk-size} operations, so that a request of any size is never held in memory at once. The
+ * result of each operation is written as soon as its chunk is applied, in the format of the request.
+ */
+@Component
+public class BulkRequestHandler {
+
+    private final Logger log = LoggerFactory.getLogger(BulkRequestHandler.class);
+
+    private final ObjectMapper objectMapper;
+
+    private final ApplicationProperties applicationProperties;
+
+    public BulkRequestHandler(ObjectMapper objectMapper, ApplicationProperties applicationProperties) {
+        this.objectMapper = objectMapper;
+        this.applicationProperties = applicationProperties;
+    }
+
+    /**
+     * Apply the operations of a bulk request.
+     * <p>
+     * A malformed operation is reported as {@link BulkResultDTO.Status#INVALID} and ends the request, as the operations
+     * after it cannot be read reliably; the operations before it are kept.
+     *
+     * @param request the bulk request.
+     * @param response the response, with the result of each operation.
+     * @param operationType the type of the operations.
+     * @param apply applies a chunk of operations, given the index of its first operation.
+     * @param <T> the type of the entity.
+     * @throws IOException if the request cannot be read or the response cannot be written.
+     */
+    public <T> void handle(
+        HttpServletRequest request,
+        HttpServletResponse response,
+        TypeReference<BulkOperationDTO<T>> operationType,
+        BiFunction<List<BulkOperationDTO<T>>, Long, List<BulkResultDTO>> apply
+    ) throws IOException {
+        boolean ndjson = isNdjson(request.getContentType());
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(ndjson ? MediaType.APPLICATION_NDJSON_VALUE : MediaType.APPLICATION_JSON_VALUE);
+        int chunkSize = Math.max(1, applicationProperties.getBulk().getChunkSize());
+        ObjectWriter writer = objectMapper.writerFor(BulkResultDTO.class);
+        try (
+            MappingIterator<BulkOperationDTO<T>> operations = objectMapper.readerFor(operationType).readValues(request.getInputStream());
+            SequenceWriter results = ndjson
+                ? writer.withRootValueSeparator("\n").writeValues(response.getOutputStream())
+                : writer.writeValuesAsArray(response.getOutputStream())
+        ) {
+            List<BulkOperationDTO<T>> chunk = new ArrayList<>(chunkSize);
+            long firstIndex = 0;
+            while (true) {
+                BulkOperationDTO<T> operation;
+                try {
+                    if (!operations.hasNextValue()) {
+                        break;
+                    }
+                    operation = operations.nextValue();
+                } catch (JsonProcessingException e) {
+                    log.debug("Malformed bulk operation: {}", e.getOriginalMessage());
+                    applyChunk(chunk, firstIndex, apply, results);
+                    results.write(
+                        new BulkResultDTO(firstIndex + chunk.size(), BulkResultDTO.Status.INVALID, null, "Malformed operation")
+                    );
+                    return;
+                }
+                chunk.add(operation);
+                if (chunk.size() == chunkSize) {
+                    applyChunk(chunk, firstIndex, apply, results);
+                    firstIndex += chunk.size();
+                    chunk.clear();
+                }
+            }
+            applyChunk(chunk, firstIndex, apply, results);
+        }
+    }
+
+    private <T> void applyChunk(
+        List<BulkOperationDTO<T>> chunk,
+        long firstIndex,
+        BiFunction<List<BulkOperationDTO<T>>, Long, List<BulkResultDTO>> apply,
+        SequenceWriter results
+    ) throws IOException {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        results.writeAll(apply.apply(chunk, firstIndex));
+        results.flush();
+    }
+
+    private static boolean isNdjson(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        return MediaType.APPLICATION_NDJSON.isCompatibleWith(MediaType.parseMediaType(contentType));
+    }
+}
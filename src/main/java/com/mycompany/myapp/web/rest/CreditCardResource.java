@@ -1,20 +1,38 @@
 package com.mycompany.myapp.web.rest;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.mycompany.myapp.domain.CreditCard;
-import com.mycompany.myapp.repository.CreditCardRepository;
 import com.mycompany.myapp.service.CreditCardService;
+import com.mycompany.myapp.service.KeysetCursor;
+import com.mycompany.myapp.service.dto.CreditCardDTO;
+import com.mycompany.myapp.service.dto.BulkOperationDTO;
 import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
+import tech.jhipster.web.util.PaginationUtil;
 import tech.jhipster.web.util.ResponseUtil;
 
 /**
@@ -28,16 +46,27 @@ public class CreditCardResource {
 
     private static final String ENTITY_NAME = "creditCard";
 
+    private static final List<String> ALLOWED_ORDERED_PROPERTIES = Collections.unmodifiableList(Arrays.asList("id", "type", "number"));
+
+    private static final List<String> EXPORTED_PROPERTIES = Collections.unmodifiableList(Arrays.asList("id", "type", "number"));
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
     private final CreditCardService creditCardService;
 
-    private final CreditCardRepository creditCardRepository;
+    private final BulkRequestHandler bulkRequestHandler;
+
+    private final ExportRequestHandler exportRequestHandler;
 
-    public CreditCardResource(CreditCardService creditCardService, CreditCardRepository creditCardRepository) {
+    public CreditCardResource(
+        CreditCardService creditCardService,
+        BulkRequestHandler bulkRequestHandler,
+        ExportRequestHandler exportRequestHandler
+    ) {
         this.creditCardService = creditCardService;
-        this.creditCardRepository = creditCardRepository;
+        this.bulkRequestHandler = bulkRequestHandler;
+        this.exportRequestHandler = exportRequestHandler;
     }
 
     /**
@@ -67,6 +96,7 @@ public class CreditCardResource {
      * @param creditCard the creditCard to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated creditCard,
      * or with status {@code 400 (Bad Request)} if the creditCard is not valid,
+     * or with status {@code 404 (Not Found)} if the creditCard is not found,
      * or with status {@code 500 (Internal Server Error)} if the creditCard couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
@@ -83,15 +113,11 @@ public class CreditCardResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!creditCardRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
-
-        CreditCard result = creditCardService.save(creditCard);
-        return ResponseEntity
-            .ok()
-            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, creditCard.getId().toString()))
-            .body(result);
+        Optional<CreditCard> result = creditCardService.update(creditCard);
+        return ResponseUtil.wrapOrNotFound(
+            result,
+            HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, creditCard.getId().toString())
+        );
     }
 
     /**
@@ -118,10 +144,6 @@ public class CreditCardResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!creditCardRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
-
         Optional<CreditCard> result = creditCardService.partialUpdate(creditCard);
 
         return ResponseUtil.wrapOrNotFound(
@@ -130,15 +152,93 @@ public class CreditCardResource {
         );
     }
 
+    /**
+     * {@code POST  /credit-cards/bulk} : Create, update and delete creditCards in bulk.
+     * <p>
+     * The operations are sent as a JSON array or as newline-delimited JSON, and their results are returned in the same
+     * format, in the order of the operations.
+     *
+     * @param request the request, with the operations in body.
+     * @param response the response, with status {@code 200 (OK)} and the result of each operation in body.
+     * @throws IOException if the request cannot be read or the response cannot be written.
+     */
+    @PostMapping(value = "/credit-cards/bulk", consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+    public void bulkCreditCards(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        log.debug("REST request to apply bulk operations to CreditCards");
+        bulkRequestHandler.handle(request, response, new TypeReference<BulkOperationDTO<CreditCard>>() {}, creditCardService::bulk);
+    }
+
     /**
      * {@code GET  /credit-cards} : get all the creditCards.
+     * <p>
+     * With a {@code cursor} parameter, the creditCards are paginated with a keyset instead of an offset: the parameter
+     * is left empty for the first slice, and the {@code Link} header holds the URL of the next slice, if any, with an
+     * opaque cursor that keeps the order of the first request. Slices are not counted.
      *
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of creditCards in body.
+     * @param pageable the pagination information.
+     * @param cursor the keyset cursor, empty for the first slice.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of creditCards in body,
+     * or with status {@code 400 (Bad Request)} if the order or the cursor is not valid.
      */
     @GetMapping("/credit-cards")
-    public List<CreditCard> getAllCreditCards() {
-        log.debug("REST request to get all CreditCards");
-        return creditCardService.findAll();
+    public ResponseEntity<List<CreditCardDTO>> getAllCreditCards(
+        Pageable pageable,
+        @RequestParam(value = "cursor", required = false) String cursor
+    ) {
+        log.debug("REST request to get a page of CreditCards");
+        if (!onlyContainsAllowedProperties(pageable)) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (cursor != null) {
+            return getCreditCardsAfter(pageable, cursor);
+        }
+
+        Page<CreditCardDTO> page = creditCardService.findAll(pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
+    }
+
+    private ResponseEntity<List<CreditCardDTO>> getCreditCardsAfter(Pageable pageable, String token) {
+        KeysetCursor cursor;
+        Slice<CreditCardDTO> slice;
+        try {
+            cursor = token.isEmpty() ? KeysetCursor.first(pageable.getSort()) : KeysetCursor.decode(token);
+            slice = creditCardService.findAll(cursor, pageable.getPageSize());
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Invalid cursor", ENTITY_NAME, "cursorinvalid");
+        }
+        HttpHeaders headers = new HttpHeaders();
+        if (slice.hasNext()) {
+            KeysetCursor next = cursor.after(slice.getContent().get(slice.getNumberOfElements() - 1));
+            String link = ServletUriComponentsBuilder
+                .fromCurrentRequest()
+                .replaceQueryParam("page")
+                .replaceQueryParam("sort")
+                .replaceQueryParam("size", slice.getSize())
+                .replaceQueryParam("cursor", next.encode())
+                .toUriString();
+            headers.add(HttpHeaders.LINK, "<" + link + ">; rel=\"next\"");
+        }
+        return new ResponseEntity<>(slice.getContent(), headers, HttpStatus.OK);
+    }
+
+    private boolean onlyContainsAllowedProperties(Pageable pageable) {
+        return pageable.getSort().stream().map(Sort.Order::getProperty).allMatch(ALLOWED_ORDERED_PROPERTIES::contains);
+    }
+
+    /**
+     * {@code GET  /credit-cards/export} : export all the creditCards.
+     *
+     * @param format the format of the export, {@code ndjson} or {@code csv}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the creditCards streamed in body,
+     * or with status {@code 400 (Bad Request)} if the format is not supported.
+     */
+    @GetMapping("/credit-cards/export")
+    public ResponseEntity<StreamingResponseBody> exportCreditCards(
+        @RequestParam(value = "format", defaultValue = ExportRequestHandler.FORMAT_NDJSON) String format
+    ) {
+        log.debug("REST request to export CreditCards as {}", format);
+        return exportRequestHandler.handle(format, ENTITY_NAME, EXPORTED_PROPERTIES, creditCardService::exportAll);
     }
 
     /**
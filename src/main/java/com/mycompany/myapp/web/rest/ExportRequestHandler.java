@@ -0,0 +1,187 @@
+package com.mycompany.myapp.web.rest;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.datasource.TenantContextHolder;
+import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Handles the export requests of the REST controllers.
+ * <p>
+ * The entities are written to the response as they are read from the database, one line each, in newline-delimited
+ * JSON or in CSV: the response is streamed from an asynchronous thread, bound to the tenant of the request, and never
+ * holds more than a few rows in memory. The streaming is given {@code application.export.timeout-seconds} by the
+ * {@link TimeoutInterceptor}, instead of the timeout of the asynchronous requests.
+ */
+@Component
+public class ExportRequestHandler {
+
+    public static final String FORMAT_NDJSON = "ndjson";
+
+    public static final String FORMAT_CSV = "csv";
+
+    private static final MediaType TEXT_CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
+
+    /**
+     * Request attribute holding the timeout of an export, in milliseconds.
+     */
+    private static final String TIMEOUT_ATTRIBUTE = ExportRequestHandler.class.getName() + ".TIMEOUT";
+
+    private final ObjectWriter jsonWriter;
+
+    private final long timeoutMillis;
+
+    public ExportRequestHandler(ObjectMapper objectMapper, ApplicationProperties applicationProperties) {
+        // Rows are flushed by the response buffer, not one by one
+        this.jsonWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        long timeoutSeconds = applicationProperties.getExport().getTimeoutSeconds();
+        // -1 for no timeout
+        this.timeoutMillis = timeoutSeconds > 0 ? TimeUnit.SECONDS.toMillis(timeoutSeconds) : -1;
+    }
+
+    /**
+     * Build the response of an export request.
+     *
+     * @param format the format of the export, {@value #FORMAT_NDJSON} or {@value #FORMAT_CSV}.
+     * @param entityName the name of the exported entity.
+     * @param columns the properties written to the CSV columns.
+     * @param export reads all the entities, passing them to the given consumer.
+     * @param <T> the type of the entity.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the entities in body.
+     * @throws BadRequestAlertException if the format is not supported.
+     */
+    public <T> ResponseEntity<StreamingResponseBody> handle(
+        String format,
+        String entityName,
+        List<String> columns,
+        Consumer<Consumer<T>> export
+    ) {
+        MediaType contentType;
+        if (FORMAT_NDJSON.equals(format)) {
+            contentType = MediaType.APPLICATION_NDJSON;
+        } else if (FORMAT_CSV.equals(format)) {
+            contentType = TEXT_CSV;
+        } else {
+            throw new BadRequestAlertException("Unsupported export format", entityName, "formatinvalid");
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(contentType);
+        headers.setContentDisposition(ContentDisposition.attachment().filename(entityName + "-export." + format).build());
+        // Captured on the request thread: the body is written from an asynchronous thread, bound to no tenant
+        Executor inRequestTenant = TenantContextHolder.capture();
+        StreamingResponseBody body = output -> {
+            try {
+                inRequestTenant.execute(() -> {
+                    try {
+                        if (FORMAT_NDJSON.equals(format)) {
+                            writeNdjson(output, export);
+                        } else {
+                            writeCsv(output, columns, export);
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+        RequestContextHolder.currentRequestAttributes().setAttribute(TIMEOUT_ATTRIBUTE, timeoutMillis, RequestAttributes.SCOPE_REQUEST);
+        return ResponseEntity.ok().headers(headers).body(body);
+    }
+
+    private <T> void writeNdjson(OutputStream output, Consumer<Consumer<T>> export) throws IOException {
+        // The response stream is closed by the container
+        try (JsonGenerator generator = jsonWriter.getFactory().createGenerator(output).disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            // Rows are separated by the newlines only
+            generator.setRootValueSeparator(null);
+            export.accept(row -> {
+                try {
+                    jsonWriter.writeValue(generator, row);
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    private <T> void writeCsv(OutputStream output, List<String> columns, Consumer<Consumer<T>> export) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        writeCsvLine(writer, columns.toArray());
+        export.accept(row -> {
+            BeanWrapperImpl wrapper = new BeanWrapperImpl(row);
+            Object[] values = columns.stream().map(wrapper::getPropertyValue).toArray();
+            try {
+                writeCsvLine(writer, values);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        // The response stream is closed by the container
+        writer.flush();
+    }
+
+    private static void writeCsvLine(Writer writer, Object[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            if (values[i] != null) {
+                writer.write(escapeCsv(values[i].toString()));
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    /**
+     * Quote a CSV value if needed, as described by RFC 4180.
+     */
+    private static String escapeCsv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\r') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * Applies the timeout of the exports to their asynchronous processing, before it starts.
+     */
+    public static class TimeoutInterceptor implements CallableProcessingInterceptor {
+
+        @Override
+        public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+            Object timeout = request.getAttribute(TIMEOUT_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+            if (timeout != null && request instanceof AsyncWebRequest) {
+                ((AsyncWebRequest) request).setTimeout((Long) timeout);
+            }
+        }
+    }
+}
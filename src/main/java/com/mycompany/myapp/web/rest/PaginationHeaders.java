@@ -0,0 +1,47 @@
+package com.mycompany.myapp.web.rest;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.util.UriComponentsBuilder;
+import tech.jhipster.web.util.PaginationUtil;
+
+/**
+ * Pagination headers of the listings whose total may not be counted.
+ */
+final class PaginationHeaders {
+
+    private PaginationHeaders() {}
+
+    /**
+     * Generate the pagination headers of a slice: those of {@link PaginationUtil} for a {@link Page}, otherwise a
+     * {@code Link} header to the first, previous and next pages, without {@code X-Total-Count} nor link to the last page.
+     *
+     * @param uriBuilder the builder of the URL of the request.
+     * @param slice the slice.
+     * @return the headers.
+     */
+    static HttpHeaders generate(UriComponentsBuilder uriBuilder, Slice<?> slice) {
+        if (slice instanceof Page) {
+            return PaginationUtil.generatePaginationHttpHeaders(uriBuilder, (Page<?>) slice);
+        }
+        List<String> links = new ArrayList<>();
+        if (slice.hasNext()) {
+            links.add(link(uriBuilder, slice.getNumber() + 1, slice.getSize(), "next"));
+        }
+        if (slice.hasPrevious()) {
+            links.add(link(uriBuilder, slice.getNumber() - 1, slice.getSize(), "prev"));
+        }
+        links.add(link(uriBuilder, 0, slice.getSize(), "first"));
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(HttpHeaders.LINK, String.join(",", links));
+        return headers;
+    }
+
+    private static String link(UriComponentsBuilder uriBuilder, int page, int size, String relation) {
+        String url = uriBuilder.replaceQueryParam("page", page).replaceQueryParam("size", size).toUriString();
+        return "<" + url + ">; rel=\"" + relation + "\"";
+    }
+}
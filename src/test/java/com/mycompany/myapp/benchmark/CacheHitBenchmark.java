@@ -0,0 +1,105 @@
+package com.mycompany.myapp.benchmark;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.config.CacheConfiguration;
+import java.io.Serializable;
+import java.net.URI;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import org.ehcache.core.config.DefaultConfiguration;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * JMH benchmark of a second-level cache hit, for each way a cache can store its entries: by reference on heap, by value
+ * on heap, and serialized off-heap. The entries mimic the disassembled state Hibernate caches for a bank account.
+ * <p>
+ * Run by {@link CacheHitBenchmarkTest}, which also reports the bytes allocated per hit.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CacheHitBenchmark {
+
+    static final String STORE_BY_REFERENCE = "reference";
+
+    static final String STORE_BY_VALUE = "value";
+
+    static final String STORE_OFF_HEAP = "off-heap";
+
+    private static final String CACHE_NAME = "benchmark";
+
+    private static final int ENTRIES = 1_000;
+
+    @Param({ STORE_BY_REFERENCE, STORE_BY_VALUE, STORE_OFF_HEAP })
+    public String store;
+
+    private CacheManager cacheManager;
+
+    private Cache<Object, Object> cache;
+
+    @Setup
+    public void setup() {
+        ApplicationProperties.CacheRegion region = new ApplicationProperties.CacheRegion();
+        region.setMaxEntries((long) ENTRIES);
+        if (STORE_BY_VALUE.equals(store)) {
+            region.setStoreByValue(true);
+        } else if (STORE_OFF_HEAP.equals(store)) {
+            // Almost every hit is read from the off-heap tier
+            region.setMaxEntries(1L);
+            region.setOffHeapSizeMb(16L);
+        }
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getCache().getRegions().put(CACHE_NAME, region);
+        CacheConfiguration cacheConfiguration = new CacheConfiguration(new JHipsterProperties(), applicationProperties);
+
+        EhcacheCachingProvider provider = (EhcacheCachingProvider) Caching.getCachingProvider(EhcacheCachingProvider.class.getName());
+        cacheManager =
+            provider.getCacheManager(URI.create("urn:cache-hit-benchmark"), new DefaultConfiguration(provider.getDefaultClassLoader()));
+        cache = cacheManager.createCache(CACHE_NAME, cacheConfiguration.jcacheConfiguration(CACHE_NAME));
+        for (long id = 0; id < ENTRIES; id++) {
+            cache.put(id, new CachedState(new Serializable[] { "checking", "FR76 3000 6000 0112 3456 7890 " + id }, id));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        cacheManager.close();
+    }
+
+    @Benchmark
+    public Object hit() {
+        return cache.get(ThreadLocalRandom.current().nextLong(ENTRIES));
+    }
+
+    /**
+     * The shape of a cached entity: its disassembled state, the name of its class and its version.
+     */
+    static class CachedState implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Serializable[] disassembledState;
+
+        private final String subclass = "com.mycompany.myapp.domain.BankAccount";
+
+        private final Object version;
+
+        CachedState(Serializable[] disassembledState, Object version) {
+            this.disassembledState = disassembledState;
+            this.version = version;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.mycompany.myapp.benchmark;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs {@link CacheHitBenchmark} with the GC profiler of JMH, which measures the bytes allocated per hit next to its
+ * latency.
+ * <p>
+ * Skipped by default: run it with {@code ./mvnw test -Dtest=CacheHitBenchmarkTest -Dbenchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class CacheHitBenchmarkTest {
+
+    private static final String ALLOCATION = "gc.alloc.rate.norm";
+
+    private final Logger log = LoggerFactory.getLogger(CacheHitBenchmarkTest.class);
+
+    @Test
+    void benchmarkCacheHits() throws RunnerException {
+        Options options = new OptionsBuilder()
+            .include(CacheHitBenchmark.class.getName())
+            .addProfiler(GCProfiler.class)
+            .forks(1)
+            .warmupIterations(3)
+            .warmupTime(TimeValue.seconds(1))
+            .measurementIterations(5)
+            .measurementTime(TimeValue.seconds(1))
+            .build();
+        Collection<RunResult> results = new Runner(options).run();
+
+        Map<String, Double> allocations = new HashMap<>();
+        for (RunResult result : results) {
+            String store = result.getParams().getParam("store");
+            double allocation = result
+                .getSecondaryResults()
+                .entrySet()
+                .stream()
+                .filter(entry -> entry.getKey().endsWith(ALLOCATION))
+                .map(Map.Entry::getValue)
+                .mapToDouble(Result::getScore)
+                .findFirst()
+                .orElse(Double.NaN);
+            allocations.put(store, allocation);
+            log.info(
+                "Cache hit storing {}: {} ns, {} bytes allocated",
+                store,
+                Math.round(result.getPrimaryResult().getScore()),
+                Math.round(allocation)
+            );
+        }
+
+        assertThat(allocations.get(CacheHitBenchmark.STORE_BY_REFERENCE)).isLessThan(allocations.get(CacheHitBenchmark.STORE_BY_VALUE));
+    }
+}
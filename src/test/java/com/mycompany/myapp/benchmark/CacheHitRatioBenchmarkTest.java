@@ -0,0 +1,146 @@
+package com.mycompany.myapp.benchmark;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.config.CacheConfiguration;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.configuration.Factory;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Compares the hit ratios of the Ehcache and Caffeine caches, replaying the same access trace through caches of the
+ * same size, configured as the application configures them.
+ * <p>
+ * Each access reads the key and puts it on a miss, as the second-level cache of Hibernate and the Spring caches do. The
+ * trace is read from the file given by {@code -Dbenchmark.trace}, one key per line, and defaults to a synthetic trace
+ * of user lookups by login, skewed towards the most active users, interleaved with scans of bank accounts which are
+ * each read once, as listings do.
+ * <p>
+ * Skipped by default: run it with {@code ./mvnw test -Dtest=CacheHitRatioBenchmarkTest -Dbenchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class CacheHitRatioBenchmarkTest {
+
+    private static final String CACHE_NAME = "benchmark";
+
+    private static final long CACHE_SIZE = 1_000;
+
+    private static final int USERS = 10_000;
+
+    private static final int LOOKUPS = 1_000_000;
+
+    private static final int LOOKUPS_BETWEEN_SCANS = 5_000;
+
+    private static final int SCAN_LENGTH = 2_000;
+
+    private final Logger log = LoggerFactory.getLogger(CacheHitRatioBenchmarkTest.class);
+
+    @Test
+    void benchmarkHitRatio() throws IOException {
+        String tracePath = System.getProperty("benchmark.trace");
+        List<String> trace = tracePath != null ? readTrace(tracePath) : syntheticTrace();
+
+        double ehcacheHitRatio = replay(trace, ApplicationProperties.Cache.Provider.EHCACHE);
+        double caffeineHitRatio = replay(trace, ApplicationProperties.Cache.Provider.CAFFEINE);
+        log.info(
+            "Hit ratio over {} accesses with {} entries: Ehcache {}%, Caffeine {}%",
+            trace.size(),
+            CACHE_SIZE,
+            Math.round(ehcacheHitRatio * 1000) / 10.0,
+            Math.round(caffeineHitRatio * 1000) / 10.0
+        );
+
+        if (tracePath == null) {
+            assertThat(caffeineHitRatio).isGreaterThan(ehcacheHitRatio);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private double replay(List<String> trace, ApplicationProperties.Cache.Provider provider) {
+        JHipsterProperties jHipsterProperties = new JHipsterProperties();
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getCache().setProvider(provider);
+        ApplicationProperties.CacheRegion region = new ApplicationProperties.CacheRegion();
+        region.setMaxEntries(CACHE_SIZE);
+        applicationProperties.getCache().getRegions().put(CACHE_NAME, region);
+        CacheConfiguration cacheConfiguration = new CacheConfiguration(jHipsterProperties, applicationProperties);
+        javax.cache.configuration.Configuration<Object, Object> configuration = cacheConfiguration.jcacheConfiguration(CACHE_NAME);
+
+        CacheManager cacheManager;
+        if (provider == ApplicationProperties.Cache.Provider.CAFFEINE) {
+            cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName()).getCacheManager();
+            // Evict on the replaying thread, so that the cache never holds more entries than its size
+            Factory<Executor> executorFactory = () -> Runnable::run;
+            ((CaffeineConfiguration<Object, Object>) configuration).setExecutorFactory(executorFactory);
+        } else {
+            cacheManager = Caching.getCachingProvider(EhcacheCachingProvider.class.getName()).getCacheManager();
+        }
+        Cache<Object, Object> cache = cacheManager.createCache(CACHE_NAME, configuration);
+        try {
+            long hits = 0;
+            for (String key : trace) {
+                if (cache.get(key) != null) {
+                    hits++;
+                } else {
+                    cache.put(key, Boolean.TRUE);
+                }
+            }
+            return (double) hits / trace.size();
+        } finally {
+            cacheManager.destroyCache(CACHE_NAME);
+        }
+    }
+
+    private static List<String> readTrace(String path) throws IOException {
+        try (Stream<String> lines = Files.lines(Paths.get(path), StandardCharsets.UTF_8)) {
+            return lines.filter(line -> !line.isEmpty()).collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * User lookups following a Zipf distribution, with a scan of bank accounts never read before every few thousands
+     * lookups.
+     */
+    private static List<String> syntheticTrace() {
+        Random random = new Random(42);
+        double[] cumulative = new double[USERS];
+        double sum = 0;
+        for (int rank = 0; rank < USERS; rank++) {
+            sum += 1.0 / (rank + 1);
+            cumulative[rank] = sum;
+        }
+        List<String> trace = new ArrayList<>();
+        long bankAccount = 0;
+        for (int lookup = 0; lookup < LOOKUPS; lookup++) {
+            if (lookup % LOOKUPS_BETWEEN_SCANS == 0) {
+                for (int i = 0; i < SCAN_LENGTH; i++) {
+                    trace.add("bankAccount:" + bankAccount++);
+                }
+            }
+            int rank = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+            trace.add("user:" + (rank < 0 ? -rank - 1 : rank));
+        }
+        return trace;
+    }
+}
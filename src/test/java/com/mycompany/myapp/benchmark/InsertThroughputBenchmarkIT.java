@@ -0,0 +1,120 @@
+package com.mycompany.myapp.benchmark;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.domain.BankAccount;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Compares the insert throughput of the bank accounts before and after moving from identity columns to pooled-lo
+ * identifier generators.
+ * <p>
+ * Identity columns force Hibernate to run each insert on its own, to read the generated key, so the "before" case
+ * inserts the same entities with JDBC batching turned off for the session: one statement and round trip per row. The
+ * "after" case lets Hibernate batch the inserts, as the identifiers are now known before the flush.
+ * <p>
+ * Skipped by default: run it with {@code ./mvnw integration-test -Dit.test=InsertThroughputBenchmarkIT -Dbenchmark=true},
+ * adding {@code -Dspring.profiles.active=testcontainers} to measure against MySQL, where round trips are not free as
+ * with the in-memory H2 database.
+ */
+@IntegrationTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class InsertThroughputBenchmarkIT {
+
+    private static final int ROWS = 20_000;
+
+    private static final int CHUNK = 1_000;
+
+    private static final int ROUNDS = 3;
+
+    private final Logger log = LoggerFactory.getLogger(InsertThroughputBenchmarkIT.class);
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    public void setup() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        transactionTemplate.execute(status -> em.createQuery("delete from BankAccount where number like 'bench-%'").executeUpdate());
+    }
+
+    @Test
+    void benchmarkInserts() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        insert(false);
+        insert(true);
+
+        double unbatchedRate = 0;
+        double batchedRate = 0;
+        long unbatchedStatements = 0;
+        long batchedStatements = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            statistics.clear();
+            unbatchedRate += rate(false);
+            unbatchedStatements += statistics.getPrepareStatementCount();
+            statistics.clear();
+            batchedRate += rate(true);
+            batchedStatements += statistics.getPrepareStatementCount();
+        }
+        log.info(
+            "Inserted {} rows per round: one by one {} rows/s with {} statements, batched {} rows/s with {} statements",
+            ROWS,
+            Math.round(unbatchedRate / ROUNDS),
+            unbatchedStatements / ROUNDS,
+            Math.round(batchedRate / ROUNDS),
+            batchedStatements / ROUNDS
+        );
+
+        assertThat(batchedStatements / ROUNDS).isLessThan(ROWS / 10);
+    }
+
+    private double rate(boolean batched) {
+        long start = System.nanoTime();
+        insert(batched);
+        return ROWS * 1e9 / (System.nanoTime() - start);
+    }
+
+    private void insert(boolean batched) {
+        for (int chunk = 0; chunk < ROWS; chunk += CHUNK) {
+            int first = chunk;
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!batched) {
+                    em.unwrap(Session.class).setJdbcBatchSize(1);
+                }
+                for (int i = first; i < first + CHUNK; i++) {
+                    em.persist(new BankAccount().type("checking").number("bench-" + i));
+                }
+                em.flush();
+                em.clear();
+            });
+        }
+    }
+}
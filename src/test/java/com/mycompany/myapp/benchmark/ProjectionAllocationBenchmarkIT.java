@@ -0,0 +1,140 @@
+package com.mycompany.myapp.benchmark;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.domain.BankAccount;
+import com.mycompany.myapp.repository.BankAccountRepository;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Compares the heap allocated to list the bank accounts as managed entities, as the listings did before, and as DTOs
+ * read with a constructor expression.
+ * <p>
+ * Both cases read the same pages in a read-only transaction, and the allocation of the reading thread is measured with
+ * {@link com.sun.management.ThreadMXBean#getThreadAllocatedBytes(long)}: entities also allocate their load state, the
+ * snapshot kept for dirty checking and their entries in the persistence context. The second-level cache is disabled in
+ * the tests: with it, every listed entity would also be copied into its region.
+ * <p>
+ * Skipped by default: run it with {@code ./mvnw integration-test -Dit.test=ProjectionAllocationBenchmarkIT -Dbenchmark=true}.
+ */
+@IntegrationTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ProjectionAllocationBenchmarkIT {
+
+    private static final int ROWS = 10_000;
+
+    private static final int PAGE_SIZE = 1_000;
+
+    private static final int ROUNDS = 5;
+
+    private final Logger log = LoggerFactory.getLogger(ProjectionAllocationBenchmarkIT.class);
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private BankAccountRepository bankAccountRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate readOnlyTransactionTemplate;
+
+    @BeforeEach
+    public void setup() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < ROWS; i++) {
+                em.persist(new BankAccount().type("checking").number("bench-" + i));
+                if (i % PAGE_SIZE == 0) {
+                    em.flush();
+                    em.clear();
+                }
+            }
+        });
+        readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        readOnlyTransactionTemplate.setReadOnly(true);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        new TransactionTemplate(transactionManager)
+            .execute(status -> em.createQuery("delete from BankAccount where number like 'bench-%'").executeUpdate());
+    }
+
+    @Test
+    void benchmarkAllocation() {
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        Supplier<Integer> entities = () -> readPages(this::streamEntities);
+        Supplier<Integer> projections = () -> readPages(bankAccountRepository::streamAllBy);
+        // Warm up the query plans and the JIT
+        entities.get();
+        projections.get();
+
+        long entityBytes = 0;
+        long projectionBytes = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = threadMXBean.getThreadAllocatedBytes(threadId);
+            entities.get();
+            long middle = threadMXBean.getThreadAllocatedBytes(threadId);
+            projections.get();
+            long end = threadMXBean.getThreadAllocatedBytes(threadId);
+            entityBytes += middle - start;
+            projectionBytes += end - middle;
+        }
+        long rows = (long) ROUNDS * ROWS;
+        log.info("Allocated per listed row: {} bytes as entities, {} bytes as DTO projections", entityBytes / rows, projectionBytes / rows);
+
+        assertThat(projectionBytes).isLessThan(entityBytes);
+    }
+
+    /**
+     * The query of the listings before the projections, which read the same page as managed entities.
+     */
+    private Stream<BankAccount> streamEntities(Pageable pageable) {
+        return em
+            .createQuery("select bankAccount from BankAccount bankAccount order by bankAccount.id", BankAccount.class)
+            .setFirstResult((int) pageable.getOffset())
+            .setMaxResults(pageable.getPageSize())
+            .getResultStream();
+    }
+
+    /**
+     * Read all the pages in one read-only transaction, as a listing request would read one of them.
+     */
+    private int readPages(Function<Pageable, Stream<?>> query) {
+        return readOnlyTransactionTemplate.execute(status -> {
+            int read = 0;
+            for (int page = 0; page * PAGE_SIZE < ROWS; page++) {
+                List<?> content;
+                try (Stream<?> rows = query.apply(PageRequest.of(page, PAGE_SIZE, Sort.by("id")))) {
+                    content = rows.collect(Collectors.toList());
+                }
+                read += content.size();
+                // Each listing request has its own persistence context
+                em.clear();
+            }
+            return read;
+        });
+    }
+}
@@ -0,0 +1,143 @@
+package com.mycompany.myapp.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.myapp.config.ApplicationProperties;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+class CacheInvalidationBusTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private ApplicationProperties.Invalidation properties;
+
+    private RecordingTransport transport;
+
+    private CacheInvalidationBus bus;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ApplicationProperties.Invalidation();
+        transport = new RecordingTransport();
+        bus = new CacheInvalidationBus(transport, objectMapper, properties);
+    }
+
+    @Test
+    void testBurstIsCoalesced() throws JsonProcessingException {
+        bus.publish(spring("users", "alice"));
+        bus.publish(spring("users", "bob"));
+        bus.publish(spring("users", "alice"));
+        bus.flush();
+
+        assertThat(transport.sent).hasSize(1);
+        assertThat(invalidations(0)).containsExactly(spring("users", "alice"), spring("users", "bob"));
+
+        bus.flush();
+        assertThat(transport.sent).hasSize(1);
+    }
+
+    @Test
+    void testClearCoversTheEvictionsOfTheSameCache() throws JsonProcessingException {
+        bus.publish(spring("users", "alice"));
+        bus.publish(spring("accounts", "alice"));
+        bus.publish(spring("users", null));
+        bus.publish(spring("users", "bob"));
+        bus.flush();
+
+        assertThat(invalidations(0)).containsExactly(spring("accounts", "alice"), spring("users", null));
+    }
+
+    @Test
+    void testLargeBurstIsSplit() throws JsonProcessingException {
+        properties.setMaxBatchSize(2);
+        bus = new CacheInvalidationBus(transport, objectMapper, properties);
+        for (int i = 0; i < 5; i++) {
+            bus.publish(spring("users", "user-" + i));
+        }
+        bus.flush();
+
+        assertThat(transport.sent).hasSize(3);
+        assertThat(invalidations(2)).containsExactly(spring("users", "user-4"));
+    }
+
+    @Test
+    void testKeysAreSentAsTheyAreOnlyForStringsAndNumbers() throws JsonProcessingException {
+        bus.publish(new CacheInvalidation(CacheInvalidation.Type.ENTITY, "accounts", 42L, null));
+        bus.publish(new CacheInvalidation(CacheInvalidation.Type.SPRING, "pages", new Object(), "default"));
+        bus.flush();
+
+        List<CacheInvalidation> invalidations = invalidations(0);
+        assertThat(((Number) invalidations.get(0).getKey()).longValue()).isEqualTo(42L);
+        assertThat(invalidations.get(1)).isEqualTo(spring("pages", null));
+    }
+
+    @Test
+    void testPublishAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            bus.publishAfterCommit(spring("users", "alice"));
+            bus.flush();
+            assertThat(transport.sent).isEmpty();
+
+            TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.getSynchronizations());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        bus.flush();
+        assertThat(transport.sent).hasSize(1);
+    }
+
+    @Test
+    void testInvalidationsAreAppliedByTheOtherInstances() {
+        CacheInvalidationBus sender = new CacheInvalidationBus(new LoopbackCacheInvalidationTransport(), objectMapper, properties);
+        CacheInvalidationBus receiver = new CacheInvalidationBus(new LoopbackCacheInvalidationTransport(), objectMapper, properties);
+        List<CacheInvalidation> appliedBySender = new ArrayList<>();
+        List<CacheInvalidation> appliedByReceiver = new ArrayList<>();
+        sender.subscribe(CacheInvalidation.Type.SPRING, appliedBySender::add);
+        receiver.subscribe(CacheInvalidation.Type.SPRING, appliedByReceiver::add);
+        sender.start();
+        receiver.start();
+        try {
+            sender.publish(spring("users", "alice"));
+            sender.flush();
+        } finally {
+            sender.stop();
+            receiver.stop();
+        }
+
+        assertThat(appliedByReceiver).containsExactly(spring("users", "alice"));
+        assertThat(appliedBySender).isEmpty();
+    }
+
+    private static CacheInvalidation spring(String cache, Object key) {
+        return new CacheInvalidation(CacheInvalidation.Type.SPRING, cache, key, "default");
+    }
+
+    private List<CacheInvalidation> invalidations(int message) throws JsonProcessingException {
+        return objectMapper.readValue(transport.sent.get(message), CacheInvalidationBus.Message.class).getInvalidations();
+    }
+
+    private static class RecordingTransport implements CacheInvalidationTransport {
+
+        private final List<String> sent = new ArrayList<>();
+
+        @Override
+        public void start(Consumer<String> receiver) {}
+
+        @Override
+        public void send(String message) {
+            sent.add(message);
+        }
+
+        @Override
+        public void stop() {}
+    }
+}
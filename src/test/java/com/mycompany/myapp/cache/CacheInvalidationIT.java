@@ -0,0 +1,185 @@
+package com.mycompany.myapp.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.BankAccount;
+import com.mycompany.myapp.repository.BankAccountRepository;
+import com.mycompany.myapp.repository.UserRepository;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import javax.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests of the cache invalidation between this instance and another one, sharing the loopback transport.
+ */
+@IntegrationTest
+@TestPropertySource(
+    properties = {
+        "application.cache.invalidation.transport=loopback",
+        "application.cache.invalidation.batch-interval-millis=10",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+    }
+)
+class CacheInvalidationIT {
+
+    private static final long TIMEOUT_SECONDS = 5;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private BankAccountRepository bankAccountRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    @Autowired
+    private TableVersions tableVersions;
+
+    private TransactionTemplate transactionTemplate;
+
+    private CacheInvalidationBus otherInstance;
+
+    private final BlockingQueue<CacheInvalidation> received = new LinkedBlockingQueue<>();
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        otherInstance =
+            new CacheInvalidationBus(
+                new LoopbackCacheInvalidationTransport(),
+                objectMapper,
+                applicationProperties.getCache().getInvalidation()
+            );
+        for (CacheInvalidation.Type type : CacheInvalidation.Type.values()) {
+            otherInstance.subscribe(type, received::add);
+        }
+        otherInstance.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        otherInstance.stop();
+        bankAccountRepository.deleteAll();
+    }
+
+    @Test
+    void testSpringCacheEvictionIsBroadcast() throws InterruptedException {
+        cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).evict("user");
+
+        assertThat(received.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS))
+            .isEqualTo(new CacheInvalidation(CacheInvalidation.Type.SPRING, UserRepository.USERS_BY_LOGIN_CACHE, "user", "default"));
+    }
+
+    @Test
+    void testSpringCacheEvictionIsNotBroadcastOnRollback() throws InterruptedException {
+        transactionTemplate.executeWithoutResult(status -> {
+            cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).evict("user");
+            status.setRollbackOnly();
+        });
+
+        assertThat(received.poll(500, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    @Test
+    void testSpringCacheEvictionFromAnotherInstanceIsApplied() {
+        Cache cache = cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE);
+        cache.put("remote", "cached");
+
+        otherInstance.publish(
+            new CacheInvalidation(CacheInvalidation.Type.SPRING, UserRepository.USERS_BY_LOGIN_CACHE, "remote", "default")
+        );
+        otherInstance.flush();
+
+        assertThat(cache.get("remote")).isNull();
+    }
+
+    @Test
+    void testEntityUpdateIsBroadcast() throws InterruptedException {
+        BankAccount bankAccount = bankAccountRepository.saveAndFlush(new BankAccount().type("checking").number("FR76"));
+
+        transactionTemplate.executeWithoutResult(status -> bankAccountRepository.update(bankAccount.number("FR77"), true));
+        assertEntityInvalidation(bankAccount.getId());
+
+        bankAccountRepository.deleteById(bankAccount.getId());
+        assertEntityInvalidation(bankAccount.getId());
+    }
+
+    @Test
+    void testRolledBackConditionalUpdateIsNotCached() {
+        BankAccount bankAccount = bankAccountRepository.saveAndFlush(new BankAccount().type("checking").number("FR76"));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            bankAccountRepository.update(bankAccount.number("FR77"), true);
+            status.setRollbackOnly();
+        });
+
+        assertThat(entityManagerFactory.getCache().contains(BankAccount.class, bankAccount.getId())).isFalse();
+        assertThat(bankAccountRepository.findById(bankAccount.getId())).get().extracting(BankAccount::getNumber).isEqualTo("FR76");
+    }
+
+    @Test
+    void testEntityEvictionFromAnotherInstanceIsApplied() {
+        BankAccount bankAccount = bankAccountRepository.saveAndFlush(new BankAccount().type("checking").number("FR76"));
+        bankAccountRepository.findById(bankAccount.getId());
+        assertThat(entityManagerFactory.getCache().contains(BankAccount.class, bankAccount.getId())).isTrue();
+
+        otherInstance.publish(new CacheInvalidation(CacheInvalidation.Type.ENTITY, BankAccount.class.getName(), bankAccount.getId(), null));
+        otherInstance.flush();
+
+        assertThat(entityManagerFactory.getCache().contains(BankAccount.class, bankAccount.getId())).isFalse();
+    }
+
+    @Test
+    void testTableVersionIsBroadcastAndApplied() throws InterruptedException {
+        bankAccountRepository.saveAndFlush(new BankAccount().type("checking").number("FR76"));
+        assertThat(receive(CacheInvalidation.Type.TABLE).getRegion()).isEqualTo("bank_account");
+
+        String[] tables = tableVersions.tablesOf(BankAccount.class);
+        long[] before = tableVersions.versions(tables);
+        otherInstance.publish(new CacheInvalidation(CacheInvalidation.Type.TABLE, "bank_account", null, null));
+        otherInstance.flush();
+
+        assertThat(tableVersions.versions(tables)).isNotEqualTo(before);
+    }
+
+    private void assertEntityInvalidation(Long id) throws InterruptedException {
+        CacheInvalidation invalidation = receive(CacheInvalidation.Type.ENTITY);
+        assertThat(invalidation.getRegion()).isEqualTo(BankAccount.class.getName());
+        assertThat(((Number) invalidation.getKey()).longValue()).isEqualTo(id);
+    }
+
+    /**
+     * Receive the next invalidation of a type, skipping the others.
+     */
+    private CacheInvalidation receive(CacheInvalidation.Type type) throws InterruptedException {
+        CacheInvalidation invalidation;
+        do {
+            invalidation = received.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            assertThat(invalidation).isNotNull();
+        } while (invalidation.getType() != type);
+        return invalidation;
+    }
+}
@@ -0,0 +1,145 @@
+package com.mycompany.myapp.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.domain.BankAccount;
+import com.mycompany.myapp.repository.BankAccountRepository;
+import com.mycompany.myapp.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Integration tests for {@link CacheMetrics}, {@link HotKeys} and the {@link HotKeysEndpoint}.
+ */
+@IntegrationTest
+@TestPropertySource(
+    properties = {
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=true", "application.cache.metrics.footprint-sample-size=1",
+    }
+)
+class CacheMetricsIT {
+
+    private static final String BANK_ACCOUNT_CACHE = BankAccount.class.getName();
+
+    @Autowired
+    private CacheMetrics cacheMetrics;
+
+    @Autowired
+    private HotKeysEndpoint hotKeysEndpoint;
+
+    @Autowired
+    private BankAccountRepository bankAccountRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private BankAccount hot;
+
+    private BankAccount cold;
+
+    @BeforeEach
+    void setUp() {
+        cacheMetrics.bindTo(meterRegistry);
+        hot = bankAccountRepository.saveAndFlush(new BankAccount().type("checking").number("FR76"));
+        cold = bankAccountRepository.saveAndFlush(new BankAccount().type("savings").number("DE89"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        bankAccountRepository.deleteAll();
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    void testHitsAndMissesArePublished() {
+        double hits = gets("hit");
+        double misses = gets("miss");
+
+        entityManagerFactory.getCache().evict(BankAccount.class);
+        bankAccountRepository.findById(hot.getId());
+        bankAccountRepository.findById(hot.getId());
+
+        assertThat(gets("miss")).isGreaterThan(misses);
+        assertThat(gets("hit")).isGreaterThan(hits);
+        assertThat(meterRegistry.get("cache.puts").tag("cache", BANK_ACCOUNT_CACHE).functionCounter().count()).isPositive();
+        assertThat(meterRegistry.get("cache.gets.latency").tag("cache", BANK_ACCOUNT_CACHE).gauge().value()).isNotNegative();
+    }
+
+    @Test
+    void testFootprintIsMeasuredWithoutCountingHits() {
+        bankAccountRepository.findById(hot.getId());
+        bankAccountRepository.findById(cold.getId());
+        double hits = gets("hit");
+
+        cacheMetrics.measureFootprints();
+
+        assertThat(meterRegistry.get("cache.size").tag("cache", BANK_ACCOUNT_CACHE).gauge().value()).isEqualTo(2);
+        assertThat(meterRegistry.get("cache.memory.estimated").tag("cache", BANK_ACCOUNT_CACHE).gauge().value()).isPositive();
+        assertThat(gets("hit")).isEqualTo(hits);
+    }
+
+    @Test
+    void testFootprintReadsTheSampleOnly() throws JMException {
+        bankAccountRepository.findById(hot.getId());
+        bankAccountRepository.findById(cold.getId());
+        double readHits = readHits();
+
+        cacheMetrics.measureFootprints();
+
+        assertThat(readHits()).isEqualTo(readHits + 1);
+        assertThat(meterRegistry.get("cache.size").tag("cache", BANK_ACCOUNT_CACHE).gauge().value()).isEqualTo(2);
+    }
+
+    @Test
+    void testHotKeysAreListed() {
+        for (int i = 0; i < 20; i++) {
+            entityManagerFactory.getCache().evict(BankAccount.class, hot.getId());
+            bankAccountRepository.findById(hot.getId());
+        }
+        bankAccountRepository.findById(cold.getId());
+        cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).get("admin");
+
+        List<HotKeys.HotKey> bankAccounts = hotKeysEndpoint.hotKeys(BANK_ACCOUNT_CACHE).get(BANK_ACCOUNT_CACHE);
+        assertThat(bankAccounts).isNotEmpty();
+        assertThat(bankAccounts.get(0).getKey()).isEqualTo(String.valueOf(hot.getId()));
+        assertThat(bankAccounts.get(0).getCount()).isGreaterThanOrEqualTo(20);
+        assertThat(hotKeysEndpoint.hotKeys(null).get(UserRepository.USERS_BY_LOGIN_CACHE))
+            .extracting(HotKeys.HotKey::getKey)
+            .contains("admin");
+    }
+
+    /**
+     * Get the hits counted by the cache, including its entries read by the footprint.
+     */
+    private static double readHits() throws JMException {
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        for (ObjectName name : mBeanServer.queryNames(new ObjectName("javax.cache:type=CacheStatistics,*"), null)) {
+            if (BANK_ACCOUNT_CACHE.equals(name.getKeyProperty("Cache"))) {
+                return ((Number) mBeanServer.getAttribute(name, "CacheHits")).doubleValue();
+            }
+        }
+        throw new IllegalStateException("No statistics for " + BANK_ACCOUNT_CACHE);
+    }
+
+    private double gets(String result) {
+        return meterRegistry.get("cache.gets").tag("cache", BANK_ACCOUNT_CACHE).tag("result", result).functionCounter().count();
+    }
+}
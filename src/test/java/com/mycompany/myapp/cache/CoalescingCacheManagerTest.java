@@ -0,0 +1,58 @@
+package com.mycompany.myapp.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+class CoalescingCacheManagerTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private Cache cache;
+
+    @BeforeEach
+    void setUp() {
+        SingleFlight singleFlight = new SingleFlight(
+            new ApplicationProperties(),
+            new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class)
+        );
+        cache = new CoalescingCacheManager(new ConcurrentMapCacheManager("users"), singleFlight).getCache("users");
+    }
+
+    @Test
+    void testLoadedEntryIsCached() {
+        assertThat(cache.get("alice", () -> "alice-" + loads.incrementAndGet())).isEqualTo("alice-1");
+        assertThat(cache.get("alice", () -> "alice-" + loads.incrementAndGet())).isEqualTo("alice-1");
+        assertThat(cache.get("alice").get()).isEqualTo("alice-1");
+    }
+
+    @Test
+    void testNullIsCached() {
+        assertThat(cache.<String>get("nobody", () -> null)).isNull();
+        assertThat(cache.get("nobody")).isNotNull();
+    }
+
+    @Test
+    void testLoaderFailureIsWrapped() {
+        assertThatThrownBy(() ->
+                cache.get(
+                    "alice",
+                    () -> {
+                        throw new IOException("database down");
+                    }
+                )
+            )
+            .isInstanceOf(Cache.ValueRetrievalException.class)
+            .hasCauseInstanceOf(IOException.class);
+        assertThat(cache.get("alice")).isNull();
+    }
+}
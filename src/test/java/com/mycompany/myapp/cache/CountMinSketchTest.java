@@ -0,0 +1,50 @@
+package com.mycompany.myapp.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class CountMinSketchTest {
+
+    @Test
+    void testCountsAreNeverUnderestimated() {
+        CountMinSketch sketch = new CountMinSketch(64, 4);
+        for (int key = 0; key < 100; key++) {
+            for (int i = 0; i <= key % 5; i++) {
+                sketch.add("key-" + key);
+            }
+        }
+
+        for (int key = 0; key < 100; key++) {
+            assertThat(sketch.estimate("key-" + key)).isGreaterThanOrEqualTo(key % 5 + 1);
+        }
+    }
+
+    @Test
+    void testFrequentKeyStandsOut() {
+        CountMinSketch sketch = new CountMinSketch(1024, 4);
+        for (int i = 0; i < 1000; i++) {
+            sketch.add("hot");
+            sketch.add("cold-" + i);
+        }
+
+        assertThat(sketch.estimate("hot")).isEqualTo(1000);
+        assertThat(sketch.estimate("cold-1")).isLessThan(10);
+        assertThat(sketch.estimate("unknown")).isLessThan(10);
+    }
+
+    @Test
+    void testCountsAreHalvedAfterTenTimesTheWidth() {
+        CountMinSketch sketch = new CountMinSketch(16, 2);
+        for (int i = 0; i < 159; i++) {
+            sketch.add("hot");
+        }
+        assertThat(sketch.estimate("hot")).isEqualTo(159);
+        assertThat(sketch.halvings()).isZero();
+
+        sketch.add("hot");
+
+        assertThat(sketch.estimate("hot")).isEqualTo(80);
+        assertThat(sketch.halvings()).isEqualTo(1);
+    }
+}
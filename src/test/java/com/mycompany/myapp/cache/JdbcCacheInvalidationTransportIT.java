@@ -0,0 +1,111 @@
+package com.mycompany.myapp.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mycompany.myapp.IntegrationTest;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for {@link JdbcCacheInvalidationTransport}, polled by the tests rather than on schedule.
+ */
+@IntegrationTest
+class JdbcCacheInvalidationTransportIT {
+
+    private static final String INSERT = "insert into cache_invalidation (message, created_date) values (?, ?)";
+
+    private static final long POLL_INTERVAL_MILLIS = 3_600_000;
+
+    private static final long RETENTION_SECONDS = 600;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private JdbcCacheInvalidationTransport sender;
+
+    private JdbcCacheInvalidationTransport receiver;
+
+    private final List<String> received = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        sender = new JdbcCacheInvalidationTransport(jdbcTemplate, transactionManager, POLL_INTERVAL_MILLIS, RETENTION_SECONDS);
+        receiver = new JdbcCacheInvalidationTransport(jdbcTemplate, transactionManager, POLL_INTERVAL_MILLIS, RETENTION_SECONDS);
+        // Sent before the receiver starts, so never received
+        sender.send("before");
+        sender.start(message -> {});
+        receiver.start(received::add);
+    }
+
+    @AfterEach
+    void tearDown() {
+        sender.stop();
+        receiver.stop();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> jdbcTemplate.update("delete from cache_invalidation"));
+    }
+
+    @Test
+    void testMessagesSentSinceTheStartAreReceivedOnce() {
+        sender.send("first");
+        sender.send("second");
+        receiver.poll();
+        receiver.poll();
+
+        assertThat(received).containsExactly("first", "second");
+    }
+
+    @Test
+    void testMessageCommittedAfterALaterOneIsReceived() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement(INSERT)) {
+                statement.setString(1, "earlier");
+                statement.setTimestamp(2, Timestamp.from(Instant.now()));
+                statement.executeUpdate();
+            }
+            sender.send("later");
+            receiver.poll();
+            assertThat(received).containsExactly("later");
+
+            connection.commit();
+        }
+        receiver.poll();
+        assertThat(received).containsExactly("later", "earlier");
+    }
+
+    @Test
+    void testExpiredMessagesAreDeleted() {
+        sender.send("expired");
+        Timestamp expired = Timestamp.from(Instant.now().minus(RETENTION_SECONDS + 1, ChronoUnit.SECONDS));
+        new TransactionTemplate(transactionManager)
+            .executeWithoutResult(status ->
+                jdbcTemplate.update("update cache_invalidation set created_date = ? where message = 'expired'", expired)
+            );
+        sender.send("kept");
+        receiver.poll();
+
+        assertThat(received).containsExactly("expired", "kept");
+        assertThat(jdbcTemplate.queryForList("select message from cache_invalidation order by id", String.class))
+            .containsExactly("before", "kept");
+    }
+}
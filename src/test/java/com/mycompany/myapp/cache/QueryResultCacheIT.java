@@ -0,0 +1,130 @@
+package com.mycompany.myapp.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.domain.BankAccount;
+import com.mycompany.myapp.domain.CreditCard;
+import com.mycompany.myapp.repository.BankAccountRepository;
+import com.mycompany.myapp.repository.CreditCardRepository;
+import com.mycompany.myapp.service.BankAccountService;
+import com.mycompany.myapp.service.dto.BankAccountDTO;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for {@link QueryResultCache} and {@link TableVersions}.
+ */
+@IntegrationTest
+class QueryResultCacheIT {
+
+    private static final PageRequest FIRST_PAGE = PageRequest.of(0, 20);
+
+    @Autowired
+    private QueryResultCache queryResultCache;
+
+    @Autowired
+    private TableVersions tableVersions;
+
+    @Autowired
+    private BankAccountService bankAccountService;
+
+    @Autowired
+    private BankAccountRepository bankAccountRepository;
+
+    @Autowired
+    private CreditCardRepository creditCardRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        cacheManager.getCache(QueryResultCache.QUERY_RESULTS_CACHE).clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        bankAccountRepository.deleteAll();
+        creditCardRepository.deleteAll();
+    }
+
+    @Test
+    void testPageIsCachedUntilTheTableIsWritten() {
+        bankAccountRepository.saveAndFlush(new BankAccount().type("checking").number("FR76"));
+        Page<BankAccountDTO> page = bankAccountService.findAll(FIRST_PAGE);
+        assertThat(page.getContent()).extracting(BankAccountDTO::getNumber).containsExactly("FR76");
+        assertThat(bankAccountService.findAll(FIRST_PAGE)).isSameAs(page);
+
+        bankAccountRepository.saveAndFlush(new BankAccount().type("savings").number("DE89"));
+
+        assertThat(bankAccountService.findAll(FIRST_PAGE).getContent()).extracting(BankAccountDTO::getNumber).contains("FR76", "DE89");
+        assertThat(bankAccountService.findAll(FIRST_PAGE)).isNotSameAs(page);
+    }
+
+    @Test
+    void testConditionalUpdateInvalidatesTheResults() {
+        BankAccount bankAccount = bankAccountRepository.saveAndFlush(new BankAccount().type("checking").number("FR76"));
+        loadBankAccounts();
+        loadBankAccounts();
+        assertThat(loads).hasValue(1);
+
+        transactionTemplate.executeWithoutResult(status -> bankAccountRepository.update(bankAccount.number("FR77"), true));
+
+        loadBankAccounts();
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void testWritesToOtherTablesKeepTheResults() {
+        loadBankAccounts();
+
+        creditCardRepository.saveAndFlush(new CreditCard().type("visa").number("4111"));
+
+        loadBankAccounts();
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void testTablesWrittenByATransactionInFlightHaveNoVersion() {
+        String[] tables = tableVersions.tablesOf(BankAccount.class);
+        long[] before = tableVersions.versions(tables);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            bankAccountRepository.saveAndFlush(new BankAccount().type("checking").number("FR76"));
+            assertThat(tableVersions.versions(tables)).isNull();
+        });
+
+        assertThat(tableVersions.versions(tables)).isNotNull().isNotEqualTo(before);
+    }
+
+    @Test
+    void testResultsAreNotCachedWithinATransactionOfTheCaller() {
+        transactionTemplate.executeWithoutResult(status -> {
+            loadBankAccounts();
+            loadBankAccounts();
+        });
+
+        assertThat(loads).hasValue(2);
+    }
+
+    private void loadBankAccounts() {
+        queryResultCache.get("bankAccounts", FIRST_PAGE, BankAccount.class, () -> loads.incrementAndGet());
+    }
+}
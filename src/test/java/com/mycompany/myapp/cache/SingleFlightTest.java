@@ -0,0 +1,191 @@
+package com.mycompany.myapp.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.datasource.TenantContextHolder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+class SingleFlightTest {
+
+    private static final int CALLERS = 8;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private static final String THREAD_PREFIX = "single-flight-test-";
+
+    private static final String COMPLETABLE_FUTURE = CompletableFuture.class.getName();
+
+    private final AtomicInteger threads = new AtomicInteger();
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(
+        CALLERS,
+        runnable -> new Thread(runnable, THREAD_PREFIX + threads.incrementAndGet())
+    );
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private ApplicationProperties applicationProperties;
+
+    private SingleFlight singleFlight;
+
+    @BeforeEach
+    void setUp() {
+        applicationProperties = new ApplicationProperties();
+        singleFlight = newSingleFlight();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        TenantContextHolder.setTenant(null);
+    }
+
+    @Test
+    void testConcurrentLoadsOfTheSameKeyAreCoalesced() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<String>> results = loadConcurrently("alice", () -> await(release, "loaded"));
+
+        awaitWaitingCallers(CALLERS - 1);
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("loaded");
+        }
+        assertThat(loads).hasValue(1);
+        assertThat(count("loaded")).isEqualTo(1);
+        assertThat(count("coalesced")).isEqualTo(CALLERS - 1);
+    }
+
+    @Test
+    void testLoadsOfDifferentKeysOrTenantsAreNotCoalesced() {
+        assertThat(singleFlight.load("users", "alice", this::countedLoad)).isEqualTo(1);
+        assertThat(singleFlight.load("users", "bob", this::countedLoad)).isEqualTo(2);
+        TenantContextHolder.setTenant("acme");
+        assertThat(singleFlight.load("users", "alice", this::countedLoad)).isEqualTo(3);
+    }
+
+    @Test
+    void testCallersLoadThemselvesAfterTheTimeout() throws Exception {
+        applicationProperties.getCache().getCoalescing().setTimeoutMillis(50);
+        singleFlight = newSingleFlight();
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> leader = executor.submit(() -> singleFlight.load("users", "alice", () -> await(release, "slow")));
+        awaitInFlight();
+
+        assertThat(singleFlight.load("users", "alice", () -> "fast")).isEqualTo("fast");
+        release.countDown();
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("slow");
+        assertThat(count("timeout")).isEqualTo(1);
+    }
+
+    @Test
+    void testFailureIsThrownToTheWaitingCallers() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<String>> results = loadConcurrently(
+            "alice",
+            () -> {
+                await(release, null);
+                throw new IllegalStateException("database down");
+            }
+        );
+
+        awaitWaitingCallers(CALLERS - 1);
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(IllegalStateException.class);
+        }
+        assertThat(loads).hasValue(1);
+        assertThat(count("failed")).isEqualTo(CALLERS - 1);
+        assertThat(count("coalesced")).isZero();
+        assertThat(singleFlight.load("users", "alice", () -> "recovered")).isEqualTo("recovered");
+    }
+
+    private SingleFlight newSingleFlight() {
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory(Collections.singletonMap("meterRegistry", meterRegistry));
+        return new SingleFlight(applicationProperties, beanFactory.getBeanProvider(MeterRegistry.class));
+    }
+
+    private List<Future<String>> loadConcurrently(String key, Supplier<String> loader) {
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(
+                executor.submit(() ->
+                    singleFlight.load(
+                        "users",
+                        key,
+                        () -> {
+                            loads.incrementAndGet();
+                            return loader.get();
+                        }
+                    )
+                )
+            );
+        }
+        return results;
+    }
+
+    private int countedLoad() {
+        return loads.incrementAndGet();
+    }
+
+    private <T> T await(CountDownLatch latch, T value) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return value;
+    }
+
+    /**
+     * Wait for the callers to block on the load in flight, the coalesced loads being only counted once it completes.
+     */
+    private void awaitWaitingCallers(int callers) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (waitingThreads() < callers && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(waitingThreads()).isEqualTo(callers);
+    }
+
+    private void awaitInFlight() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (count("loaded") == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private long waitingThreads() {
+        return Thread
+            .getAllStackTraces()
+            .entrySet()
+            .stream()
+            .filter(thread -> thread.getKey().getName().startsWith(THREAD_PREFIX))
+            .filter(thread -> Arrays.stream(thread.getValue()).anyMatch(frame -> frame.getClassName().startsWith(COMPLETABLE_FUTURE)))
+            .count();
+    }
+
+    private double count(String outcome) {
+        return meterRegistry.counter(SingleFlight.LOADS_METRIC, "name", "users", "outcome", outcome).count();
+    }
+}
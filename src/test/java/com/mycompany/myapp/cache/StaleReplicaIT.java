@@ -0,0 +1,85 @@
+package com.mycompany.myapp.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.domain.BankAccount;
+import com.mycompany.myapp.repository.BankAccountRepository;
+import com.mycompany.myapp.service.BankAccountService;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests of the loads filling the caches, with a replica which never catches up with the primary database.
+ */
+@IntegrationTest
+@TestPropertySource(
+    properties = "application.datasource.replicas[0].url=jdbc:h2:mem:stale_replica;DB_CLOSE_DELAY=-1;" +
+    "INIT=create table if not exists bank_account(id bigint primary key, type varchar(255), number varchar(255))"
+)
+class StaleReplicaIT {
+
+    @Autowired
+    private QueryResultCache queryResultCache;
+
+    @Autowired
+    private BankAccountRepository bankAccountRepository;
+
+    @Autowired
+    private BankAccountService bankAccountService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCache(QueryResultCache.QUERY_RESULTS_CACHE).clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        bankAccountRepository.deleteAll();
+    }
+
+    @Test
+    void testResultIsNotLoadedFromAStaleReplica() {
+        bankAccountRepository.saveAndFlush(new BankAccount().type("checking").number("FR76"));
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        List<String> replicated = readOnly.execute(status -> numbers());
+        assertThat(replicated).isEmpty();
+
+        List<String> cached = queryResultCache.get("bankAccountNumbers", "all", BankAccount.class, this::numbers);
+
+        assertThat(cached).containsExactly("FR76");
+        List<String> served = queryResultCache.get("bankAccountNumbers", "all", BankAccount.class, this::numbers);
+        assertThat(served).isSameAs(cached);
+    }
+
+    @Test
+    void testEntityIsNotLoadedFromAStaleReplica() {
+        BankAccount bankAccount = bankAccountRepository.saveAndFlush(new BankAccount().type("checking").number("FR76"));
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        Optional<BankAccount> replicated = readOnly.execute(status -> bankAccountRepository.findById(bankAccount.getId()));
+        assertThat(replicated).isEmpty();
+
+        assertThat(bankAccountService.findOne(bankAccount.getId())).get().extracting(BankAccount::getNumber).isEqualTo("FR76");
+    }
+
+    private List<String> numbers() {
+        return bankAccountRepository.findAll().stream().map(BankAccount::getNumber).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,199 @@
+package com.mycompany.myapp.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import org.ehcache.config.CacheRuntimeConfiguration;
+import org.ehcache.config.ResourcePools;
+import org.ehcache.config.ResourceType;
+import org.ehcache.config.SizedResourcePool;
+import org.ehcache.config.units.EntryUnit;
+import org.ehcache.config.units.MemoryUnit;
+import org.ehcache.core.config.DefaultConfiguration;
+import org.ehcache.impl.config.persistence.DefaultPersistenceConfiguration;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tech.jhipster.config.JHipsterProperties;
+
+class CacheConfigurationTest {
+
+    private static final String CACHE_NAME = "test";
+
+    @TempDir
+    Path diskPath;
+
+    private JHipsterProperties jHipsterProperties;
+
+    private ApplicationProperties applicationProperties;
+
+    private CacheManager cacheManager;
+
+    @BeforeEach
+    void setUp() {
+        jHipsterProperties = new JHipsterProperties();
+        jHipsterProperties.getCache().getEhcache().setMaxEntries(100);
+        jHipsterProperties.getCache().getEhcache().setTimeToLiveSeconds(3600);
+        applicationProperties = new ApplicationProperties();
+        applicationProperties.getCache().setDiskPath(diskPath.toString());
+
+        EhcacheCachingProvider provider = (EhcacheCachingProvider) Caching.getCachingProvider(EhcacheCachingProvider.class.getName());
+        cacheManager =
+            provider.getCacheManager(
+                URI.create("urn:cache-configuration-test"),
+                new DefaultConfiguration(provider.getDefaultClassLoader(), new DefaultPersistenceConfiguration(diskPath.toFile()))
+            );
+    }
+
+    @AfterEach
+    void tearDown() {
+        cacheManager.close();
+    }
+
+    @Test
+    void testCacheWithoutSettingsUsesTheDefaults() {
+        CacheRuntimeConfiguration<Object, Object> configuration = createCache();
+
+        ResourcePools pools = configuration.getResourcePools();
+        assertThat(pools.getResourceTypeSet()).containsExactly(ResourceType.Core.HEAP);
+        assertThat(pools.getPoolForResource(ResourceType.Core.HEAP).getSize()).isEqualTo(100);
+        assertThat(configuration.getExpiryPolicy().getExpiryForCreation(1, 1)).isEqualTo(Duration.ofSeconds(3600));
+
+        // Entries are stored by reference
+        javax.cache.Cache<Object, Object> cache = cacheManager.getCache(CACHE_NAME);
+        ArrayList<String> value = new ArrayList<>();
+        cache.put(1, value);
+        assertThat(cache.get(1)).isSameAs(value);
+    }
+
+    @Test
+    void testCacheStoringByValue() {
+        ApplicationProperties.CacheRegion region = new ApplicationProperties.CacheRegion();
+        region.setStoreByValue(true);
+        applicationProperties.getCache().getRegions().put(CACHE_NAME, region);
+        createCache();
+
+        javax.cache.Cache<Object, Object> cache = cacheManager.getCache(CACHE_NAME);
+        ArrayList<String> value = new ArrayList<>();
+        cache.put(1, value);
+        value.add("modified");
+        assertThat(cache.get(1)).isNotSameAs(value).isEqualTo(new ArrayList<>());
+    }
+
+    @Test
+    void testCacheWithTiers() {
+        ApplicationProperties.CacheRegion region = new ApplicationProperties.CacheRegion();
+        region.setMaxEntries(10L);
+        region.setTimeToLiveSeconds(60L);
+        region.setOffHeapSizeMb(1L);
+        region.setDiskSizeMb(2L);
+        applicationProperties.getCache().getRegions().put(CACHE_NAME, region);
+
+        CacheRuntimeConfiguration<Object, Object> configuration = createCache();
+
+        ResourcePools pools = configuration.getResourcePools();
+        assertThat(pools.getResourceTypeSet())
+            .containsExactlyInAnyOrder(ResourceType.Core.HEAP, ResourceType.Core.OFFHEAP, ResourceType.Core.DISK);
+        assertThat(pools.getPoolForResource(ResourceType.Core.HEAP).getSize()).isEqualTo(10);
+        assertThat(pools.getPoolForResource(ResourceType.Core.HEAP).getUnit()).isEqualTo(EntryUnit.ENTRIES);
+        SizedResourcePool offHeap = pools.getPoolForResource(ResourceType.Core.OFFHEAP);
+        assertThat(offHeap.getSize()).isEqualTo(1);
+        assertThat(offHeap.getUnit()).isEqualTo(MemoryUnit.MB);
+        SizedResourcePool disk = pools.getPoolForResource(ResourceType.Core.DISK);
+        assertThat(disk.getSize()).isEqualTo(2);
+        assertThat(disk.isPersistent()).isFalse();
+        assertThat(configuration.getExpiryPolicy().getExpiryForCreation(1, 1)).isEqualTo(Duration.ofSeconds(60));
+
+        // Entries overflowing the heap are kept in the lower tiers
+        javax.cache.Cache<Object, Object> cache = cacheManager.getCache(CACHE_NAME);
+        for (int i = 0; i < 1000; i++) {
+            cache.put(i, "value-" + i);
+        }
+        assertThat(cache.get(0)).isEqualTo("value-0");
+    }
+
+    @Test
+    void testCacheWithTimeToIdle() {
+        ApplicationProperties.CacheRegion region = new ApplicationProperties.CacheRegion();
+        region.setTimeToLiveSeconds(60L);
+        region.setTimeToIdleSeconds(30L);
+        applicationProperties.getCache().getRegions().put(CACHE_NAME, region);
+
+        CacheRuntimeConfiguration<Object, Object> configuration = createCache();
+
+        assertThat(configuration.getExpiryPolicy().getExpiryForCreation(1, 1)).isEqualTo(Duration.ofSeconds(30));
+        assertThat(configuration.getExpiryPolicy().getExpiryForAccess(1, () -> 1)).isEqualTo(Duration.ofSeconds(30));
+    }
+
+    @Test
+    void testDiskTierRequiresADiskPath() {
+        ApplicationProperties.CacheRegion region = new ApplicationProperties.CacheRegion();
+        region.setDiskSizeMb(2L);
+        applicationProperties.getCache().getRegions().put(CACHE_NAME, region);
+        applicationProperties.getCache().setDiskPath(null);
+
+        CacheConfiguration cacheConfiguration = new CacheConfiguration(jHipsterProperties, applicationProperties);
+        assertThatThrownBy(() -> cacheConfiguration.jcacheConfiguration(CACHE_NAME)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void testCaffeineCache() {
+        ApplicationProperties.CacheRegion region = new ApplicationProperties.CacheRegion();
+        region.setMaxEntries(10L);
+        region.setTimeToLiveSeconds(60L);
+        region.setTimeToIdleSeconds(30L);
+        applicationProperties.getCache().getRegions().put(CACHE_NAME, region);
+        applicationProperties.getCache().setProvider(ApplicationProperties.Cache.Provider.CAFFEINE);
+        CacheConfiguration cacheConfiguration = new CacheConfiguration(jHipsterProperties, applicationProperties);
+
+        CacheManager caffeineCacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName()).getCacheManager();
+        try {
+            javax.cache.Cache<Object, Object> cache = caffeineCacheManager.createCache(
+                CACHE_NAME,
+                cacheConfiguration.jcacheConfiguration(CACHE_NAME)
+            );
+            @SuppressWarnings("unchecked")
+            CaffeineConfiguration<Object, Object> configuration = cache.getConfiguration(CaffeineConfiguration.class);
+            assertThat(configuration.isStoreByValue()).isFalse();
+            assertThat(configuration.getMaximumSize()).hasValue(10);
+            assertThat(configuration.getExpireAfterWrite()).hasValue(TimeUnit.SECONDS.toNanos(60));
+            assertThat(configuration.getExpireAfterAccess()).hasValue(TimeUnit.SECONDS.toNanos(30));
+
+            // Entries are stored by reference
+            Object value = new Object();
+            cache.put(1, value);
+            assertThat(cache.get(1)).isSameAs(value);
+        } finally {
+            caffeineCacheManager.destroyCache(CACHE_NAME);
+        }
+    }
+
+    @Test
+    void testCaffeineCacheHasNoTiers() {
+        ApplicationProperties.CacheRegion region = new ApplicationProperties.CacheRegion();
+        region.setOffHeapSizeMb(1L);
+        applicationProperties.getCache().getRegions().put(CACHE_NAME, region);
+        applicationProperties.getCache().setProvider(ApplicationProperties.Cache.Provider.CAFFEINE);
+
+        CacheConfiguration cacheConfiguration = new CacheConfiguration(jHipsterProperties, applicationProperties);
+        assertThatThrownBy(() -> cacheConfiguration.jcacheConfiguration(CACHE_NAME)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @SuppressWarnings("unchecked")
+    private CacheRuntimeConfiguration<Object, Object> createCache() {
+        CacheConfiguration cacheConfiguration = new CacheConfiguration(jHipsterProperties, applicationProperties);
+        javax.cache.Cache<Object, Object> cache = cacheManager.createCache(CACHE_NAME, cacheConfiguration.jcacheConfiguration(CACHE_NAME));
+        return ((org.ehcache.Cache<Object, Object>) cache.unwrap(org.ehcache.Cache.class)).getRuntimeConfiguration();
+    }
+}
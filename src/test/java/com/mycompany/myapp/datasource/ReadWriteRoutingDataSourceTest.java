@@ -0,0 +1,128 @@
+package com.mycompany.myapp.datasource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Test class for the {@link ReadWriteRoutingDataSource}, using two in-memory H2 databases as primary and replica.
+ */
+class ReadWriteRoutingDataSourceTest {
+
+    private DataSource primary;
+
+    private DataSource replica;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void setup() {
+        primary = createDatabase("primary");
+        replica = createDatabase("replica");
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void testReadOnlyTransactionUsesReplica() {
+        JdbcTemplate jdbcTemplate = createJdbcTemplate(routingDataSource(replica));
+        TransactionTemplate transactionTemplate = createTransactionTemplate(jdbcTemplate, true);
+
+        String name = transactionTemplate.execute(status -> jdbcTemplate.queryForObject("select name from marker", String.class));
+
+        assertThat(name).isEqualTo("replica");
+        assertThat(meterRegistry.get(ReadWriteRoutingDataSource.ROUTING_METRIC).tag("target", "replica-0").counter().count())
+            .isEqualTo(1);
+    }
+
+    @Test
+    void testReadWriteTransactionUsesPrimary() {
+        JdbcTemplate jdbcTemplate = createJdbcTemplate(routingDataSource(replica));
+        TransactionTemplate transactionTemplate = createTransactionTemplate(jdbcTemplate, false);
+
+        String name = transactionTemplate.execute(status -> jdbcTemplate.queryForObject("select name from marker", String.class));
+
+        assertThat(name).isEqualTo("primary");
+    }
+
+    @Test
+    void testReadOnlyTransactionReadingFromPrimaryUsesPrimary() {
+        JdbcTemplate jdbcTemplate = createJdbcTemplate(routingDataSource(replica));
+        TransactionTemplate transactionTemplate = createTransactionTemplate(jdbcTemplate, true);
+
+        String name = PrimaryReadContextHolder.readFromPrimary(() ->
+            transactionTemplate.execute(status -> jdbcTemplate.queryForObject("select name from marker", String.class))
+        );
+
+        assertThat(name).isEqualTo("primary");
+        assertThat(PrimaryReadContextHolder.isPrimaryRead()).isFalse();
+    }
+
+    @Test
+    void testReadOnlyTransactionFallsBackToPrimaryWhenReplicasAreDown() {
+        JdbcTemplate jdbcTemplate = createJdbcTemplate(routingDataSource(new UnavailableDataSource()));
+        TransactionTemplate transactionTemplate = createTransactionTemplate(jdbcTemplate, true);
+
+        String name = transactionTemplate.execute(status -> jdbcTemplate.queryForObject("select name from marker", String.class));
+
+        assertThat(name).isEqualTo("primary");
+        assertThat(
+            meterRegistry.get(ReadWriteRoutingDataSource.ROUTING_METRIC).tag("target", "primary").tag("outcome", "fallback").counter().count()
+        )
+            .isEqualTo(1);
+    }
+
+    private ReadWriteRoutingDataSource routingDataSource(DataSource replicaDataSource) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-0", replicaDataSource);
+        ReadWriteRoutingDataSource routingDataSource = new ReadWriteRoutingDataSource(primary, replicas, Duration.ofSeconds(30));
+        routingDataSource.bindTo(meterRegistry);
+        return routingDataSource;
+    }
+
+    private JdbcTemplate createJdbcTemplate(ReadWriteRoutingDataSource routingDataSource) {
+        return new JdbcTemplate(new LazyConnectionDataSourceProxy(routingDataSource));
+    }
+
+    private TransactionTemplate createTransactionTemplate(JdbcTemplate jdbcTemplate, boolean readOnly) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(jdbcTemplate.getDataSource()));
+        transactionTemplate.setReadOnly(readOnly);
+        return transactionTemplate;
+    }
+
+    private static DataSource createDatabase(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:routing-" + name + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table if not exists marker (name varchar(20))");
+        jdbcTemplate.execute("delete from marker");
+        jdbcTemplate.update("insert into marker (name) values (?)", name);
+        return dataSource;
+    }
+
+    private static class UnavailableDataSource extends AbstractDataSource {
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            throw new SQLException("Replica is down");
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            throw new SQLException("Replica is down");
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package com.mycompany.myapp.datasource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.BankAccount;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+
+/**
+ * Test class for the {@link ScatterGatherExecutor}, with three in-memory shards.
+ */
+class ScatterGatherExecutorTest {
+
+    private static final int SHARDS = 3;
+
+    private final List<List<BankAccount>> shards = new ArrayList<>();
+
+    private final AtomicInteger rowsRead = new AtomicInteger();
+
+    private ApplicationProperties applicationProperties;
+
+    private ScatterGatherExecutor scatterGatherExecutor;
+
+    @BeforeEach
+    public void setup() {
+        applicationProperties = new ApplicationProperties();
+        for (int shard = 1; shard < SHARDS; shard++) {
+            applicationProperties.getDatasource().getShards().add(new ApplicationProperties.Database());
+        }
+        applicationProperties.getDatasource().getScatterGather().setBufferSize(2);
+        applicationProperties.getDatasource().getScatterGather().setTimeoutMillis(2000);
+        for (int shard = 0; shard < SHARDS; shard++) {
+            shards.add(new ArrayList<>());
+        }
+        // 30 accounts spread round-robin, numbers sharing their first letter on every shard
+        for (int i = 0; i < 30; i++) {
+            int shard = i % SHARDS;
+            BankAccount bankAccount = new BankAccount().type(i % 2 == 0 ? "checking" : "savings").number("n" + (100 + i));
+            bankAccount.setId(ShardIds.encode(shard, i + 1L));
+            shards.get(shard).add(bankAccount);
+        }
+        scatterGatherExecutor = createExecutor();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        scatterGatherExecutor.destroy();
+    }
+
+    @Test
+    void testMergesShardsInSortOrder() {
+        Page<BankAccount> page = scatterGatherExecutor.findAll(
+            PageRequest.of(1, 7, Sort.by(Sort.Order.desc("type"), Sort.Order.asc("number"))),
+            this::query,
+            this::count
+        );
+
+        List<BankAccount> expected = shards
+            .stream()
+            .flatMap(List::stream)
+            .sorted(Comparator.comparing(BankAccount::getType).reversed().thenComparing(BankAccount::getNumber))
+            .skip(7)
+            .limit(7)
+            .collect(Collectors.toList());
+        assertThat(page.getContent()).containsExactlyElementsOf(expected);
+        assertThat(page.getTotalElements()).isEqualTo(30);
+        assertThat(page.getTotalPages()).isEqualTo(5);
+    }
+
+    @Test
+    void testBreaksTiesById() {
+        Page<BankAccount> page = scatterGatherExecutor.findAll(PageRequest.of(0, 30, Sort.by("type")), this::query, this::count);
+
+        List<BankAccount> expected = shards
+            .stream()
+            .flatMap(List::stream)
+            .sorted(Comparator.comparing(BankAccount::getType).thenComparing(BankAccount::getId))
+            .collect(Collectors.toList());
+        assertThat(page.getContent()).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void testReadsEachShardUpToTheEndOfThePage() {
+        scatterGatherExecutor.findAll(PageRequest.of(1, 3, Sort.by("number")), this::query, this::count);
+
+        assertThat(rowsRead.get()).isLessThanOrEqualTo(SHARDS * 6);
+    }
+
+    @Test
+    void testWalksSlicesAfterTheLastRow() {
+        List<BankAccount> content = new ArrayList<>();
+        Slice<BankAccount> slice;
+        do {
+            String last = content.isEmpty() ? null : content.get(content.size() - 1).getNumber();
+            slice =
+                scatterGatherExecutor.findSlice(
+                    PageRequest.of(0, 7, Sort.by(Sort.Direction.DESC, "number", "id")),
+                    pageable -> query(pageable, bankAccount -> last == null || bankAccount.getNumber().compareTo(last) < 0)
+                );
+            content.addAll(slice.getContent());
+        } while (slice.hasNext());
+
+        List<BankAccount> expected = shards
+            .stream()
+            .flatMap(List::stream)
+            .sorted(Comparator.comparing(BankAccount::getNumber).reversed())
+            .collect(Collectors.toList());
+        assertThat(content).containsExactlyElementsOf(expected);
+        assertThat(slice.getNumberOfElements()).isEqualTo(2);
+    }
+
+    @Test
+    void testFailsWhenAShardIsTooSlow() {
+        assertThatThrownBy(() ->
+                scatterGatherExecutor.findAll(
+                    PageRequest.of(0, 5, Sort.by("number")),
+                    pageable -> {
+                        if (ShardContextHolder.getShard() == 2) {
+                            sleep(5000);
+                        }
+                        return query(pageable);
+                    },
+                    this::count
+                )
+            )
+            .isInstanceOf(ShardTimeoutException.class)
+            .satisfies(e -> assertThat(((ShardTimeoutException) e).getShard()).isEqualTo(2));
+    }
+
+    @Test
+    void testConcurrentQueriesDoNotStarveEachOther() throws Exception {
+        // Just enough threads for one query at a time, each shard blocking on its buffer of 2 rows
+        applicationProperties.getDatasource().getScatterGather().setPoolSize(2 * SHARDS);
+        scatterGatherExecutor.destroy();
+        scatterGatherExecutor = createExecutor();
+        Pageable pageable = PageRequest.of(0, 30, Sort.by("number"));
+        ExecutorService clients = Executors.newFixedThreadPool(32);
+        try {
+            List<Future<Page<BankAccount>>> pages = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                pages.add(clients.submit(() -> scatterGatherExecutor.findAll(pageable, this::query, this::count)));
+            }
+
+            for (Future<Page<BankAccount>> page : pages) {
+                assertThat(page.get(30, TimeUnit.SECONDS).getContent()).hasSize(30);
+            }
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+
+    @Test
+    void testRejectsAQueryLargerThanThePool() {
+        applicationProperties.getDatasource().getScatterGather().setPoolSize(SHARDS);
+        scatterGatherExecutor.destroy();
+        scatterGatherExecutor = createExecutor();
+
+        assertThatThrownBy(() -> scatterGatherExecutor.findAll(PageRequest.of(0, 5, Sort.by("number")), this::query, this::count))
+            .isInstanceOf(TaskRejectedException.class);
+        assertThat(scatterGatherExecutor.findSlice(PageRequest.of(0, 5, Sort.by("number")), this::query).getContent()).hasSize(5);
+    }
+
+    @Test
+    void testQueriesInPlaceWithoutSharding() {
+        applicationProperties.getDatasource().getShards().clear();
+        scatterGatherExecutor.destroy();
+        scatterGatherExecutor = createExecutor();
+
+        Page<BankAccount> page = scatterGatherExecutor.findAll(PageRequest.of(0, 5, Sort.by("number")), this::query, this::count);
+
+        assertThat(page.getContent()).hasSize(5).allMatch(bankAccount -> ShardIds.shardOf(bankAccount.getId()) == 0);
+        assertThat(page.getTotalElements()).isEqualTo(10);
+    }
+
+    private ScatterGatherExecutor createExecutor() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:scatter-gather;DB_CLOSE_DELAY=-1");
+        ShardRouter shardRouter = new ShardRouter(applicationProperties, new DataSourceTransactionManager(dataSource));
+        return new ScatterGatherExecutor(shardRouter, applicationProperties);
+    }
+
+    /**
+     * The rows of the current shard, sorted and limited the way the database would.
+     */
+    private Stream<BankAccount> query(Pageable pageable) {
+        return query(pageable, bankAccount -> true);
+    }
+
+    /**
+     * The rows of the current shard matching a filter, sorted and limited the way the database would.
+     */
+    private Stream<BankAccount> query(Pageable pageable, Predicate<BankAccount> filter) {
+        Comparator<BankAccount> comparator = null;
+        for (Sort.Order order : pageable.getSort()) {
+            Comparator<BankAccount> next = Comparator.comparing(
+                bankAccount -> String.valueOf(new BeanWrapperImpl(bankAccount).getPropertyValue(order.getProperty()))
+            );
+            if ("id".equals(order.getProperty())) {
+                next = Comparator.comparing(BankAccount::getId);
+            }
+            next = order.isAscending() ? next : next.reversed();
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+        return shards
+            .get(ShardContextHolder.getShard())
+            .stream()
+            .filter(filter)
+            .sorted(comparator)
+            .skip(pageable.getOffset())
+            .limit(pageable.getPageSize())
+            .peek(bankAccount -> rowsRead.incrementAndGet());
+    }
+
+    private Long count() {
+        return (long) shards.get(ShardContextHolder.getShard()).size();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.mycompany.myapp.datasource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Test class for the {@link ShardRouter} and the {@link ShardIds} encoding.
+ */
+class ShardRouterTest {
+
+    private ShardRouter shardRouter;
+
+    @BeforeEach
+    public void setup() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        for (int i = 0; i < 3; i++) {
+            applicationProperties.getDatasource().getShards().add(new ApplicationProperties.Database());
+        }
+        shardRouter = new ShardRouter(applicationProperties, mock(PlatformTransactionManager.class));
+    }
+
+    @Test
+    void testShardIsEncodedInId() {
+        long id = ShardIds.encode(3, 42L);
+
+        assertThat(ShardIds.shardOf(id)).isEqualTo(3);
+        assertThat(shardRouter.shardOf(id)).isEqualTo(3);
+        assertThat(id).isLessThan(1L << 53);
+    }
+
+    @Test
+    void testPrimaryDatabaseIdsAreUnchanged() {
+        assertThat(ShardIds.encode(0, 42L)).isEqualTo(42L);
+        assertThat(shardRouter.shardOf(42L)).isZero();
+    }
+
+    @Test
+    void testUnknownShardIsLookedUpOnPrimaryDatabase() {
+        assertThat(shardRouter.shardOf(ShardIds.encode(10, 42L))).isZero();
+    }
+
+    @Test
+    void testLocalIdOutOfRange() {
+        assertThatThrownBy(() -> ShardIds.encode(1, 1L << ShardIds.LOCAL_ID_BITS)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void testShardKeysAreSpreadOverAllShards() {
+        Set<Integer> shards = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            int shard = shardRouter.shardFor("FR76300060000112345678901" + i);
+            assertThat(shard).isBetween(0, 3);
+            assertThat(shardRouter.shardFor("FR76300060000112345678901" + i)).isEqualTo(shard);
+            shards.add(shard);
+        }
+        assertThat(shards).hasSize(4);
+    }
+
+    @Test
+    void testExecuteBindsShard() {
+        int shard = shardRouter.execute(2, ShardContextHolder::getShard);
+
+        assertThat(shard).isEqualTo(2);
+        assertThat(ShardContextHolder.getBoundShard()).isNull();
+    }
+}
@@ -0,0 +1,186 @@
+package com.mycompany.myapp.datasource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.domain.Authority;
+import com.mycompany.myapp.repository.AuthorityRepository;
+import com.mycompany.myapp.repository.UserRepository;
+import com.mycompany.myapp.security.jwt.JWTFilter;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests of the database per tenant, each tenant database holding the authorities table only.
+ */
+@IntegrationTest
+@TestPropertySource(
+    properties = {
+        "application.datasource.tenancy.url-template=jdbc:h2:mem:tenant_{tenant};DB_CLOSE_DELAY=-1;" +
+        "INIT=create table if not exists jhi_authority(name varchar(50) primary key)",
+        "application.datasource.tenancy.tenants=acme,globex",
+    }
+)
+@AutoConfigureMockMvc
+class TenancyIT {
+
+    private static final String ACME = "acme";
+
+    private static final String GLOBEX = "globex";
+
+    private static final String BANK_ACCOUNT_TABLE =
+        "create table if not exists bank_account(id bigint primary key, type varchar(255), number varchar(255))";
+
+    private static final String INSERT_BANK_ACCOUNT = "insert into bank_account(id, type, number) values (1, 'checking', ?)";
+
+    @Autowired
+    private AuthorityRepository authorityRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private TenantDataSources tenantDataSources;
+
+    @Autowired
+    private MockMvc restMockMvc;
+
+    @AfterEach
+    void tearDown() {
+        inTenant(ACME, this::deleteAll);
+        inTenant(GLOBEX, this::deleteAll);
+        new JdbcTemplate(tenantDataSources.getDataSource(ACME)).execute("drop table if exists bank_account");
+        inTransaction(dataSource, jdbcTemplate -> jdbcTemplate.update("delete from bank_account"));
+    }
+
+    @Test
+    void testDataOfEachTenantStaysInItsDatabase() {
+        inTenant(ACME, () -> save("ROLE_ACME"));
+        inTenant(GLOBEX, () -> save("ROLE_GLOBEX"));
+
+        assertThat(inTenant(ACME, this::names)).containsExactly("ROLE_ACME");
+        assertThat(inTenant(GLOBEX, this::names)).containsExactly("ROLE_GLOBEX");
+        assertThat(names()).doesNotContain("ROLE_ACME", "ROLE_GLOBEX").contains("ROLE_ADMIN", "ROLE_USER");
+    }
+
+    @Test
+    void testCacheOfEachTenantIsClearedAlone() {
+        inTenant(ACME, () -> cache().put("key", ACME));
+        inTenant(GLOBEX, () -> cache().put("key", GLOBEX));
+        cache().put("key", TenantContextHolder.DEFAULT_TENANT);
+
+        inTenant(ACME, () -> cache().clear());
+
+        assertThat(inTenant(ACME, () -> cache().get("key"))).isNull();
+        assertThat(inTenant(GLOBEX, () -> cache().get("key", String.class))).isEqualTo(GLOBEX);
+        assertThat(cache().get("key", String.class)).isEqualTo(TenantContextHolder.DEFAULT_TENANT);
+
+        cache().clear();
+
+        assertThat(cache().get("key")).isNull();
+        assertThat(inTenant(GLOBEX, () -> cache().get("key", String.class))).isEqualTo(GLOBEX);
+        inTenant(GLOBEX, () -> cache().clear());
+    }
+
+    @Test
+    @WithMockUser
+    void testExportStreamsTheRowsOfTheTenantOnly() throws Exception {
+        DataSource acmeDataSource = tenantDataSources.getDataSource(ACME);
+        new JdbcTemplate(acmeDataSource).execute(BANK_ACCOUNT_TABLE);
+        inTransaction(acmeDataSource, jdbcTemplate -> jdbcTemplate.update(INSERT_BANK_ACCOUNT, "ACME76"));
+        inTransaction(dataSource, jdbcTemplate -> jdbcTemplate.update(INSERT_BANK_ACCOUNT, "DEFAULT76"));
+
+        MvcResult export = restMockMvc
+            .perform(get("/api/bank-accounts/export").header(JWTFilter.TENANT_HEADER, ACME))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        restMockMvc
+            .perform(asyncDispatch(export))
+            .andExpect(status().isOk())
+            .andExpect(content().string(containsString("ACME76")))
+            .andExpect(content().string(not(containsString("DEFAULT76"))));
+    }
+
+    @Test
+    void testUnknownTenantIsRejectedWithoutPool() throws Exception {
+        int pools = tenantDataSources.size();
+
+        restMockMvc.perform(get("/api/account").header(JWTFilter.TENANT_HEADER, "umbrella")).andExpect(status().isBadRequest());
+
+        assertThat(tenantDataSources.size()).isEqualTo(pools);
+    }
+
+    private static void inTransaction(DataSource dataSource, Consumer<JdbcTemplate> task) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        new TransactionTemplate(new DataSourceTransactionManager(dataSource)).executeWithoutResult(status -> task.accept(jdbcTemplate));
+    }
+
+    private Cache cache() {
+        return cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE);
+    }
+
+    private Authority save(String name) {
+        Authority authority = new Authority();
+        authority.setName(name);
+        return new TransactionTemplate(transactionManager).execute(status -> authorityRepository.save(authority));
+    }
+
+    private List<String> names() {
+        return new TransactionTemplate(transactionManager)
+            .execute(status -> authorityRepository.findAll().stream().map(Authority::getName).collect(Collectors.toList()));
+    }
+
+    private void deleteAll() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> authorityRepository.deleteAll());
+    }
+
+    private static <T> T inTenant(String tenant, Supplier<T> task) {
+        TenantContextHolder.setTenant(tenant);
+        try {
+            return task.get();
+        } finally {
+            TenantContextHolder.setTenant(null);
+        }
+    }
+
+    private static void inTenant(String tenant, Runnable task) {
+        inTenant(
+            tenant,
+            () -> {
+                task.run();
+                return null;
+            }
+        );
+    }
+}
@@ -0,0 +1,102 @@
+package com.mycompany.myapp.datasource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import java.sql.Connection;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+/**
+ * Test class for the {@link TenantDataSources}, using an in-memory H2 database per tenant.
+ */
+class TenantDataSourcesTest {
+
+    private TenantDataSources tenantDataSources;
+
+    @BeforeEach
+    public void setup() {
+        ApplicationProperties.Tenancy tenancy = new ApplicationProperties.Tenancy();
+        tenancy.setUrlTemplate("jdbc:h2:mem:tenant_{tenant};DB_CLOSE_DELAY=-1");
+        tenancy.setTenants(new LinkedHashSet<>(Arrays.asList("acme", "globex", "initech")));
+        tenancy.setMaxPools(2);
+        HikariConfig template = new HikariConfig();
+        template.setPoolName("test");
+        tenantDataSources = new TenantDataSources(template, tenancy, null);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        tenantDataSources.close();
+    }
+
+    @Test
+    void testCreatesOnePoolPerTenantOnFirstUse() {
+        DataSource acme = tenantDataSources.getDataSource("acme");
+
+        assertThat(tenantDataSources.getDataSource("acme")).isSameAs(acme);
+        assertThat(new JdbcTemplate(acme).queryForObject("select database()", String.class)).isEqualToIgnoringCase("tenant_acme");
+        assertThat(((HikariDataSource) acme).getPoolName()).isEqualTo("test-tenant-acme");
+        assertThat(tenantDataSources.size()).isEqualTo(1);
+    }
+
+    @Test
+    void testEvictsLeastRecentlyUsedPool() {
+        HikariDataSource acme = (HikariDataSource) tenantDataSources.getDataSource("acme");
+        HikariDataSource globex = (HikariDataSource) tenantDataSources.getDataSource("globex");
+        tenantDataSources.getDataSource("acme");
+
+        tenantDataSources.getDataSource("initech");
+
+        assertThat(tenantDataSources.size()).isEqualTo(2);
+        assertThat(globex.isClosed()).isTrue();
+        assertThat(acme.isClosed()).isFalse();
+    }
+
+    @Test
+    void testKeepsPoolsWithActiveConnections() throws Exception {
+        HikariDataSource acme = (HikariDataSource) tenantDataSources.getDataSource("acme");
+        HikariDataSource globex = (HikariDataSource) tenantDataSources.getDataSource("globex");
+        try (Connection connection = acme.getConnection()) {
+            tenantDataSources.getDataSource("initech");
+
+            assertThat(acme.isClosed()).isFalse();
+            assertThat(globex.isClosed()).isTrue();
+        }
+    }
+
+    @Test
+    void testBorrowsFromTheNextPoolOfARetiredTenant() throws Exception {
+        HikariDataSource acme = (HikariDataSource) tenantDataSources.getDataSource("acme");
+        tenantDataSources.getDataSource("globex");
+        tenantDataSources.getDataSource("initech");
+        assertThat(acme.isClosed()).isTrue();
+
+        try (Connection connection = tenantDataSources.getConnection("acme")) {
+            assertThat(new JdbcTemplate(new SingleConnectionDataSource(connection, true)).queryForObject("select database()", String.class))
+                .isEqualToIgnoringCase("tenant_acme");
+        }
+        assertThat(tenantDataSources.getDataSource("acme")).isNotSameAs(acme);
+    }
+
+    @Test
+    void testRejectsInvalidTenant() {
+        assertThatThrownBy(() -> tenantDataSources.getDataSource("acme;DROP")).isInstanceOf(IllegalArgumentException.class);
+        assertThat(tenantDataSources.size()).isZero();
+    }
+
+    @Test
+    void testRejectsUnknownTenant() {
+        assertThatThrownBy(() -> tenantDataSources.getDataSource("umbrella")).isInstanceOf(IllegalArgumentException.class);
+        assertThat(tenantDataSources.size()).isZero();
+    }
+}
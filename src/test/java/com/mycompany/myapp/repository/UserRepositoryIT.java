@@ -0,0 +1,152 @@
+package com.mycompany.myapp.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.domain.User;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Collectors;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Integration tests for the query plans of the {@link UserRepository} lookups, each seeking an index.
+ */
+@IntegrationTest
+@TestPropertySource(
+    properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.mycompany.myapp.repository.UserRepositoryIT$RecordingStatementInspector"
+)
+class UserRepositoryIT {
+
+    private static final String EMAIL_INDEX = "UX_USER_EMAIL";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCache(UserRepository.USERS_BY_EMAIL_CACHE).clear();
+        RecordingStatementInspector.STATEMENTS.clear();
+    }
+
+    @Test
+    void testFindOneByEmailIgnoreCaseSeeksTheEmailIndex() {
+        assertThat(userRepository.findOneByEmailIgnoreCase("Admin@Localhost")).get().extracting(User::getLogin).isEqualTo("admin");
+
+        assertThat(explain(lastUserQuery(), "Admin@Localhost")).containsIgnoringCase(EMAIL_INDEX);
+    }
+
+    @Test
+    void testFindOneWithAuthoritiesByEmailIgnoreCaseSeeksTheEmailIndex() {
+        assertThat(userRepository.findOneWithAuthoritiesByEmailIgnoreCase("admin@localhost"))
+            .get()
+            .extracting(User::getLogin)
+            .isEqualTo("admin");
+
+        assertThat(explain(lastUserQuery(), "admin@localhost")).containsIgnoringCase(EMAIL_INDEX);
+    }
+
+    @Test
+    void testFindOneByActivationKeySeeksTheActivationKeyIndex() {
+        assertThat(userRepository.findOneByActivationKey("key")).isEmpty();
+
+        assertThat(explain(lastUserQuery(), User.digestKey("key"))).containsIgnoringCase("IDX_USER_ACTIVATION_KEY");
+    }
+
+    @Test
+    void testFindOneByResetKeySeeksTheResetKeyIndex() {
+        assertThat(userRepository.findOneByResetKey("key")).isEmpty();
+
+        assertThat(explain(lastUserQuery(), User.digestKey("key"))).containsIgnoringCase("IDX_USER_RESET_KEY");
+    }
+
+    @Test
+    void testNotActivatedUsersAreReadOnTheActivatedIndex() {
+        Instant createdBefore = Instant.now().minus(3, ChronoUnit.DAYS);
+        assertThat(
+            userRepository.findAllByActivatedIsFalseAndActivationKeyIsNotNullAndCreatedDateBefore(createdBefore, PageRequest.of(0, 10))
+        )
+            .isEmpty();
+
+        String plan = jdbcTemplate.query(
+            "explain " + lastUserQuery(),
+            statement -> {
+                statement.setTimestamp(1, Timestamp.from(createdBefore));
+                statement.setInt(2, 10);
+            },
+            UserRepositoryIT::plan
+        );
+        assertThat(plan).containsIgnoringCase("IDX_USER_ACTIVATED_CREATED_DATE");
+    }
+
+    @Test
+    void testUppercasedEmailScansTheUsers() {
+        String plan = explain("select id from jhi_user where upper(email) = upper(?)", "admin@localhost");
+
+        assertThat(plan).doesNotContainIgnoringCase(EMAIL_INDEX).containsIgnoringCase("tableScan");
+    }
+
+    @Test
+    void testEmailIsSavedLowercased() {
+        User user = new User();
+        user.setEmail("John.Doe@Example.com");
+
+        assertThat(user.getEmail()).isEqualTo("john.doe@example.com");
+    }
+
+    private String lastUserQuery() {
+        List<String> userQueries = RecordingStatementInspector.STATEMENTS
+            .stream()
+            .filter(sql -> sql.contains("jhi_user"))
+            .collect(Collectors.toList());
+        assertThat(userQueries).isNotEmpty();
+        return userQueries.get(userQueries.size() - 1);
+    }
+
+    private String explain(String sql, String parameter) {
+        return jdbcTemplate.query("explain " + sql, statement -> statement.setString(1, parameter), UserRepositoryIT::plan);
+    }
+
+    private static String plan(ResultSet resultSet) throws SQLException {
+        StringBuilder plan = new StringBuilder();
+        while (resultSet.next()) {
+            plan.append(resultSet.getString(1));
+        }
+        return plan.toString();
+    }
+
+    /**
+     * Records the SQL run by Hibernate, to get the plan of the queries generated for the repository.
+     */
+    public static class RecordingStatementInspector implements StatementInspector {
+
+        private static final long serialVersionUID = 1L;
+
+        static final Queue<String> STATEMENTS = new ConcurrentLinkedQueue<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.mycompany.myapp.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.domain.Authority;
+import com.mycompany.myapp.repository.AuthorityRepository;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.GrantedAuthority;
+
+/**
+ * Integration tests for {@link AuthorityRegistry}.
+ */
+@IntegrationTest
+class AuthorityRegistryIT {
+
+    private static final String NEW_AUTHORITY = "ROLE_REGISTRY_TEST";
+
+    @Autowired
+    private AuthorityRegistry authorityRegistry;
+
+    @Autowired
+    private AuthorityRepository authorityRepository;
+
+    @AfterEach
+    void tearDown() {
+        if (authorityRepository.existsById(NEW_AUTHORITY)) {
+            authorityRepository.deleteById(NEW_AUTHORITY);
+        }
+    }
+
+    @Test
+    void testFindKnownAuthorities() {
+        assertThat(authorityRegistry.find(AuthoritiesConstants.ADMIN)).get().extracting(Authority::getName).isEqualTo("ROLE_ADMIN");
+        assertThat(authorityRegistry.find("ROLE_UNKNOWN")).isEmpty();
+        assertThat(authorityRegistry.findAll(Arrays.asList(AuthoritiesConstants.USER, "ROLE_UNKNOWN")))
+            .extracting(Authority::getName)
+            .containsExactly(AuthoritiesConstants.USER);
+    }
+
+    @Test
+    void testNamesAreSorted() {
+        assertThat(authorityRegistry.getNames()).contains(AuthoritiesConstants.ADMIN, AuthoritiesConstants.USER).isSorted();
+    }
+
+    @Test
+    void testAuthoritiesAreSharedUntilChanged() {
+        Authority admin = authorityRegistry.find(AuthoritiesConstants.ADMIN).get();
+        List<GrantedAuthority> granted = authorityRegistry.grantedAuthorities(Arrays.asList(admin));
+
+        assertThat(authorityRegistry.find(AuthoritiesConstants.ADMIN)).get().isSameAs(admin);
+        assertThat(authorityRegistry.grantedAuthorities(Arrays.asList(admin)).get(0)).isSameAs(granted.get(0));
+
+        Authority authority = new Authority();
+        authority.setName(NEW_AUTHORITY);
+        authorityRepository.saveAndFlush(authority);
+
+        assertThat(authorityRegistry.find(NEW_AUTHORITY)).isPresent();
+        assertThat(authorityRegistry.find(AuthoritiesConstants.ADMIN)).get().isNotSameAs(admin);
+    }
+}
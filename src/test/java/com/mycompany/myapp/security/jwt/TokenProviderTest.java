@@ -2,10 +2,13 @@ package com.mycompany.myapp.security.jwt;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.datasource.TenantContextHolder;
 import com.mycompany.myapp.security.AuthoritiesConstants;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.io.Encoders;
 import io.jsonwebtoken.security.Keys;
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
@@ -31,7 +34,7 @@ class TokenProviderTest {
         JHipsterProperties jHipsterProperties = new JHipsterProperties();
         String base64Secret = "fd54a45s65fds737b9aafcb3412e07ed99b267f33413274720ddbb7f6c5e64e9f14075f2d7ed041592f0b7657baf8";
         jHipsterProperties.getSecurity().getAuthentication().getJwt().setBase64Secret(base64Secret);
-        tokenProvider = new TokenProvider(jHipsterProperties);
+        tokenProvider = new TokenProvider(jHipsterProperties, new ApplicationProperties());
         key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(base64Secret));
 
         ReflectionTestUtils.setField(tokenProvider, "key", key);
@@ -89,7 +92,7 @@ class TokenProviderTest {
         JHipsterProperties jHipsterProperties = new JHipsterProperties();
         jHipsterProperties.getSecurity().getAuthentication().getJwt().setSecret(secret);
 
-        TokenProvider tokenProvider = new TokenProvider(jHipsterProperties);
+        TokenProvider tokenProvider = new TokenProvider(jHipsterProperties, new ApplicationProperties());
 
         Key key = (Key) ReflectionTestUtils.getField(tokenProvider, "key");
         assertThat(key).isNotNull().isEqualTo(Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)));
@@ -101,12 +104,86 @@ class TokenProviderTest {
         JHipsterProperties jHipsterProperties = new JHipsterProperties();
         jHipsterProperties.getSecurity().getAuthentication().getJwt().setBase64Secret(base64Secret);
 
-        TokenProvider tokenProvider = new TokenProvider(jHipsterProperties);
+        TokenProvider tokenProvider = new TokenProvider(jHipsterProperties, new ApplicationProperties());
 
         Key key = (Key) ReflectionTestUtils.getField(tokenProvider, "key");
         assertThat(key).isNotNull().isEqualTo(Keys.hmacShaKeyFor(Decoders.BASE64.decode(base64Secret)));
     }
 
+    @Test
+    void testTokenCarriesTheTenant() {
+        JHipsterProperties jHipsterProperties = new JHipsterProperties();
+        jHipsterProperties.getSecurity().getAuthentication().getJwt().setBase64Secret(Encoders.BASE64.encode(key.getEncoded()));
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getDatasource().getTenancy().setUrlTemplate("jdbc:h2:mem:{tenant}");
+        TokenProvider tokenProvider = new TokenProvider(jHipsterProperties, applicationProperties);
+
+        TenantContextHolder.setTenant("acme");
+        String token;
+        try {
+            token = tokenProvider.createToken(createAuthentication(), false);
+        } finally {
+            TenantContextHolder.setTenant(null);
+        }
+
+        assertThat(tokenProvider.getAuthentication(token).getDetails()).isEqualTo("acme");
+        assertThat(tokenProvider.getAuthentication(tokenProvider.createToken(createAuthentication(), false)).getDetails()).isNull();
+    }
+
+    @Test
+    void testAuthenticateKeepsTheVerifiedToken() {
+        String token = tokenProvider.createToken(createAuthentication(), false);
+
+        Authentication first = tokenProvider.authenticate(token);
+        Authentication second = tokenProvider.authenticate(token);
+
+        assertThat(first).isNotSameAs(second);
+        assertThat(first.getCredentials()).isEqualTo(token);
+        assertThat(second.getPrincipal()).isSameAs(first.getPrincipal());
+        assertThat(first.getName()).isEqualTo("anonymous");
+    }
+
+    @Test
+    void testAuthoritiesAreSharedByTheTokens() {
+        ReflectionTestUtils.setField(tokenProvider, "tokenValidityInMillisecondsForRememberMe", ONE_MINUTE);
+        Authentication first = tokenProvider.authenticate(tokenProvider.createToken(createAuthentication(), false));
+        Authentication second = tokenProvider.authenticate(tokenProvider.createToken(createAuthentication(), true));
+
+        assertThat(second.getAuthorities().iterator().next()).isSameAs(first.getAuthorities().iterator().next());
+    }
+
+    @Test
+    void testAuthenticateReturnsNullWhenJWTisInvalid() {
+        String token = tokenProvider.createToken(createAuthentication(), false);
+
+        assertThat(tokenProvider.authenticate(token.substring(1))).isNull();
+        assertThat(tokenProvider.authenticate(createTokenWithDifferentSignature())).isNull();
+    }
+
+    @Test
+    void testAuthenticateReturnsNullOnceTheVerifiedTokenIsExpired() throws InterruptedException {
+        ReflectionTestUtils.setField(tokenProvider, "tokenValidityInMilliseconds", 1000);
+        String token = tokenProvider.createToken(createAuthentication(), false);
+        assertThat(tokenProvider.authenticate(token)).isNotNull();
+
+        Thread.sleep(1100);
+
+        assertThat(tokenProvider.authenticate(token)).isNull();
+    }
+
+    @Test
+    void testAuthenticateWithoutTokenCache() {
+        JHipsterProperties jHipsterProperties = new JHipsterProperties();
+        jHipsterProperties.getSecurity().getAuthentication().getJwt().setBase64Secret(Encoders.BASE64.encode(key.getEncoded()));
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getSecurity().setTokenCacheSize(0);
+        TokenProvider tokenProvider = new TokenProvider(jHipsterProperties, applicationProperties);
+        String token = tokenProvider.createToken(createAuthentication(), false);
+
+        assertThat(tokenProvider.authenticate(token).getName()).isEqualTo("anonymous");
+        assertThat(tokenProvider.authenticate(token.substring(1))).isNull();
+    }
+
     private Authentication createAuthentication() {
         Collection<GrantedAuthority> authorities = new ArrayList<>();
         authorities.add(new SimpleGrantedAuthority(AuthoritiesConstants.ANONYMOUS));
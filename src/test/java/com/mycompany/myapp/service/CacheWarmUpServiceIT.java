@@ -0,0 +1,212 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.BankAccount;
+import com.mycompany.myapp.domain.User;
+import com.mycompany.myapp.repository.BankAccountRepository;
+import com.mycompany.myapp.repository.UserRepository;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import javax.persistence.EntityManagerFactory;
+import org.ehcache.config.CacheRuntimeConfiguration;
+import org.ehcache.config.ResourcePools;
+import org.ehcache.config.ResourceType;
+import org.ehcache.config.SizedResourcePool;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for {@link CacheWarmUpService}.
+ */
+@IntegrationTest
+@TestPropertySource(
+    properties = {
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+        "application.cache.regions.[com.mycompany.myapp.domain.BankAccount].max-entries=1",
+        "application.cache.regions.[com.mycompany.myapp.domain.BankAccount].time-to-live-seconds=3600",
+        "application.cache.regions.[com.mycompany.myapp.domain.BankAccount].refresh-ahead-ratio=0.0001",
+        // The tests refresh ahead themselves, the scheduled refresh would race with them
+        "application.cache.warm-up.refresh-interval-millis=3600000",
+    }
+)
+class CacheWarmUpServiceIT {
+
+    private static final String BANK_ACCOUNT_CACHE = BankAccount.class.getName();
+
+    @TempDir
+    Path snapshotDirectory;
+
+    @Autowired
+    private CacheWarmUpService cacheWarmUpService;
+
+    @Autowired
+    private BankAccountRepository bankAccountRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private javax.cache.CacheManager jCacheManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    private Cache usersByLogin;
+
+    private BankAccount bankAccount;
+
+    private ResourcePools bankAccountResourcePools;
+
+    @BeforeEach
+    void setUp() {
+        // The cache manager is shared by the contexts of the tests, the region keeps the size set by the first context
+        CacheRuntimeConfiguration<Object, Object> bankAccountCache = bankAccountCacheConfiguration();
+        bankAccountResourcePools = bankAccountCache.getResourcePools();
+        bankAccountCache.updateResourcePools(
+            ResourcePoolsBuilder.newResourcePoolsBuilder(bankAccountResourcePools).withReplacing(heap(1)).build()
+        );
+        usersByLogin = cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE);
+        bankAccount = bankAccountRepository.saveAndFlush(new BankAccount().type("checking").number("FR76"));
+        bankAccountRepository.findById(bankAccount.getId());
+        userRepository.findOneWithAuthoritiesByLogin("admin");
+    }
+
+    @AfterEach
+    void tearDown() {
+        applicationProperties.getCache().getWarmUp().setSnapshotFile(null);
+        bankAccountRepository.deleteAll();
+        clearCaches();
+        bankAccountCacheConfiguration().updateResourcePools(bankAccountResourcePools);
+    }
+
+    @Test
+    void testSnapshotHasTheKeysOfTheCachedEntries() {
+        Map<String, List<Object>> snapshot = cacheWarmUpService.snapshot();
+
+        assertThat(snapshot.get(BANK_ACCOUNT_CACHE)).contains(bankAccount.getId());
+        assertThat(snapshot.get(UserRepository.USERS_BY_LOGIN_CACHE)).containsExactly("admin");
+    }
+
+    @Test
+    void testWarmUp() {
+        Map<String, List<Object>> snapshot = cacheWarmUpService.snapshot();
+        clearCaches();
+
+        int loaded = cacheWarmUpService.warmUp(snapshot, Instant.now().plusSeconds(60));
+
+        assertThat(loaded).isEqualTo(snapshot.values().stream().mapToInt(List::size).sum());
+        assertThat(entityManagerFactory.getCache().contains(BankAccount.class, bankAccount.getId())).isTrue();
+        User admin = usersByLogin.get("admin", User.class);
+        assertThat(admin).isNotNull();
+        assertThat(admin.getAuthorities()).isNotEmpty();
+    }
+
+    @Test
+    void testWarmUpStopsAtTheDeadline() {
+        Map<String, List<Object>> snapshot = cacheWarmUpService.snapshot();
+        clearCaches();
+
+        assertThat(cacheWarmUpService.warmUp(snapshot, Instant.now().minusSeconds(1))).isZero();
+        assertThat(entityManagerFactory.getCache().contains(BankAccount.class, bankAccount.getId())).isFalse();
+    }
+
+    @Test
+    void testWarmUpFromTheSnapshotSavedAtShutdown() {
+        Path snapshotFile = snapshotDirectory.resolve("cache-snapshot.json");
+        applicationProperties.getCache().getWarmUp().setSnapshotFile(snapshotFile.toString());
+        cacheWarmUpService.saveSnapshot();
+        assertThat(Files.exists(snapshotFile)).isTrue();
+        clearCaches();
+
+        cacheWarmUpService.run(null);
+
+        assertThat(entityManagerFactory.getCache().contains(BankAccount.class, bankAccount.getId())).isTrue();
+        assertThat(usersByLogin.get("admin")).isNotNull();
+    }
+
+    @Test
+    void testUnknownCacheIsSkipped() {
+        clearCaches();
+
+        int loaded = cacheWarmUpService.warmUp(
+            Collections.singletonMap("unknownCache", Collections.singletonList("key")),
+            Instant.now().plusSeconds(60)
+        );
+
+        assertThat(loaded).isZero();
+    }
+
+    @Test
+    void testRefreshAhead() throws InterruptedException {
+        // Changed behind the back of Hibernate, the cached entry is stale
+        new TransactionTemplate(transactionManager)
+            .executeWithoutResult(status ->
+                jdbcTemplate.update("update bank_account set number = ? where id = ?", "FR77", bankAccount.getId())
+            );
+
+        // Past 0.01% of the time to live of one hour, the entry is due for a refresh
+        Thread.sleep(1000);
+        cacheWarmUpService.refreshAhead();
+
+        assertThat(entityManagerFactory.getCache().contains(BankAccount.class, bankAccount.getId())).isTrue();
+        assertThat(bankAccountRepository.findById(bankAccount.getId())).get().extracting(BankAccount::getNumber).isEqualTo("FR77");
+    }
+
+    @Test
+    void testEvictedEntryIsNotRefreshed() throws InterruptedException {
+        Thread.sleep(1000);
+        // Evicts the least recently used entry of the cache, due for a refresh, without notifying the listeners
+        BankAccount other = bankAccountRepository.saveAndFlush(new BankAccount().type("savings").number("FR78"));
+        bankAccountRepository.findById(other.getId());
+        assertThat(entityManagerFactory.getCache().contains(BankAccount.class, bankAccount.getId())).isFalse();
+
+        cacheWarmUpService.refreshAhead();
+
+        assertThat(entityManagerFactory.getCache().contains(BankAccount.class, bankAccount.getId())).isFalse();
+        assertThat(entityManagerFactory.getCache().contains(BankAccount.class, other.getId())).isTrue();
+    }
+
+    @SuppressWarnings("unchecked")
+    private CacheRuntimeConfiguration<Object, Object> bankAccountCacheConfiguration() {
+        return ((org.ehcache.Cache<Object, Object>) jCacheManager.getCache(BANK_ACCOUNT_CACHE).unwrap(org.ehcache.Cache.class))
+            .getRuntimeConfiguration();
+    }
+
+    private static SizedResourcePool heap(long entries) {
+        return ResourcePoolsBuilder.heap(entries).build().getPoolForResource(ResourceType.Core.HEAP);
+    }
+
+    private void clearCaches() {
+        entityManagerFactory.getCache().evictAll();
+        usersByLogin.clear();
+    }
+}
@@ -0,0 +1,64 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.mycompany.myapp.domain.BankAccount;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Test class for the {@link KeysetCursor}.
+ */
+class KeysetCursorTest {
+
+    @Test
+    void testFirstCursorDefaultsToId() {
+        KeysetCursor cursor = KeysetCursor.first(Sort.unsorted());
+
+        assertThat(cursor.isFirst()).isTrue();
+        assertThat(cursor.isById()).isTrue();
+        assertThat(cursor.toPageable(20).getSort()).isEqualTo(Sort.by("id"));
+    }
+
+    @Test
+    void testCursorSurvivesItsToken() {
+        BankAccount bankAccount = new BankAccount().type("checking").number("FR76 3000 €");
+        bankAccount.setId(42L);
+
+        KeysetCursor cursor = KeysetCursor.decode(KeysetCursor.first(Sort.by(Sort.Direction.DESC, "number")).after(bankAccount).encode());
+
+        assertThat(cursor.isFirst()).isFalse();
+        assertThat(cursor.getProperty()).isEqualTo("number");
+        assertThat(cursor.getDirection()).isEqualTo(Sort.Direction.DESC);
+        assertThat(cursor.getValue()).isEqualTo("FR76 3000 €");
+        assertThat(cursor.getId()).isEqualTo(42L);
+        Pageable pageable = cursor.toPageable(10);
+        assertThat(pageable.getOffset()).isZero();
+        assertThat(pageable.getSort()).isEqualTo(Sort.by(Sort.Direction.DESC, "number", "id"));
+    }
+
+    @Test
+    void testCursorKeepsNullValues() {
+        BankAccount bankAccount = new BankAccount().type(null);
+        bankAccount.setId(7L);
+
+        KeysetCursor cursor = KeysetCursor.decode(KeysetCursor.first(Sort.by("type")).after(bankAccount).encode());
+
+        assertThat(cursor.getValue()).isNull();
+        assertThat(cursor.getId()).isEqualTo(7L);
+    }
+
+    @Test
+    void testRejectsInvalidTokens() {
+        assertThatThrownBy(() -> KeysetCursor.decode("not a cursor")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> KeysetCursor.decode("AQ")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testRejectsSortsOnSeveralProperties() {
+        assertThatThrownBy(() -> KeysetCursor.first(Sort.by("type", "number"))).isInstanceOf(IllegalArgumentException.class);
+        assertThat(KeysetCursor.first(Sort.by("type", "id")).getProperty()).isEqualTo("type");
+    }
+}
@@ -0,0 +1,126 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.config.ApplicationProperties.PagedListing;
+import com.mycompany.myapp.domain.Authority;
+import com.mycompany.myapp.domain.User;
+import com.mycompany.myapp.repository.AuthorityRepository;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+
+/**
+ * Integration tests for {@link TotalCounter}.
+ */
+@IntegrationTest
+class TotalCounterIT {
+
+    private static final String NEW_AUTHORITY = "ROLE_TOTAL_COUNTER_TEST";
+
+    private static final Slice<String> FIRST_PAGE = new SliceImpl<>(Arrays.asList("a", "b"), PageRequest.of(0, 2), true);
+
+    @Autowired
+    private TotalCounter totalCounter;
+
+    @Autowired
+    private AuthorityRepository authorityRepository;
+
+    private final AtomicInteger counts = new AtomicInteger();
+
+    private final LongSupplier count = () -> {
+        counts.incrementAndGet();
+        return 10;
+    };
+
+    @BeforeEach
+    void setUp() {
+        totalCounter.refresh();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (authorityRepository.existsById(NEW_AUTHORITY)) {
+            authorityRepository.deleteById(NEW_AUTHORITY);
+        }
+    }
+
+    @Test
+    void testExactTotalIsCountedOnEveryPage() {
+        PagedListing properties = new PagedListing(PagedListing.Count.EXACT);
+
+        assertThat(total(totalCounter.withTotal("test", Authority.class, properties, FIRST_PAGE, count))).isEqualTo(10);
+        assertThat(total(totalCounter.withTotal("test", Authority.class, properties, FIRST_PAGE, count))).isEqualTo(10);
+        assertThat(counts).hasValue(2);
+    }
+
+    @Test
+    void testLastPageIsNotCounted() {
+        PagedListing properties = new PagedListing(PagedListing.Count.EXACT);
+        Slice<String> lastPage = new SliceImpl<>(Collections.singletonList("e"), PageRequest.of(2, 2), false);
+
+        assertThat(total(totalCounter.withTotal("test", Authority.class, properties, lastPage, count))).isEqualTo(5);
+        assertThat(counts).hasValue(0);
+    }
+
+    @Test
+    void testCachedTotalIsKeptUntilTheTableIsWrittenTo() {
+        PagedListing properties = new PagedListing(PagedListing.Count.CACHED);
+
+        assertThat(total(totalCounter.withTotal("test", Authority.class, properties, FIRST_PAGE, count))).isEqualTo(10);
+        assertThat(total(totalCounter.withTotal("test", Authority.class, properties, FIRST_PAGE, count))).isEqualTo(10);
+        assertThat(counts).hasValue(1);
+
+        Authority authority = new Authority();
+        authority.setName(NEW_AUTHORITY);
+        authorityRepository.saveAndFlush(authority);
+
+        assertThat(total(totalCounter.withTotal("test", Authority.class, properties, FIRST_PAGE, count))).isEqualTo(10);
+        assertThat(counts).hasValue(2);
+    }
+
+    @Test
+    void testCachedTotalIsKeptUntilItsTimeToLiveIsOver() {
+        PagedListing properties = new PagedListing(PagedListing.Count.CACHED);
+        properties.setCountTtlSeconds(0);
+
+        totalCounter.withTotal("test", Authority.class, properties, FIRST_PAGE, count);
+        totalCounter.withTotal("test", Authority.class, properties, FIRST_PAGE, count);
+
+        assertThat(counts).hasValue(2);
+    }
+
+    @Test
+    void testEstimatedTotalIsReadFromTheTableStatistics() {
+        PagedListing properties = new PagedListing(PagedListing.Count.ESTIMATED);
+        Slice<String> firstUser = new SliceImpl<>(Collections.singletonList("admin"), PageRequest.of(0, 1), true);
+
+        Slice<String> page = totalCounter.withTotal("test", User.class, properties, firstUser, count);
+
+        assertThat(total(page)).isGreaterThanOrEqualTo(2);
+        assertThat(counts).hasValue(0);
+    }
+
+    @Test
+    void testNotCountedTotalLeavesTheSlice() {
+        PagedListing properties = new PagedListing(PagedListing.Count.NONE);
+
+        assertThat(totalCounter.withTotal("test", Authority.class, properties, FIRST_PAGE, count)).isSameAs(FIRST_PAGE);
+        assertThat(counts).hasValue(0);
+    }
+
+    private static long total(Slice<String> slice) {
+        assertThat(slice).isInstanceOf(Page.class);
+        return ((Page<String>) slice).getTotalElements();
+    }
+}
@@ -4,15 +4,24 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.when;
 
 import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.config.ApplicationProperties;
 import com.mycompany.myapp.config.Constants;
 import com.mycompany.myapp.domain.User;
+import com.mycompany.myapp.repository.AuthorityRepository;
 import com.mycompany.myapp.repository.UserRepository;
+import com.mycompany.myapp.security.AuthoritiesConstants;
 import com.mycompany.myapp.service.dto.AdminUserDTO;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import javax.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -22,6 +31,8 @@ import org.springframework.data.auditing.AuditingHandler;
 import org.springframework.data.auditing.DateTimeProvider;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.transaction.annotation.Transactional;
 import tech.jhipster.security.RandomUtil;
 
@@ -50,9 +61,18 @@ class UserServiceIT {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private AuthorityRepository authorityRepository;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
     @Autowired
     private AuditingHandler auditingHandler;
 
+    @Autowired
+    private EntityManager entityManager;
+
     @MockBean
     private DateTimeProvider dateTimeProvider;
 
@@ -182,4 +202,83 @@ class UserServiceIT {
         Optional<User> maybeDbUser = userRepository.findById(dbUser.getId());
         assertThat(maybeDbUser).contains(dbUser);
     }
+
+    @Test
+    @Transactional
+    void assertThatNotActivatedUsersAreDeletedByChunks() {
+        Instant now = Instant.now();
+        when(dateTimeProvider.getNow()).thenReturn(Optional.of(now.minus(4, ChronoUnit.DAYS)));
+        for (int i = 0; i < 5; i++) {
+            User notActivated = new User();
+            notActivated.setLogin("not-activated-" + i);
+            notActivated.setPassword(RandomStringUtils.random(60));
+            notActivated.setEmail("not-activated-" + i + "@localhost");
+            notActivated.setActivationKey(RandomUtil.generateActivationKey());
+            notActivated.setAuthorities(Collections.singleton(authorityRepository.getById(AuthoritiesConstants.USER)));
+            userRepository.saveAndFlush(notActivated);
+        }
+        when(dateTimeProvider.getNow()).thenReturn(Optional.of(now.minus(1, ChronoUnit.DAYS)));
+        user.setActivated(false);
+        user.setActivationKey(RandomUtil.generateActivationKey());
+        userRepository.saveAndFlush(user);
+        int chunkSize = applicationProperties.getBulk().getChunkSize();
+        applicationProperties.getBulk().setChunkSize(2);
+        try {
+            userService.removeNotActivatedUsers();
+        } finally {
+            applicationProperties.getBulk().setChunkSize(chunkSize);
+        }
+
+        assertThat(userRepository.findAllByActivatedIsFalseAndActivationKeyIsNotNullAndCreatedDateBefore(now.minus(3, ChronoUnit.DAYS)))
+            .isEmpty();
+        assertThat(userRepository.findOneByLogin("not-activated-0")).isEmpty();
+        assertThat(userRepository.findOneByLogin(DEFAULT_LOGIN)).isPresent();
+    }
+
+    @Test
+    @Transactional
+    void assertThatKeysAreSavedAsDigests() {
+        String activationKey = RandomUtil.generateActivationKey();
+        user.setActivationKey(activationKey);
+        userRepository.saveAndFlush(user);
+
+        assertThat(user.getActivationKeyDigest()).hasSize(64).isNotEqualTo(activationKey);
+        assertThat(userRepository.findOneByActivationKey(activationKey)).contains(user);
+        assertThat(userRepository.findOneByActivationKey(user.getActivationKeyDigest())).isEmpty();
+        assertThat(userRepository.findOneByActivationKey(null)).isEmpty();
+        assertThat(userRepository.findOneByResetKey(null)).isEmpty();
+    }
+
+    @Test
+    @Transactional
+    void assertThatManagedUsersAreReadInAConstantNumberOfStatements() {
+        for (int i = 0; i < 30; i++) {
+            User managedUser = new User();
+            managedUser.setLogin("managed-user-" + i);
+            managedUser.setPassword(RandomStringUtils.random(60));
+            managedUser.setEmail("managed-user-" + i + "@localhost");
+            managedUser.setAuthorities(new HashSet<>(authorityRepository.findAllById(Collections.singleton(AuthoritiesConstants.USER))));
+            userRepository.save(managedUser);
+        }
+        userRepository.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        statistics.setStatisticsEnabled(true);
+        Slice<AdminUserDTO> page;
+        try {
+            page = userService.getAllManagedUsers(PageRequest.of(0, 30, Sort.by("login").descending()));
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+        assertThat(page.getContent()).hasSize(30).extracting(AdminUserDTO::getLogin).isSortedAccordingTo(Comparator.reverseOrder());
+        assertThat(page.getContent())
+            .filteredOn(adminUser -> adminUser.getLogin().startsWith("managed-user-"))
+            .allSatisfy(adminUser -> assertThat(adminUser.getAuthorities()).containsExactly(AuthoritiesConstants.USER));
+        assertThat(page).isInstanceOf(Page.class);
+        assertThat(((Page<AdminUserDTO>) page).getTotalElements()).isEqualTo(userRepository.count());
+    }
 }
@@ -1,24 +1,32 @@
 package com.mycompany.myapp.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+import com.jayway.jsonpath.JsonPath;
 import com.mycompany.myapp.IntegrationTest;
 import com.mycompany.myapp.domain.BankAccount;
 import com.mycompany.myapp.repository.BankAccountRepository;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 import javax.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -37,6 +45,14 @@ class BankAccountResourceIT {
 
     private static final String ENTITY_API_URL = "/api/bank-accounts";
     private static final String ENTITY_API_URL_ID = ENTITY_API_URL + "/{id}";
+    private static final String ENTITY_API_URL_BULK = ENTITY_API_URL + "/bulk";
+    private static final String ENTITY_API_URL_EXPORT = ENTITY_API_URL + "/export";
+
+    private static final String BULK_NUMBER = "BULK-TEST";
+
+    private static final String KEYSET_TYPE = "KEYSET-TEST";
+
+    private static final String EXPORT_TYPE = "EXPORT-TEST";
 
     private static Random random = new Random();
     private static AtomicLong count = new AtomicLong(random.nextInt() + (2 * Integer.MAX_VALUE));
@@ -130,6 +146,104 @@ class BankAccountResourceIT {
             .andExpect(jsonPath("$.[*].number").value(hasItem(DEFAULT_NUMBER)));
     }
 
+    @Test
+    @Transactional
+    void getAllBankAccountsWithKeyset() throws Exception {
+        // Initialize the database, with two bankAccounts sharing a number and one without number
+        List<BankAccount> bankAccounts = new ArrayList<>();
+        for (String number : new String[] { "KEYSET-1", "KEYSET-3", null, "KEYSET-2", "KEYSET-3" }) {
+            bankAccounts.add(bankAccountRepository.saveAndFlush(new BankAccount().type(KEYSET_TYPE).number(number)));
+        }
+
+        // Walk all the slices, sorted by number in descending order
+        List<Long> ids = new ArrayList<>();
+        String url = ENTITY_API_URL + "?cursor=&sort=number,desc&size=2";
+        while (url != null) {
+            MvcResult result = restBankAccountMockMvc
+                .perform(get(url))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(header().doesNotExist("X-Total-Count"))
+                .andReturn();
+            List<Number> sliceIds = JsonPath.read(result.getResponse().getContentAsString(), "$[?(@.type == '" + KEYSET_TYPE + "')].id");
+            sliceIds.forEach(id -> ids.add(id.longValue()));
+            String link = result.getResponse().getHeader(HttpHeaders.LINK);
+            url = link == null ? null : link.substring(link.indexOf('<') + 1, link.indexOf('>'));
+        }
+
+        assertThat(ids)
+            .containsExactly(
+                bankAccounts.get(4).getId(),
+                bankAccounts.get(1).getId(),
+                bankAccounts.get(3).getId(),
+                bankAccounts.get(0).getId(),
+                bankAccounts.get(2).getId()
+            );
+    }
+
+    @Test
+    @Transactional
+    void getAllBankAccountsWithInvalidCursor() throws Exception {
+        restBankAccountMockMvc.perform(get(ENTITY_API_URL + "?cursor=invalid")).andExpect(status().isBadRequest());
+        restBankAccountMockMvc.perform(get(ENTITY_API_URL + "?cursor=&sort=type&sort=number")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void exportBankAccounts() throws Exception {
+        // The export reads in its own transactions, so the database is initialized and cleaned up here
+        BankAccount first = bankAccountRepository.saveAndFlush(new BankAccount().type(EXPORT_TYPE).number(DEFAULT_NUMBER));
+        BankAccount second = bankAccountRepository.saveAndFlush(new BankAccount().type(EXPORT_TYPE).number("1,\"2\""));
+        try {
+            MvcResult ndjson = restBankAccountMockMvc
+                .perform(get(ENTITY_API_URL_EXPORT))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+            String[] lines = restBankAccountMockMvc
+                .perform(asyncDispatch(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn()
+                .getResponse()
+                .getContentAsString()
+                .split("\n");
+            assertThat(lines)
+                .filteredOn(line -> line.contains(EXPORT_TYPE))
+                .containsExactly(
+                    "{\"id\":" + first.getId() + ",\"type\":\"" + EXPORT_TYPE + "\",\"number\":\"" + DEFAULT_NUMBER + "\"}",
+                    "{\"id\":" + second.getId() + ",\"type\":\"" + EXPORT_TYPE + "\",\"number\":\"1,\\\"2\\\"\"}"
+                );
+
+            MvcResult csv = restBankAccountMockMvc
+                .perform(get(ENTITY_API_URL_EXPORT + "?format=csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+            lines =
+                restBankAccountMockMvc
+                    .perform(asyncDispatch(csv))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                    .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, containsString("bankAccount-export.csv")))
+                    .andReturn()
+                    .getResponse()
+                    .getContentAsString()
+                    .split("\r\n");
+            assertThat(lines[0]).isEqualTo("id,type,number");
+            assertThat(lines)
+                .filteredOn(line -> line.contains(EXPORT_TYPE))
+                .containsExactly(
+                    first.getId() + "," + EXPORT_TYPE + "," + DEFAULT_NUMBER,
+                    second.getId() + "," + EXPORT_TYPE + ",\"1,\"\"2\"\"\""
+                );
+        } finally {
+            bankAccountRepository.deleteAll(Arrays.asList(first, second));
+        }
+    }
+
+    @Test
+    void exportBankAccountsWithUnsupportedFormat() throws Exception {
+        restBankAccountMockMvc.perform(get(ENTITY_API_URL_EXPORT + "?format=xml")).andExpect(status().isBadRequest());
+    }
+
     @Test
     @Transactional
     void getBankAccount() throws Exception {
@@ -189,14 +303,14 @@ class BankAccountResourceIT {
         int databaseSizeBeforeUpdate = bankAccountRepository.findAll().size();
         bankAccount.setId(count.incrementAndGet());
 
-        // If the entity doesn't have an ID, it will throw BadRequestAlertException
+        // If the entity doesn't exist, no row is updated
         restBankAccountMockMvc
             .perform(
                 put(ENTITY_API_URL_ID, bankAccount.getId())
                     .contentType(MediaType.APPLICATION_JSON)
                     .content(TestUtil.convertObjectToJsonBytes(bankAccount))
             )
-            .andExpect(status().isBadRequest());
+            .andExpect(status().isNotFound());
 
         // Validate the BankAccount in the database
         List<BankAccount> bankAccountList = bankAccountRepository.findAll();
@@ -299,20 +413,47 @@ class BankAccountResourceIT {
         assertThat(testBankAccount.getNumber()).isEqualTo(UPDATED_NUMBER);
     }
 
+    @Test
+    @Transactional
+    void partialUpdateBankAccountKeepsOmittedFields() throws Exception {
+        // Initialize the database
+        bankAccountRepository.saveAndFlush(bankAccount);
+
+        // Update the type only
+        BankAccount partialUpdatedBankAccount = new BankAccount();
+        partialUpdatedBankAccount.setId(bankAccount.getId());
+        partialUpdatedBankAccount.setType(UPDATED_TYPE);
+
+        restBankAccountMockMvc
+            .perform(
+                patch(ENTITY_API_URL_ID, partialUpdatedBankAccount.getId())
+                    .contentType("application/merge-patch+json")
+                    .content(TestUtil.convertObjectToJsonBytes(partialUpdatedBankAccount))
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.type").value(UPDATED_TYPE))
+            .andExpect(jsonPath("$.number").value(DEFAULT_NUMBER));
+
+        // Validate the BankAccount in the database
+        BankAccount testBankAccount = bankAccountRepository.findById(bankAccount.getId()).get();
+        assertThat(testBankAccount.getType()).isEqualTo(UPDATED_TYPE);
+        assertThat(testBankAccount.getNumber()).isEqualTo(DEFAULT_NUMBER);
+    }
+
     @Test
     @Transactional
     void patchNonExistingBankAccount() throws Exception {
         int databaseSizeBeforeUpdate = bankAccountRepository.findAll().size();
         bankAccount.setId(count.incrementAndGet());
 
-        // If the entity doesn't have an ID, it will throw BadRequestAlertException
+        // If the entity doesn't exist, no row is updated
         restBankAccountMockMvc
             .perform(
                 patch(ENTITY_API_URL_ID, bankAccount.getId())
                     .contentType("application/merge-patch+json")
                     .content(TestUtil.convertObjectToJsonBytes(bankAccount))
             )
-            .andExpect(status().isBadRequest());
+            .andExpect(status().isNotFound());
 
         // Validate the BankAccount in the database
         List<BankAccount> bankAccountList = bankAccountRepository.findAll();
@@ -374,4 +515,101 @@ class BankAccountResourceIT {
         List<BankAccount> bankAccountList = bankAccountRepository.findAll();
         assertThat(bankAccountList).hasSize(databaseSizeBeforeDelete - 1);
     }
+
+    @Test
+    void bulkBankAccounts() throws Exception {
+        // Bulk operations are applied in their own transactions, so the database is initialized and cleaned up here
+        BankAccount updatedBankAccount = bankAccountRepository.saveAndFlush(new BankAccount().type(DEFAULT_TYPE).number(BULK_NUMBER));
+        BankAccount deletedBankAccount = bankAccountRepository.saveAndFlush(new BankAccount().type(DEFAULT_TYPE).number(BULK_NUMBER));
+        try {
+            String operations =
+                "[" +
+                "{\"action\":\"CREATE\",\"entity\":{\"type\":\"" +
+                DEFAULT_TYPE +
+                "\",\"number\":\"" +
+                BULK_NUMBER +
+                "\"}}," +
+                "{\"action\":\"UPDATE\",\"entity\":{\"id\":" +
+                updatedBankAccount.getId() +
+                ",\"type\":\"" +
+                UPDATED_TYPE +
+                "\",\"number\":\"" +
+                BULK_NUMBER +
+                "\"}}," +
+                "{\"action\":\"DELETE\",\"id\":" +
+                deletedBankAccount.getId() +
+                "}," +
+                "{\"action\":\"DELETE\",\"id\":" +
+                count.incrementAndGet() +
+                "}," +
+                "{\"action\":\"CREATE\",\"entity\":{\"id\":1,\"number\":\"" +
+                BULK_NUMBER +
+                "\"}}" +
+                "]";
+
+            restBankAccountMockMvc
+                .perform(post(ENTITY_API_URL_BULK).contentType(MediaType.APPLICATION_JSON).content(operations))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(jsonPath("$.[*].index").value(contains(0, 1, 2, 3, 4)))
+                .andExpect(jsonPath("$.[*].status").value(contains("CREATED", "UPDATED", "DELETED", "NOT_FOUND", "INVALID")))
+                .andExpect(jsonPath("$.[0].id").isNumber())
+                .andExpect(jsonPath("$.[1].id").value(updatedBankAccount.getId().intValue()));
+
+            assertThat(bankAccountRepository.findById(updatedBankAccount.getId())).hasValueSatisfying(bankAccount ->
+                assertThat(bankAccount.getType()).isEqualTo(UPDATED_TYPE)
+            );
+            assertThat(bankAccountRepository.findById(deletedBankAccount.getId())).isEmpty();
+            assertThat(bankAccountRepository.findAll()).filteredOn(bankAccount -> BULK_NUMBER.equals(bankAccount.getNumber())).hasSize(2);
+        } finally {
+            deleteBulkBankAccounts();
+        }
+    }
+
+    @Test
+    void bulkBankAccountsAsNdjson() throws Exception {
+        try {
+            String operations =
+                "{\"action\":\"CREATE\",\"entity\":{\"type\":\"" +
+                DEFAULT_TYPE +
+                "\",\"number\":\"" +
+                BULK_NUMBER +
+                "\"}}\n" +
+                "{\"action\":\"CREATE\",\"entity\":{\"type\":\"" +
+                UPDATED_TYPE +
+                "\",\"number\":\"" +
+                BULK_NUMBER +
+                "\"}}\n" +
+                "{\"action\":\n";
+
+            String results = restBankAccountMockMvc
+                .perform(post(ENTITY_API_URL_BULK).contentType(MediaType.APPLICATION_NDJSON).content(operations))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON_VALUE))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+            assertThat(results.split("\n"))
+                .hasSize(3)
+                .satisfies(lines -> {
+                    assertThat(lines[0]).contains("\"index\":0", "\"status\":\"CREATED\"");
+                    assertThat(lines[1]).contains("\"index\":1", "\"status\":\"CREATED\"");
+                    assertThat(lines[2]).contains("\"index\":2", "\"status\":\"INVALID\"");
+                });
+            assertThat(bankAccountRepository.findAll()).filteredOn(bankAccount -> BULK_NUMBER.equals(bankAccount.getNumber())).hasSize(2);
+        } finally {
+            deleteBulkBankAccounts();
+        }
+    }
+
+    private void deleteBulkBankAccounts() {
+        bankAccountRepository.deleteAll(
+            bankAccountRepository
+                .findAll()
+                .stream()
+                .filter(bankAccount -> BULK_NUMBER.equals(bankAccount.getNumber()))
+                .collect(Collectors.toList())
+        );
+    }
 }
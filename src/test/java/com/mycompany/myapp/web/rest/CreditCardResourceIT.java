@@ -1,24 +1,32 @@
 package com.mycompany.myapp.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+import com.jayway.jsonpath.JsonPath;
 import com.mycompany.myapp.IntegrationTest;
 import com.mycompany.myapp.domain.CreditCard;
 import com.mycompany.myapp.repository.CreditCardRepository;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 import javax.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -37,6 +45,14 @@ class CreditCardResourceIT {
 
     private static final String ENTITY_API_URL = "/api/credit-cards";
     private static final String ENTITY_API_URL_ID = ENTITY_API_URL + "/{id}";
+    private static final String ENTITY_API_URL_BULK = ENTITY_API_URL + "/bulk";
+    private static final String ENTITY_API_URL_EXPORT = ENTITY_API_URL + "/export";
+
+    private static final String BULK_NUMBER = "BULK-TEST";
+
+    private static final String KEYSET_TYPE = "KEYSET-TEST";
+
+    private static final String EXPORT_TYPE = "EXPORT-TEST";
 
     private static Random random = new Random();
     private static AtomicLong count = new AtomicLong(random.nextInt() + (2 * Integer.MAX_VALUE));
@@ -130,6 +146,104 @@ class CreditCardResourceIT {
             .andExpect(jsonPath("$.[*].number").value(hasItem(DEFAULT_NUMBER)));
     }
 
+    @Test
+    @Transactional
+    void getAllCreditCardsWithKeyset() throws Exception {
+        // Initialize the database, with two creditCards sharing a number and one without number
+        List<CreditCard> creditCards = new ArrayList<>();
+        for (String number : new String[] { "KEYSET-1", "KEYSET-3", null, "KEYSET-2", "KEYSET-3" }) {
+            creditCards.add(creditCardRepository.saveAndFlush(new CreditCard().type(KEYSET_TYPE).number(number)));
+        }
+
+        // Walk all the slices, sorted by number in descending order
+        List<Long> ids = new ArrayList<>();
+        String url = ENTITY_API_URL + "?cursor=&sort=number,desc&size=2";
+        while (url != null) {
+            MvcResult result = restCreditCardMockMvc
+                .perform(get(url))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(header().doesNotExist("X-Total-Count"))
+                .andReturn();
+            List<Number> sliceIds = JsonPath.read(result.getResponse().getContentAsString(), "$[?(@.type == '" + KEYSET_TYPE + "')].id");
+            sliceIds.forEach(id -> ids.add(id.longValue()));
+            String link = result.getResponse().getHeader(HttpHeaders.LINK);
+            url = link == null ? null : link.substring(link.indexOf('<') + 1, link.indexOf('>'));
+        }
+
+        assertThat(ids)
+            .containsExactly(
+                creditCards.get(4).getId(),
+                creditCards.get(1).getId(),
+                creditCards.get(3).getId(),
+                creditCards.get(0).getId(),
+                creditCards.get(2).getId()
+            );
+    }
+
+    @Test
+    @Transactional
+    void getAllCreditCardsWithInvalidCursor() throws Exception {
+        restCreditCardMockMvc.perform(get(ENTITY_API_URL + "?cursor=invalid")).andExpect(status().isBadRequest());
+        restCreditCardMockMvc.perform(get(ENTITY_API_URL + "?cursor=&sort=type&sort=number")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void exportCreditCards() throws Exception {
+        // The export reads in its own transactions, so the database is initialized and cleaned up here
+        CreditCard first = creditCardRepository.saveAndFlush(new CreditCard().type(EXPORT_TYPE).number(DEFAULT_NUMBER));
+        CreditCard second = creditCardRepository.saveAndFlush(new CreditCard().type(EXPORT_TYPE).number("1,\"2\""));
+        try {
+            MvcResult ndjson = restCreditCardMockMvc
+                .perform(get(ENTITY_API_URL_EXPORT))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+            String[] lines = restCreditCardMockMvc
+                .perform(asyncDispatch(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn()
+                .getResponse()
+                .getContentAsString()
+                .split("\n");
+            assertThat(lines)
+                .filteredOn(line -> line.contains(EXPORT_TYPE))
+                .containsExactly(
+                    "{\"id\":" + first.getId() + ",\"type\":\"" + EXPORT_TYPE + "\",\"number\":\"" + DEFAULT_NUMBER + "\"}",
+                    "{\"id\":" + second.getId() + ",\"type\":\"" + EXPORT_TYPE + "\",\"number\":\"1,\\\"2\\\"\"}"
+                );
+
+            MvcResult csv = restCreditCardMockMvc
+                .perform(get(ENTITY_API_URL_EXPORT + "?format=csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+            lines =
+                restCreditCardMockMvc
+                    .perform(asyncDispatch(csv))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                    .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, containsString("creditCard-export.csv")))
+                    .andReturn()
+                    .getResponse()
+                    .getContentAsString()
+                    .split("\r\n");
+            assertThat(lines[0]).isEqualTo("id,type,number");
+            assertThat(lines)
+                .filteredOn(line -> line.contains(EXPORT_TYPE))
+                .containsExactly(
+                    first.getId() + "," + EXPORT_TYPE + "," + DEFAULT_NUMBER,
+                    second.getId() + "," + EXPORT_TYPE + ",\"1,\"\"2\"\"\""
+                );
+        } finally {
+            creditCardRepository.deleteAll(Arrays.asList(first, second));
+        }
+    }
+
+    @Test
+    void exportCreditCardsWithUnsupportedFormat() throws Exception {
+        restCreditCardMockMvc.perform(get(ENTITY_API_URL_EXPORT + "?format=xml")).andExpect(status().isBadRequest());
+    }
+
     @Test
     @Transactional
     void getCreditCard() throws Exception {
@@ -189,14 +303,14 @@ class CreditCardResourceIT {
         int databaseSizeBeforeUpdate = creditCardRepository.findAll().size();
         creditCard.setId(count.incrementAndGet());
 
-        // If the entity doesn't have an ID, it will throw BadRequestAlertException
+        // If the entity doesn't exist, no row is updated
         restCreditCardMockMvc
             .perform(
                 put(ENTITY_API_URL_ID, creditCard.getId())
                     .contentType(MediaType.APPLICATION_JSON)
                     .content(TestUtil.convertObjectToJsonBytes(creditCard))
             )
-            .andExpect(status().isBadRequest());
+            .andExpect(status().isNotFound());
 
         // Validate the CreditCard in the database
         List<CreditCard> creditCardList = creditCardRepository.findAll();
@@ -299,20 +413,47 @@ class CreditCardResourceIT {
         assertThat(testCreditCard.getNumber()).isEqualTo(UPDATED_NUMBER);
     }
 
+    @Test
+    @Transactional
+    void partialUpdateCreditCardKeepsOmittedFields() throws Exception {
+        // Initialize the database
+        creditCardRepository.saveAndFlush(creditCard);
+
+        // Update the type only
+        CreditCard partialUpdatedCreditCard = new CreditCard();
+        partialUpdatedCreditCard.setId(creditCard.getId());
+        partialUpdatedCreditCard.setType(UPDATED_TYPE);
+
+        restCreditCardMockMvc
+            .perform(
+                patch(ENTITY_API_URL_ID, partialUpdatedCreditCard.getId())
+                    .contentType("application/merge-patch+json")
+                    .content(TestUtil.convertObjectToJsonBytes(partialUpdatedCreditCard))
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.type").value(UPDATED_TYPE))
+            .andExpect(jsonPath("$.number").value(DEFAULT_NUMBER));
+
+        // Validate the CreditCard in the database
+        CreditCard testCreditCard = creditCardRepository.findById(creditCard.getId()).get();
+        assertThat(testCreditCard.getType()).isEqualTo(UPDATED_TYPE);
+        assertThat(testCreditCard.getNumber()).isEqualTo(DEFAULT_NUMBER);
+    }
+
     @Test
     @Transactional
     void patchNonExistingCreditCard() throws Exception {
         int databaseSizeBeforeUpdate = creditCardRepository.findAll().size();
         creditCard.setId(count.incrementAndGet());
 
-        // If the entity doesn't have an ID, it will throw BadRequestAlertException
+        // If the entity doesn't exist, no row is updated
         restCreditCardMockMvc
             .perform(
                 patch(ENTITY_API_URL_ID, creditCard.getId())
                     .contentType("application/merge-patch+json")
                     .content(TestUtil.convertObjectToJsonBytes(creditCard))
             )
-            .andExpect(status().isBadRequest());
+            .andExpect(status().isNotFound());
 
         // Validate the CreditCard in the database
         List<CreditCard> creditCardList = creditCardRepository.findAll();
@@ -374,4 +515,101 @@ class CreditCardResourceIT {
         List<CreditCard> creditCardList = creditCardRepository.findAll();
         assertThat(creditCardList).hasSize(databaseSizeBeforeDelete - 1);
     }
+
+    @Test
+    void bulkCreditCards() throws Exception {
+        // Bulk operations are applied in their own transactions, so the database is initialized and cleaned up here
+        CreditCard updatedCreditCard = creditCardRepository.saveAndFlush(new CreditCard().type(DEFAULT_TYPE).number(BULK_NUMBER));
+        CreditCard deletedCreditCard = creditCardRepository.saveAndFlush(new CreditCard().type(DEFAULT_TYPE).number(BULK_NUMBER));
+        try {
+            String operations =
+                "[" +
+                "{\"action\":\"CREATE\",\"entity\":{\"type\":\"" +
+                DEFAULT_TYPE +
+                "\",\"number\":\"" +
+                BULK_NUMBER +
+                "\"}}," +
+                "{\"action\":\"UPDATE\",\"entity\":{\"id\":" +
+                updatedCreditCard.getId() +
+                ",\"type\":\"" +
+                UPDATED_TYPE +
+                "\",\"number\":\"" +
+                BULK_NUMBER +
+                "\"}}," +
+                "{\"action\":\"DELETE\",\"id\":" +
+                deletedCreditCard.getId() +
+                "}," +
+                "{\"action\":\"DELETE\",\"id\":" +
+                count.incrementAndGet() +
+                "}," +
+                "{\"action\":\"CREATE\",\"entity\":{\"id\":1,\"number\":\"" +
+                BULK_NUMBER +
+                "\"}}" +
+                "]";
+
+            restCreditCardMockMvc
+                .perform(post(ENTITY_API_URL_BULK).contentType(MediaType.APPLICATION_JSON).content(operations))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(jsonPath("$.[*].index").value(contains(0, 1, 2, 3, 4)))
+                .andExpect(jsonPath("$.[*].status").value(contains("CREATED", "UPDATED", "DELETED", "NOT_FOUND", "INVALID")))
+                .andExpect(jsonPath("$.[0].id").isNumber())
+                .andExpect(jsonPath("$.[1].id").value(updatedCreditCard.getId().intValue()));
+
+            assertThat(creditCardRepository.findById(updatedCreditCard.getId())).hasValueSatisfying(creditCard ->
+                assertThat(creditCard.getType()).isEqualTo(UPDATED_TYPE)
+            );
+            assertThat(creditCardRepository.findById(deletedCreditCard.getId())).isEmpty();
+            assertThat(creditCardRepository.findAll()).filteredOn(creditCard -> BULK_NUMBER.equals(creditCard.getNumber())).hasSize(2);
+        } finally {
+            deleteBulkCreditCards();
+        }
+    }
+
+    @Test
+    void bulkCreditCardsAsNdjson() throws Exception {
+        try {
+            String operations =
+                "{\"action\":\"CREATE\",\"entity\":{\"type\":\"" +
+                DEFAULT_TYPE +
+                "\",\"number\":\"" +
+                BULK_NUMBER +
+                "\"}}\n" +
+                "{\"action\":\"CREATE\",\"entity\":{\"type\":\"" +
+                UPDATED_TYPE +
+                "\",\"number\":\"" +
+                BULK_NUMBER +
+                "\"}}\n" +
+                "{\"action\":\n";
+
+            String results = restCreditCardMockMvc
+                .perform(post(ENTITY_API_URL_BULK).contentType(MediaType.APPLICATION_NDJSON).content(operations))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON_VALUE))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+            assertThat(results.split("\n"))
+                .hasSize(3)
+                .satisfies(lines -> {
+                    assertThat(lines[0]).contains("\"index\":0", "\"status\":\"CREATED\"");
+                    assertThat(lines[1]).contains("\"index\":1", "\"status\":\"CREATED\"");
+                    assertThat(lines[2]).contains("\"index\":2", "\"status\":\"INVALID\"");
+                });
+            assertThat(creditCardRepository.findAll()).filteredOn(creditCard -> BULK_NUMBER.equals(creditCard.getNumber())).hasSize(2);
+        } finally {
+            deleteBulkCreditCards();
+        }
+    }
+
+    private void deleteBulkCreditCards() {
+        creditCardRepository.deleteAll(
+            creditCardRepository
+                .findAll()
+                .stream()
+                .filter(creditCard -> BULK_NUMBER.equals(creditCard.getNumber()))
+                .collect(Collectors.toList())
+        );
+    }
 }
@@ -0,0 +1,55 @@
+package com.mycompany.myapp.web.rest;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.service.BankAccountService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+/**
+ * Integration tests for the {@link ExportRequestHandler}, with a timeout of the asynchronous requests shorter than the
+ * exports.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser
+@TestPropertySource(properties = "spring.mvc.async.request-timeout=200ms")
+class ExportRequestHandlerIT {
+
+    private static final long EXPORT_MILLIS = 1000;
+
+    @Autowired
+    private MockMvc restMockMvc;
+
+    @SpyBean
+    private BankAccountService bankAccountService;
+
+    @Test
+    void testExportLongerThanTheAsyncRequestTimeoutCompletes() throws Exception {
+        doAnswer(invocation -> {
+                Thread.sleep(EXPORT_MILLIS);
+                return invocation.callRealMethod();
+            })
+            .when(bankAccountService)
+            .exportAll(any());
+
+        MvcResult export = restMockMvc.perform(get("/api/bank-accounts/export")).andExpect(request().asyncStarted()).andReturn();
+
+        // Waits for the timeout of the request, as the container would before timing it out
+        restMockMvc
+            .perform(asyncDispatch(export))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_NDJSON));
+    }
+}
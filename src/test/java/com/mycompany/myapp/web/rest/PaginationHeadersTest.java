@@ -0,0 +1,53 @@
+package com.mycompany.myapp.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.util.UriComponentsBuilder;
+
+class PaginationHeadersTest {
+
+    private static final String URL = "http://localhost/api/users?page=1&size=2&sort=login,asc";
+
+    @Test
+    void testPageHasItsTotal() {
+        HttpHeaders headers = PaginationHeaders.generate(
+            UriComponentsBuilder.fromUriString(URL),
+            new PageImpl<>(Arrays.asList("c", "d"), PageRequest.of(1, 2), 5)
+        );
+
+        assertThat(headers.getFirst("X-Total-Count")).isEqualTo("5");
+        assertThat(headers.getFirst(HttpHeaders.LINK)).contains("rel=\"last\"");
+    }
+
+    @Test
+    void testSliceLinksToTheNextAndPreviousPages() {
+        HttpHeaders headers = PaginationHeaders.generate(
+            UriComponentsBuilder.fromUriString(URL),
+            new SliceImpl<>(Arrays.asList("c", "d"), PageRequest.of(1, 2), true)
+        );
+
+        assertThat(headers.containsKey("X-Total-Count")).isFalse();
+        assertThat(headers.getFirst(HttpHeaders.LINK))
+            .isEqualTo(
+                "<http://localhost/api/users?sort=login,asc&page=2&size=2>; rel=\"next\"," +
+                "<http://localhost/api/users?sort=login,asc&page=0&size=2>; rel=\"prev\"," +
+                "<http://localhost/api/users?sort=login,asc&page=0&size=2>; rel=\"first\""
+            );
+    }
+
+    @Test
+    void testLastSliceHasNoNextPage() {
+        HttpHeaders headers = PaginationHeaders.generate(
+            UriComponentsBuilder.fromUriString(URL),
+            new SliceImpl<>(Arrays.asList("c"), PageRequest.of(1, 2), false)
+        );
+
+        assertThat(headers.getFirst(HttpHeaders.LINK)).doesNotContain("rel=\"next\"").contains("rel=\"prev\"");
+    }
+}